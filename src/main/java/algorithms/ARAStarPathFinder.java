@@ -0,0 +1,374 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+import utilities.Pair;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * An Implementation of Anytime Repairing A* (ARA*, Likhachev et al.).
+ * A first route is found quickly with a heavily inflated heuristic,
+ * then the inflation is lowered step by step and each weighted search
+ * reuses the g-costs of the previous one, until the route is optimal
+ * or the time budget runs out. The best route found so far is returned.
+ *
+ * Every route reports a proven suboptimality bound: its cost divided
+ * by the smallest g + h among the cells still to expand, a lower bound
+ * of the optimal cost for an admissible heuristic.
+ */
+public class ARAStarPathFinder implements PathFinder {
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final GridHeuristic heuristic;
+    private final double initialEpsilon;
+    private final double epsilonStep;
+    private final long deadlineMillis;
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be admissible.
+     * @param initialEpsilon     The inflation of the first search is 1 + initialEpsilon.
+     * @param epsilonStep        How much epsilon drops after each search.
+     * @param deadlineMillis     The time find() may take, or SearchBudget.UNLIMITED.
+     */
+    public ARAStarPathFinder(DistanceCalculator distanceCalculator,
+                             HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                             double initialEpsilon, double epsilonStep, long deadlineMillis) {
+
+        if (!(initialEpsilon >= 0.0) || Double.isInfinite(initialEpsilon)) {
+            throw new IllegalArgumentException("Epsilon must be a finite non-negative number: " + initialEpsilon);
+        }
+
+        if (!(epsilonStep > 0.0)) {
+            throw new IllegalArgumentException("Epsilon step must be positive: " + epsilonStep);
+        }
+
+        if (deadlineMillis <= 0) {
+            throw new IllegalArgumentException("Deadline must be positive: " + deadlineMillis);
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+        this.initialEpsilon = initialEpsilon;
+        this.epsilonStep = epsilonStep;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+
+    /**
+     * Searches until the route is optimal or the deadline of the finder passes.
+     *
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return The best route found.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, new SearchBudget(SearchBudget.UNLIMITED, this.deadlineMillis));
+    }
+
+
+    /**
+     * Searches until the route is optimal or the budget runs out.
+     *
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, the deadline of the finder is ignored.
+     * @return The best route found.
+     * @throws SearchBudgetExceededException If the budget ran out before the first route or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+        return this.find(maze, start, goal, budget, null);
+    }
+
+
+    /**
+     * Searches until the route is optimal or the budget runs out, and hands
+     * every improved route to the given consumer as soon as it is found.
+     *
+     * @param maze       The given maze.
+     * @param start      The starting point.
+     * @param goal       The finishing point.
+     * @param budget     The limits of this query, the deadline of the finder is ignored.
+     * @param onSolution Gets every improved route, may be null.
+     * @return The best route found.
+     * @throws SearchBudgetExceededException If the budget ran out before the first route or was cancelled.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget,
+                      final Consumer<Route> onSolution) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+
+        SearchContext context = SearchContext.acquire(maze.size());
+
+        try {
+            return new Search(maze, mCellStart.getId(), mCellGoal.getId(), context, budget, onSolution).run();
+        } finally {
+            context.release();
+        }
+    }
+
+
+    /**
+     * The state of one query.
+     */
+    private final class Search {
+
+        private final Maze maze;
+        private final int startId;
+        private final int goalId;
+        private final int goalI;
+        private final int goalJ;
+        private final int yWidth;
+        private final SearchContext context;
+        private final SearchBudget budget;
+        private final Consumer<Route> onSolution;
+
+        private final OpenList open;
+
+        /**
+         * Cells whose g-cost dropped after they were expanded in the current
+         * search; they wait for the next one. May hold duplicates.
+         */
+        private int[] inconsistent = new int[64];
+        private int inconsistentCount = 0;
+
+        /**
+         * Scratch space for the cells drained from the open list.
+         */
+        private int[] drained = new int[64];
+
+        private double weight;
+        private long sequence = 0;
+
+        private Route best = null;
+        private int bestCost = Integer.MAX_VALUE;
+
+
+        Search(Maze maze, int startId, int goalId, SearchContext context, SearchBudget budget,
+               Consumer<Route> onSolution) {
+
+            this.maze = maze;
+            this.startId = startId;
+            this.goalId = goalId;
+            this.yWidth = maze.getyWidth();
+            this.goalI = goalId / this.yWidth;
+            this.goalJ = goalId % this.yWidth;
+            this.context = context;
+            this.budget = budget;
+            this.onSolution = onSolution;
+            this.open = context.openList(OpenListType.BINARY_HEAP);
+        }
+
+
+        Route run() {
+
+            this.weight = 1.0 + ARAStarPathFinder.this.initialEpsilon;
+
+            this.context.reach(this.startId, 0, -1);
+            this.open.push(this.startId, this.key(this.startId, 0));
+
+            try {
+                while (true) {
+
+                    this.improvePath();
+
+                    if (this.context.getGCost(this.goalId) == Integer.MAX_VALUE) {
+                        // The goal cannot be reached at all:
+                        return new Route();
+                    }
+
+                    // Moves the open cells to the scratch space and finds the lower bound:
+                    int count = this.drainOpen();
+                    double bound = this.publish(count);
+
+                    if (bound <= 1.0 || this.weight == 1.0) {
+                        return this.best;
+                    }
+
+                    this.weight = Math.max(1.0, this.weight - ARAStarPathFinder.this.epsilonStep);
+
+                    // The next search starts from the open and inconsistent cells with the new weight:
+                    this.context.clearClosed();
+                    for (int k = 0; k < count; k++) {
+                        int cell = this.drained[k];
+                        this.open.push(cell, this.key(cell, this.context.getGCost(cell)));
+                    }
+                    for (int k = 0; k < this.inconsistentCount; k++) {
+                        int cell = this.inconsistent[k];
+                        this.open.push(cell, this.key(cell, this.context.getGCost(cell)));
+                    }
+                    this.inconsistentCount = 0;
+                }
+            } catch (SearchBudgetExceededException e) {
+
+                if (this.best == null || e.getReason() == SearchBudgetExceededException.Reason.CANCELLED) {
+                    throw e;
+                }
+                return this.best;
+            }
+        }
+
+
+        /**
+         * One weighted search, until no open cell can give a better route to the goal.
+         */
+        private void improvePath() {
+
+            while (!this.open.isEmpty()
+                   && TieBreaking.fCost(this.open.peekMinKey()) < this.context.getGCost(this.goalId)) {
+
+                int current = this.open.pollMin();
+
+                // Stop here if the query ran out of budget:
+                try {
+                    this.budget.charge();
+                } catch (SearchBudgetExceededException e) {
+                    throw this.best != null ? e : e.withPartialRoute(this.context.route(this.startId, current));
+                }
+
+                this.context.close(current);
+
+                int currentCost = this.context.getGCost(current);
+                int ci = current / this.yWidth;
+                int cj = current % this.yWidth;
+
+                // Loop over the neighbours to expand the search:
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                    int nn = this.maze.neighbourId(current, n);
+
+                    // Neglect neighbours outside the maze and blocked ones:
+                    if (nn == -1 || this.maze.isBlocked(nn)) {
+                        continue;
+                    }
+
+                    int tgCost = currentCost + (int) ARAStarPathFinder.this.distanceCalculator
+                            .calculateDistance(ci, cj, nn / this.yWidth, nn % this.yWidth);
+
+                    if (tgCost >= this.context.getGCost(nn)) {
+                        // This is not a better path:
+                        continue;
+                    }
+
+                    this.context.reach(nn, tgCost, current);
+
+                    if (this.context.isClosed(nn)) {
+                        // Expanded already in this search, it waits for the next one:
+                        this.addInconsistent(nn);
+                    }
+                    else {
+                        this.open.push(nn, this.key(nn, tgCost));
+                    }
+                }
+            }
+        }
+
+
+        /**
+         * Records the route to the goal with its bound.
+         *
+         * @param count How many open cells were drained.
+         * @return The bound of the route.
+         */
+        private double publish(int count) {
+
+            int goalCost = this.context.getGCost(this.goalId);
+
+            // The smallest g + h among the cells still to expand bounds the optimal cost from below:
+            long lowerBound = goalCost;
+            for (int k = 0; k < count; k++) {
+                lowerBound = Math.min(lowerBound, this.f(this.drained[k]));
+            }
+            for (int k = 0; k < this.inconsistentCount; k++) {
+                lowerBound = Math.min(lowerBound, this.f(this.inconsistent[k]));
+            }
+
+            double bound = lowerBound <= 0 ? 1.0 : Math.max(1.0, (double) goalCost / lowerBound);
+
+            // The goal cost only goes down, so an older bound still holds for a newer route:
+            if (this.best == null || goalCost < this.bestCost || bound < this.best.getSuboptimalityBound()) {
+
+                double achieved = this.best == null ? bound : Math.min(bound, this.best.getSuboptimalityBound());
+
+                this.best = new Route(this.context.reconstructPath(this.startId, this.goalId), achieved);
+                this.bestCost = goalCost;
+
+                if (this.onSolution != null) {
+                    this.onSolution.accept(this.best);
+                }
+            }
+            return bound;
+        }
+
+
+        private int drainOpen() {
+
+            int count = 0;
+
+            while (!this.open.isEmpty()) {
+
+                if (count == this.drained.length) {
+                    this.drained = Arrays.copyOf(this.drained, 2 * count);
+                }
+                this.drained[count++] = this.open.pollMin();
+            }
+            return count;
+        }
+
+
+        private void addInconsistent(int cell) {
+
+            if (this.inconsistentCount == this.inconsistent.length) {
+                this.inconsistent = Arrays.copyOf(this.inconsistent, 2 * this.inconsistentCount);
+            }
+            this.inconsistent[this.inconsistentCount++] = cell;
+        }
+
+
+        private int h(int cell) {
+            return ARAStarPathFinder.this.heuristic.estimate(cell / this.yWidth, cell % this.yWidth, this.goalI, this.goalJ);
+        }
+
+
+        private long f(int cell) {
+            return (long) this.context.getGCost(cell) + this.h(cell);
+        }
+
+
+        private long key(int cell, int gCost) {
+
+            int inflated = (int) Math.min(this.weight * this.h(cell), Integer.MAX_VALUE >> 1);
+            return TieBreaking.LARGER_G.key(gCost + inflated, gCost, this.sequence++);
+        }
+    }
+}
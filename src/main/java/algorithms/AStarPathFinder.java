@@ -1,26 +1,26 @@
 package algorithms;
 
-import maze.Maze;
-import maze.MazeCell;
 import maze.Point;
-import pathfinder.PathFinder;
-import pathfinder.Route;
 import utilities.Pair;
 
-import java.util.*;
-
-import static utilities.Utils.makePair;
-
 /**
- * An Implementation of A* path finding algorithm.
+ * An Implementation of A* path finding algorithm. Given GoalBounding
+ * tables, it skips the neighbours whose box does not hold the goal.
  */
-public class AStarPathFinder implements PathFinder {
+public class AStarPathFinder extends BestFirstPathFinder {
 
-    private HeuristicFunction<Pair<Point, Point>, Double> heuristic;
-    private DistanceCalculator distanceCalculator;
+    private GridHeuristic heuristic;
 
     /**
-     * Constructor.
+     * The tables that prune the neighbours, null for none.
+     */
+    private final GoalBounding goalBounding;
+
+    /**
+     * Constructor. Calculators that implement the primitive grid
+     * contracts (e.g. any GridCalculator) are used directly, others
+     * go through GridAdapters. Uses an indexed binary heap that
+     * prefers the larger g-cost among equal f-costs.
      *
      * @param distanceCalculator The distance.
      * @param heuristic          The heuristic.
@@ -28,186 +28,65 @@ public class AStarPathFinder implements PathFinder {
     public AStarPathFinder(DistanceCalculator distanceCalculator,
                            HeuristicFunction<Pair<Point, Point>, Double> heuristic) {
 
-        this.distanceCalculator = distanceCalculator;
-        this.heuristic = heuristic;
+        this(distanceCalculator, heuristic, OpenListType.BINARY_HEAP, TieBreaking.LARGER_G);
     }
 
-    protected class AStarCell {
-
-        public MazeCell cell;
-
-
-        /**
-         * The cost of a path that so far leads this node.
-         */
-        int gCost = Integer.MAX_VALUE;
-
-
-        /**
-         * The total cost for A* for getting from
-         * the start node to the goal node by passing from that node.
-         */
-        int fCost = Integer.MAX_VALUE;
-
-
-        /**
-         * Constructor.
-         *
-         * @param cell The MazeCell that this AStarCell maps to.
-         */
-        AStarCell(MazeCell cell) {
-            this.cell = cell;
-        }
-
-
-        @Override
-        public final boolean equals(Object other) {
-
-            if (this == other) {
-                return true;
-            }
-            if (!(other instanceof AStarCell)) {
-                return false;
-            }
-
-            Point coordinatesThis = cell.getCoordinates();
-            Point coordinatesOther = ((AStarCell) other).cell.getCoordinates();
-            return coordinatesThis.equals(coordinatesOther);
-        }
 
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic.
+     * @param openListType       The open list implementation.
+     * @param tieBreaking        The ordering among nodes with equal f-cost.
+     */
+    public AStarPathFinder(DistanceCalculator distanceCalculator,
+                           HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                           OpenListType openListType, TieBreaking tieBreaking) {
 
-        @Override
-        public final int hashCode() {
-            return cell.getId();
-        }
+        this(distanceCalculator, heuristic, openListType, tieBreaking, null);
     }
 
 
     /**
-     * @param maze  The given maze.
-     * @param start The starting point.
-     * @param goal  The finishing point.
-     * @return A route.
+     * Constructor. Uses an indexed binary heap that prefers the larger
+     * g-cost among equal f-costs.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic.
+     * @param goalBounding       The goal bounding tables of the maze searched; find() refuses
+     *                           other mazes and throws once that maze changed.
      */
-    public Route find(final Maze maze, final Point start, final Point goal) {
+    public AStarPathFinder(DistanceCalculator distanceCalculator,
+                           HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                           GoalBounding goalBounding) {
 
-        // Find the cell that actually corresponds to the source location:
-        MazeCell mCellStart = maze.findCell(start);
+        this(distanceCalculator, heuristic, OpenListType.BINARY_HEAP, TieBreaking.LARGER_G, goalBounding);
 
-        PathFinder.checkCell(mCellStart);
+        if (goalBounding == null) {
+            throw new NullPointerException("Null goal bounding tables were provided.");
+        }
+    }
 
-        // Find the cell that corresponds to the goal location:
-        MazeCell mCellGoal = maze.findCell(goal);
 
-        PathFinder.checkCell(mCellGoal);
+    private AStarPathFinder(DistanceCalculator distanceCalculator,
+                            HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                            OpenListType openListType, TieBreaking tieBreaking, GoalBounding goalBounding) {
 
-        Route route = new Route();
+        super(distanceCalculator, openListType, tieBreaking);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+        this.goalBounding = goalBounding;
+    }
 
-        // If starting point is the same to the goal there is nothing else to do:
-        if (start.equals(goal)) {
-            route.addItem(mCellStart.getId());
-            System.out.println("Starting point is the same as the goal. Bye!");
-            return route;
-        }
 
-        // Cells not explored yet:
-        PriorityQueue<AStarCell> open = new PriorityQueue<>(new Comparator<AStarCell>() {
-            @Override
-            public int compare(AStarCell o1, AStarCell o2) {
-                if (o1.fCost > o2.fCost)
-                    return 1;
-                if (o1.fCost < o2.fCost)
-                    return -1;
-                return 0;
-            }
-        });
-
-        // The explored set of positions:
-        Set<MazeCell> explored = new HashSet<MazeCell>();
-
-        // This is where the path is stored:
-        HashMap<Integer, Integer> cameFrom = new HashMap<>();
-
-        AStarCell source = new AStarCell(mCellStart);
-
-        // Add the source:
-        open.add(source);
-
-        // The cost of the path so far leading to this node is 0 at the beginning.
-        source.gCost = 0;
-
-        // The calculation of fCost from start to goal is done heuristically:
-        source.fCost = this.heuristic.heuristicOut(makePair(start, goal)).intValue();
-
-        AStarCell target = new AStarCell(mCellGoal);
-
-        while (!open.isEmpty()) {
-
-            // Get the current node out of the set:
-            AStarCell currentNode = open.poll();
-
-            // Check if current node is the goal:
-            if (currentNode.equals(target)) {
-                break;
-            }
-
-            /**
-             * If current node is not the goal we proceed,
-             * add this node to the explored set.
-             */
-            explored.add(currentNode.cell);
-
-            // Loop over the neighbours to expand the search:
-            for (int n = 0; n < currentNode.cell.getNumberOfNeighbours(); n++) {
-
-                // Get the n-th neighbour of the current node:
-                MazeCell nn = currentNode.cell.getNeighbour(n);
-
-                // If the neighbour is null we continue:
-                if (nn == null) {
-                    continue;
-                }
-
-                // If the neighbour is blocked neglect it:
-                if (nn.isBlocked()) {
-                    continue;
-                }
-
-                // If the neighbour is in the explored set neglect it:
-                if (explored.contains(nn)) {
-                    continue;
-                }
-
-                AStarCell aCell = new AStarCell(nn);
-
-                // If the neighbour is not in the open set add it:
-                if (!open.contains(aCell)) {
-                    open.add(aCell);
-                }
-
-                // This is the cost of the path from current node to reach its neighbour:
-                int tgCost = (int) (
-                        currentNode.gCost +
-                                this.distanceCalculator.calculateDistance(currentNode.cell.getCoordinates(),
-                                        aCell.cell.getCoordinates()));
-                if (tgCost >= aCell.gCost) {
-                    // This is not a better path:
-                    continue;
-                }
-
-                // This is the best path up until now so record it:
-                cameFrom.put(aCell.cell.getId(), currentNode.cell.getId());
-                aCell.gCost = tgCost;
-
-                // Calculation of f(nn) = g(nn) + h(nn):
-                aCell.fCost = (int) (aCell.gCost + this.heuristic
-                        .heuristicOut(makePair(aCell.cell.getCoordinates(), goal)));
-            }
-        }
+    @Override
+    protected Graph graphOf(MazeGraph graph, int goalId) {
+        return this.goalBounding == null ? graph : this.goalBounding.prune(graph, goalId);
+    }
 
-        ArrayList<Integer> path = PathFinder.reconstructPath(cameFrom, mCellGoal);
 
-        route.setPath(path);
-        return route;
+    @Override
+    protected int estimate(int i, int j, int goalI, int goalJ) {
+        return this.heuristic.estimate(i, j, goalI, goalJ);
     }
 }
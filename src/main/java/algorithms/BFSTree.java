@@ -0,0 +1,124 @@
+package algorithms;
+
+import pathfinder.Route;
+
+/**
+ * The result of a breadth-first flood from one source cell: the number
+ * of steps to every reached cell and the cell each was reached from.
+ * The arrays are handed out as they are, not copied.
+ */
+public class BFSTree {
+
+    private final int source;
+    private final int[] distance;
+    private final int[] parent;
+    private final int levels;
+    private final long reached;
+
+
+    /**
+     * @param source   The id of the source cell.
+     * @param distance The steps to each cell, -1 if not reached.
+     * @param parent   The cell each cell was reached from, -1 for the source and unreached cells.
+     * @param levels   The number of levels of the flood.
+     * @param reached  The number of reached cells.
+     */
+    BFSTree(int source, int[] distance, int[] parent, int levels, long reached) {
+
+        this.source = source;
+        this.distance = distance;
+        this.parent = parent;
+        this.levels = levels;
+        this.reached = reached;
+    }
+
+
+    /**
+     * @return The id of the source cell.
+     */
+    public final int getSource() {
+        return this.source;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The steps from the source to the cell, -1 if not reached.
+     */
+    public final int getDistance(int cell) {
+        return this.distance[cell];
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The cell this cell was reached from, -1 for the source and unreached cells.
+     */
+    public final int getParent(int cell) {
+        return this.parent[cell];
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return True if the flood reached the cell.
+     */
+    public final boolean isReachable(int cell) {
+        return this.distance[cell] != -1;
+    }
+
+
+    /**
+     * @return The steps to each cell, -1 if not reached. Not a copy.
+     */
+    public final int[] getDistances() {
+        return this.distance;
+    }
+
+
+    /**
+     * @return The cell each cell was reached from. Not a copy.
+     */
+    public final int[] getParents() {
+        return this.parent;
+    }
+
+
+    /**
+     * @return The number of levels of the flood, i.e. the largest distance plus one.
+     */
+    public final int getLevels() {
+        return this.levels;
+    }
+
+
+    /**
+     * @return The number of cells reached, the source included.
+     */
+    public final long getReached() {
+        return this.reached;
+    }
+
+
+    /**
+     * @param target The id of the target cell.
+     * @return The shortest route from the source to the target. Empty if it was not reached.
+     */
+    public final Route route(int target) {
+
+        if (!this.isReachable(target)) {
+            return new Route();
+        }
+
+        // The distance is the length of the route, so it is filled from the back:
+        int[] nodes = new int[this.distance[target] + 1];
+        int node = target;
+
+        for (int k = nodes.length - 1; k >= 0; k--) {
+            nodes[k] = node;
+            node = this.parent[node];
+        }
+
+        return new Route(nodes);
+    }
+}
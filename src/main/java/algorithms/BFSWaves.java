@@ -0,0 +1,169 @@
+package algorithms;
+
+import maze.BitGrid;
+import pathfinder.Route;
+
+import java.util.Arrays;
+
+/**
+ * The result of a bit-parallel breadth-first flood: the waves of the
+ * flood, wave d holding the cells d steps away from the source. Each
+ * wave is kept as its non-zero words of the BitGrid, sorted by word
+ * index, so the waves together take at most one entry per reached cell
+ * and usually far fewer.
+ *
+ * Reachability is one bit test. The distance of a cell takes a binary
+ * search per wave, and a route walks back through the waves, one binary
+ * search per neighbour and step.
+ */
+public class BFSWaves {
+
+    private final BitGrid grid;
+    private final int source;
+
+    /**
+     * Wave d is made of the entries waveStart[d] to waveStart[d + 1] - 1.
+     */
+    private final int[] waveStart;
+    private final int[] words;
+    private final long[] bits;
+
+    /**
+     * The union of all the waves.
+     */
+    private final long[] visited;
+
+    private final int levels;
+    private final long reached;
+
+
+    BFSWaves(BitGrid grid, int source, int[] waveStart, int[] words, long[] bits, long[] visited,
+             int levels, long reached) {
+
+        this.grid = grid;
+        this.source = source;
+        this.waveStart = waveStart;
+        this.words = words;
+        this.bits = bits;
+        this.visited = visited;
+        this.levels = levels;
+        this.reached = reached;
+    }
+
+
+    /**
+     * @return The id of the source cell.
+     */
+    public final int getSource() {
+        return this.source;
+    }
+
+
+    /**
+     * @return The number of waves, i.e. the largest distance plus one.
+     */
+    public final int getLevels() {
+        return this.levels;
+    }
+
+
+    /**
+     * @return The number of cells reached, the source included.
+     */
+    public final long getReached() {
+        return this.reached;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return True if the flood reached the cell.
+     */
+    public final boolean isReachable(int cell) {
+
+        int yWidth = this.grid.getyWidth();
+        int j = cell % yWidth;
+        return (this.visited[this.grid.wordIndex(cell / yWidth, j)] & (1L << j)) != 0;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The steps from the source to the cell, -1 if not reached.
+     */
+    public final int getDistance(int cell) {
+
+        if (!this.isReachable(cell)) {
+            return -1;
+        }
+
+        int yWidth = this.grid.getyWidth();
+        int i = cell / yWidth;
+        int j = cell % yWidth;
+
+        for (int level = 0; level < this.levels; level++) {
+            if (this.inWave(level, i, j)) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * @param target The id of the target cell.
+     * @return A shortest route from the source to the target. Empty if it was not reached.
+     */
+    public final Route route(int target) {
+
+        int distance = this.getDistance(target);
+
+        if (distance == -1) {
+            return new Route();
+        }
+
+        int yWidth = this.grid.getyWidth();
+        int[] nodes = new int[distance + 1];
+        int i = target / yWidth;
+        int j = target % yWidth;
+        nodes[distance] = target;
+
+        // Each step back goes to a neighbour in the wave before:
+        for (int level = distance - 1; level >= 0; level--) {
+
+            if (this.inWave(level, i + 1, j)) {
+                i++;
+            }
+            else if (this.inWave(level, i - 1, j)) {
+                i--;
+            }
+            else if (this.inWave(level, i, j + 1)) {
+                j++;
+            }
+            else {
+                j--;
+            }
+
+            nodes[level] = i * yWidth + j;
+        }
+
+        return new Route(nodes);
+    }
+
+
+    /**
+     * @return True if the cell is inside the grid and in the given wave.
+     */
+    private boolean inWave(int level, int i, int j) {
+
+        if (i < 0 || i >= this.grid.getxWidth() || j < 0 || j >= this.grid.getyWidth()) {
+            return false;
+        }
+
+        int from = this.waveStart[level];
+        int to = this.waveStart[level + 1];
+        int p = Arrays.binarySearch(this.words, from, to, this.grid.wordIndex(i, j));
+
+        return p >= 0 && (this.bits[p] & (1L << j)) != 0;
+    }
+}
@@ -0,0 +1,152 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+/**
+ * Best-first search over the cells of a Maze, run by GraphSearch on the
+ * MazeGraph of the maze. The search state lives in the per-thread
+ * SearchContext and the open list is pluggable, see OpenListType and
+ * TieBreaking. Subclasses only provide the estimate of the remaining
+ * cost: zero for Dijkstra, a heuristic for A*.
+ *
+ * For a maze kept in a ZOrderMazeStorage the search state follows the
+ * Z-order layout of the storage; ids are translated on the way in and
+ * out, so routes always hold row-major cell ids.
+ */
+public abstract class BestFirstPathFinder implements PathFinder {
+
+    protected final GridDistanceCalculator distanceCalculator;
+    protected final OpenListType openListType;
+    protected final TieBreaking tieBreaking;
+
+    private final GraphSearch search;
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @param openListType       The open list implementation.
+     * @param tieBreaking        The ordering among nodes with equal f-cost.
+     */
+    protected BestFirstPathFinder(DistanceCalculator distanceCalculator,
+                                  OpenListType openListType, TieBreaking tieBreaking) {
+
+        if (openListType == null || tieBreaking == null) {
+            throw new NullPointerException("Null open list type or tie-breaking was provided.");
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.openListType = openListType;
+        this.tieBreaking = tieBreaking;
+        this.search = new GraphSearch(openListType, tieBreaking);
+    }
+
+
+    /**
+     * @param i     The i coordinate of the cell.
+     * @param j     The j coordinate of the cell.
+     * @param goalI The i coordinate of the goal.
+     * @param goalJ The j coordinate of the goal.
+     * @return A lower bound of the cost from the cell to the goal.
+     */
+    protected abstract int estimate(int i, int j, int goalI, int goalJ);
+
+
+    /**
+     * @param graph  The graph of the maze.
+     * @param goalId The row-major id of the goal cell.
+     * @return The graph searched for a route to the goal: the given one, which subclasses may prune.
+     */
+    protected Graph graphOf(MazeGraph graph, int goalId) {
+        return graph;
+    }
+
+
+    /**
+     * @return The factor the cost of the found routes may exceed the
+     *         optimal cost by; 1 for an admissible estimate.
+     */
+    protected double suboptimalityBound() {
+        return 1.0;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return A route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        Route route = new Route();
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            route.addItem(mCellStart.getId());
+            System.out.println("Starting point is the same as the goal. Bye!");
+            return route;
+        }
+
+        int startId = mCellStart.getId();
+        int goalId = mCellGoal.getId();
+
+        // The nodes are the cell ids, or follow the layout of the maze storage:
+        MazeGraph graph = MazeGraph.of(maze, this.distanceCalculator);
+
+        // The estimates are taken on the coordinates, as subclasses define them:
+        NodeHeuristic heuristic = (node, goalNode) -> this.estimate(graph.iOf(node), graph.jOf(node),
+                                                                    goal.i, goal.j);
+
+        try {
+            int[] path = this.search.findPath(this.graphOf(graph, goalId), graph.nodeOf(startId),
+                                              graph.nodeOf(goalId), heuristic, budget);
+            return new Route(toCells(graph, path), this.suboptimalityBound());
+        } catch (SearchBudgetExceededException e) {
+            throw e.withPartialRoute(new Route(toCells(graph, e.getPartialRoute().toArray())));
+        }
+    }
+
+
+    /**
+     * Translates nodes of the graph into row-major cell ids, in place.
+     */
+    private static int[] toCells(MazeGraph graph, int[] nodes) {
+
+        for (int k = 0; k < nodes.length; k++) {
+            nodes[k] = graph.cellOf(nodes[k]);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,262 @@
+package algorithms;
+
+import maze.BitGrid;
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search for unit-cost mazes that moves the wave 64 cells
+ * at a time. The open cells are packed in a BitGrid, and a wave word
+ * spreads east and west with a shift (plus the bit carried over from
+ * the next word), north and south by moving to the word one row away.
+ * The result is masked with the open cells and the cells not visited
+ * yet, so a dense wave costs one AND per 64 cells.
+ *
+ * Waves are kept sparse, as their non-zero words, so each level costs
+ * what the wave covers, not what the maze holds. The waves are stored
+ * in a BFSWaves, which answers reachability and distance queries and
+ * rebuilds routes by walking back through them.
+ *
+ * find() packs the maze into a BitGrid once and reuses it while the
+ * maze version stays the same, see Maze.getVersion(); like the other
+ * precomputed tables it relies on every change going through
+ * Maze.setBlocked().
+ */
+public class BitParallelBFSPathFinder implements PathFinder {
+
+    /**
+     * The last packed grid and the maze it belongs to.
+     */
+    private volatile GridCache cache = null;
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route with the fewest steps.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, charged with the words of each wave.
+     * @return A route with the fewest steps.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+
+        return flood(this.gridOf(maze), start, goal, budget).route(mCellGoal.getId());
+    }
+
+
+    /**
+     * Floods a maze from a cell.
+     *
+     * @param maze   The given maze.
+     * @param source The source point.
+     * @return The waves of the flood.
+     */
+    public BFSWaves flood(final Maze maze, final Point source) {
+
+        PathFinder.checkCell(maze.findCell(source));
+
+        return flood(this.gridOf(maze), source, null, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * Floods a packed maze from a cell, until the target is reached if one is given.
+     *
+     * @param grid   The packed maze.
+     * @param source The source point, open.
+     * @param target The point to stop at, null to flood everything reachable.
+     * @param budget The limits of this flood, charged with the words of each wave.
+     * @return The waves of the flood.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public static BFSWaves flood(BitGrid grid, Point source, Point target, SearchBudget budget) {
+
+        if (!grid.isOpen(source.i, source.j)) {
+            throw new IllegalArgumentException("Invalid cell. Cell not in Maze or blocked.");
+        }
+
+        int wordsPerRow = grid.getWordsPerRow();
+        int wordCount = grid.getWordCount();
+
+        long[] visited = new long[wordCount];
+        long[] next = new long[wordCount];
+
+        // A word is touched at most once per wave:
+        int[] touched = new int[wordCount];
+        int[] waveStart = new int[64];
+        int[] words = new int[64];
+        long[] bits = new long[64];
+
+        // Wave 0 is the source alone:
+        int sourceWord = grid.wordIndex(source.i, source.j);
+        words[0] = sourceWord;
+        bits[0] = 1L << source.j;
+        visited[sourceWord] = bits[0];
+        waveStart[1] = 1;
+
+        int targetWord = target == null ? -1 : grid.wordIndex(target.i, target.j);
+        long targetBit = target == null ? 0 : 1L << target.j;
+
+        int level = 0;
+        int size = 1;
+        long reached = 1;
+
+        while (waveStart[level + 1] > waveStart[level]
+               && (targetWord == -1 || (visited[targetWord] & targetBit) == 0)) {
+
+            int from = waveStart[level];
+            int to = waveStart[level + 1];
+
+            // Stop here if the query ran out of budget:
+            budget.charge(to - from);
+
+            int touchedCount = 0;
+
+            // Spread every word of the wave to its neighbours:
+            for (int p = from; p < to; p++) {
+
+                int w = words[p];
+                long b = bits[p];
+                int column = w % wordsPerRow;
+
+                touchedCount = spread(next, touched, touchedCount, w, (b << 1) | (b >>> 1));
+
+                // Bits carried over to the next and previous word of the row:
+                if (column + 1 < wordsPerRow) {
+                    touchedCount = spread(next, touched, touchedCount, w + 1, b >>> 63);
+                }
+                if (column > 0) {
+                    touchedCount = spread(next, touched, touchedCount, w - 1, b << 63);
+                }
+
+                // The rows above and below:
+                if (w >= wordsPerRow) {
+                    touchedCount = spread(next, touched, touchedCount, w - wordsPerRow, b);
+                }
+                if (w + wordsPerRow < wordCount) {
+                    touchedCount = spread(next, touched, touchedCount, w + wordsPerRow, b);
+                }
+            }
+
+            // The next wave is what is open and not visited yet, in word order:
+            Arrays.sort(touched, 0, touchedCount);
+
+            if (size + touchedCount > words.length) {
+                int capacity = Math.max(2 * words.length, size + touchedCount);
+                words = Arrays.copyOf(words, capacity);
+                bits = Arrays.copyOf(bits, capacity);
+            }
+
+            for (int k = 0; k < touchedCount; k++) {
+
+                int t = touched[k];
+                long wave = next[t] & grid.getWord(t) & ~visited[t];
+                next[t] = 0;
+
+                if (wave != 0) {
+                    visited[t] |= wave;
+                    words[size] = t;
+                    bits[size++] = wave;
+                    reached += Long.bitCount(wave);
+                }
+            }
+
+            level++;
+
+            if (level + 2 > waveStart.length) {
+                waveStart = Arrays.copyOf(waveStart, 2 * waveStart.length);
+            }
+            waveStart[level + 1] = size;
+        }
+
+        // The last wave is only counted when it reached some cell:
+        int levels = waveStart[level + 1] > waveStart[level] ? level + 1 : level;
+
+        return new BFSWaves(grid, source.i * grid.getyWidth() + source.j, waveStart, words, bits, visited,
+                            levels, reached);
+    }
+
+
+    /**
+     * Adds bits to a word of the next wave and records the word the first time.
+     *
+     * @return The new number of touched words.
+     */
+    private static int spread(long[] next, int[] touched, int count, int w, long bits) {
+
+        if (bits == 0) {
+            return count;
+        }
+
+        if (next[w] == 0) {
+            touched[count++] = w;
+        }
+        next[w] |= bits;
+        return count;
+    }
+
+
+    private BitGrid gridOf(Maze maze) {
+
+        GridCache current = this.cache;
+
+        if (current != null && current.maze == maze && current.grid.getVersion() == maze.getVersion()) {
+            return current.grid;
+        }
+
+        BitGrid grid = BitGrid.of(maze);
+        this.cache = new GridCache(maze, grid);
+        return grid;
+    }
+
+
+    private static final class GridCache {
+
+        private final Maze maze;
+        private final BitGrid grid;
+
+
+        GridCache(Maze maze, BitGrid grid) {
+            this.maze = maze;
+            this.grid = grid;
+        }
+    }
+}
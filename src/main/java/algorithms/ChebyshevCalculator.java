@@ -0,0 +1,25 @@
+package algorithms;
+
+/**
+ * The exact distance on an open 8-connected grid where diagonal
+ * steps cost the same as straight ones.
+ */
+public class ChebyshevCalculator extends GridCalculator {
+
+    /**
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
+     */
+    public double calculateDistance(int i1, int j1, int i2, int j2) {
+        return Math.max(Math.abs(i1 - i2), Math.abs(j1 - j2));
+    }
+
+
+    @Override
+    public int estimate(int i, int j, int goalI, int goalJ) {
+        return Math.max(Math.abs(i - goalI), Math.abs(j - goalJ));
+    }
+}
@@ -0,0 +1,226 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A Graph kept in three arrays: the edges of node u are offsets[u] to
+ * offsets[u + 1] - 1, with their targets and costs at the same index.
+ * Edges are read in this order, so a search walks memory forwards.
+ */
+public final class CsrGraph implements Graph {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] costs;
+
+
+    /**
+     * Constructor. The arrays are kept, not copied.
+     *
+     * @param offsets The first edge of every node, then the number of edges; not decreasing.
+     * @param targets The target node of every edge.
+     * @param costs   The cost of every edge, not negative.
+     */
+    public CsrGraph(int[] offsets, int[] targets, int[] costs) {
+
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length
+                || targets.length != costs.length) {
+            throw new IllegalArgumentException("Offsets, targets and costs do not describe the same edges.");
+        }
+
+        int nodes = offsets.length - 1;
+
+        for (int node = 0; node < nodes; node++) {
+            if (offsets[node] > offsets[node + 1]) {
+                throw new IllegalArgumentException("Offsets decrease at node " + node);
+            }
+        }
+
+        for (int edge = 0; edge < targets.length; edge++) {
+            if (targets[edge] < 0 || targets[edge] >= nodes) {
+                throw new IllegalArgumentException("Edge " + edge + " leads outside the graph: " + targets[edge]);
+            }
+            if (costs[edge] < 0) {
+                throw new IllegalArgumentException("Edge " + edge + " has a negative cost: " + costs[edge]);
+            }
+        }
+
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+    }
+
+
+    /**
+     * Copies any graph, dropping its empty slots.
+     *
+     * @param graph The given graph.
+     * @return The same edges in CSR arrays.
+     */
+    public static CsrGraph copyOf(Graph graph) {
+
+        int nodes = graph.nodeCount();
+        int[] offsets = new int[nodes + 1];
+        int edges = 0;
+
+        for (int node = 0; node < nodes; node++) {
+            for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+                if (graph.edgeTarget(e) != -1) {
+                    edges++;
+                }
+            }
+            offsets[node + 1] = edges;
+        }
+
+        int[] targets = new int[edges];
+        int[] costs = new int[edges];
+        edges = 0;
+
+        for (int node = 0; node < nodes; node++) {
+            for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+                int target = graph.edgeTarget(e);
+                if (target != -1) {
+                    targets[edges] = target;
+                    costs[edges++] = graph.edgeCost(e);
+                }
+            }
+        }
+
+        return new CsrGraph(offsets, targets, costs);
+    }
+
+
+    @Override
+    public int nodeCount() {
+        return this.offsets.length - 1;
+    }
+
+
+    @Override
+    public int edgeStart(int node) {
+        return this.offsets[node];
+    }
+
+
+    @Override
+    public int edgeEnd(int node) {
+        return this.offsets[node + 1];
+    }
+
+
+    @Override
+    public int edgeTarget(int edge) {
+        return this.targets[edge];
+    }
+
+
+    @Override
+    public int edgeCost(int edge) {
+        return this.costs[edge];
+    }
+
+
+    /**
+     * @return The number of edges.
+     */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+
+    /**
+     * Collects edges in any order and sorts them into CSR arrays.
+     */
+    public static final class Builder {
+
+        private final int nodes;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int[] costs = new int[16];
+        private int edges = 0;
+
+
+        /**
+         * Constructor.
+         *
+         * @param nodes The number of nodes.
+         */
+        public Builder(int nodes) {
+
+            if (nodes < 0) {
+                throw new IllegalArgumentException("Number of nodes must not be negative: " + nodes);
+            }
+            this.nodes = nodes;
+        }
+
+
+        /**
+         * @param from The node the edge leaves.
+         * @param to   The node the edge leads to.
+         * @param cost The cost of the edge, not negative.
+         * @return This builder.
+         */
+        public Builder addEdge(int from, int to, int cost) {
+
+            if (from < 0 || from >= this.nodes || to < 0 || to >= this.nodes) {
+                throw new IllegalArgumentException("Edge outside the graph: " + from + " -> " + to);
+            }
+            if (cost < 0) {
+                throw new IllegalArgumentException("Edge cost must not be negative: " + cost);
+            }
+
+            if (this.edges == this.sources.length) {
+                int capacity = 2 * this.edges;
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.costs = Arrays.copyOf(this.costs, capacity);
+            }
+
+            this.sources[this.edges] = from;
+            this.targets[this.edges] = to;
+            this.costs[this.edges++] = cost;
+            return this;
+        }
+
+
+        /**
+         * Adds an edge in both directions.
+         *
+         * @param a    One node.
+         * @param b    The other node.
+         * @param cost The cost of either edge, not negative.
+         * @return This builder.
+         */
+        public Builder addEdges(int a, int b, int cost) {
+            return this.addEdge(a, b, cost).addEdge(b, a, cost);
+        }
+
+
+        /**
+         * @return The graph, the edges of every node in the order they were added.
+         */
+        public CsrGraph build() {
+
+            // A counting sort by source keeps the order of the edges of each node:
+            int[] offsets = new int[this.nodes + 1];
+            for (int e = 0; e < this.edges; e++) {
+                offsets[this.sources[e] + 1]++;
+            }
+            for (int node = 0; node < this.nodes; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            int[] next = Arrays.copyOf(offsets, this.nodes);
+            int[] targets = new int[this.edges];
+            int[] costs = new int[this.edges];
+
+            for (int e = 0; e < this.edges; e++) {
+                int slot = next[this.sources[e]]++;
+                targets[slot] = this.targets[e];
+                costs[slot] = this.costs[e];
+            }
+
+            return new CsrGraph(offsets, targets, costs);
+        }
+    }
+}
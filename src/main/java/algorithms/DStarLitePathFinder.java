@@ -0,0 +1,404 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.MazeChangeEvent;
+import maze.MazeChangeListener;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+import utilities.Pair;
+
+import java.util.Arrays;
+
+/**
+ * An Implementation of the D* Lite incremental path finding algorithm
+ * (optimised version of Koenig and Likhachev). The search runs backwards
+ * from the goal and its state is kept between queries, so a new query
+ * on the same maze and goal only repairs the vertices affected by the
+ * cells that changed since the last one, and by the move of the start.
+ *
+ * The finder registers itself as a MazeChangeListener of the maze it
+ * plans on. Changes made without events (e.g. directly on the storage)
+ * must be reported with cellsChanged. Not thread-safe: use one finder
+ * per agent.
+ */
+public class DStarLitePathFinder implements PathFinder, MazeChangeListener {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final GridHeuristic heuristic;
+
+    /**
+     * The maze and goal of the kept search state, null if there is none.
+     */
+    private Maze maze;
+    private int goalId = -1;
+    private int startId = -1;
+    private int yWidth;
+
+    /**
+     * The cost-to-goal and its one-step lookahead per cell.
+     */
+    private int[] g;
+    private int[] rhs;
+
+    private IndexedBinaryHeap open;
+
+    /**
+     * The key modifier that accumulates the moves of the start.
+     */
+    private long km;
+
+    /**
+     * Cells reported as changed and not repaired yet.
+     */
+    private int[] pending = new int[16];
+    private int pendingCount = 0;
+
+    /**
+     * The maze version the kept state accounts for.
+     */
+    private long seenVersion;
+
+    private long expansions = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be consistent.
+     */
+    public DStarLitePathFinder(DistanceCalculator distanceCalculator,
+                               HeuristicFunction<Pair<Point, Point>, Double> heuristic) {
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * Plans from scratch for a new maze or goal, otherwise repairs the
+     * kept state. If the budget runs out the state is left consistent
+     * and the next query resumes from it.
+     *
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return A route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+
+        int newStartId = mCellStart.getId();
+        int newGoalId = mCellGoal.getId();
+
+        int[] changed;
+        boolean missedChanges;
+
+        synchronized (this) {
+            changed = Arrays.copyOf(this.pending, this.pendingCount);
+            this.pendingCount = 0;
+            missedChanges = maze.getVersion() != this.seenVersion;
+        }
+
+        this.expansions = 0;
+
+        if (maze != this.maze || newGoalId != this.goalId || missedChanges) {
+            this.initialize(maze, newStartId, newGoalId);
+        }
+        else {
+            // The keys in the open list are relative to the old start:
+            this.km += this.h(this.startId, newStartId);
+            this.startId = newStartId;
+
+            for (int cell : changed) {
+                this.updateVertex(cell);
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                    int nn = maze.neighbourId(cell, n);
+                    if (nn != -1) {
+                        this.updateVertex(nn);
+                    }
+                }
+            }
+        }
+
+        this.computeShortestPath(budget);
+        return this.route();
+    }
+
+
+    /**
+     * Reports cells whose blocked flag changed without a MazeChangeEvent.
+     * They are repaired on the next query.
+     *
+     * @param ids The ids of the changed cells.
+     */
+    public synchronized void cellsChanged(int... ids) {
+
+        if (this.pendingCount + ids.length > this.pending.length) {
+            this.pending = Arrays.copyOf(this.pending, Math.max(2 * this.pending.length, this.pendingCount + ids.length));
+        }
+
+        System.arraycopy(ids, 0, this.pending, this.pendingCount, ids.length);
+        this.pendingCount += ids.length;
+    }
+
+
+    @Override
+    public synchronized void mazeChanged(MazeChangeEvent event) {
+
+        if (event.getMaze() != this.maze) {
+            return;
+        }
+
+        int[] ids = new int[event.size()];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = event.getCell(k);
+        }
+
+        this.cellsChanged(ids);
+        this.seenVersion = event.getVersion();
+    }
+
+
+    /**
+     * Drops the kept state and stops listening to the maze.
+     */
+    public synchronized void reset() {
+
+        if (this.maze != null) {
+            this.maze.removeChangeListener(this);
+        }
+
+        this.maze = null;
+        this.goalId = -1;
+        this.startId = -1;
+        this.g = null;
+        this.rhs = null;
+        this.open = null;
+        this.pendingCount = 0;
+    }
+
+
+    /**
+     * @return The number of vertices processed by the last query.
+     */
+    public long getLastExpansions() {
+        return this.expansions;
+    }
+
+
+    private void initialize(Maze newMaze, int newStartId, int newGoalId) {
+
+        synchronized (this) {
+            if (newMaze != this.maze) {
+                if (this.maze != null) {
+                    this.maze.removeChangeListener(this);
+                }
+                newMaze.addChangeListener(this);
+            }
+            this.maze = newMaze;
+            this.seenVersion = newMaze.getVersion();
+            this.pendingCount = 0;
+        }
+
+        int size = newMaze.size();
+
+        if (this.g == null || this.g.length != size) {
+            this.g = new int[size];
+            this.rhs = new int[size];
+            this.open = new IndexedBinaryHeap(size);
+        }
+        else {
+            this.open.clear();
+        }
+
+        Arrays.fill(this.g, INFINITY);
+        Arrays.fill(this.rhs, INFINITY);
+
+        this.yWidth = newMaze.getyWidth();
+        this.goalId = newGoalId;
+        this.startId = newStartId;
+        this.km = 0;
+
+        this.rhs[newGoalId] = 0;
+        this.open.push(newGoalId, this.key(newGoalId));
+    }
+
+
+    private void computeShortestPath(SearchBudget budget) {
+
+        while (!this.open.isEmpty()
+               && (this.open.peekMinKey() < this.key(this.startId) || this.rhs[this.startId] != this.g[this.startId])) {
+
+            // Stop here if the query ran out of budget:
+            budget.charge();
+            this.expansions++;
+
+            int u = this.open.peekMin();
+            long oldKey = this.open.peekMinKey();
+            long newKey = this.key(u);
+
+            if (oldKey < newKey) {
+                // The key is stale because the start moved:
+                this.open.remove(u);
+                this.open.push(u, newKey);
+            }
+            else if (this.g[u] > this.rhs[u]) {
+                // Overconsistent, the cost went down:
+                this.g[u] = this.rhs[u];
+                this.open.remove(u);
+                this.updateNeighbours(u);
+            }
+            else {
+                // Underconsistent, the cost went up:
+                this.g[u] = INFINITY;
+                this.updateVertex(u);
+                this.updateNeighbours(u);
+            }
+        }
+    }
+
+
+    private void updateNeighbours(int u) {
+
+        for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+            int nn = this.maze.neighbourId(u, n);
+            if (nn != -1) {
+                this.updateVertex(nn);
+            }
+        }
+    }
+
+
+    private void updateVertex(int u) {
+
+        if (u != this.goalId) {
+            this.rhs[u] = this.bestSuccessor(u, null);
+        }
+
+        this.open.remove(u);
+
+        if (this.g[u] != this.rhs[u]) {
+            this.open.push(u, this.key(u));
+        }
+    }
+
+
+    /**
+     * @param u    The cell.
+     * @param next If not null, receives the successor that gives the minimum.
+     * @return The minimum over the successors of the edge cost plus their g, INFINITY if none.
+     */
+    private int bestSuccessor(int u, int[] next) {
+
+        if (this.maze.isBlocked(u)) {
+            return INFINITY;
+        }
+
+        int ui = u / this.yWidth;
+        int uj = u % this.yWidth;
+        int best = INFINITY;
+
+        for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+            int v = this.maze.neighbourId(u, n);
+
+            // Edges to cells outside the maze or blocked ones cost infinity:
+            if (v == -1 || this.g[v] == INFINITY || this.maze.isBlocked(v)) {
+                continue;
+            }
+
+            int cost = this.g[v] + (int) this.distanceCalculator.calculateDistance(ui, uj, v / this.yWidth, v % this.yWidth);
+
+            if (cost < best) {
+                best = cost;
+                if (next != null) {
+                    next[0] = v;
+                }
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * @return The key [min(g, rhs) + h + km; min(g, rhs)] packed in a long.
+     */
+    private long key(int u) {
+
+        int m = Math.min(this.g[u], this.rhs[u]);
+        long k1 = Math.min((long) m + this.h(this.startId, u) + this.km, INFINITY);
+        return (k1 << 32) | m;
+    }
+
+
+    private int h(int from, int to) {
+        return this.heuristic.estimate(to / this.yWidth, to % this.yWidth, from / this.yWidth, from % this.yWidth);
+    }
+
+
+    /**
+     * Follows the cheapest successors from the start to the goal.
+     */
+    private Route route() {
+
+        Route route = new Route();
+
+        if (this.g[this.startId] == INFINITY) {
+            return route;
+        }
+
+        int[] next = new int[1];
+        int current = this.startId;
+        route.addItem(current);
+
+        // A consistent state never revisits a cell, the bound only guards against a broken heuristic:
+        for (int steps = 0; current != this.goalId && steps < this.g.length; steps++) {
+
+            if (this.bestSuccessor(current, next) == INFINITY) {
+                return new Route();
+            }
+            current = next[0];
+            route.addItem(current);
+        }
+        return route;
+    }
+}
@@ -0,0 +1,81 @@
+package algorithms;
+
+/**
+ * The costs of the shortest routes from a list of sources to a list of
+ * targets, one row per source and one column per target, kept in a
+ * single int array in row-major order. The array is handed out as it
+ * is, not copied.
+ */
+public class DistanceMatrix {
+
+    /**
+     * The cost of a target that cannot be reached from a source.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final int rows;
+    private final int columns;
+    private final int[] costs;
+
+
+    /**
+     * @param rows    The number of sources.
+     * @param columns The number of targets.
+     * @param costs   The costs, row-major, UNREACHABLE where there is no route.
+     */
+    DistanceMatrix(int rows, int columns, int[] costs) {
+
+        this.rows = rows;
+        this.columns = columns;
+        this.costs = costs;
+    }
+
+
+    /**
+     * @return The number of sources.
+     */
+    public final int getRows() {
+        return this.rows;
+    }
+
+
+    /**
+     * @return The number of targets.
+     */
+    public final int getColumns() {
+        return this.columns;
+    }
+
+
+    /**
+     * @param source The index of the source.
+     * @param target The index of the target.
+     * @return The cost of the shortest route, UNREACHABLE if there is none.
+     */
+    public final int get(int source, int target) {
+
+        if (source < 0 || source >= this.rows || target < 0 || target >= this.columns) {
+            throw new IndexOutOfBoundsException("No entry (" + source + ", " + target + ") in a "
+                                                + this.rows + " x " + this.columns + " matrix.");
+        }
+        return this.costs[source * this.columns + target];
+    }
+
+
+    /**
+     * @param source The index of the source.
+     * @param target The index of the target.
+     * @return True if the target can be reached from the source.
+     */
+    public final boolean isReachable(int source, int target) {
+        return this.get(source, target) != UNREACHABLE;
+    }
+
+
+    /**
+     * @return The costs in row-major order. Not a copy.
+     */
+    public final int[] getCosts() {
+        return this.costs;
+    }
+}
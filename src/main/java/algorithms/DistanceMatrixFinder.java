@@ -0,0 +1,353 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the costs of the shortest routes from many sources to many
+ * targets. Instead of one query per pair, every source runs a single
+ * Dijkstra search that stops as soon as the last target is settled, and
+ * only the costs are kept: no parents are walked and no Route is built.
+ *
+ * Sources are handed out one at a time to a fixed number of workers on
+ * an Executor, so a slow source does not hold up the others. Each worker
+ * searches with the SearchContext of its thread. The storage of the
+ * maze must allow reads from several threads.
+ */
+public class DistanceMatrixFinder {
+
+    /**
+     * Expansions a worker makes before it reports them and looks for a stop.
+     */
+    private static final int REPORT_INTERVAL = 1024;
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final Executor executor;
+    private final int workers;
+
+
+    /**
+     * Constructor. Runs on the common pool with one worker per pool thread.
+     *
+     * @param distanceCalculator The distance between neighbouring cells.
+     */
+    public DistanceMatrixFinder(DistanceCalculator distanceCalculator) {
+        this(distanceCalculator, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @param executor           The executor the workers run on.
+     * @param workers            The number of sources searched at the same time.
+     */
+    public DistanceMatrixFinder(DistanceCalculator distanceCalculator, Executor executor, int workers) {
+
+        if (executor == null) {
+            throw new NullPointerException("Null executor was provided.");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.executor = executor;
+        this.workers = workers;
+    }
+
+
+    /**
+     * @return The number of sources searched at the same time.
+     */
+    public final int getWorkers() {
+        return this.workers;
+    }
+
+
+    /**
+     * @param maze    The given maze.
+     * @param sources The starting points, one row each.
+     * @param targets The finishing points, one column each.
+     * @return The costs of the shortest routes.
+     */
+    public DistanceMatrix compute(final Maze maze, final Point[] sources, final Point[] targets) {
+        return this.compute(maze, sources, targets, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze    The given maze.
+     * @param sources The starting points, one row each.
+     * @param targets The finishing points, one column each.
+     * @param budget  The limits of the whole matrix, charged with the expansions of all workers.
+     * @return The costs of the shortest routes.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public DistanceMatrix compute(final Maze maze, final Point[] sources, final Point[] targets,
+                                  final SearchBudget budget) {
+
+        if (sources == null || targets == null) {
+            throw new NullPointerException("Null sources or targets were provided.");
+        }
+
+        int[] sourceIds = cellIds(maze, sources);
+        int[] targetIds = cellIds(maze, targets);
+
+        budget.start();
+        budget.check();
+
+        return new Matrix(maze, sourceIds, targetIds).run(budget);
+    }
+
+
+    private static int[] cellIds(Maze maze, Point[] points) {
+
+        int[] ids = new int[points.length];
+
+        for (int k = 0; k < points.length; k++) {
+
+            MazeCell cell = maze.findCell(points[k]);
+
+            PathFinder.checkCell(cell);
+
+            ids[k] = cell.getId();
+        }
+        return ids;
+    }
+
+
+    /**
+     * The state of one matrix, shared by its workers.
+     */
+    private final class Matrix {
+
+        private final Maze maze;
+        private final int[] sourceIds;
+        private final int columns;
+        private final int yWidth;
+
+        /**
+         * The distinct target cells, sorted, and the one each column refers to.
+         */
+        private final int[] distinctTargets;
+        private final int[] columnSlot;
+
+        /**
+         * One bit per cell, set for the target cells.
+         */
+        private final long[] targetBits;
+
+        private final int[] costs;
+
+        private final AtomicInteger nextSource = new AtomicInteger();
+        private final AtomicLong expansions = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private volatile boolean done = false;
+
+
+        Matrix(Maze maze, int[] sourceIds, int[] targetIds) {
+
+            this.maze = maze;
+            this.sourceIds = sourceIds;
+            this.columns = targetIds.length;
+            this.yWidth = maze.getyWidth();
+
+            int[] sorted = targetIds.clone();
+            Arrays.sort(sorted);
+
+            int distinct = 0;
+            for (int k = 0; k < sorted.length; k++) {
+                if (k == 0 || sorted[k] != sorted[k - 1]) {
+                    sorted[distinct++] = sorted[k];
+                }
+            }
+            this.distinctTargets = Arrays.copyOf(sorted, distinct);
+
+            this.columnSlot = new int[this.columns];
+            this.targetBits = new long[(maze.size() + 63) >>> 6];
+
+            for (int c = 0; c < this.columns; c++) {
+                this.columnSlot[c] = Arrays.binarySearch(this.distinctTargets, targetIds[c]);
+                this.targetBits[targetIds[c] >>> 6] |= 1L << targetIds[c];
+            }
+
+            this.costs = new int[sourceIds.length * this.columns];
+        }
+
+
+        DistanceMatrix run(SearchBudget budget) {
+
+            int count = Math.min(DistanceMatrixFinder.this.workers, this.sourceIds.length);
+
+            if (count == 0 || this.columns == 0) {
+                return new DistanceMatrix(this.sourceIds.length, this.columns, this.costs);
+            }
+
+            CountDownLatch finished = new CountDownLatch(count);
+
+            for (int w = 0; w < count; w++) {
+                DistanceMatrixFinder.this.executor.execute(() -> {
+                    try {
+                        this.work();
+                    } catch (Throwable e) {
+                        this.failure.compareAndSet(null, e);
+                        this.done = true;
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+
+            long charged = 0;
+
+            try {
+                // The calling thread only watches the budget:
+                while (!finished.await(1, TimeUnit.MILLISECONDS)) {
+                    long total = this.expansions.get();
+                    budget.charge(total - charged);
+                    charged = total;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.CANCELLED, charged);
+            } finally {
+                this.done = true;
+            }
+
+            Throwable error = this.failure.get();
+            if (error != null) {
+                throw new IllegalStateException("A distance matrix worker failed.", error);
+            }
+
+            budget.charge(this.expansions.get() - charged);
+
+            return new DistanceMatrix(this.sourceIds.length, this.columns, this.costs);
+        }
+
+
+        /**
+         * Takes sources until there are none left or the matrix is stopped.
+         */
+        private void work() {
+
+            int[] row = new int[this.distinctTargets.length];
+            long unreported = 0;
+
+            while (!this.done) {
+
+                int source = this.nextSource.getAndIncrement();
+
+                if (source >= this.sourceIds.length) {
+                    break;
+                }
+
+                unreported += this.search(this.sourceIds[source], row);
+
+                if (unreported >= REPORT_INTERVAL) {
+                    this.expansions.addAndGet(unreported);
+                    unreported = 0;
+                }
+
+                // Every column reads the cost of its distinct target:
+                int offset = source * this.columns;
+                for (int c = 0; c < this.columns; c++) {
+                    this.costs[offset + c] = row[this.columnSlot[c]];
+                }
+            }
+
+            this.expansions.addAndGet(unreported);
+        }
+
+
+        /**
+         * Settles cells in order of cost until every target is settled.
+         *
+         * @param source The id of the source.
+         * @param row    Filled with the cost of each distinct target.
+         * @return The number of expanded cells.
+         */
+        private int search(int source, int[] row) {
+
+            Arrays.fill(row, DistanceMatrix.UNREACHABLE);
+
+            int remaining = row.length;
+            int expanded = 0;
+
+            SearchContext context = SearchContext.acquire(this.maze.size());
+
+            try {
+                // Dijkstra keys never decrease, which is what the radix heap is made for:
+                OpenList open = context.openList(OpenListType.RADIX_HEAP);
+
+                context.reach(source, 0, -1);
+                open.push(source, 0);
+
+                while (!open.isEmpty()) {
+
+                    int current = open.pollMin();
+                    int currentCost = context.getGCost(current);
+
+                    // A settled target has its final cost:
+                    if ((this.targetBits[current >>> 6] & (1L << current)) != 0) {
+
+                        row[Arrays.binarySearch(this.distinctTargets, current)] = currentCost;
+
+                        if (--remaining == 0) {
+                            break;
+                        }
+                    }
+
+                    // Look for a stop now and then:
+                    if ((++expanded & (REPORT_INTERVAL - 1)) == 0 && this.done) {
+                        break;
+                    }
+
+                    int ci = current / this.yWidth;
+                    int cj = current % this.yWidth;
+
+                    // Loop over the neighbours to expand the search:
+                    for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                        int nn = this.maze.neighbourId(current, n);
+
+                        // Neglect neighbours outside the maze and blocked ones:
+                        if (nn == -1 || this.maze.isBlocked(nn)) {
+                            continue;
+                        }
+
+                        int tgCost = currentCost + (int) DistanceMatrixFinder.this.distanceCalculator
+                                .calculateDistance(ci, cj, nn / this.yWidth, nn % this.yWidth);
+
+                        if (tgCost >= context.getGCost(nn)) {
+                            // This is not a better path:
+                            continue;
+                        }
+
+                        context.reach(nn, tgCost, current);
+                        open.push(nn, tgCost);
+                    }
+                }
+            } finally {
+                context.release();
+            }
+
+            return expanded;
+        }
+    }
+}
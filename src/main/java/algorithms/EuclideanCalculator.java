@@ -1,30 +1,22 @@
 package algorithms;
 
-import maze.Point;
-import utilities.Pair;
-
-public class EuclideanCalculator
-        implements DistanceCalculator, HeuristicFunction<Pair<Point, Point>, Double> {
-
-    /**
-     * Implements the HeuristicFunction interface.
-     * @param in The input to the heuristic.
-     * @return The distance between two points.
-     */
-    public Double heuristicOut(final Pair<Point, Point> in) {
-        return this.calculateDistance(in.first, in.second);
-    }
-
+/**
+ * Straight line distance. Admissible on any grid but it needs a square
+ * root and it is looser than the Manhattan distance on 4-connected grids.
+ */
+public class EuclideanCalculator extends GridCalculator {
 
     /**
-     * @param p1 The first point.
-     * @param p2 The second point.
-     * @return The distance between two points.
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
      */
-    public double calculateDistance(final Point p1, final Point p2) {
+    public double calculateDistance(int i1, int j1, int i2, int j2) {
 
-        double dx = p1.i - p2.i;
-        double dy = p1.j - p2.j;
+        double dx = i1 - i2;
+        double dy = j1 - j2;
         return Math.sqrt(dx * dx + dy * dy);
     }
 }
@@ -0,0 +1,373 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import utilities.Direction;
+import utilities.Utils;
+
+import java.util.Arrays;
+
+/**
+ * The cost from every cell of a maze to one goal, together with the
+ * first step of a cheapest route from each cell, so that any number of
+ * agents heading to the goal only look up their next step, in O(1),
+ * instead of searching. Steps are kept as neighbour indices (see
+ * Maze.neighbourId), one byte per cell, and map to a Direction as in Utils.
+ *
+ * The field is built with one Dijkstra search from the goal; the cost
+ * of a step is taken in the direction of travel, towards the goal.
+ * update() repairs the field in place after cells changed: the cells
+ * whose steps led through a newly blocked cell are cleared, then the
+ * cleared cells and the newly open ones are seeded from their
+ * neighbours and the lower costs are spread, so the work stays close
+ * to the changes. Not thread-safe while it is updated.
+ */
+public class FlowField {
+
+    /**
+     * The cost of a cell that cannot reach the goal.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The step of the goal and of the cells that cannot reach it.
+     */
+    private static final byte NO_STEP = -1;
+
+    private final Maze maze;
+    private final GridDistanceCalculator distanceCalculator;
+    private final int goal;
+    private final int yWidth;
+
+    /**
+     * The cost to the goal of each cell, INFINITY if there is no route.
+     */
+    private final int[] distance;
+
+    /**
+     * The neighbour index of the first step towards the goal, NO_STEP if there is none.
+     */
+    private final byte[] step;
+
+    /**
+     * The maze version the field accounts for.
+     */
+    private long version;
+
+
+    private FlowField(Maze maze, GridDistanceCalculator distanceCalculator, int goal) {
+
+        this.maze = maze;
+        this.distanceCalculator = distanceCalculator;
+        this.goal = goal;
+        this.yWidth = maze.getyWidth();
+        this.distance = new int[maze.size()];
+        this.step = new byte[maze.size()];
+    }
+
+
+    /**
+     * Builds the field of a goal.
+     *
+     * @param maze               The given maze.
+     * @param goal               The finishing point.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The field of the goal as the maze is now.
+     */
+    public static FlowField build(Maze maze, Point goal, DistanceCalculator distanceCalculator) {
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        FlowField field = new FlowField(maze, GridAdapters.toGridDistance(distanceCalculator), mCellGoal.getId());
+        field.rebuild();
+        return field;
+    }
+
+
+    /**
+     * @return The id of the goal cell.
+     */
+    public final int getGoal() {
+        return this.goal;
+    }
+
+
+    /**
+     * @return The maze the field belongs to.
+     */
+    public final Maze getMaze() {
+        return this.maze;
+    }
+
+
+    /**
+     * @return The maze version the field accounts for.
+     */
+    public final long getVersion() {
+        return this.version;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The cost from the cell to the goal, UNREACHABLE if there is no route.
+     */
+    public final int getDistance(int cell) {
+        return this.distance[cell] == INFINITY ? UNREACHABLE : this.distance[cell];
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return True if the cell has a route to the goal.
+     */
+    public final boolean isReachable(int cell) {
+        return this.distance[cell] != INFINITY;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The direction of the first step to the goal, INVALID at the goal and where there is no route.
+     */
+    public final Direction getDirection(int cell) {
+        return Utils.convertIntToDirection(this.step[cell]);
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The cell of the first step to the goal, -1 at the goal and where there is no route.
+     */
+    public final int nextCell(int cell) {
+
+        int n = this.step[cell];
+        return n == NO_STEP ? -1 : this.maze.neighbourId(cell, n);
+    }
+
+
+    /**
+     * @param cell The id of the starting cell.
+     * @return The route from the cell to the goal along the field. Empty if there is none.
+     */
+    public final Route route(int cell) {
+
+        if (!this.isReachable(cell)) {
+            return new Route();
+        }
+
+        Route route = new Route();
+        route.addItem(cell);
+
+        for (int node = this.nextCell(cell); node != -1; node = this.nextCell(node)) {
+            route.addItem(node);
+        }
+        return route;
+    }
+
+
+    /**
+     * @return The bytes taken by the arrays of the field.
+     */
+    public final long memoryBytes() {
+        return 5L * this.distance.length;
+    }
+
+
+    /**
+     * Repairs the field after the blocked flag of some cells changed.
+     *
+     * @param cells The ids of the changed cells. Cells that did not actually change are harmless.
+     * @return The number of cells whose cost was cleared or lowered.
+     */
+    public final int update(int... cells) {
+
+        int[] cleared = new int[16];
+        int clearedCount = 0;
+
+        // Clear the cells whose route ran through a newly blocked cell, from the top of the tree down:
+        for (int cell : cells) {
+
+            if (!this.maze.isBlocked(cell) || this.distance[cell] == INFINITY) {
+                continue;
+            }
+
+            this.distance[cell] = INFINITY;
+            this.step[cell] = NO_STEP;
+
+            int from = clearedCount;
+            cleared = grow(cleared, clearedCount + 1);
+            cleared[clearedCount++] = cell;
+
+            for (int k = from; k < clearedCount; k++) {
+
+                int parent = cleared[k];
+
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                    int child = this.maze.neighbourId(parent, n);
+
+                    // The child steps back the way we came:
+                    if (child != -1 && this.distance[child] != INFINITY && this.step[child] == opposite(n)) {
+                        this.distance[child] = INFINITY;
+                        this.step[child] = NO_STEP;
+                        cleared = grow(cleared, clearedCount + 1);
+                        cleared[clearedCount++] = child;
+                    }
+                }
+            }
+        }
+
+        int changed = clearedCount;
+
+        SearchContext context = SearchContext.acquire(this.maze.size());
+
+        try {
+            // Seeds are all pushed before the first poll and costs only grow from there:
+            OpenList open = context.openList(OpenListType.RADIX_HEAP);
+
+            if (!this.maze.isBlocked(this.goal) && this.distance[this.goal] != 0) {
+                this.distance[this.goal] = 0;
+                this.step[this.goal] = NO_STEP;
+                open.push(this.goal, 0);
+            }
+
+            for (int k = 0; k < clearedCount; k++) {
+                this.seed(cleared[k], open);
+            }
+            for (int cell : cells) {
+                this.seed(cell, open);
+            }
+
+            changed += this.spread(open);
+        } finally {
+            context.release();
+        }
+
+        this.version = this.maze.getVersion();
+        return changed;
+    }
+
+
+    /**
+     * Builds the whole field again.
+     */
+    public final void rebuild() {
+
+        Arrays.fill(this.distance, INFINITY);
+        Arrays.fill(this.step, NO_STEP);
+
+        SearchContext context = SearchContext.acquire(this.maze.size());
+
+        try {
+            // Dijkstra keys never decrease, which is what the radix heap is made for:
+            OpenList open = context.openList(OpenListType.RADIX_HEAP);
+
+            this.version = this.maze.getVersion();
+
+            if (!this.maze.isBlocked(this.goal)) {
+                this.distance[this.goal] = 0;
+                open.push(this.goal, 0);
+                this.spread(open);
+            }
+        } finally {
+            context.release();
+        }
+    }
+
+
+    /**
+     * Gives an open cell the cheapest cost through its neighbours, if it lowers the current one.
+     */
+    private void seed(int cell, OpenList open) {
+
+        if (this.maze.isBlocked(cell)) {
+            return;
+        }
+
+        int ci = cell / this.yWidth;
+        int cj = cell % this.yWidth;
+
+        for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+            int nn = this.maze.neighbourId(cell, n);
+
+            if (nn == -1 || this.distance[nn] == INFINITY || this.maze.isBlocked(nn)) {
+                continue;
+            }
+
+            int cost = this.distance[nn]
+                       + (int) this.distanceCalculator.calculateDistance(ci, cj, nn / this.yWidth, nn % this.yWidth);
+
+            if (cost < this.distance[cell]) {
+                this.distance[cell] = cost;
+                this.step[cell] = (byte) n;
+                open.push(cell, cost);
+            }
+        }
+    }
+
+
+    /**
+     * Lowers the costs of the neighbours of the open cells, cheapest first.
+     *
+     * @return The number of cells polled.
+     */
+    private int spread(OpenList open) {
+
+        int polled = 0;
+
+        while (!open.isEmpty()) {
+
+            int current = open.pollMin();
+            polled++;
+
+            int ci = current / this.yWidth;
+            int cj = current % this.yWidth;
+            int currentCost = this.distance[current];
+
+            // Loop over the neighbours, which would step into the current cell:
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                int nn = this.maze.neighbourId(current, n);
+
+                // Neglect neighbours outside the maze and blocked ones:
+                if (nn == -1 || this.maze.isBlocked(nn)) {
+                    continue;
+                }
+
+                int cost = currentCost
+                           + (int) this.distanceCalculator.calculateDistance(nn / this.yWidth, nn % this.yWidth, ci, cj);
+
+                if (cost < this.distance[nn]) {
+                    this.distance[nn] = cost;
+                    this.step[nn] = opposite(n);
+                    open.push(nn, cost);
+                }
+            }
+        }
+
+        return polled;
+    }
+
+
+    /**
+     * @return The neighbour index that leads back, see Maze.neighbourId.
+     */
+    private static byte opposite(int n) {
+        return (byte) ((n + 2) & 3);
+    }
+
+
+    private static int[] grow(int[] array, int size) {
+        return size > array.length ? Arrays.copyOf(array, 2 * array.length) : array;
+    }
+}
@@ -0,0 +1,301 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.MazeChangeEvent;
+import maze.MazeChangeListener;
+import maze.Point;
+import pathfinder.PathFinder;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the FlowFields of the goals in use, up to a number of bytes.
+ * When a new field does not fit, the fields used least recently are
+ * dropped; a field larger than the whole bound is built but not kept.
+ *
+ * The cache listens to the mazes of its fields. Changed cells are
+ * queued per field and repaired with FlowField.update() when the field
+ * is asked for again, so fields nobody asks for cost nothing. The queue
+ * of a field holds at most an eighth of the cells of its maze; past that
+ * it is dropped and the field is built again when next asked for, as is
+ * a field whose maze changed without events. A field handed out
+ * is repaired in place by later calls to get(), so readers on other
+ * threads must not use it while get() runs.
+ */
+public class FlowFieldCache implements MazeChangeListener {
+
+    /**
+     * A field queues at most 1 / PENDING_FRACTION of the cells of its maze.
+     */
+    private static final int PENDING_FRACTION = 8;
+
+    private final DistanceCalculator distanceCalculator;
+    private final long maxBytes;
+
+    /**
+     * The fields, least recently used first.
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The number of kept fields of each maze listened to.
+     */
+    private final IdentityHashMap<Maze, Integer> mazes = new IdentityHashMap<>();
+
+    private long bytes = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @param maxBytes           The most bytes the kept fields may take.
+     */
+    public FlowFieldCache(DistanceCalculator distanceCalculator, long maxBytes) {
+
+        if (distanceCalculator == null) {
+            throw new NullPointerException("Null distance calculator was provided.");
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Memory bound must not be negative: " + maxBytes);
+        }
+
+        this.distanceCalculator = distanceCalculator;
+        this.maxBytes = maxBytes;
+    }
+
+
+    /**
+     * @param maze The given maze.
+     * @param goal The finishing point.
+     * @return The field of the goal, up to date with the maze.
+     */
+    public synchronized FlowField get(final Maze maze, final Point goal) {
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        Key key = new Key(maze, mCellGoal.getId());
+        Entry entry = this.entries.get(key);
+
+        if (entry != null) {
+
+            if (entry.rebuild || entry.seenVersion != maze.getVersion()) {
+                // Too many changes were queued, or some came without events:
+                entry.field.rebuild();
+            }
+            else if (entry.pendingCount > 0) {
+                entry.field.update(Arrays.copyOf(entry.pending, entry.pendingCount));
+            }
+
+            entry.pendingCount = 0;
+            entry.rebuild = false;
+            entry.seenVersion = entry.field.getVersion();
+            return entry.field;
+        }
+
+        FlowField field = FlowField.build(maze, goal, this.distanceCalculator);
+
+        if (field.memoryBytes() > this.maxBytes) {
+            return field;
+        }
+
+        // Drop the fields used least recently until the new one fits:
+        Iterator<Map.Entry<Key, Entry>> it = this.entries.entrySet().iterator();
+
+        while (this.bytes + field.memoryBytes() > this.maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            this.forget(eldest.getKey().maze, eldest.getValue().field);
+        }
+
+        this.entries.put(key, new Entry(field));
+        this.bytes += field.memoryBytes();
+
+        Integer count = this.mazes.get(maze);
+        if (count == null) {
+            maze.addChangeListener(this);
+            count = 0;
+        }
+        this.mazes.put(maze, count + 1);
+
+        return field;
+    }
+
+
+    @Override
+    public synchronized void mazeChanged(MazeChangeEvent event) {
+
+        int size = event.size();
+
+        for (Map.Entry<Key, Entry> e : this.entries.entrySet()) {
+
+            if (e.getKey().maze != event.getMaze()) {
+                continue;
+            }
+
+            Entry entry = e.getValue();
+
+            if (!entry.rebuild && entry.pendingCount + size > event.getMaze().size() / PENDING_FRACTION) {
+                // Repairing that many cells is no cheaper than building the field again:
+                entry.rebuild = true;
+                entry.pending = new int[16];
+                entry.pendingCount = 0;
+            }
+
+            if (!entry.rebuild) {
+
+                if (entry.pendingCount + size > entry.pending.length) {
+                    entry.pending = Arrays.copyOf(entry.pending,
+                                                  Math.max(2 * entry.pending.length, entry.pendingCount + size));
+                }
+
+                for (int k = 0; k < size; k++) {
+                    entry.pending[entry.pendingCount++] = event.getCell(k);
+                }
+            }
+
+            // A gap between the versions means changes without events:
+            if (entry.seenVersion == event.getVersion() - 1) {
+                entry.seenVersion = event.getVersion();
+            }
+        }
+    }
+
+
+    /**
+     * Drops every field and stops listening to the mazes.
+     */
+    public synchronized void clear() {
+
+        for (Maze maze : this.mazes.keySet()) {
+            maze.removeChangeListener(this);
+        }
+
+        this.entries.clear();
+        this.mazes.clear();
+        this.bytes = 0;
+    }
+
+
+    /**
+     * @return The number of kept fields.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+
+    /**
+     * @return The bytes taken by the kept fields.
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+
+    /**
+     * @return The number of changed cells queued for the kept fields.
+     */
+    synchronized long pendingCells() {
+
+        long pending = 0;
+        for (Entry entry : this.entries.values()) {
+            pending += entry.pendingCount;
+        }
+        return pending;
+    }
+
+
+    /**
+     * @return The most bytes the kept fields may take.
+     */
+    public final long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+
+    private void forget(Maze maze, FlowField field) {
+
+        this.bytes -= field.memoryBytes();
+
+        int count = this.mazes.get(maze) - 1;
+
+        if (count == 0) {
+            this.mazes.remove(maze);
+            maze.removeChangeListener(this);
+        }
+        else {
+            this.mazes.put(maze, count);
+        }
+    }
+
+
+    /**
+     * A maze, compared by identity, and a goal.
+     */
+    private static final class Key {
+
+        private final Maze maze;
+        private final int goal;
+
+
+        Key(Maze maze, int goal) {
+            this.maze = maze;
+            this.goal = goal;
+        }
+
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return this.maze == other.maze && this.goal == other.goal;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.maze) + this.goal;
+        }
+    }
+
+
+    private static final class Entry {
+
+        private final FlowField field;
+
+        /**
+         * Cells changed since the field was last repaired.
+         */
+        private int[] pending = new int[16];
+        private int pendingCount = 0;
+
+        /**
+         * Set when the queue grew too long and was dropped.
+         */
+        private boolean rebuild = false;
+
+        /**
+         * The maze version the field and the queued cells account for.
+         */
+        private long seenVersion;
+
+
+        Entry(FlowField field) {
+            this.field = field;
+            this.seenVersion = field.getVersion();
+        }
+    }
+}
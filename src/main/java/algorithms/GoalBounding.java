@@ -0,0 +1,424 @@
+package algorithms;
+
+import maze.Maze;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Goal bounding tables (Rabin and Sturtevant): for every open cell and
+ * every neighbour index, the bounding box of the targets that a cheapest
+ * route from the cell reaches through that neighbour. A search towards
+ * a goal outside the box of a move can skip that neighbour, since some
+ * other move starts a cheapest route. One such route always survives, so
+ * A* with the tables still finds the cheapest cost while expanding
+ * little more than the cells along it.
+ *
+ * The tables are built in parallel, one Dijkstra search per source, on
+ * an Executor. Each box is four unsigned shorts, so a cell takes 32
+ * bytes. The tables belong to the maze as it was built, or as it was
+ * when they were loaded, and prune() refuses any other maze and any
+ * change to that one; save() and load() keep them next to the maze file.
+ */
+public class GoalBounding {
+
+    /**
+     * Marks a goal bounding file ("GBT1").
+     */
+    public static final int MAGIC = 0x47425431;
+
+    /**
+     * The suffix of the table file kept next to a maze file.
+     */
+    public static final String FILE_SUFFIX = ".gb";
+
+    /**
+     * The low corner of an empty box, and the largest width the tables take.
+     */
+    private static final char EMPTY = 0xFFFF;
+
+    private static final int ENTRIES = 4 * Maze.NUMBER_OF_NEIGHBOURS;
+
+    private final Maze maze;
+    private final long version;
+    private final int xWidth;
+    private final int yWidth;
+
+    /**
+     * The box of move n of cell c at 16c + 4n: min i, min j, max i, max j. Empty boxes
+     * have EMPTY as min and 0 as max.
+     */
+    private final char[] boxes;
+
+
+    private GoalBounding(Maze maze, char[] boxes) {
+
+        this.maze = maze;
+        this.version = maze.getVersion();
+        this.xWidth = maze.getxWidth();
+        this.yWidth = maze.getyWidth();
+        this.boxes = boxes;
+    }
+
+
+    /**
+     * Builds the tables on the common pool with one worker per pool thread.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The tables of the maze as it is now.
+     */
+    public static GoalBounding build(Maze maze, DistanceCalculator distanceCalculator) {
+        return build(maze, distanceCalculator, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+
+    /**
+     * Builds the tables.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @param executor           The executor the workers run on.
+     * @param workers            The number of sources searched at the same time.
+     * @return The tables of the maze as it is now.
+     */
+    public static GoalBounding build(Maze maze, DistanceCalculator distanceCalculator,
+                                     Executor executor, int workers) {
+
+        if (executor == null) {
+            throw new NullPointerException("Null executor was provided.");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+        if (maze.getxWidth() >= EMPTY || maze.getyWidth() >= EMPTY
+                || (long) maze.size() * ENTRIES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze too large for goal bounding tables: "
+                                               + maze.getxWidth() + " x " + maze.getyWidth());
+        }
+
+        GridDistanceCalculator calculator = GridAdapters.toGridDistance(distanceCalculator);
+
+        int size = maze.size();
+        char[] boxes = new char[size * ENTRIES];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        int count = Math.min(workers, size);
+        CountDownLatch finished = new CountDownLatch(count);
+
+        for (int w = 0; w < count; w++) {
+            executor.execute(() -> {
+                try {
+                    BoxBuilder builder = new BoxBuilder(maze, calculator);
+                    int source;
+
+                    while (failure.get() == null && (source = next.getAndIncrement()) < size) {
+                        builder.build(source, boxes);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("A goal bounding worker failed.", failure.get());
+        }
+
+        return new GoalBounding(maze, boxes);
+    }
+
+
+    /**
+     * @param cell  The cell id.
+     * @param n     The neighbour index of the move.
+     * @param goalI The i coordinate of the goal.
+     * @param goalJ The j coordinate of the goal.
+     * @return False if no cheapest route from the cell to the goal needs to start with the move.
+     */
+    public final boolean mayLeadTo(int cell, int n, int goalI, int goalJ) {
+
+        int box = cell * ENTRIES + 4 * n;
+        char[] b = this.boxes;
+
+        return goalI >= b[box] && goalJ >= b[box + 1] && goalI <= b[box + 2] && goalJ <= b[box + 3];
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @param n    The neighbour index of the move.
+     * @return The box of the move as min i, min j, max i and max j; null if it is empty.
+     */
+    public final int[] getBox(int cell, int n) {
+
+        int box = cell * ENTRIES + 4 * n;
+
+        if (this.boxes[box] == EMPTY) {
+            return null;
+        }
+        return new int[]{this.boxes[box], this.boxes[box + 1], this.boxes[box + 2], this.boxes[box + 3]};
+    }
+
+
+    /**
+     * @return The bytes taken by the tables.
+     */
+    public final long memoryBytes() {
+        return 2L * this.boxes.length;
+    }
+
+
+    /**
+     * A view of the graph of a maze without the moves whose box misses the goal.
+     *
+     * @param graph The graph of the maze the tables were built for.
+     * @param goal  The row-major id of the goal cell.
+     * @return The pruned graph.
+     * @throws IllegalArgumentException If the graph is of another maze.
+     * @throws IllegalStateException    If the maze changed after the tables were built or loaded.
+     */
+    public Graph prune(MazeGraph graph, int goal) {
+
+        Maze maze = graph.getMaze();
+
+        if (maze != this.maze) {
+            throw new IllegalArgumentException("Goal bounding tables only prune the maze they were built for.");
+        }
+        if (maze.getVersion() != this.version) {
+            throw new IllegalStateException("The maze changed after the goal bounding tables were built.");
+        }
+
+        int goalI = goal / this.yWidth;
+        int goalJ = goal % this.yWidth;
+
+        // Edge e of a maze graph is move e % 4 of node e / 4, see MazeGraph:
+        return new Graph() {
+
+            @Override
+            public int nodeCount() {
+                return graph.nodeCount();
+            }
+
+            @Override
+            public int edgeStart(int node) {
+                return graph.edgeStart(node);
+            }
+
+            @Override
+            public int edgeEnd(int node) {
+                return graph.edgeEnd(node);
+            }
+
+            @Override
+            public int edgeTarget(int edge) {
+                int cell = graph.cellOf(edge / Maze.NUMBER_OF_NEIGHBOURS);
+                return mayLeadTo(cell, edge % Maze.NUMBER_OF_NEIGHBOURS, goalI, goalJ) ? graph.edgeTarget(edge) : -1;
+            }
+
+            @Override
+            public int edgeCost(int edge) {
+                return graph.edgeCost(edge);
+            }
+        };
+    }
+
+
+    /**
+     * Searches from one source after the other and grows the boxes of their moves.
+     */
+    private static final class BoxBuilder {
+
+        private final Maze maze;
+        private final GridDistanceCalculator calculator;
+
+        /**
+         * The first move of the route to each cell from the current source.
+         */
+        private final byte[] firstMove;
+
+        private final int[] box = new int[ENTRIES];
+
+
+        BoxBuilder(Maze maze, GridDistanceCalculator calculator) {
+
+            this.maze = maze;
+            this.calculator = calculator;
+            this.firstMove = new byte[maze.size()];
+        }
+
+
+        /**
+         * Writes the boxes of a source; those of a blocked one stay empty.
+         */
+        void build(int source, char[] boxes) {
+
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                this.box[4 * n] = EMPTY;
+                this.box[4 * n + 1] = EMPTY;
+                this.box[4 * n + 2] = 0;
+                this.box[4 * n + 3] = 0;
+            }
+
+            if (!this.maze.isBlocked(source)) {
+                this.search(source);
+            }
+
+            for (int k = 0; k < ENTRIES; k++) {
+                boxes[source * ENTRIES + k] = (char) this.box[k];
+            }
+        }
+
+
+        private void search(int source) {
+
+            int yWidth = this.maze.getyWidth();
+
+            SearchContext context = SearchContext.acquire(this.maze.size());
+
+            try {
+                // Dijkstra keys never decrease, which is what the radix heap is made for:
+                OpenList open = context.openList(OpenListType.RADIX_HEAP);
+
+                context.reach(source, 0, -1);
+                open.push(source, 0);
+
+                while (!open.isEmpty()) {
+
+                    int current = open.pollMin();
+                    int currentCost = context.getGCost(current);
+
+                    int ci = current / yWidth;
+                    int cj = current % yWidth;
+
+                    // The first move of a settled cell is final:
+                    if (current != source) {
+                        int b = 4 * this.firstMove[current];
+                        this.box[b] = Math.min(this.box[b], ci);
+                        this.box[b + 1] = Math.min(this.box[b + 1], cj);
+                        this.box[b + 2] = Math.max(this.box[b + 2], ci);
+                        this.box[b + 3] = Math.max(this.box[b + 3], cj);
+                    }
+
+                    // Loop over the neighbours to expand the search:
+                    for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                        int nn = this.maze.neighbourId(current, n);
+
+                        // Neglect neighbours outside the maze and blocked ones:
+                        if (nn == -1 || this.maze.isBlocked(nn)) {
+                            continue;
+                        }
+
+                        int tgCost = currentCost
+                                     + (int) this.calculator.calculateDistance(ci, cj, nn / yWidth, nn % yWidth);
+
+                        if (tgCost >= context.getGCost(nn)) {
+                            // This is not a better path:
+                            continue;
+                        }
+
+                        context.reach(nn, tgCost, current);
+
+                        // The first move is inherited from the cell the route comes through:
+                        this.firstMove[nn] = current == source ? (byte) n : this.firstMove[current];
+                        open.push(nn, tgCost);
+                    }
+                }
+            } finally {
+                context.release();
+            }
+        }
+    }
+
+
+    /**
+     * @param mazeFile The file of a maze.
+     * @return The file its goal bounding tables are kept in.
+     */
+    public static File fileOf(File mazeFile) {
+        return new File(mazeFile.getPath() + FILE_SUFFIX);
+    }
+
+
+    /**
+     * Writes the tables. Layout: magic, xWidth and yWidth as ints, then the
+     * four boxes of every cell in cell order, each as four unsigned shorts.
+     *
+     * @param file The file, overwritten if it exists.
+     */
+    public void save(File file) throws IOException {
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(this.xWidth);
+            out.writeInt(this.yWidth);
+
+            for (char value : this.boxes) {
+                out.writeChar(value);
+            }
+        }
+    }
+
+
+    /**
+     * Reads tables written by save().
+     *
+     * @param file The file.
+     * @param maze The maze the tables were built for, which the tables are bound to.
+     * @return The tables.
+     * @throws IOException If the file is not a table file or does not fit the maze.
+     */
+    public static GoalBounding load(File file, Maze maze) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a goal bounding file: " + file);
+            }
+
+            int xWidth = in.readInt();
+            int yWidth = in.readInt();
+
+            if (xWidth != maze.getxWidth() || yWidth != maze.getyWidth()) {
+                throw new IOException("Goal bounding tables of a " + xWidth + " x " + yWidth + " maze do not fit a "
+                                      + maze.getxWidth() + " x " + maze.getyWidth() + " maze: " + file);
+            }
+
+            char[] boxes = new char[maze.size() * ENTRIES];
+
+            try {
+                for (int k = 0; k < boxes.length; k++) {
+                    boxes[k] = in.readChar();
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated goal bounding file: " + file, e);
+            }
+
+            return new GoalBounding(maze, boxes);
+        }
+    }
+}
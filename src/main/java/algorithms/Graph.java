@@ -0,0 +1,48 @@
+package algorithms;
+
+/**
+ * A directed graph in compressed sparse row (CSR) form, the shape the
+ * search engines of GraphSearch are written against. Nodes are the ids
+ * 0 to nodeCount() - 1; the edges of node u are the ids edgeStart(u) to
+ * edgeEnd(u) - 1, each with a target node and an integer cost.
+ *
+ * An implementation may leave slots empty, with a target of -1, so that
+ * a graph with a fixed number of edge slots per node, such as the grid
+ * of a Maze, needs no arrays of its own: see MazeGraph. CsrGraph keeps
+ * arbitrary graphs, such as waypoint graphs and navigation meshes.
+ */
+public interface Graph {
+
+    /**
+     * @return The number of nodes.
+     */
+    int nodeCount();
+
+
+    /**
+     * @param node The node id.
+     * @return The id of the first edge of the node.
+     */
+    int edgeStart(int node);
+
+
+    /**
+     * @param node The node id.
+     * @return The id after the last edge of the node.
+     */
+    int edgeEnd(int node);
+
+
+    /**
+     * @param edge The edge id.
+     * @return The node the edge leads to, -1 if the slot is empty.
+     */
+    int edgeTarget(int edge);
+
+
+    /**
+     * @param edge The edge id, of a slot that is not empty.
+     * @return The cost of the edge, not negative.
+     */
+    int edgeCost(int edge);
+}
@@ -0,0 +1,192 @@
+package algorithms;
+
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.Arrays;
+
+/**
+ * Best-first search over any Graph: A* with a NodeHeuristic, Dijkstra
+ * with NodeHeuristic.ZERO, and single source costs. The search state
+ * lives in the per-thread SearchContext and the open list is pluggable,
+ * as for BestFirstPathFinder, which runs on this engine through a
+ * MazeGraph.
+ */
+public class GraphSearch {
+
+    /**
+     * The cost of a node that cannot be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final OpenListType openListType;
+    private final TieBreaking tieBreaking;
+
+
+    /**
+     * Constructor. A binary heap without tie-breaking suits any heuristic.
+     */
+    public GraphSearch() {
+        this(OpenListType.BINARY_HEAP, TieBreaking.NONE);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param openListType The open list implementation.
+     * @param tieBreaking  The ordering among nodes with equal f-cost.
+     */
+    public GraphSearch(OpenListType openListType, TieBreaking tieBreaking) {
+
+        if (openListType == null || tieBreaking == null) {
+            throw new NullPointerException("Null open list type or tie-breaking was provided.");
+        }
+
+        this.openListType = openListType;
+        this.tieBreaking = tieBreaking;
+    }
+
+
+    /**
+     * @param graph     The given graph.
+     * @param start     The start node.
+     * @param goal      The goal node.
+     * @param heuristic A lower bound of the remaining cost.
+     * @return A route of node ids.
+     */
+    public Route find(Graph graph, int start, int goal, NodeHeuristic heuristic) {
+        return new Route(this.findPath(graph, start, goal, heuristic, SearchBudget.unlimited()));
+    }
+
+
+    /**
+     * @param graph     The given graph.
+     * @param start     The start node.
+     * @param goal      The goal node.
+     * @param heuristic A lower bound of the remaining cost.
+     * @param budget    The limits of this query.
+     * @return The node ids from the start to the goal. Empty if the goal cannot be reached.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public int[] findPath(Graph graph, int start, int goal, NodeHeuristic heuristic, SearchBudget budget) {
+
+        checkNode(graph, start);
+        checkNode(graph, goal);
+
+        budget.start();
+
+        // The g-costs and the parents (where the path is stored) of this search:
+        SearchContext context = SearchContext.acquire(graph.nodeCount());
+
+        try {
+            this.search(graph, start, goal, heuristic, context, budget);
+            return context.reconstructPath(start, goal);
+        } finally {
+            context.release();
+        }
+    }
+
+
+    /**
+     * Runs Dijkstra from a node over the whole graph.
+     *
+     * @param graph  The given graph.
+     * @param source The source node.
+     * @param budget The limits of this query.
+     * @return The cost from the source to every node, UNREACHABLE for the nodes it cannot reach.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public int[] distances(Graph graph, int source, SearchBudget budget) {
+
+        checkNode(graph, source);
+
+        budget.start();
+
+        SearchContext context = SearchContext.acquire(graph.nodeCount());
+
+        try {
+            this.search(graph, source, -1, NodeHeuristic.ZERO, context, budget);
+
+            int[] costs = new int[graph.nodeCount()];
+            Arrays.fill(costs, UNREACHABLE);
+
+            for (int node = 0; node < costs.length; node++) {
+                if (context.isReached(node)) {
+                    costs[node] = context.getGCost(node);
+                }
+            }
+            return costs;
+        } finally {
+            context.release();
+        }
+    }
+
+
+    private void search(Graph graph, int start, int goal, NodeHeuristic heuristic,
+                        SearchContext context, SearchBudget budget) {
+
+        // Nodes not explored yet:
+        OpenList open = context.openList(this.openListType);
+        long sequence = 0;
+
+        context.reach(start, 0, -1);
+        open.push(start, this.tieBreaking.key(goal == -1 ? 0 : heuristic.estimate(start, goal), 0, sequence++));
+
+        while (!open.isEmpty()) {
+
+            // Get the current node out of the set:
+            int current = open.pollMin();
+
+            // Stop here if the query ran out of budget:
+            try {
+                budget.charge();
+            } catch (SearchBudgetExceededException e) {
+                throw e.withPartialRoute(context.route(start, current));
+            }
+
+            // Check if current node is the goal:
+            if (current == goal) {
+                return;
+            }
+
+            int currentCost = context.getGCost(current);
+            int end = graph.edgeEnd(current);
+
+            // Loop over the edges to expand the search:
+            for (int e = graph.edgeStart(current); e < end; e++) {
+
+                int target = graph.edgeTarget(e);
+
+                // Neglect empty slots:
+                if (target == -1) {
+                    continue;
+                }
+
+                // This is the cost of the path from current node to reach its neighbour:
+                int tgCost = currentCost + graph.edgeCost(e);
+
+                if (tgCost >= context.getGCost(target)) {
+                    // This is not a better path:
+                    continue;
+                }
+
+                // This is the best path up until now so record it:
+                context.reach(target, tgCost, current);
+
+                // Calculation of f(target) = g(target) + h(target):
+                int fCost = goal == -1 ? tgCost : tgCost + heuristic.estimate(target, goal);
+                open.push(target, this.tieBreaking.key(fCost, tgCost, sequence++));
+            }
+        }
+    }
+
+
+    private static void checkNode(Graph graph, int node) {
+
+        if (node < 0 || node >= graph.nodeCount()) {
+            throw new IllegalArgumentException("Node outside the graph: " + node);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package algorithms;
+
+import maze.Point;
+import utilities.Pair;
+
+import static utilities.Utils.makePair;
+
+/**
+ * Adapters from the Point based DistanceCalculator and HeuristicFunction
+ * contracts to their primitive grid counterparts. Calculators that
+ * already implement the primitive contracts are returned as they are;
+ * anything else is wrapped and pays for the Point and Pair allocations.
+ */
+public class GridAdapters {
+
+    /**
+     * @param calculator The distance calculator.
+     * @return A primitive view of the calculator.
+     */
+    public static GridDistanceCalculator toGridDistance(final DistanceCalculator calculator) {
+
+        if (calculator == null) {
+            throw new NullPointerException("Null distance calculator was provided.");
+        }
+
+        if (calculator instanceof GridDistanceCalculator) {
+            return (GridDistanceCalculator) calculator;
+        }
+
+        return new GridDistanceCalculator() {
+            @Override
+            public double calculateDistance(int i1, int j1, int i2, int j2) {
+                return calculator.calculateDistance(new Point(i1, j1), new Point(i2, j2));
+            }
+        };
+    }
+
+
+    /**
+     * @param heuristic The heuristic.
+     * @return A primitive view of the heuristic.
+     */
+    public static GridHeuristic toGridHeuristic(final HeuristicFunction<Pair<Point, Point>, Double> heuristic) {
+
+        if (heuristic == null) {
+            throw new NullPointerException("Null heuristic was provided.");
+        }
+
+        if (heuristic instanceof GridHeuristic) {
+            return (GridHeuristic) heuristic;
+        }
+
+        return new GridHeuristic() {
+            @Override
+            public int estimate(int i, int j, int goalI, int goalJ) {
+                return heuristic.heuristicOut(makePair(new Point(i, j), new Point(goalI, goalJ))).intValue();
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package algorithms;
+
+import maze.Point;
+import utilities.Pair;
+
+/**
+ * Base class for distances on the grid. Subclasses only implement the
+ * primitive calculateDistance; the Point based DistanceCalculator and
+ * HeuristicFunction contracts are derived from it.
+ */
+public abstract class GridCalculator
+        implements GridDistanceCalculator, GridHeuristic,
+        DistanceCalculator, HeuristicFunction<Pair<Point, Point>, Double> {
+
+    /**
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
+     */
+    public abstract double calculateDistance(int i1, int j1, int i2, int j2);
+
+
+    /**
+     * The distance rounded down, which keeps it a lower bound.
+     */
+    public int estimate(int i, int j, int goalI, int goalJ) {
+        return (int) this.calculateDistance(i, j, goalI, goalJ);
+    }
+
+
+    /**
+     * @param p1 The first point.
+     * @param p2 The second point.
+     * @return The distance between two points.
+     */
+    public double calculateDistance(final Point p1, final Point p2) {
+        return this.calculateDistance(p1.i, p1.j, p2.i, p2.j);
+    }
+
+
+    /**
+     * Implements the HeuristicFunction interface.
+     * @param in The input to the heuristic.
+     * @return The distance between two points.
+     */
+    public Double heuristicOut(final Pair<Point, Point> in) {
+        return this.calculateDistance(in.first, in.second);
+    }
+}
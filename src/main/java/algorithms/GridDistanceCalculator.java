@@ -0,0 +1,31 @@
+package algorithms;
+
+/**
+ * Primitive counterpart of DistanceCalculator. The distance between
+ * two cells is calculated straight from their i, j coordinates so that
+ * search loops neither allocate Points nor box the result.
+ */
+public interface GridDistanceCalculator {
+
+    /**
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
+     */
+    double calculateDistance(int i1, int j1, int i2, int j2);
+
+
+    /**
+     * Same as calculateDistance but for cells given by their global ids.
+     *
+     * @param id1    The id of the first cell.
+     * @param id2    The id of the second cell.
+     * @param yWidth Cells in y direction of the maze the ids belong to.
+     * @return The distance between the two cells.
+     */
+    default double calculateDistance(int id1, int id2, int yWidth) {
+        return this.calculateDistance(id1 / yWidth, id1 % yWidth, id2 / yWidth, id2 % yWidth);
+    }
+}
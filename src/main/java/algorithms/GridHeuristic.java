@@ -0,0 +1,31 @@
+package algorithms;
+
+/**
+ * Primitive counterpart of HeuristicFunction for grid searches.
+ * Estimates are integer lower bounds of the remaining cost, which is
+ * what the integer cost searches use as keys.
+ */
+public interface GridHeuristic {
+
+    /**
+     * @param i     The i coordinate of the cell.
+     * @param j     The j coordinate of the cell.
+     * @param goalI The i coordinate of the goal.
+     * @param goalJ The j coordinate of the goal.
+     * @return A lower bound of the cost from the cell to the goal.
+     */
+    int estimate(int i, int j, int goalI, int goalJ);
+
+
+    /**
+     * Same as estimate but for cells given by their global ids.
+     *
+     * @param id     The id of the cell.
+     * @param goalId The id of the goal.
+     * @param yWidth Cells in y direction of the maze the ids belong to.
+     * @return A lower bound of the cost from the cell to the goal.
+     */
+    default int estimate(int id, int goalId, int yWidth) {
+        return this.estimate(id / yWidth, id % yWidth, goalId / yWidth, goalId % yWidth);
+    }
+}
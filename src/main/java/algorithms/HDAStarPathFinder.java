@@ -0,0 +1,589 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+import utilities.MpscQueue;
+import utilities.Pair;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An Implementation of Hash Distributed A* (HDA*, Kishimoto et al.) for
+ * one large query on many cores. Every cell is owned by one worker,
+ * chosen by hashing the small square block of cells it lies in, so that
+ * most neighbours stay with the same worker. A worker expands only its
+ * own cells and sends the cells it generates for other workers through
+ * their lock-free MpscQueue, in batches.
+ *
+ * The cost of the best route found so far (the incumbent) is shared,
+ * and workers drop nodes whose f-cost is not below it. The search ends
+ * when every worker is idle and no batch is in flight, with an activity
+ * counter read before and after the check so that no late batch is
+ * missed. At that point no open node can improve the incumbent, so the
+ * route is optimal for an admissible heuristic.
+ *
+ * Workers are started per query; the calling thread watches the budget.
+ */
+public class HDAStarPathFinder implements PathFinder {
+
+    /**
+     * Cells are hashed to workers in blocks of 2^BLOCK_SHIFT by 2^BLOCK_SHIFT.
+     */
+    private static final int BLOCK_SHIFT = 2;
+
+    /**
+     * Generated cells per batch sent to another worker.
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * Expansions between two flushes of the outgoing batches.
+     */
+    private static final int EXPANSIONS_PER_ROUND = 64;
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final GridHeuristic heuristic;
+    private final int threads;
+
+
+    /**
+     * Constructor. Uses one worker per available processor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be admissible.
+     */
+    public HDAStarPathFinder(DistanceCalculator distanceCalculator,
+                             HeuristicFunction<Pair<Point, Point>, Double> heuristic) {
+
+        this(distanceCalculator, heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be admissible.
+     * @param threads            The number of workers.
+     */
+    public HDAStarPathFinder(DistanceCalculator distanceCalculator,
+                             HeuristicFunction<Pair<Point, Point>, Double> heuristic, int threads) {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + threads);
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+        this.threads = threads;
+    }
+
+
+    /**
+     * @return The number of workers.
+     */
+    public final int getThreads() {
+        return this.threads;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, charged with the expansions of all workers.
+     * @return A route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+        budget.check();
+
+        return new Search(maze, mCellStart.getId(), mCellGoal.getId()).run(budget);
+    }
+
+
+    /**
+     * The state of one query, shared by its workers.
+     */
+    private final class Search {
+
+        private final Maze maze;
+        private final int startId;
+        private final int goalId;
+        private final int goalI;
+        private final int goalJ;
+        private final int yWidth;
+
+        /**
+         * The g-cost and parent of each cell, written only by the owner of the cell.
+         */
+        private final int[] gCost;
+        private final int[] parent;
+
+        private final Worker[] workers;
+
+        /**
+         * The cost of the best route to the goal found so far.
+         */
+        private final AtomicInteger incumbent = new AtomicInteger(INFINITY);
+
+        /**
+         * Batches offered and not processed yet.
+         */
+        private final AtomicLong inFlight = new AtomicLong();
+
+        /**
+         * Bumped after every processed batch, before inFlight drops.
+         */
+        private final AtomicLong activity = new AtomicLong();
+
+        private final AtomicLong expansions = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch finished;
+
+        private volatile boolean done = false;
+
+
+        Search(Maze maze, int startId, int goalId) {
+
+            this.maze = maze;
+            this.startId = startId;
+            this.goalId = goalId;
+            this.yWidth = maze.getyWidth();
+            this.goalI = goalId / this.yWidth;
+            this.goalJ = goalId % this.yWidth;
+
+            this.gCost = new int[maze.size()];
+            this.parent = new int[maze.size()];
+            Arrays.fill(this.gCost, INFINITY);
+
+            int count = HDAStarPathFinder.this.threads;
+            this.workers = new Worker[count];
+            for (int w = 0; w < count; w++) {
+                this.workers[w] = new Worker(w);
+            }
+            this.finished = new CountDownLatch(count);
+        }
+
+
+        Route run(SearchBudget budget) {
+
+            this.workers[this.owner(this.startId)].receive(this.startId, 0, -1);
+
+            Thread[] started = new Thread[this.workers.length];
+            for (int w = 0; w < this.workers.length; w++) {
+                started[w] = new Thread(this.workers[w], "hda-worker-" + w);
+                started[w].setDaemon(true);
+                started[w].start();
+            }
+
+            long charged = 0;
+
+            try {
+                // The calling thread only watches the budget:
+                while (!this.finished.await(1, TimeUnit.MILLISECONDS)) {
+                    long total = this.expansions.get();
+                    budget.charge(total - charged);
+                    charged = total;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.CANCELLED, charged);
+            } finally {
+                this.done = true;
+            }
+
+            Throwable error = this.failure.get();
+            if (error != null) {
+                throw new IllegalStateException("A search worker failed.", error);
+            }
+
+            budget.charge(this.expansions.get() - charged);
+
+            if (this.gCost[this.goalId] == INFINITY) {
+                return new Route();
+            }
+
+            // Every cost on the parent chain is lower than the one after it, so the chain ends at the start:
+            int length = 1;
+            for (int node = this.goalId; node != this.startId; node = this.parent[node]) {
+                length++;
+            }
+
+            int[] nodes = new int[length];
+            for (int node = this.goalId; node != this.startId; node = this.parent[node]) {
+                nodes[--length] = node;
+            }
+            nodes[0] = this.startId;
+
+            return new Route(nodes);
+        }
+
+
+        private int owner(int cell) {
+
+            int block = ((cell / this.yWidth) >> BLOCK_SHIFT) * ((this.yWidth >> BLOCK_SHIFT) + 1)
+                        + ((cell % this.yWidth) >> BLOCK_SHIFT);
+            int hash = block * 0x9E3779B9;
+            return (int) (((hash ^ (hash >>> 16)) & 0xFFFFFFFFL) % this.workers.length);
+        }
+
+
+        private int h(int cell) {
+            return HDAStarPathFinder.this.heuristic.estimate(cell / this.yWidth, cell % this.yWidth,
+                                                             this.goalI, this.goalJ);
+        }
+
+
+        /**
+         * Ends the search if every worker is idle and nothing is in flight.
+         */
+        private void tryTerminate() {
+
+            long before = this.activity.get();
+
+            if (this.inFlight.get() != 0) {
+                return;
+            }
+
+            for (Worker worker : this.workers) {
+                if (!worker.idle) {
+                    return;
+                }
+            }
+
+            // A batch processed during the scan may have woken a worker read as idle:
+            if (this.inFlight.get() != 0 || this.activity.get() != before) {
+                return;
+            }
+
+            this.done = true;
+        }
+
+
+        private final class Worker implements Runnable {
+
+            private final int index;
+            private final MpscQueue<int[]> inbox = new MpscQueue<>();
+
+            /**
+             * Triples of cell, g-cost and parent waiting to go to each worker.
+             */
+            private final int[][] outboxes;
+            private final int[] outboxSizes;
+
+            private final OpenHeap open = new OpenHeap();
+
+            private volatile boolean idle = false;
+
+
+            Worker(int index) {
+
+                this.index = index;
+                this.outboxes = new int[Search.this.workers.length][];
+                this.outboxSizes = new int[Search.this.workers.length];
+            }
+
+
+            @Override
+            public void run() {
+
+                try {
+                    int spins = 0;
+
+                    while (!Search.this.done) {
+
+                        boolean received = this.drainInbox();
+                        int expanded = this.expand();
+                        this.flush();
+
+                        if (received || expanded > 0) {
+                            spins = 0;
+                            continue;
+                        }
+
+                        this.idle = true;
+                        Search.this.tryTerminate();
+
+                        // Nothing to do, wait for batches without burning the core:
+                        if (++spins < 100) {
+                            Thread.yield();
+                        }
+                        else {
+                            LockSupport.parkNanos(20000);
+                        }
+                    }
+                } catch (Throwable e) {
+                    Search.this.failure.compareAndSet(null, e);
+                    Search.this.done = true;
+                } finally {
+                    Search.this.finished.countDown();
+                }
+            }
+
+
+            private boolean drainInbox() {
+
+                boolean received = false;
+                int[] batch;
+
+                while ((batch = this.inbox.poll()) != null) {
+
+                    this.idle = false;
+                    received = true;
+
+                    for (int p = 0; p < batch.length; p += 3) {
+                        this.receive(batch[p], batch[p + 1], batch[p + 2]);
+                    }
+
+                    // The activity must change before the batch stops counting as in flight:
+                    Search.this.activity.incrementAndGet();
+                    Search.this.inFlight.decrementAndGet();
+                }
+                return received;
+            }
+
+
+            /**
+             * Takes a path to one of the cells of this worker.
+             */
+            void receive(int cell, int g, int from) {
+
+                if (g >= Search.this.gCost[cell]) {
+                    // This is not a better path:
+                    return;
+                }
+
+                Search.this.gCost[cell] = g;
+                Search.this.parent[cell] = from;
+
+                if (cell == Search.this.goalId) {
+                    Search.this.incumbent.accumulateAndGet(g, Math::min);
+                    return;
+                }
+
+                long f = (long) g + Search.this.h(cell);
+                if (f < Search.this.incumbent.get()) {
+                    this.open.push(f, g, cell);
+                }
+            }
+
+
+            private int expand() {
+
+                Maze maze = Search.this.maze;
+                int yWidth = Search.this.yWidth;
+                int expanded = 0;
+
+                while (expanded < EXPANSIONS_PER_ROUND && !this.open.isEmpty()) {
+
+                    long f = this.open.peekF();
+                    int g = this.open.peekG();
+                    int current = this.open.pop();
+
+                    // Skip stale entries and nodes that cannot beat the incumbent:
+                    if (g != Search.this.gCost[current] || f >= Search.this.incumbent.get()) {
+                        continue;
+                    }
+
+                    expanded++;
+
+                    int ci = current / yWidth;
+                    int cj = current % yWidth;
+
+                    // Loop over the neighbours to expand the search:
+                    for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                        int nn = maze.neighbourId(current, n);
+
+                        // Neglect neighbours outside the maze and blocked ones:
+                        if (nn == -1 || maze.isBlocked(nn)) {
+                            continue;
+                        }
+
+                        int tgCost = g + (int) HDAStarPathFinder.this.distanceCalculator
+                                .calculateDistance(ci, cj, nn / yWidth, nn % yWidth);
+
+                        int owner = Search.this.owner(nn);
+
+                        if (owner == this.index) {
+                            this.receive(nn, tgCost, current);
+                        }
+                        else {
+                            this.send(owner, nn, tgCost, current);
+                        }
+                    }
+                }
+
+                Search.this.expansions.addAndGet(expanded);
+                return expanded;
+            }
+
+
+            private void send(int owner, int cell, int g, int from) {
+
+                int[] outbox = this.outboxes[owner];
+                if (outbox == null) {
+                    outbox = this.outboxes[owner] = new int[3 * BATCH];
+                }
+
+                int size = this.outboxSizes[owner];
+                outbox[size] = cell;
+                outbox[size + 1] = g;
+                outbox[size + 2] = from;
+                this.outboxSizes[owner] = size + 3;
+
+                if (size + 3 == outbox.length) {
+                    this.flush(owner);
+                }
+            }
+
+
+            private void flush() {
+
+                for (int w = 0; w < this.outboxes.length; w++) {
+                    if (this.outboxSizes[w] > 0) {
+                        this.flush(w);
+                    }
+                }
+            }
+
+
+            private void flush(int owner) {
+
+                // Counted before it can be seen, so termination never misses it:
+                Search.this.inFlight.incrementAndGet();
+                Search.this.workers[owner].inbox.offer(Arrays.copyOf(this.outboxes[owner], this.outboxSizes[owner]));
+                this.outboxSizes[owner] = 0;
+            }
+        }
+    }
+
+
+    /**
+     * Binary min-heap of (f-cost, g-cost, cell) entries without a position
+     * index: a cell may be in it several times and the stale entries are
+     * skipped when popped, which keeps its size to the open nodes of one
+     * worker instead of the whole maze.
+     */
+    private static final class OpenHeap {
+
+        private long[] keys = new long[256];
+        private int[] cells = new int[256];
+        private int size = 0;
+
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+
+        void push(long f, int g, int cell) {
+
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+                this.cells = Arrays.copyOf(this.cells, 2 * this.size);
+            }
+
+            // Larger g-costs first among equal f-costs:
+            long key = (f << 32) | (INFINITY - g);
+            int p = this.size++;
+
+            while (p > 0) {
+                int up = (p - 1) >>> 1;
+                if (this.keys[up] <= key) {
+                    break;
+                }
+                this.keys[p] = this.keys[up];
+                this.cells[p] = this.cells[up];
+                p = up;
+            }
+
+            this.keys[p] = key;
+            this.cells[p] = cell;
+        }
+
+
+        long peekF() {
+            return this.keys[0] >>> 32;
+        }
+
+
+        int peekG() {
+            return INFINITY - (int) (this.keys[0] & 0xFFFFFFFFL);
+        }
+
+
+        int pop() {
+
+            int top = this.cells[0];
+            long key = this.keys[--this.size];
+            int cell = this.cells[this.size];
+            int p = 0;
+
+            while (true) {
+                int child = 2 * p + 1;
+                if (child >= this.size) {
+                    break;
+                }
+                if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                    child++;
+                }
+                if (key <= this.keys[child]) {
+                    break;
+                }
+                this.keys[p] = this.keys[child];
+                this.cells[p] = this.cells[child];
+                p = child;
+            }
+
+            this.keys[p] = key;
+            this.cells[p] = cell;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package algorithms;
+
+import maze.Maze;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+import utilities.Pair;
+
+import java.util.Arrays;
+
+/**
+ * An Implementation of IDA* (iterative deepening A*) with a fixed-size
+ * transposition table, for mazes whose explored area does not fit in
+ * memory. Each iteration is a depth-first search bounded by an f-cost
+ * threshold, raised to the smallest f-cost that went over it.
+ *
+ * Only the current path and the table are kept, so peak memory is the
+ * configured table size plus O(path length), whatever the number of
+ * cells explored. The table remembers the best g-cost each cell was
+ * reached with in the current iteration and prunes worse revisits; a
+ * smaller table only means more cells are searched again, though the
+ * repeated work grows quickly once the table holds far fewer entries
+ * than the cells within the final threshold. Cells are addressed with
+ * longs, see Maze.neighbourAddress().
+ */
+public class IDAStarPathFinder implements PathFinder {
+
+    /**
+     * Bytes per table entry: the cell, its g-cost and the iteration.
+     */
+    public static final int ENTRY_BYTES = 16;
+
+    private static final int MAX_ENTRIES = 1 << 30;
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final GridHeuristic heuristic;
+    private final int tableEntries;
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be consistent.
+     * @param memoryBudgetBytes  The size of the transposition table, at least ENTRY_BYTES.
+     */
+    public IDAStarPathFinder(DistanceCalculator distanceCalculator,
+                             HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                             long memoryBudgetBytes) {
+
+        if (memoryBudgetBytes < ENTRY_BYTES) {
+            throw new IllegalArgumentException("Memory budget must be at least " + ENTRY_BYTES + " bytes: "
+                                               + memoryBudgetBytes);
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+
+        // The largest power of two that fits, so the index is a mask:
+        long entries = Math.min(memoryBudgetBytes / ENTRY_BYTES, MAX_ENTRIES);
+        this.tableEntries = Integer.highestOneBit((int) entries);
+    }
+
+
+    /**
+     * @return The number of entries of the transposition table.
+     */
+    public final int getTableEntries() {
+        return this.tableEntries;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return A route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        if (start == null || goal == null) {
+            throw new IllegalArgumentException("Invalid cell. Cell not in Maze.");
+        }
+
+        long startCell = this.checkAddress(maze, start);
+        long goalCell = this.checkAddress(maze, goal);
+
+        Route route = new Route();
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (startCell == goalCell) {
+            route.addItem(toId(startCell));
+            return route;
+        }
+
+        budget.start();
+
+        return new Search(maze, startCell, goalCell, budget).run();
+    }
+
+
+    private long checkAddress(Maze maze, Point p) {
+
+        long cell = maze.cellAddress(p.i, p.j);
+
+        if (cell == -1) {
+            throw new IllegalArgumentException("Invalid cell. Cell not in Maze.");
+        }
+
+        if (maze.isBlocked(cell)) {
+            throw new IllegalArgumentException("Cell is blocked. Please change your location.");
+        }
+        return cell;
+    }
+
+
+    private static int toId(long cell) {
+
+        if (cell > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Cell " + cell + " does not fit in a Route.");
+        }
+        return (int) cell;
+    }
+
+
+    /**
+     * The state of one query.
+     */
+    private final class Search {
+
+        private final Maze maze;
+        private final long startCell;
+        private final long goalCell;
+        private final int goalI;
+        private final int goalJ;
+        private final long yWidth;
+        private final SearchBudget budget;
+
+        /**
+         * The transposition table, indexed by a hash of the cell.
+         */
+        private final long[] tableCells;
+        private final int[] tableG;
+        private final int[] tableIteration;
+        private final int mask;
+
+        private int iteration = 0;
+
+        /**
+         * The current path: its cells, their g-costs and the next neighbour to try.
+         */
+        private long[] pathCells = new long[64];
+        private int[] pathG = new int[64];
+        private byte[] pathNext = new byte[64];
+
+
+        Search(Maze maze, long startCell, long goalCell, SearchBudget budget) {
+
+            this.maze = maze;
+            this.startCell = startCell;
+            this.goalCell = goalCell;
+            this.yWidth = maze.getyWidth();
+            this.goalI = (int) (goalCell / this.yWidth);
+            this.goalJ = (int) (goalCell % this.yWidth);
+            this.budget = budget;
+
+            int entries = IDAStarPathFinder.this.tableEntries;
+            this.tableCells = new long[entries];
+            this.tableG = new int[entries];
+            this.tableIteration = new int[entries];
+            this.mask = entries - 1;
+        }
+
+
+        Route run() {
+
+            long threshold = this.h(this.startCell);
+
+            while (true) {
+
+                this.iteration++;
+
+                long next = this.iterate(threshold);
+
+                if (next < 0) {
+                    return this.path((int) (-next - 1));
+                }
+
+                if (next == Long.MAX_VALUE) {
+                    // Nothing went over the threshold, the goal cannot be reached:
+                    return new Route();
+                }
+                threshold = next;
+            }
+        }
+
+
+        /**
+         * One depth-first search bounded by the threshold.
+         *
+         * @return -(depth + 1) of the goal if it was reached, otherwise the smallest
+         *         f-cost over the threshold, Long.MAX_VALUE if there was none.
+         */
+        private long iterate(long threshold) {
+
+            long next = Long.MAX_VALUE;
+            int depth = 0;
+
+            this.pathCells[0] = this.startCell;
+            this.pathG[0] = 0;
+            this.pathNext[0] = 0;
+            this.visit(this.startCell, 0);
+
+            while (depth >= 0) {
+
+                if (this.pathNext[depth] == Maze.NUMBER_OF_NEIGHBOURS) {
+                    // Every neighbour was tried, back up:
+                    depth--;
+                    continue;
+                }
+
+                long cell = this.pathCells[depth];
+                long neighbour = this.maze.neighbourAddress(cell, this.pathNext[depth]++);
+
+                // Neglect neighbours outside the maze, blocked ones and the way back:
+                if (neighbour == -1 || this.maze.isBlocked(neighbour)
+                    || (depth > 0 && neighbour == this.pathCells[depth - 1])) {
+                    continue;
+                }
+
+                int gCost = this.pathG[depth] + (int) IDAStarPathFinder.this.distanceCalculator.calculateDistance(
+                        (int) (cell / this.yWidth), (int) (cell % this.yWidth),
+                        (int) (neighbour / this.yWidth), (int) (neighbour % this.yWidth));
+
+                long fCost = (long) gCost + this.h(neighbour);
+
+                if (fCost > threshold) {
+                    next = Math.min(next, fCost);
+                    continue;
+                }
+
+                if (!this.visit(neighbour, gCost)) {
+                    // Reached as cheaply before in this iteration:
+                    continue;
+                }
+
+                // Stop here if the query ran out of budget:
+                try {
+                    this.budget.charge();
+                } catch (SearchBudgetExceededException e) {
+                    throw e.withPartialRoute(this.path(depth));
+                }
+
+                depth++;
+                this.ensureDepth(depth);
+                this.pathCells[depth] = neighbour;
+                this.pathG[depth] = gCost;
+                this.pathNext[depth] = 0;
+
+                if (neighbour == this.goalCell) {
+                    return -(depth + 1L);
+                }
+            }
+            return next;
+        }
+
+
+        /**
+         * Records a cell in the transposition table unless it holds a cheaper
+         * or equal g-cost for it from this iteration. Each cell may sit in
+         * one of two slots; a full pair gives up the entry of an older
+         * iteration first, then the deeper one, as entries near the start
+         * prune the largest subtrees.
+         *
+         * @return True if the cell must be searched.
+         */
+        private boolean visit(long cell, int gCost) {
+
+            // Mixing the bits spreads neighbouring cells over the table:
+            long hash = cell * 0x9E3779B97F4A7C15L;
+            int first = (int) (hash ^ (hash >>> 32)) & this.mask & ~1;
+            int victim = first;
+
+            for (int slot = first; slot <= (first | 1) && slot <= this.mask; slot++) {
+
+                if (this.tableCells[slot] == cell + 1 && this.tableIteration[slot] == this.iteration) {
+
+                    if (this.tableG[slot] <= gCost) {
+                        return false;
+                    }
+                    victim = slot;
+                    break;
+                }
+
+                if (this.tableIteration[slot] != this.iteration) {
+                    victim = slot;
+                }
+                else if (this.tableIteration[victim] == this.iteration && this.tableG[slot] > this.tableG[victim]) {
+                    victim = slot;
+                }
+            }
+
+            this.tableCells[victim] = cell + 1;
+            this.tableG[victim] = gCost;
+            this.tableIteration[victim] = this.iteration;
+            return true;
+        }
+
+
+        private long h(long cell) {
+            return IDAStarPathFinder.this.heuristic.estimate((int) (cell / this.yWidth), (int) (cell % this.yWidth),
+                                                             this.goalI, this.goalJ);
+        }
+
+
+        private Route path(int depth) {
+
+            int[] ids = new int[depth + 1];
+            for (int d = 0; d <= depth; d++) {
+                ids[d] = toId(this.pathCells[d]);
+            }
+            return new Route(ids);
+        }
+
+
+        private void ensureDepth(int depth) {
+
+            if (depth == this.pathCells.length) {
+                this.pathCells = Arrays.copyOf(this.pathCells, 2 * depth);
+                this.pathG = Arrays.copyOf(this.pathG, 2 * depth);
+                this.pathNext = Arrays.copyOf(this.pathNext, 2 * depth);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over node ids with a position index,
+ * which gives O(log n) decrease-key and O(1) contains.
+ */
+public class IndexedBinaryHeap implements OpenList {
+
+    /**
+     * The node ids in heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * Position of each node in the heap, -1 if not in the heap.
+     */
+    private final int[] position;
+
+    /**
+     * The key of each node in the heap.
+     */
+    private final long[] keys;
+
+    private int size = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of node ids the heap must hold.
+     */
+    public IndexedBinaryHeap(int capacity) {
+
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(this.position, -1);
+    }
+
+
+    public void push(int node, long key) {
+
+        int p = this.position[node];
+
+        if (p == -1) {
+            this.keys[node] = key;
+            this.heap[this.size] = node;
+            this.position[node] = this.size;
+            this.siftUp(this.size++);
+        }
+        else if (key < this.keys[node]) {
+            this.keys[node] = key;
+            this.siftUp(p);
+        }
+    }
+
+
+    public int pollMin() {
+
+        if (this.size == 0) {
+            throw new IllegalStateException("Poll from an empty open list.");
+        }
+
+        int min = this.heap[0];
+        this.position[min] = -1;
+
+        if (--this.size > 0) {
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.position[last] = 0;
+            this.siftDown(0);
+        }
+
+        return min;
+    }
+
+
+    public int peekMin() {
+
+        if (this.size == 0) {
+            throw new IllegalStateException("Peek into an empty open list.");
+        }
+        return this.heap[0];
+    }
+
+
+    public long peekMinKey() {
+        return this.keys[this.peekMin()];
+    }
+
+
+    public void remove(int node) {
+
+        int p = this.position[node];
+
+        if (p == -1) {
+            return;
+        }
+
+        this.position[node] = -1;
+
+        if (p == --this.size) {
+            return;
+        }
+
+        // Fill the hole with the last node and restore the heap order:
+        int last = this.heap[this.size];
+        this.heap[p] = last;
+        this.position[last] = p;
+        this.siftUp(p);
+        this.siftDown(this.position[last]);
+    }
+
+
+    public boolean contains(int node) {
+        return this.position[node] != -1;
+    }
+
+
+    public int size() {
+        return this.size;
+    }
+
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    public void clear() {
+
+        for (int p = 0; p < this.size; p++) {
+            this.position[this.heap[p]] = -1;
+        }
+        this.size = 0;
+    }
+
+
+    public int capacity() {
+        return this.position.length;
+    }
+
+
+    private void siftUp(int p) {
+
+        int node = this.heap[p];
+        long key = this.keys[node];
+
+        while (p > 0) {
+
+            int parent = (p - 1) >>> 1;
+            int parentNode = this.heap[parent];
+
+            if (this.keys[parentNode] <= key) {
+                break;
+            }
+
+            this.heap[p] = parentNode;
+            this.position[parentNode] = p;
+            p = parent;
+        }
+
+        this.heap[p] = node;
+        this.position[node] = p;
+    }
+
+
+    private void siftDown(int p) {
+
+        int node = this.heap[p];
+        long key = this.keys[node];
+        int half = this.size >>> 1;
+
+        while (p < half) {
+
+            int child = 2 * p + 1;
+            int childNode = this.heap[child];
+            int right = child + 1;
+
+            if (right < this.size && this.keys[this.heap[right]] < this.keys[childNode]) {
+                child = right;
+                childNode = this.heap[right];
+            }
+
+            if (key <= this.keys[childNode]) {
+                break;
+            }
+
+            this.heap[p] = childNode;
+            this.position[childNode] = p;
+            p = child;
+        }
+
+        this.heap[p] = node;
+        this.position[node] = p;
+    }
+}
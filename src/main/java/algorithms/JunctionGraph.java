@@ -0,0 +1,744 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.Arrays;
+
+/**
+ * A maze compiled into a sparse graph of junctions. Dead ends are
+ * removed first, one cell at a time, which leaves every removed cell
+ * hanging in a tree off one cell of the remaining core; a maze without
+ * loops shrinks to one cell per connected part. Then every corridor of
+ * the core, a chain of cells with two open neighbours, becomes one
+ * weighted edge between the junctions at its ends.
+ *
+ * The graph is kept in compressed sparse row (CSR) arrays: the edges of
+ * node u are offsets[u] to offsets[u + 1] - 1, each with its target, its
+ * cost and the neighbour index of its first step. Corridor cells are
+ * not stored with the edge: expanding an edge walks the corridor again.
+ *
+ * A query climbs the trees of the start and the goal to the core, joins
+ * each core cell to the junctions at the ends of its corridor, runs
+ * Dijkstra over the junctions and expands the result back into cells.
+ * Queries inside one tree need no search at all. The graph belongs to
+ * the maze as it was built and refuses to answer once the maze changed.
+ */
+public class JunctionGraph implements PathFinder {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The exit of a cell that was not removed.
+     */
+    private static final byte CORE = -1;
+
+    private final Maze maze;
+    private final long version;
+    private final GridDistanceCalculator distanceCalculator;
+    private final int yWidth;
+
+    /**
+     * The neighbour index towards the core of each removed cell, CORE for the others.
+     */
+    private final byte[] exit;
+
+    /**
+     * The steps from each removed cell to the core, 0 for the others.
+     */
+    private final int[] depth;
+
+    /**
+     * The node of each junction cell, -1 for the other cells.
+     */
+    private final int[] nodeOf;
+
+    /**
+     * The cell of each node.
+     */
+    private final int[] nodeCell;
+
+    private final int[] offsets;
+    private final int[] edgeTarget;
+    private final int[] edgeCost;
+    private final byte[] edgeDirection;
+
+    private final int removed;
+
+
+    private JunctionGraph(Maze maze, GridDistanceCalculator distanceCalculator, byte[] exit, int[] depth,
+                          int[] nodeOf, int[] nodeCell, int[] offsets, int[] edgeTarget, int[] edgeCost,
+                          byte[] edgeDirection, int removed) {
+
+        this.maze = maze;
+        this.version = maze.getVersion();
+        this.distanceCalculator = distanceCalculator;
+        this.yWidth = maze.getyWidth();
+        this.exit = exit;
+        this.depth = depth;
+        this.nodeOf = nodeOf;
+        this.nodeCell = nodeCell;
+        this.offsets = offsets;
+        this.edgeTarget = edgeTarget;
+        this.edgeCost = edgeCost;
+        this.edgeDirection = edgeDirection;
+        this.removed = removed;
+    }
+
+
+    /**
+     * Compiles a maze.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The junction graph of the maze as it is now.
+     */
+    public static JunctionGraph build(Maze maze, DistanceCalculator distanceCalculator) {
+
+        GridDistanceCalculator calculator = GridAdapters.toGridDistance(distanceCalculator);
+        int size = maze.size();
+
+        // The open neighbours of each open cell that are still in the core:
+        byte[] degree = new byte[size];
+        int[] queue = new int[size];
+        int tail = 0;
+
+        for (int cell = 0; cell < size; cell++) {
+
+            if (maze.isBlocked(cell)) {
+                continue;
+            }
+
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                int nn = maze.neighbourId(cell, n);
+                if (nn != -1 && !maze.isBlocked(nn)) {
+                    degree[cell]++;
+                }
+            }
+
+            if (degree[cell] == 1) {
+                queue[tail++] = cell;
+            }
+        }
+
+        // Remove dead ends until none is left; the last cell of a tree stays with no neighbours:
+        byte[] exit = new byte[size];
+        Arrays.fill(exit, CORE);
+        int removed = 0;
+
+        for (int head = 0; head < tail; head++) {
+
+            int cell = queue[head];
+
+            if (degree[cell] != 1) {
+                continue;
+            }
+
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                int nn = maze.neighbourId(cell, n);
+
+                if (nn != -1 && !maze.isBlocked(nn) && exit[nn] == CORE) {
+
+                    exit[cell] = (byte) n;
+                    degree[cell] = 0;
+                    queue[removed++] = cell;
+
+                    if (--degree[nn] == 1) {
+                        queue[tail++] = nn;
+                    }
+                    break;
+                }
+            }
+        }
+
+        // A cell is removed after every cell of the tree below it:
+        int[] depth = new int[size];
+        for (int k = removed - 1; k >= 0; k--) {
+            int cell = queue[k];
+            int parent = maze.neighbourId(cell, exit[cell]);
+            depth[cell] = depth[parent] + 1;
+        }
+
+        // Junctions are the core cells that are not in the middle of a corridor:
+        int[] nodeOf = new int[size];
+        Arrays.fill(nodeOf, -1);
+        int[] nodeCell = new int[16];
+        int nodes = 0;
+
+        for (int cell = 0; cell < size; cell++) {
+            if (!maze.isBlocked(cell) && exit[cell] == CORE && degree[cell] != 2) {
+                nodeCell = grow(nodeCell, nodes + 1);
+                nodeCell[nodes] = cell;
+                nodeOf[cell] = nodes++;
+            }
+        }
+
+        Builder builder = new Builder(maze, calculator, exit, nodeOf);
+
+        for (int node = 0; node < nodes; node++) {
+            builder.addEdges(node, nodeCell[node]);
+        }
+
+        // Loops with no junction get one of their cells as a node:
+        for (int cell = 0; cell < size; cell++) {
+            if (!maze.isBlocked(cell) && exit[cell] == CORE && nodeOf[cell] == -1 && !builder.isWalked(cell)) {
+                nodeCell = grow(nodeCell, nodes + 1);
+                nodeCell[nodes] = cell;
+                nodeOf[cell] = nodes;
+                builder.addEdges(nodes++, cell);
+            }
+        }
+
+        return new JunctionGraph(maze, calculator, exit, depth, nodeOf, Arrays.copyOf(nodeCell, nodes),
+                                 builder.offsets(nodes), Arrays.copyOf(builder.target, builder.edges),
+                                 Arrays.copyOf(builder.cost, builder.edges),
+                                 Arrays.copyOf(builder.direction, builder.edges), removed);
+    }
+
+
+    /**
+     * @return The number of junctions.
+     */
+    public final int getNodeCount() {
+        return this.nodeCell.length;
+    }
+
+
+    /**
+     * @return The number of edges, each corridor counting once per direction.
+     */
+    public final int getEdgeCount() {
+        return this.edgeTarget.length;
+    }
+
+
+    /**
+     * @return The number of dead end cells removed.
+     */
+    public final int getRemovedCount() {
+        return this.removed;
+    }
+
+
+    /**
+     * @param node The node index.
+     * @return The id of the junction cell.
+     */
+    public final int getNodeCell(int node) {
+        return this.nodeCell[node];
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The maze the graph was built from.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, charged once per junction.
+     * @return A route with the cheapest cost. Empty if the goal cannot be reached.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        if (maze != this.maze) {
+            throw new IllegalArgumentException("A junction graph only answers for the maze it was built from.");
+        }
+        if (maze.getVersion() != this.version) {
+            throw new IllegalStateException("The maze changed after the junction graph was built.");
+        }
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+
+        return this.route(mCellStart.getId(), mCellGoal.getId(), budget);
+    }
+
+
+    private Route route(int startId, int goalId, SearchBudget budget) {
+
+        Cells head = new Cells();
+        Cells tail = new Cells();
+
+        int coreStart = this.climb(startId, head);
+        int coreGoal = this.climb(goalId, tail);
+
+        // Both hang in the same tree, or off the same core cell:
+        if (coreStart == coreGoal) {
+            return this.treeRoute(startId, goalId);
+        }
+
+        Attachment[] starts = this.attach(coreStart, coreGoal);
+        Attachment[] goals = this.attach(coreGoal, -1);
+
+        int best = INFINITY;
+        int bestDirect = -1;
+
+        for (int k = 0; k < starts.length; k++) {
+            if (starts[k].end == coreGoal && starts[k].cost < best) {
+                best = starts[k].cost;
+                bestDirect = k;
+            }
+        }
+
+        SearchContext context = SearchContext.acquire(Math.max(1, this.nodeCell.length));
+
+        try {
+            int bestGoal = -1;
+            int goalNode = -1;
+
+            OpenList open = context.openList(OpenListType.BINARY_HEAP);
+
+            for (Attachment attachment : starts) {
+                int node = this.nodeOf[attachment.end];
+                if (attachment.end != coreGoal && node != -1 && attachment.cost < context.getGCost(node)) {
+                    context.reach(node, attachment.cost, -1);
+                    open.push(node, attachment.cost);
+                }
+            }
+
+            while (!open.isEmpty()) {
+
+                int current = open.pollMin();
+                int currentCost = context.getGCost(current);
+
+                if (currentCost >= best) {
+                    break;
+                }
+
+                // Stop here if the query ran out of budget:
+                budget.charge();
+
+                for (int k = 0; k < goals.length; k++) {
+                    if (this.nodeOf[goals[k].end] == current && currentCost + goals[k].cost < best) {
+                        best = currentCost + goals[k].cost;
+                        bestGoal = k;
+                        goalNode = current;
+                    }
+                }
+
+                for (int e = this.offsets[current]; e < this.offsets[current + 1]; e++) {
+
+                    int target = this.edgeTarget[e];
+                    int cost = currentCost + this.edgeCost[e];
+
+                    if (cost < context.getGCost(target)) {
+                        context.reach(target, cost, e);
+                        open.push(target, cost);
+                    }
+                }
+            }
+
+            if (best == INFINITY) {
+                return new Route();
+            }
+
+            // Up the tree of the start, which ends at its core cell:
+            Cells cells = head;
+
+            if (bestGoal == -1) {
+                // Straight along the corridor the start lies in:
+                this.walk(coreStart, starts[bestDirect].direction, coreGoal, cells);
+            }
+            else {
+                this.junctionRoute(context, starts, coreStart, goalNode, cells);
+
+                // Along the corridor of the goal, backwards:
+                Cells corridor = new Cells();
+                corridor.add(coreGoal);
+                if (goals[bestGoal].direction != -1) {
+                    this.walk(coreGoal, goals[bestGoal].direction, -1, corridor);
+                }
+                for (int k = corridor.size - 2; k >= 0; k--) {
+                    cells.add(corridor.cells[k]);
+                }
+            }
+
+            // Down the tree of the goal:
+            for (int k = tail.size - 2; k >= 0; k--) {
+                cells.add(tail.cells[k]);
+            }
+
+            return new Route(Arrays.copyOf(cells.cells, cells.size));
+        } finally {
+            context.release();
+        }
+    }
+
+
+    /**
+     * Adds the cells from the core cell of the start to the goal junction, that one included.
+     */
+    private void junctionRoute(SearchContext context, Attachment[] starts, int coreStart, int goalNode, Cells cells) {
+
+        // The edges back to the junction the start was joined to:
+        Cells edges = new Cells();
+        int node = goalNode;
+
+        for (int e = context.getParent(node); e != -1; e = context.getParent(node)) {
+            edges.add(e);
+            node = this.edgeSource(e);
+        }
+
+        // The corridor from the core cell of the start to that junction:
+        int firstCost = context.getGCost(node);
+        for (Attachment attachment : starts) {
+            if (this.nodeOf[attachment.end] == node && attachment.cost == firstCost) {
+                if (attachment.direction != -1) {
+                    this.walk(coreStart, attachment.direction, -1, cells);
+                }
+                break;
+            }
+        }
+
+        for (int k = edges.size - 1; k >= 0; k--) {
+            int e = edges.cells[k];
+            this.walk(this.nodeCell[this.edgeSource(e)], this.edgeDirection[e], -1, cells);
+        }
+    }
+
+
+    /**
+     * @return The route between two cells that hang off the same core cell.
+     */
+    private Route treeRoute(int startId, int goalId) {
+
+        Cells up = new Cells();
+        Cells down = new Cells();
+        int a = startId;
+        int b = goalId;
+
+        // Climb from the deeper side until both meet:
+        while (a != b) {
+            if (this.depth[a] >= this.depth[b]) {
+                up.add(a);
+                a = this.maze.neighbourId(a, this.exit[a]);
+            }
+            else {
+                down.add(b);
+                b = this.maze.neighbourId(b, this.exit[b]);
+            }
+        }
+
+        up.add(a);
+        for (int k = down.size - 1; k >= 0; k--) {
+            up.add(down.cells[k]);
+        }
+        return new Route(Arrays.copyOf(up.cells, up.size));
+    }
+
+
+    /**
+     * Climbs a tree of removed cells to the core.
+     *
+     * @param cell  The id of the cell.
+     * @param cells Gets the cells from the given one to the core cell, both included.
+     * @return The core cell.
+     */
+    private int climb(int cell, Cells cells) {
+
+        cells.add(cell);
+
+        while (this.exit[cell] != CORE) {
+            cell = this.maze.neighbourId(cell, this.exit[cell]);
+            cells.add(cell);
+        }
+        return cell;
+    }
+
+
+    /**
+     * @param core The core cell.
+     * @param stop A cell to stop a corridor walk at, -1 for none.
+     * @return The junctions the cell is joined to: itself, or the ends of its corridor.
+     */
+    private Attachment[] attach(int core, int stop) {
+
+        if (this.nodeOf[core] != -1) {
+            return new Attachment[]{new Attachment(core, 0, -1)};
+        }
+
+        Attachment[] attachments = new Attachment[2];
+        int count = 0;
+
+        for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+            int nn = this.maze.neighbourId(core, n);
+
+            if (nn != -1 && this.isCore(nn)) {
+                int[] cost = new int[1];
+                int end = this.walk(core, n, stop, null, cost);
+                attachments[count++] = new Attachment(end, cost[0], n);
+            }
+        }
+        return attachments;
+    }
+
+
+    private int walk(int from, int direction, int stop, Cells cells) {
+        return this.walk(from, direction, stop, cells, null);
+    }
+
+
+    /**
+     * Walks a corridor from a cell until a junction or the stop cell.
+     *
+     * @param from      The cell the walk starts at, not added.
+     * @param direction The neighbour index of the first step.
+     * @param stop      A cell to stop at, -1 for none.
+     * @param cells     Gets the cells of the walk, null for none.
+     * @param cost      Gets the cost of the walk, null for none.
+     * @return The cell the walk ended at.
+     */
+    private int walk(int from, int direction, int stop, Cells cells, int[] cost) {
+
+        int previous = from;
+        int current = this.maze.neighbourId(from, direction);
+        int total = this.stepCost(previous, current);
+
+        while (this.nodeOf[current] == -1 && current != stop) {
+
+            if (cells != null) {
+                cells.add(current);
+            }
+
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                int nn = this.maze.neighbourId(current, n);
+
+                if (nn != -1 && nn != previous && this.isCore(nn)) {
+                    previous = current;
+                    current = nn;
+                    break;
+                }
+            }
+            total += this.stepCost(previous, current);
+        }
+
+        if (cells != null) {
+            cells.add(current);
+        }
+        if (cost != null) {
+            cost[0] = total;
+        }
+        return current;
+    }
+
+
+    private boolean isCore(int cell) {
+        return !this.maze.isBlocked(cell) && this.exit[cell] == CORE;
+    }
+
+
+    private int stepCost(int from, int to) {
+        return (int) this.distanceCalculator.calculateDistance(from / this.yWidth, from % this.yWidth,
+                                                               to / this.yWidth, to % this.yWidth);
+    }
+
+
+    /**
+     * @return The node an edge leaves from.
+     */
+    private int edgeSource(int edge) {
+
+        // The last node whose edges start at or before the edge:
+        int lo = 0;
+        int hi = this.nodeCell.length - 1;
+
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.offsets[mid] <= edge) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+
+    private static int[] grow(int[] array, int size) {
+        return size > array.length ? Arrays.copyOf(array, 2 * array.length) : array;
+    }
+
+
+    /**
+     * A junction a core cell is joined to, with the cost and first step of the corridor between them.
+     */
+    private static final class Attachment {
+
+        private final int end;
+        private final int cost;
+        private final int direction;
+
+
+        Attachment(int end, int cost, int direction) {
+            this.end = end;
+            this.cost = cost;
+            this.direction = direction;
+        }
+    }
+
+
+    /**
+     * A growable list of cell ids.
+     */
+    private static final class Cells {
+
+        private int[] cells = new int[16];
+        private int size = 0;
+
+
+        void add(int cell) {
+            this.cells = grow(this.cells, this.size + 1);
+            this.cells[this.size++] = cell;
+        }
+    }
+
+
+    /**
+     * Collects the edges of the nodes in node order, which is the CSR order.
+     */
+    private static final class Builder {
+
+        private final Maze maze;
+        private final GridDistanceCalculator calculator;
+        private final byte[] exit;
+        private final int[] nodeOf;
+        private final int yWidth;
+
+        /**
+         * The corridor cells some walk went through.
+         */
+        private final long[] walked;
+
+        private int[] source = new int[16];
+        private int[] target = new int[16];
+        private int[] cost = new int[16];
+        private byte[] direction = new byte[16];
+        private int edges = 0;
+
+
+        Builder(Maze maze, GridDistanceCalculator calculator, byte[] exit, int[] nodeOf) {
+
+            this.maze = maze;
+            this.calculator = calculator;
+            this.exit = exit;
+            this.nodeOf = nodeOf;
+            this.yWidth = maze.getyWidth();
+            this.walked = new long[(maze.size() + 63) >>> 6];
+        }
+
+
+        boolean isWalked(int cell) {
+            return (this.walked[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+
+        /**
+         * Walks every corridor that leaves a node and adds it as an edge.
+         */
+        void addEdges(int node, int cell) {
+
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                int nn = this.maze.neighbourId(cell, n);
+
+                if (nn == -1 || !this.isCore(nn)) {
+                    continue;
+                }
+
+                int previous = cell;
+                int current = nn;
+                int total = this.stepCost(previous, current);
+
+                while (this.nodeOf[current] == -1) {
+
+                    this.walked[current >>> 6] |= 1L << current;
+
+                    for (int d = 0; d < Maze.NUMBER_OF_NEIGHBOURS; d++) {
+
+                        int next = this.maze.neighbourId(current, d);
+
+                        if (next != -1 && next != previous && this.isCore(next)) {
+                            previous = current;
+                            current = next;
+                            break;
+                        }
+                    }
+                    total += this.stepCost(previous, current);
+                }
+
+                if (this.edges == this.target.length) {
+                    int capacity = 2 * this.edges;
+                    this.source = Arrays.copyOf(this.source, capacity);
+                    this.target = Arrays.copyOf(this.target, capacity);
+                    this.cost = Arrays.copyOf(this.cost, capacity);
+                    this.direction = Arrays.copyOf(this.direction, capacity);
+                }
+
+                this.source[this.edges] = node;
+                this.target[this.edges] = this.nodeOf[current];
+                this.cost[this.edges] = total;
+                this.direction[this.edges++] = (byte) n;
+            }
+        }
+
+
+        int[] offsets(int nodes) {
+
+            int[] offsets = new int[nodes + 1];
+            for (int e = 0; e < this.edges; e++) {
+                offsets[this.source[e] + 1]++;
+            }
+            for (int node = 0; node < nodes; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            return offsets;
+        }
+
+
+        private boolean isCore(int cell) {
+            return !this.maze.isBlocked(cell) && this.exit[cell] == CORE;
+        }
+
+
+        private int stepCost(int from, int to) {
+            return (int) this.calculator.calculateDistance(from / this.yWidth, from % this.yWidth,
+                                                           to / this.yWidth, to % this.yWidth);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package algorithms;
+
+import maze.Maze;
+import maze.Point;
+import utilities.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The ALT heuristic (A*, landmarks and the triangle inequality, Goldberg
+ * and Harrelson). The cost from every cell to a few landmark cells is
+ * computed once; for any cell v, goal t and landmark L the triangle
+ * inequality gives d(v, t) >= |d(L, t) - d(L, v)|, and the estimate is
+ * the largest of these bounds. In mazes with long corridors it is far
+ * tighter than any distance on the coordinates.
+ *
+ * Landmarks are chosen by farthest-point selection: each one is the
+ * open cell farthest from the landmarks chosen so far, a cell that no
+ * landmark reaches counting as infinitely far, so every part of the maze
+ * that is cut off from the others gets a landmark of its own while
+ * landmarks are left.
+ *
+ * The costs are kept cell by cell, the costs of one cell to all
+ * landmarks next to each other, as unsigned shorts when the largest cost
+ * fits and as ints otherwise. Costs are taken as symmetric, as they are
+ * for all the calculators of this package.
+ *
+ * The tables belong to the maze as it was built: once a cell is opened
+ * the costs they hold may exceed the real ones, so every estimate throws
+ * once the maze has changed (see Maze.getVersion()) and the tables must
+ * be built again. save() and load() keep them next to the maze file;
+ * load() binds the tables to the maze they are loaded for.
+ */
+public class LandmarkHeuristic implements GridHeuristic, HeuristicFunction<Pair<Point, Point>, Double> {
+
+    /**
+     * Marks a landmark table file ("ALT1").
+     */
+    public static final int MAGIC = 0x414C5431;
+
+    /**
+     * The suffix of the table file kept next to a maze file.
+     */
+    public static final String FILE_SUFFIX = ".alt";
+
+    /**
+     * The short entry of a cell that a landmark does not reach.
+     */
+    private static final char SHORT_UNREACHABLE = 0xFFFF;
+
+    private static final int UNREACHABLE = -1;
+
+    private final Maze maze;
+    private final long version;
+    private final int xWidth;
+    private final int yWidth;
+    private final int[] landmarks;
+
+    /**
+     * The cost of cell c to landmark l at c * landmarks + l. Exactly one of the two is set.
+     */
+    private final char[] shortTable;
+    private final int[] intTable;
+
+
+    private LandmarkHeuristic(Maze maze, int[] landmarks, char[] shortTable, int[] intTable) {
+
+        this.maze = maze;
+        this.version = maze.getVersion();
+        this.xWidth = maze.getxWidth();
+        this.yWidth = maze.getyWidth();
+        this.landmarks = landmarks;
+        this.shortTable = shortTable;
+        this.intTable = intTable;
+    }
+
+
+    /**
+     * Chooses the landmarks and computes their tables.
+     *
+     * @param maze               The given maze.
+     * @param landmarkCount      The number of landmarks, at least 1.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The heuristic of the maze as it is now.
+     */
+    public static LandmarkHeuristic build(Maze maze, int landmarkCount, DistanceCalculator distanceCalculator) {
+
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("At least one landmark is needed: " + landmarkCount);
+        }
+
+        int size = maze.size();
+        int yWidth = maze.getyWidth();
+
+        if ((long) size * landmarkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many landmarks for a maze of " + size + " cells: " + landmarkCount);
+        }
+
+        int first = -1;
+        for (int cell = 0; cell < size && first == -1; cell++) {
+            if (!maze.isBlocked(cell)) {
+                first = cell;
+            }
+        }
+
+        if (first == -1) {
+            throw new IllegalArgumentException("Cannot place landmarks in a maze without open cells.");
+        }
+
+        // The smallest cost from each cell to the landmarks so far, -1 for none, and the sum of the costs:
+        int[] nearest = new int[size];
+        long[] total = new long[size];
+        int[][] costs = new int[landmarkCount][];
+        int[] chosen = new int[landmarkCount];
+
+        // The first landmark is the cell farthest from an arbitrary one:
+        FlowField seed = FlowField.build(maze, point(first, yWidth), distanceCalculator);
+        int next = farthest(maze, seed, null, null);
+        int max = 0;
+
+        for (int l = 0; l < landmarkCount; l++) {
+
+            chosen[l] = next;
+            FlowField field = FlowField.build(maze, point(next, yWidth), distanceCalculator);
+            costs[l] = new int[size];
+
+            for (int cell = 0; cell < size; cell++) {
+
+                int cost = field.getDistance(cell);
+                costs[l][cell] = cost;
+                max = Math.max(max, cost);
+
+                if (cost != UNREACHABLE) {
+                    total[cell] += cost;
+                }
+
+                if (l == 0 || (cost != UNREACHABLE && (nearest[cell] == UNREACHABLE || cost < nearest[cell]))) {
+                    nearest[cell] = cost;
+                }
+            }
+
+            next = farthest(maze, null, nearest, total);
+        }
+
+        // Small costs fit in half the memory:
+        if (max < SHORT_UNREACHABLE) {
+
+            char[] table = new char[size * landmarkCount];
+
+            for (int l = 0; l < landmarkCount; l++) {
+                for (int cell = 0; cell < size; cell++) {
+                    int cost = costs[l][cell];
+                    table[cell * landmarkCount + l] = cost == UNREACHABLE ? SHORT_UNREACHABLE : (char) cost;
+                }
+            }
+            return new LandmarkHeuristic(maze, chosen, table, null);
+        }
+
+        int[] table = new int[size * landmarkCount];
+
+        for (int l = 0; l < landmarkCount; l++) {
+            for (int cell = 0; cell < size; cell++) {
+                table[cell * landmarkCount + l] = costs[l][cell];
+            }
+        }
+        return new LandmarkHeuristic(maze, chosen, null, table);
+    }
+
+
+    /**
+     * @return The open cell with the largest cost, a cell with no cost winning over any other,
+     *         and among equal costs the one with the largest total.
+     */
+    private static int farthest(Maze maze, FlowField field, int[] nearest, long[] total) {
+
+        int best = -1;
+        long bestCost = -1;
+        long bestTotal = -1;
+
+        for (int cell = 0; cell < maze.size(); cell++) {
+
+            if (maze.isBlocked(cell)) {
+                continue;
+            }
+
+            int cost = field != null ? field.getDistance(cell) : nearest[cell];
+            long key = cost == UNREACHABLE ? Long.MAX_VALUE : cost;
+
+            long sum = total == null ? 0 : total[cell];
+
+            if (key > bestCost || (key == bestCost && sum > bestTotal)) {
+                best = cell;
+                bestCost = key;
+                bestTotal = sum;
+            }
+        }
+        return best;
+    }
+
+
+    private static Point point(int cell, int yWidth) {
+        return new Point(cell / yWidth, cell % yWidth);
+    }
+
+
+    /**
+     * @return The ids of the landmark cells, in the order they were chosen.
+     */
+    public final int[] getLandmarks() {
+        return this.landmarks.clone();
+    }
+
+
+    /**
+     * @return The number of landmarks.
+     */
+    public final int getLandmarkCount() {
+        return this.landmarks.length;
+    }
+
+
+    /**
+     * @return The bytes taken by the tables.
+     */
+    public final long memoryBytes() {
+        return this.shortTable != null ? 2L * this.shortTable.length : 4L * this.intTable.length;
+    }
+
+
+    /**
+     * @param cell     The cell id.
+     * @param landmark The index of the landmark.
+     * @return The cost from the cell to the landmark, -1 if there is no route.
+     * @throws IllegalStateException If the maze changed after the tables were built.
+     */
+    public final int getCost(int cell, int landmark) {
+
+        this.checkVersion();
+
+        int index = cell * this.landmarks.length + landmark;
+
+        if (this.shortTable != null) {
+            char cost = this.shortTable[index];
+            return cost == SHORT_UNREACHABLE ? UNREACHABLE : cost;
+        }
+        return this.intTable[index];
+    }
+
+
+    @Override
+    public int estimate(int i, int j, int goalI, int goalJ) {
+        return this.estimate(i * this.yWidth + j, goalI * this.yWidth + goalJ);
+    }
+
+
+    @Override
+    public int estimate(int id, int goalId, int yWidth) {
+        return this.estimate(id, goalId);
+    }
+
+
+    /**
+     * Implements the HeuristicFunction interface.
+     * @param in The cell and the goal.
+     * @return A lower bound of the cost from the cell to the goal.
+     */
+    public Double heuristicOut(final Pair<Point, Point> in) {
+        return (double) this.estimate(in.first.i, in.first.j, in.second.i, in.second.j);
+    }
+
+
+    private int estimate(int cell, int goal) {
+
+        this.checkVersion();
+
+        int count = this.landmarks.length;
+        int from = cell * count;
+        int to = goal * count;
+        int best = 0;
+
+        if (this.shortTable != null) {
+            for (int l = 0; l < count; l++) {
+
+                char a = this.shortTable[from + l];
+                char b = this.shortTable[to + l];
+
+                // A landmark that misses either cell gives no bound:
+                if (a != SHORT_UNREACHABLE && b != SHORT_UNREACHABLE) {
+                    best = Math.max(best, Math.abs(a - b));
+                }
+            }
+            return best;
+        }
+
+        for (int l = 0; l < count; l++) {
+
+            int a = this.intTable[from + l];
+            int b = this.intTable[to + l];
+
+            if (a != UNREACHABLE && b != UNREACHABLE) {
+                best = Math.max(best, Math.abs(a - b));
+            }
+        }
+        return best;
+    }
+
+
+    private void checkVersion() {
+
+        if (this.maze.getVersion() != this.version) {
+            throw new IllegalStateException("The maze changed after the landmark tables were built.");
+        }
+    }
+
+
+    /**
+     * @param mazeFile The file of a maze.
+     * @return The file its landmark tables are kept in.
+     */
+    public static File fileOf(File mazeFile) {
+        return new File(mazeFile.getPath() + FILE_SUFFIX);
+    }
+
+
+    /**
+     * Writes the landmarks and their tables. Layout: magic, xWidth, yWidth,
+     * landmark count and entry bytes (2 or 4) as ints, the landmark ids,
+     * then the table cell by cell.
+     *
+     * @param file The file, overwritten if it exists.
+     */
+    public void save(File file) throws IOException {
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(this.xWidth);
+            out.writeInt(this.yWidth);
+            out.writeInt(this.landmarks.length);
+            out.writeInt(this.shortTable != null ? 2 : 4);
+
+            for (int landmark : this.landmarks) {
+                out.writeInt(landmark);
+            }
+
+            if (this.shortTable != null) {
+                for (char cost : this.shortTable) {
+                    out.writeChar(cost);
+                }
+            }
+            else {
+                for (int cost : this.intTable) {
+                    out.writeInt(cost);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Reads tables written by save().
+     *
+     * @param file The file.
+     * @param maze The maze the tables were built for.
+     * @return The heuristic, bound to the maze as it is now.
+     * @throws IOException If the file is not a table file or does not fit the maze.
+     */
+    public static LandmarkHeuristic load(File file, Maze maze) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a landmark table file: " + file);
+            }
+
+            int xWidth = in.readInt();
+            int yWidth = in.readInt();
+            int count = in.readInt();
+            int entryBytes = in.readInt();
+
+            if (xWidth != maze.getxWidth() || yWidth != maze.getyWidth()) {
+                throw new IOException("Landmark tables of a " + xWidth + " x " + yWidth + " maze do not fit a "
+                                      + maze.getxWidth() + " x " + maze.getyWidth() + " maze: " + file);
+            }
+            if (count < 1 || (entryBytes != 2 && entryBytes != 4)) {
+                throw new IOException("Corrupt landmark table file: " + file);
+            }
+
+            int[] landmarks = new int[count];
+            for (int l = 0; l < count; l++) {
+                landmarks[l] = in.readInt();
+            }
+
+            int entries = maze.size() * count;
+
+            try {
+                if (entryBytes == 2) {
+                    char[] table = new char[entries];
+                    for (int k = 0; k < entries; k++) {
+                        table[k] = in.readChar();
+                    }
+                    return new LandmarkHeuristic(maze, landmarks, table, null);
+                }
+
+                int[] table = new int[entries];
+                for (int k = 0; k < entries; k++) {
+                    table[k] = in.readInt();
+                }
+                return new LandmarkHeuristic(maze, landmarks, null, table);
+            } catch (EOFException e) {
+                throw new IOException("Truncated landmark table file: " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package algorithms;
+
+/**
+ * Sum of the coordinate differences. The exact distance on an open
+ * 4-connected grid, so it is the tightest of these bounds for the Maze.
+ */
+public class ManhattanCalculator extends GridCalculator {
+
+    /**
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
+     */
+    public double calculateDistance(int i1, int j1, int i2, int j2) {
+        return Math.abs(i1 - i2) + Math.abs(j1 - j2);
+    }
+
+
+    @Override
+    public int estimate(int i, int j, int goalI, int goalJ) {
+        return Math.abs(i - goalI) + Math.abs(j - goalJ);
+    }
+}
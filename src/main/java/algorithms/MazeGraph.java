@@ -0,0 +1,193 @@
+package algorithms;
+
+import maze.CellLayout;
+import maze.Maze;
+import maze.ZOrderMazeStorage;
+
+/**
+ * The cells of a Maze seen as a Graph, without copying anything. Every
+ * cell has one edge slot per neighbour index, so the edges of node u
+ * are 4u to 4u + 3 and edge e leads to the neighbour e % 4 of node
+ * e / 4 (see Maze.neighbourId), or nowhere if that cell is outside the
+ * maze or blocked. The graph follows the maze as it changes.
+ *
+ * The nodes are the row-major cell ids, unless the maze keeps its cells
+ * in a ZOrderMazeStorage: then they are the ids of its CellLayout, so
+ * that the per-node arrays of a search are laid out as the maze is.
+ * cellOf() and nodeOf() translate, at the edges of a search only.
+ *
+ * The distance calculators of this package only depend on the offset
+ * between two cells, so with one of them the cost of an edge is that of
+ * its neighbour index, taken once for all.
+ */
+public final class MazeGraph implements Graph {
+
+    private final Maze maze;
+    private final GridDistanceCalculator distanceCalculator;
+    private final int yWidth;
+
+    /**
+     * The storage and its layout if the nodes follow it, null for row-major nodes.
+     */
+    private final ZOrderMazeStorage storage;
+    private final CellLayout layout;
+
+    /**
+     * The cost of a step to each neighbour index, null if it depends on the cell.
+     */
+    private final int[] stepCosts;
+
+
+    /**
+     * Constructor.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     */
+    public MazeGraph(Maze maze, DistanceCalculator distanceCalculator) {
+        this(maze, GridAdapters.toGridDistance(distanceCalculator));
+    }
+
+
+    private MazeGraph(Maze maze, GridDistanceCalculator distanceCalculator) {
+
+        this.maze = maze;
+        this.distanceCalculator = distanceCalculator;
+        this.yWidth = maze.getyWidth();
+
+        if (maze.getStorage() instanceof ZOrderMazeStorage) {
+            this.storage = (ZOrderMazeStorage) maze.getStorage();
+            this.layout = this.storage.getLayout();
+        }
+        else {
+            this.storage = null;
+            this.layout = null;
+        }
+
+        this.stepCosts = isOffsetOnly(distanceCalculator) ? new int[]{
+                (int) distanceCalculator.calculateDistance(1, 0, 0, 0),
+                (int) distanceCalculator.calculateDistance(0, 0, 0, 1),
+                (int) distanceCalculator.calculateDistance(0, 0, 1, 0),
+                (int) distanceCalculator.calculateDistance(0, 1, 0, 0)} : null;
+
+        if ((long) this.nodeCount() * Maze.NUMBER_OF_NEIGHBOURS > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many cells for edge ids of a graph: " + this.nodeCount());
+        }
+    }
+
+
+    /**
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The graph of the maze.
+     */
+    static MazeGraph of(Maze maze, GridDistanceCalculator distanceCalculator) {
+        return new MazeGraph(maze, distanceCalculator);
+    }
+
+
+    /**
+     * @return The maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+
+    /**
+     * @param node The node id.
+     * @return The row-major id of its cell.
+     */
+    public int cellOf(int node) {
+        return this.layout == null ? node : this.layout.cellOf(node);
+    }
+
+
+    /**
+     * @param cell The row-major id of a cell.
+     * @return The id of its node.
+     */
+    public int nodeOf(int cell) {
+        return this.layout == null ? cell : this.layout.idOfCell(cell);
+    }
+
+
+    /**
+     * @param node The node id.
+     * @return The i coordinate of its cell.
+     */
+    public int iOf(int node) {
+        return this.layout == null ? node / this.yWidth : this.layout.iOf(node);
+    }
+
+
+    /**
+     * @param node The node id.
+     * @return The j coordinate of its cell.
+     */
+    public int jOf(int node) {
+        return this.layout == null ? node % this.yWidth : this.layout.jOf(node);
+    }
+
+
+    @Override
+    public int nodeCount() {
+        return this.layout == null ? this.maze.size() : this.layout.size();
+    }
+
+
+    @Override
+    public int edgeStart(int node) {
+        return node * Maze.NUMBER_OF_NEIGHBOURS;
+    }
+
+
+    @Override
+    public int edgeEnd(int node) {
+        return (node + 1) * Maze.NUMBER_OF_NEIGHBOURS;
+    }
+
+
+    @Override
+    public int edgeTarget(int edge) {
+
+        int node = edge / Maze.NUMBER_OF_NEIGHBOURS;
+        int n = edge % Maze.NUMBER_OF_NEIGHBOURS;
+
+        if (this.layout != null) {
+            int nn = this.layout.neighbourId(node, n);
+            return nn == -1 || this.storage.isBlockedAt(nn) ? -1 : nn;
+        }
+
+        int nn = this.maze.neighbourId(node, n);
+        return nn == -1 || this.maze.isBlocked(nn) ? -1 : nn;
+    }
+
+
+    @Override
+    public int edgeCost(int edge) {
+
+        if (this.stepCosts != null) {
+            return this.stepCosts[edge % Maze.NUMBER_OF_NEIGHBOURS];
+        }
+
+        int node = edge / Maze.NUMBER_OF_NEIGHBOURS;
+        int nn = this.layout == null ? this.maze.neighbourId(node, edge % Maze.NUMBER_OF_NEIGHBOURS)
+                                     : this.layout.neighbourId(node, edge % Maze.NUMBER_OF_NEIGHBOURS);
+
+        return (int) this.distanceCalculator.calculateDistance(this.iOf(node), this.jOf(node),
+                                                               this.iOf(nn), this.jOf(nn));
+    }
+
+
+    /**
+     * @return true for the calculators of this package, whose distances only depend on the offset
+     *         between the cells; subclasses may not keep to that.
+     */
+    private static boolean isOffsetOnly(GridDistanceCalculator distanceCalculator) {
+
+        Class<?> type = distanceCalculator.getClass();
+        return type == ManhattanCalculator.class || type == EuclideanCalculator.class
+               || type == ChebyshevCalculator.class || type == OctileCalculator.class;
+    }
+}
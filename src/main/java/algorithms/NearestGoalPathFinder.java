@@ -0,0 +1,359 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+import utilities.Pair;
+
+/**
+ * A* between sets of cells: the route from one start to the nearest of
+ * many goals, or from the nearest of many starts to one goal, in a
+ * single search instead of one search per candidate.
+ *
+ * findNearest() searches towards all the goals at once and stops at the
+ * first goal it settles. The estimate of a cell is the smallest estimate
+ * to any goal; with more than MAX_EXACT_GOALS goals it is the estimate to
+ * the nearest point of the bounding box of the goals instead, which is
+ * cheaper and still a lower bound for heuristics that grow with the
+ * difference of the coordinates, as all the calculators of this package do.
+ *
+ * findFromNearest() puts every start in the open list at cost 0, so the
+ * search behaves as if it came from a virtual cell next to all of them,
+ * and the route begins at the start that leads to the cheapest route.
+ */
+public class NearestGoalPathFinder implements PathFinder {
+
+    /**
+     * The largest number of goals for which the estimate looks at every goal.
+     */
+    public static final int MAX_EXACT_GOALS = 16;
+
+    private final GridDistanceCalculator distanceCalculator;
+    private final GridHeuristic heuristic;
+    private final OpenListType openListType;
+    private final TieBreaking tieBreaking;
+
+
+    /**
+     * Constructor. Uses an indexed binary heap that prefers the
+     * larger g-cost among equal f-costs, as AStarPathFinder does.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic.
+     */
+    public NearestGoalPathFinder(DistanceCalculator distanceCalculator,
+                                 HeuristicFunction<Pair<Point, Point>, Double> heuristic) {
+
+        this(distanceCalculator, heuristic, OpenListType.BINARY_HEAP, TieBreaking.LARGER_G);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic.
+     * @param openListType       The open list implementation.
+     * @param tieBreaking        The ordering among nodes with equal f-cost.
+     */
+    public NearestGoalPathFinder(DistanceCalculator distanceCalculator,
+                                 HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                                 OpenListType openListType, TieBreaking tieBreaking) {
+
+        if (openListType == null || tieBreaking == null) {
+            throw new NullPointerException("Null open list type or tie-breaking was provided.");
+        }
+
+        this.distanceCalculator = GridAdapters.toGridDistance(distanceCalculator);
+        this.heuristic = GridAdapters.toGridHeuristic(heuristic);
+        this.openListType = openListType;
+        this.tieBreaking = tieBreaking;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return A route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+        return this.findNearest(maze, start, new Point[]{goal}, budget);
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goals The candidate finishing points.
+     * @return The route to the goal that is cheapest to reach. Empty if none can be reached.
+     */
+    public Route findNearest(final Maze maze, final Point start, final Point[] goals) {
+        return this.findNearest(maze, start, goals, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goals  The candidate finishing points.
+     * @param budget The limits of this query.
+     * @return The route to the goal that is cheapest to reach. Empty if none can be reached.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public Route findNearest(final Maze maze, final Point start, final Point[] goals, final SearchBudget budget) {
+        return this.search(maze, new Point[]{start}, goals, budget);
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param starts The candidate starting points.
+     * @param goal   The finishing point.
+     * @return The route from the start that is cheapest to leave from. Empty if none can reach the goal.
+     */
+    public Route findFromNearest(final Maze maze, final Point[] starts, final Point goal) {
+        return this.findFromNearest(maze, starts, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param starts The candidate starting points.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return The route from the start that is cheapest to leave from. Empty if none can reach the goal.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public Route findFromNearest(final Maze maze, final Point[] starts, final Point goal,
+                                 final SearchBudget budget) {
+
+        return this.search(maze, starts, new Point[]{goal}, budget);
+    }
+
+
+    private Route search(Maze maze, Point[] starts, Point[] goals, SearchBudget budget) {
+
+        if (starts == null || goals == null) {
+            throw new NullPointerException("Null starts or goals were provided.");
+        }
+        if (starts.length == 0 || goals.length == 0) {
+            throw new IllegalArgumentException("At least one start and one goal are needed.");
+        }
+
+        int[] startIds = cellIds(maze, starts);
+        Goals targets = new Goals(maze, goals, cellIds(maze, goals));
+
+        // If a starting point is also a goal there is nothing else to do:
+        for (int startId : startIds) {
+            if (targets.contains(startId)) {
+                Route route = new Route();
+                route.addItem(startId);
+                return route;
+            }
+        }
+
+        budget.start();
+
+        int yWidth = maze.getyWidth();
+
+        // The g-costs and the parents (where the path is stored) of this search:
+        SearchContext context = SearchContext.acquire(maze.size());
+
+        try {
+            OpenList open = context.openList(this.openListType);
+            long sequence = 0;
+
+            for (int startId : startIds) {
+                if (!context.isReached(startId)) {
+                    context.reach(startId, 0, -1);
+                    int h = targets.estimate(startId / yWidth, startId % yWidth);
+                    open.push(startId, this.tieBreaking.key(h, 0, sequence++));
+                }
+            }
+
+            while (!open.isEmpty()) {
+
+                // Get the current node out of the set:
+                int current = open.pollMin();
+
+                // Stop here if the query ran out of budget:
+                try {
+                    budget.charge();
+                } catch (SearchBudgetExceededException e) {
+                    throw e.withPartialRoute(new Route(path(context, current)));
+                }
+
+                // The first goal settled is the nearest one:
+                if (targets.contains(current)) {
+                    return new Route(path(context, current));
+                }
+
+                int currentCost = context.getGCost(current);
+
+                int ci = current / yWidth;
+                int cj = current % yWidth;
+
+                // Loop over the neighbours to expand the search:
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                    int nn = maze.neighbourId(current, n);
+
+                    // Neglect neighbours outside the maze and blocked ones:
+                    if (nn == -1 || maze.isBlocked(nn)) {
+                        continue;
+                    }
+
+                    int ni = nn / yWidth;
+                    int nj = nn % yWidth;
+
+                    // This is the cost of the path from current node to reach its neighbour:
+                    int tgCost = currentCost + (int) this.distanceCalculator.calculateDistance(ci, cj, ni, nj);
+
+                    if (tgCost >= context.getGCost(nn)) {
+                        // This is not a better path:
+                        continue;
+                    }
+
+                    // This is the best path up until now so record it:
+                    context.reach(nn, tgCost, current);
+
+                    // Calculation of f(nn) = g(nn) + h(nn):
+                    int fCost = tgCost + targets.estimate(ni, nj);
+                    open.push(nn, this.tieBreaking.key(fCost, tgCost, sequence++));
+                }
+            }
+
+            return new Route();
+        } finally {
+            context.release();
+        }
+    }
+
+
+    private static int[] cellIds(Maze maze, Point[] points) {
+
+        int[] ids = new int[points.length];
+
+        for (int k = 0; k < points.length; k++) {
+
+            MazeCell cell = maze.findCell(points[k]);
+
+            PathFinder.checkCell(cell);
+
+            ids[k] = cell.getId();
+        }
+        return ids;
+    }
+
+
+    /**
+     * @return The path from the start the parents lead back to, up to the given cell.
+     */
+    private static int[] path(SearchContext context, int cell) {
+
+        int length = 1;
+        for (int node = context.getParent(cell); node != -1; node = context.getParent(node)) {
+            length++;
+        }
+
+        int[] nodes = new int[length];
+        for (int node = cell; node != -1; node = context.getParent(node)) {
+            nodes[--length] = node;
+        }
+        return nodes;
+    }
+
+
+    /**
+     * The goals of a query: a bitset to recognise them and what the estimate needs.
+     */
+    private final class Goals {
+
+        private final long[] bits;
+        private final int[] goalI;
+        private final int[] goalJ;
+
+        /**
+         * The bounding box of the goals.
+         */
+        private final int minI;
+        private final int maxI;
+        private final int minJ;
+        private final int maxJ;
+
+
+        Goals(Maze maze, Point[] goals, int[] ids) {
+
+            this.bits = new long[(maze.size() + 63) >>> 6];
+            this.goalI = new int[goals.length];
+            this.goalJ = new int[goals.length];
+
+            int lowI = Integer.MAX_VALUE;
+            int highI = Integer.MIN_VALUE;
+            int lowJ = Integer.MAX_VALUE;
+            int highJ = Integer.MIN_VALUE;
+
+            for (int k = 0; k < goals.length; k++) {
+
+                this.bits[ids[k] >>> 6] |= 1L << ids[k];
+                this.goalI[k] = goals[k].i;
+                this.goalJ[k] = goals[k].j;
+
+                lowI = Math.min(lowI, goals[k].i);
+                highI = Math.max(highI, goals[k].i);
+                lowJ = Math.min(lowJ, goals[k].j);
+                highJ = Math.max(highJ, goals[k].j);
+            }
+
+            this.minI = lowI;
+            this.maxI = highI;
+            this.minJ = lowJ;
+            this.maxJ = highJ;
+        }
+
+
+        boolean contains(int cell) {
+            return (this.bits[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+
+        /**
+         * @return A lower bound of the cost from the cell to the nearest goal.
+         */
+        int estimate(int i, int j) {
+
+            GridHeuristic heuristic = NearestGoalPathFinder.this.heuristic;
+
+            if (this.goalI.length > MAX_EXACT_GOALS) {
+                // The nearest point of the bounding box is no farther than any goal:
+                return heuristic.estimate(i, j, Math.max(this.minI, Math.min(i, this.maxI)),
+                                          Math.max(this.minJ, Math.min(j, this.maxJ)));
+            }
+
+            int best = Integer.MAX_VALUE;
+            for (int k = 0; k < this.goalI.length; k++) {
+                best = Math.min(best, heuristic.estimate(i, j, this.goalI[k], this.goalJ[k]));
+            }
+            return best;
+        }
+    }
+}
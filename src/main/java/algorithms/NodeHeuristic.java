@@ -0,0 +1,21 @@
+package algorithms;
+
+/**
+ * Counterpart of GridHeuristic for the nodes of a Graph.
+ */
+@FunctionalInterface
+public interface NodeHeuristic {
+
+    /**
+     * Estimates nothing, which turns A* into Dijkstra.
+     */
+    NodeHeuristic ZERO = (node, goal) -> 0;
+
+
+    /**
+     * @param node The node id.
+     * @param goal The id of the goal node.
+     * @return A lower bound of the cost from the node to the goal.
+     */
+    int estimate(int node, int goal);
+}
@@ -0,0 +1,24 @@
+package algorithms;
+
+/**
+ * The exact distance on an open 8-connected grid where diagonal
+ * steps cost sqrt(2).
+ */
+public class OctileCalculator extends GridCalculator {
+
+    private static final double DIAGONAL_EXTRA = Math.sqrt(2.0) - 1.0;
+
+    /**
+     * @param i1 The i coordinate of the first cell.
+     * @param j1 The j coordinate of the first cell.
+     * @param i2 The i coordinate of the second cell.
+     * @param j2 The j coordinate of the second cell.
+     * @return The distance between the two cells.
+     */
+    public double calculateDistance(int i1, int j1, int i2, int j2) {
+
+        int di = Math.abs(i1 - i2);
+        int dj = Math.abs(j1 - j2);
+        return Math.max(di, dj) + DIAGONAL_EXTRA * Math.min(di, dj);
+    }
+}
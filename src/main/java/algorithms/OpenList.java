@@ -0,0 +1,81 @@
+package algorithms;
+
+/**
+ * The open list of a best-first search. Nodes are the integer ids of
+ * the cells (0 to capacity - 1) and keys are longs, which lets a
+ * TieBreaking policy pack a secondary key under the f-cost.
+ *
+ * Implementations are indexed by node id, so pushing a node that is
+ * already in the list lowers its key instead of adding a duplicate.
+ */
+public interface OpenList {
+
+    /**
+     * Adds a node or lowers its key if it is already in the list.
+     * A key that is not lower than the current one is ignored.
+     *
+     * @param node The node id.
+     * @param key  The key of the node.
+     */
+    void push(int node, long key);
+
+
+    /**
+     * Removes the node with the smallest key.
+     *
+     * @return The node id.
+     */
+    int pollMin();
+
+
+    /**
+     * @return The node with the smallest key, without removing it.
+     */
+    int peekMin();
+
+
+    /**
+     * @return The smallest key in the list.
+     */
+    long peekMinKey();
+
+
+    /**
+     * Removes a node if it is in the list.
+     *
+     * @param node The node id.
+     */
+    void remove(int node);
+
+
+    /**
+     * @param node The node id.
+     * @return True if the node is in the list.
+     */
+    boolean contains(int node);
+
+
+    /**
+     * @return The number of nodes in the list.
+     */
+    int size();
+
+
+    /**
+     * @return True if the list is empty.
+     */
+    boolean isEmpty();
+
+
+    /**
+     * Removes all nodes. Costs time proportional to the current size,
+     * not to the capacity, so the list can be reused between searches.
+     */
+    void clear();
+
+
+    /**
+     * @return The largest node id plus one that the list can hold.
+     */
+    int capacity();
+}
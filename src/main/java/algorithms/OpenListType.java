@@ -0,0 +1,47 @@
+package algorithms;
+
+/**
+ * The open list implementations the search engines can be built with.
+ */
+public enum OpenListType {
+
+    /**
+     * Indexed binary heap. A safe default for any key order.
+     */
+    BINARY_HEAP {
+        @Override
+        public OpenList create(int capacity) {
+            return new IndexedBinaryHeap(capacity);
+        }
+    },
+
+    /**
+     * Pairing heap with O(1) insert and cheap decrease-key.
+     * Does well when many keys are lowered, e.g. with weighted edges.
+     */
+    PAIRING_HEAP {
+        @Override
+        public OpenList create(int capacity) {
+            return new PairingHeap(capacity);
+        }
+    },
+
+    /**
+     * Radix heap for monotone keys. Fastest for Dijkstra and for A* with a
+     * consistent heuristic, where the f-cost never decreases. Keys below the
+     * last polled one are raised to it, so tie-breaking is best effort.
+     */
+    RADIX_HEAP {
+        @Override
+        public OpenList create(int capacity) {
+            return new RadixHeap(capacity);
+        }
+    };
+
+
+    /**
+     * @param capacity The number of node ids the list must hold.
+     * @return A new, empty open list.
+     */
+    public abstract OpenList create(int capacity);
+}
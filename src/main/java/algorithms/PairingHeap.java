@@ -0,0 +1,266 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Pairing heap over node ids. The tree is kept in int arrays indexed
+ * by node id (leftmost child, right sibling and the node before it),
+ * so no node objects are allocated.
+ */
+public class PairingHeap implements OpenList {
+
+    private static final int NONE = -1;
+
+    private final int[] child;
+    private final int[] sibling;
+
+    /**
+     * The parent for a leftmost child, otherwise the left sibling.
+     */
+    private final int[] previous;
+
+    private final long[] keys;
+    private final boolean[] inHeap;
+
+    /**
+     * Scratch space for the two-pass merge of children.
+     */
+    private int[] pairs = new int[16];
+
+    private int root = NONE;
+    private int size = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of node ids the heap must hold.
+     */
+    public PairingHeap(int capacity) {
+
+        this.child = new int[capacity];
+        this.sibling = new int[capacity];
+        this.previous = new int[capacity];
+        this.keys = new long[capacity];
+        this.inHeap = new boolean[capacity];
+    }
+
+
+    public void push(int node, long key) {
+
+        if (!this.inHeap[node]) {
+
+            this.keys[node] = key;
+            this.child[node] = NONE;
+            this.sibling[node] = NONE;
+            this.previous[node] = NONE;
+            this.inHeap[node] = true;
+            this.size++;
+            this.root = this.root == NONE ? node : this.meld(this.root, node);
+            return;
+        }
+
+        if (key >= this.keys[node]) {
+            return;
+        }
+
+        this.keys[node] = key;
+
+        if (node == this.root) {
+            return;
+        }
+
+        // Cut the subtree of the node and meld it back with the root:
+        this.detach(node);
+        this.root = this.meld(this.root, node);
+    }
+
+
+    public int pollMin() {
+
+        if (this.size == 0) {
+            throw new IllegalStateException("Poll from an empty open list.");
+        }
+
+        int min = this.root;
+        this.inHeap[min] = false;
+        this.size--;
+        this.root = this.mergeChildren(min);
+        return min;
+    }
+
+
+    public int peekMin() {
+
+        if (this.size == 0) {
+            throw new IllegalStateException("Peek into an empty open list.");
+        }
+        return this.root;
+    }
+
+
+    public long peekMinKey() {
+        return this.keys[this.peekMin()];
+    }
+
+
+    public void remove(int node) {
+
+        if (!this.inHeap[node]) {
+            return;
+        }
+
+        if (node == this.root) {
+            this.pollMin();
+            return;
+        }
+
+        this.detach(node);
+        this.inHeap[node] = false;
+        this.size--;
+
+        int subtree = this.mergeChildren(node);
+        if (subtree != NONE) {
+            this.root = this.meld(this.root, subtree);
+        }
+    }
+
+
+    public boolean contains(int node) {
+        return this.inHeap[node];
+    }
+
+
+    public int size() {
+        return this.size;
+    }
+
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    public void clear() {
+
+        if (this.root == NONE) {
+            return;
+        }
+
+        // Walk the tree and reset the flags of the nodes it holds:
+        int[] stack = new int[Math.max(this.size, 1)];
+        int top = 0;
+        stack[top++] = this.root;
+
+        while (top > 0) {
+
+            int node = stack[--top];
+            this.inHeap[node] = false;
+
+            for (int c = this.child[node]; c != NONE; c = this.sibling[c]) {
+                stack[top++] = c;
+            }
+        }
+
+        this.root = NONE;
+        this.size = 0;
+    }
+
+
+    public int capacity() {
+        return this.inHeap.length;
+    }
+
+
+    /**
+     * Melds the children of a node that left the heap with the two-pass rule.
+     *
+     * @return The root of the melded children, NONE if there were none.
+     */
+    private int mergeChildren(int node) {
+
+        // First pass: meld the children in pairs from left to right:
+        int count = 0;
+        int c = this.child[node];
+
+        while (c != NONE) {
+
+            int a = c;
+            int b = this.sibling[a];
+            c = b == NONE ? NONE : this.sibling[b];
+
+            this.sibling[a] = NONE;
+            this.previous[a] = NONE;
+
+            if (b != NONE) {
+                this.sibling[b] = NONE;
+                this.previous[b] = NONE;
+                a = this.meld(a, b);
+            }
+
+            if (count == this.pairs.length) {
+                this.pairs = Arrays.copyOf(this.pairs, 2 * count);
+            }
+            this.pairs[count++] = a;
+        }
+
+        // Second pass: meld the pairs from right to left:
+        int merged = NONE;
+
+        for (int p = count - 1; p >= 0; p--) {
+            merged = merged == NONE ? this.pairs[p] : this.meld(this.pairs[p], merged);
+        }
+
+        this.child[node] = NONE;
+        return merged;
+    }
+
+
+    /**
+     * Melds two roots.
+     *
+     * @return The root of the melded tree.
+     */
+    private int meld(int a, int b) {
+
+        if (this.keys[b] < this.keys[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+
+        // b becomes the leftmost child of a:
+        int first = this.child[a];
+        this.sibling[b] = first;
+        if (first != NONE) {
+            this.previous[first] = b;
+        }
+        this.previous[b] = a;
+        this.child[a] = b;
+        return a;
+    }
+
+
+    /**
+     * Cuts a node (with its subtree) out of the tree.
+     */
+    private void detach(int node) {
+
+        int prev = this.previous[node];
+        int next = this.sibling[node];
+
+        if (this.child[prev] == node) {
+            this.child[prev] = next;
+        }
+        else {
+            this.sibling[prev] = next;
+        }
+
+        if (next != NONE) {
+            this.previous[next] = prev;
+        }
+
+        this.sibling[node] = NONE;
+        this.previous[node] = NONE;
+    }
+}
@@ -0,0 +1,361 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous parallel breadth-first search for mazes where every
+ * step costs the same. Each level's frontier is cut into chunks that
+ * run as tasks of a ForkJoinPool. A cell is claimed by setting its bit
+ * in an atomic bitset with compare-and-set, so exactly one task writes
+ * its distance and parent, and every task collects the cells it claims
+ * in its own buffer, which together form the next frontier.
+ *
+ * flood() covers everything reachable from a cell and returns the whole
+ * BFSTree; find() stops at the level of the goal. The storage of the
+ * maze must allow reads from several threads.
+ */
+public class ParallelBFSPathFinder implements PathFinder {
+
+    /**
+     * Default frontier cells per task.
+     */
+    public static final int DEFAULT_GRAIN = 2048;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Frontier cells per task; smaller frontiers are expanded by the calling thread.
+     */
+    private final int grain;
+
+
+    /**
+     * Constructor. Runs on the common pool.
+     */
+    public ParallelBFSPathFinder() {
+        this(ForkJoinPool.commonPool(), DEFAULT_GRAIN);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param pool  The pool the levels run on.
+     * @param grain The frontier cells per task.
+     */
+    public ParallelBFSPathFinder(ForkJoinPool pool, int grain) {
+
+        if (pool == null) {
+            throw new NullPointerException("Null pool was provided.");
+        }
+        if (grain < 1) {
+            throw new IllegalArgumentException("Grain must be positive: " + grain);
+        }
+        this.pool = pool;
+        this.grain = grain;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route with the fewest steps.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, charged once per level.
+     * @return A route with the fewest steps.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        budget.start();
+
+        return this.search(maze, mCellStart.getId(), mCellGoal.getId(), budget).route(mCellGoal.getId());
+    }
+
+
+    /**
+     * Floods the maze from a cell.
+     *
+     * @param maze   The given maze.
+     * @param source The source point.
+     * @return The distances and parents of every cell.
+     */
+    public BFSTree flood(final Maze maze, final Point source) {
+        return this.flood(maze, source, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * Floods the maze from a cell.
+     *
+     * @param maze   The given maze.
+     * @param source The source point.
+     * @param budget The limits of this flood, charged once per level.
+     * @return The distances and parents of every cell.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    public BFSTree flood(final Maze maze, final Point source, final SearchBudget budget) {
+
+        MazeCell mCellSource = maze.findCell(source);
+
+        PathFinder.checkCell(mCellSource);
+
+        budget.start();
+
+        return this.search(maze, mCellSource.getId(), -1, budget);
+    }
+
+
+    /**
+     * @param target The cell to stop at, -1 to flood everything reachable.
+     */
+    private BFSTree search(Maze maze, int source, int target, SearchBudget budget) {
+
+        int size = maze.size();
+
+        int[] distance = new int[size];
+        int[] parent = new int[size];
+        this.pool.invoke(new Fill(distance, parent, 0, size));
+
+        AtomicLongArray visited = new AtomicLongArray((size + 63) >>> 6);
+        visited.set(source >>> 6, 1L << source);
+        distance[source] = 0;
+
+        int[] frontier = {source};
+        int level = 0;
+        long reached = 1;
+
+        while (frontier.length > 0 && (target == -1 || distance[target] == -1)) {
+
+            // Stop here if the query ran out of budget:
+            budget.charge(frontier.length);
+
+            level++;
+
+            if (frontier.length <= this.grain) {
+                Level task = new Level(maze, visited, distance, parent, frontier, 0, frontier.length, level);
+                task.compute();
+                frontier = task.next();
+            }
+            else {
+                frontier = this.expandInParallel(maze, visited, distance, parent, frontier, level);
+            }
+
+            reached += frontier.length;
+        }
+
+        // The last level is only counted when it reached some cell:
+        int levels = frontier.length > 0 ? level + 1 : level;
+        return new BFSTree(source, distance, parent, levels, reached);
+    }
+
+
+    private int[] expandInParallel(Maze maze, AtomicLongArray visited, int[] distance, int[] parent,
+                                   int[] frontier, int level) {
+
+        List<Level> tasks = new ArrayList<>();
+
+        for (int lo = 0; lo < frontier.length; lo += this.grain) {
+            tasks.add(new Level(maze, visited, distance, parent, frontier, lo,
+                                Math.min(lo + this.grain, frontier.length), level));
+        }
+
+        this.pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+
+        // The buffers of the tasks together form the next frontier:
+        int total = 0;
+        for (Level task : tasks) {
+            total += task.count;
+        }
+
+        int[] next = new int[total];
+        int offset = 0;
+
+        for (Level task : tasks) {
+            System.arraycopy(task.buffer, 0, next, offset, task.count);
+            offset += task.count;
+        }
+        return next;
+    }
+
+
+    /**
+     * Expands one chunk of a frontier into its own buffer.
+     */
+    private static final class Level extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Maze maze;
+        private final AtomicLongArray visited;
+        private final int[] distance;
+        private final int[] parent;
+        private final int[] frontier;
+        private final int lo;
+        private final int hi;
+        private final int level;
+
+        private int[] buffer;
+        private int count = 0;
+
+
+        Level(Maze maze, AtomicLongArray visited, int[] distance, int[] parent, int[] frontier,
+              int lo, int hi, int level) {
+
+            this.maze = maze;
+            this.visited = visited;
+            this.distance = distance;
+            this.parent = parent;
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.level = level;
+        }
+
+
+        @Override
+        protected void compute() {
+
+            // On a grid the next level is rarely much larger than this one:
+            this.buffer = new int[2 * (this.hi - this.lo) + 4];
+
+            for (int k = this.lo; k < this.hi; k++) {
+
+                int current = this.frontier[k];
+
+                // Loop over the neighbours to expand the search:
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                    int nn = this.maze.neighbourId(current, n);
+
+                    // Neglect neighbours outside the maze, blocked ones and the ones claimed already:
+                    if (nn == -1 || this.maze.isBlocked(nn) || !this.claim(nn)) {
+                        continue;
+                    }
+
+                    this.distance[nn] = this.level;
+                    this.parent[nn] = current;
+
+                    if (this.count == this.buffer.length) {
+                        this.buffer = Arrays.copyOf(this.buffer, 2 * this.count);
+                    }
+                    this.buffer[this.count++] = nn;
+                }
+            }
+        }
+
+
+        int[] next() {
+            return Arrays.copyOf(this.buffer, this.count);
+        }
+
+
+        /**
+         * @return True if this task set the bit of the cell.
+         */
+        private boolean claim(int cell) {
+
+            int word = cell >>> 6;
+            long bit = 1L << cell;
+
+            while (true) {
+
+                long old = this.visited.get(word);
+
+                if ((old & bit) != 0) {
+                    return false;
+                }
+
+                if (this.visited.compareAndSet(word, old, old | bit)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Marks every cell as not reached, in parallel.
+     */
+    private static final class Fill extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private static final int FILL_GRAIN = 1 << 20;
+
+        private final int[] distance;
+        private final int[] parent;
+        private final int lo;
+        private final int hi;
+
+
+        Fill(int[] distance, int[] parent, int lo, int hi) {
+
+            this.distance = distance;
+            this.parent = parent;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected void compute() {
+
+            if (this.hi - this.lo <= FILL_GRAIN) {
+                Arrays.fill(this.distance, this.lo, this.hi, -1);
+                Arrays.fill(this.parent, this.lo, this.hi, -1);
+                return;
+            }
+
+            int mid = (this.lo + this.hi) >>> 1;
+            ForkJoinTask.invokeAll(new Fill(this.distance, this.parent, this.lo, mid),
+                                   new Fill(this.distance, this.parent, mid, this.hi));
+        }
+    }
+}
@@ -0,0 +1,613 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import utilities.Direction;
+import utilities.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A compressed path database (CPD, Botea et al.): for every open source
+ * cell, the first move of a cheapest route to every target cell. A
+ * route is then pulled out by looking up the first move from the start,
+ * taking it and looking up again, with no search at all.
+ *
+ * The open cells are numbered in depth-first order, which keeps nearby
+ * cells together, so the first moves of one source form long runs over
+ * the numbers. Each source keeps only its runs, as ints that pack the
+ * number the run starts at above the move (a neighbour index, see
+ * Maze.neighbourId). Targets that need no move (the source itself) or
+ * cannot be reached take the move of the run they fall in, which makes
+ * the runs longer. A depth-first numbering also gives every connected
+ * part of the maze one range of numbers, so reachability is a comparison
+ * of the part ids.
+ *
+ * The rows are built in parallel, one Dijkstra search per source, on an
+ * Executor. The database belongs to the maze as it was built: find()
+ * refuses any other maze, and every query throws once that maze has
+ * changed. save() and load() write and read it with a small binary
+ * format; load() binds the database to the maze it is loaded for.
+ */
+public class PathDatabase implements PathFinder {
+
+    /**
+     * Marks a path database file ("CPD1").
+     */
+    public static final int MAGIC = 0x43504431;
+
+    private final Maze maze;
+    private final long version;
+    private final int xWidth;
+    private final int yWidth;
+
+    /**
+     * The depth-first number of each cell, -1 if blocked.
+     */
+    private final int[] rank;
+
+    /**
+     * The connected part of each cell, -1 if blocked.
+     */
+    private final int[] part;
+
+    /**
+     * The runs of each source cell, null if blocked: (first number << 2) | move.
+     */
+    private final int[][] rows;
+
+
+    private PathDatabase(Maze maze, int[] rank, int[] part, int[][] rows) {
+
+        this.maze = maze;
+        this.version = maze.getVersion();
+        this.xWidth = maze.getxWidth();
+        this.yWidth = maze.getyWidth();
+        this.rank = rank;
+        this.part = part;
+        this.rows = rows;
+    }
+
+
+    /**
+     * Builds the database on the common pool with one worker per pool thread.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @return The database of the maze as it is now.
+     */
+    public static PathDatabase build(Maze maze, DistanceCalculator distanceCalculator) {
+        return build(maze, distanceCalculator, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+
+    /**
+     * Builds the database.
+     *
+     * @param maze               The given maze.
+     * @param distanceCalculator The distance between neighbouring cells.
+     * @param executor           The executor the workers run on.
+     * @param workers            The number of sources searched at the same time.
+     * @return The database of the maze as it is now.
+     */
+    public static PathDatabase build(Maze maze, DistanceCalculator distanceCalculator,
+                                     Executor executor, int workers) {
+
+        if (executor == null) {
+            throw new NullPointerException("Null executor was provided.");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+
+        GridDistanceCalculator calculator = GridAdapters.toGridDistance(distanceCalculator);
+
+        int size = maze.size();
+        int[] rank = new int[size];
+        int[] part = new int[size];
+        int[] cellAt = number(maze, rank, part);
+
+        if (cellAt.length >= 1 << 29) {
+            throw new IllegalArgumentException("Too many open cells for a path database: " + cellAt.length);
+        }
+
+        int[][] rows = new int[size][];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        int count = Math.min(workers, cellAt.length);
+        CountDownLatch finished = new CountDownLatch(count);
+
+        for (int w = 0; w < count; w++) {
+            executor.execute(() -> {
+                try {
+                    RowBuilder builder = new RowBuilder(maze, calculator, rank, part, cellAt);
+                    int source;
+
+                    while (failure.get() == null && (source = next.getAndIncrement()) < cellAt.length) {
+                        rows[cellAt[source]] = builder.build(cellAt[source]);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("A path database worker failed.", failure.get());
+        }
+
+        return new PathDatabase(maze, rank, part, rows);
+    }
+
+
+    /**
+     * Numbers the open cells in depth-first order, one connected part after the other.
+     *
+     * @return The cell of each number.
+     */
+    private static int[] number(Maze maze, int[] rank, int[] part) {
+
+        int size = maze.size();
+        Arrays.fill(rank, -1);
+        Arrays.fill(part, -1);
+
+        int[] cellAt = new int[size];
+        int[] stack = new int[16];
+        byte[] nextNeighbour = new byte[size];
+        int numbered = 0;
+        int parts = 0;
+
+        for (int root = 0; root < size; root++) {
+
+            if (maze.isBlocked(root) || rank[root] != -1) {
+                continue;
+            }
+
+            rank[root] = numbered;
+            part[root] = parts;
+            cellAt[numbered++] = root;
+            stack[0] = root;
+            int depth = 1;
+
+            while (depth > 0) {
+
+                int cell = stack[depth - 1];
+
+                if (nextNeighbour[cell] == Maze.NUMBER_OF_NEIGHBOURS) {
+                    depth--;
+                    continue;
+                }
+
+                int nn = maze.neighbourId(cell, nextNeighbour[cell]++);
+
+                if (nn == -1 || maze.isBlocked(nn) || rank[nn] != -1) {
+                    continue;
+                }
+
+                rank[nn] = numbered;
+                part[nn] = parts;
+                cellAt[numbered++] = nn;
+
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * depth);
+                }
+                stack[depth++] = nn;
+            }
+
+            parts++;
+        }
+
+        return Arrays.copyOf(cellAt, numbered);
+    }
+
+
+    /**
+     * Searches from one source after the other and encodes their first moves as runs.
+     */
+    private static final class RowBuilder {
+
+        private final Maze maze;
+        private final GridDistanceCalculator calculator;
+        private final int[] rank;
+        private final int[] part;
+        private final int[] cellAt;
+
+        /**
+         * The first move of the route to each cell from the current source.
+         */
+        private final byte[] firstMove;
+
+        private int[] runs = new int[64];
+
+
+        RowBuilder(Maze maze, GridDistanceCalculator calculator, int[] rank, int[] part, int[] cellAt) {
+
+            this.maze = maze;
+            this.calculator = calculator;
+            this.rank = rank;
+            this.part = part;
+            this.cellAt = cellAt;
+            this.firstMove = new byte[maze.size()];
+        }
+
+
+        /**
+         * @param source The id of the source cell.
+         * @return The runs of the source.
+         */
+        int[] build(int source) {
+
+            this.search(source);
+
+            // Only the targets of the same part need a move, and they are numbered in one range:
+            int sourcePart = this.part[source];
+            int from = this.rank[source];
+
+            while (from > 0 && this.part[this.cellAt[from - 1]] == sourcePart) {
+                from--;
+            }
+
+            int count = 0;
+            int move = -1;
+
+            for (int r = from; r < this.cellAt.length && this.part[this.cellAt[r]] == sourcePart; r++) {
+
+                int target = this.cellAt[r];
+
+                if (target == source || this.firstMove[target] == move) {
+                    continue;
+                }
+
+                move = this.firstMove[target];
+
+                if (count == this.runs.length) {
+                    this.runs = Arrays.copyOf(this.runs, 2 * count);
+                }
+
+                // The first run covers every number below it too:
+                int first = count == 0 ? 0 : r;
+                this.runs[count++] = first << 2 | move;
+            }
+
+            return Arrays.copyOf(this.runs, count);
+        }
+
+
+        private void search(int source) {
+
+            int yWidth = this.maze.getyWidth();
+
+            SearchContext context = SearchContext.acquire(this.maze.size());
+
+            try {
+                // Dijkstra keys never decrease, which is what the radix heap is made for:
+                OpenList open = context.openList(OpenListType.RADIX_HEAP);
+
+                context.reach(source, 0, -1);
+                open.push(source, 0);
+
+                while (!open.isEmpty()) {
+
+                    int current = open.pollMin();
+                    int currentCost = context.getGCost(current);
+
+                    int ci = current / yWidth;
+                    int cj = current % yWidth;
+
+                    // Loop over the neighbours to expand the search:
+                    for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+
+                        int nn = this.maze.neighbourId(current, n);
+
+                        // Neglect neighbours outside the maze and blocked ones:
+                        if (nn == -1 || this.maze.isBlocked(nn)) {
+                            continue;
+                        }
+
+                        int tgCost = currentCost
+                                     + (int) this.calculator.calculateDistance(ci, cj, nn / yWidth, nn % yWidth);
+
+                        if (tgCost >= context.getGCost(nn)) {
+                            // This is not a better path:
+                            continue;
+                        }
+
+                        context.reach(nn, tgCost, current);
+
+                        // The first move is inherited from the cell the route comes through:
+                        this.firstMove[nn] = current == source ? (byte) n : this.firstMove[current];
+                        open.push(nn, tgCost);
+                    }
+                }
+            } finally {
+                context.release();
+            }
+        }
+    }
+
+
+    /**
+     * @param maze  The maze the database was built or loaded for.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route with the cheapest cost. Empty if the goal cannot be reached.
+     * @throws IllegalStateException If the maze changed since.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+
+        if (maze != this.maze) {
+            throw new IllegalArgumentException("A path database only answers for the maze it was built for.");
+        }
+        this.checkVersion();
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        return this.route(mCellStart.getId(), mCellGoal.getId());
+    }
+
+
+    /**
+     * @param source The id of the starting cell.
+     * @param target The id of the target cell.
+     * @return The route made of first moves. Empty if the target cannot be reached.
+     * @throws IllegalStateException If the maze changed since the database was built or loaded.
+     */
+    public final Route route(int source, int target) {
+
+        this.checkVersion();
+
+        if (!this.isReachable(source, target)) {
+            return new Route();
+        }
+
+        int[] path = new int[64];
+        path[0] = source;
+        int length = 1;
+
+        for (int cell = source; cell != target; ) {
+
+            cell = this.step(cell, this.move(cell, target));
+
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = cell;
+        }
+
+        return new Route(Arrays.copyOf(path, length));
+    }
+
+
+    /**
+     * @param source The id of the starting cell.
+     * @param target The id of the target cell.
+     * @return The direction of the first move, INVALID if there is none.
+     * @throws IllegalStateException If the maze changed since the database was built or loaded.
+     */
+    public final Direction firstMove(int source, int target) {
+
+        this.checkVersion();
+
+        if (source == target || !this.isReachable(source, target)) {
+            return Direction.INVALID;
+        }
+        return Utils.convertIntToDirection(this.move(source, target));
+    }
+
+
+    /**
+     * @param source The id of the starting cell.
+     * @param target The id of the target cell.
+     * @return True if both cells are open and connected.
+     */
+    public final boolean isReachable(int source, int target) {
+        return this.part[source] != -1 && this.part[source] == this.part[target];
+    }
+
+
+    private void checkVersion() {
+
+        if (this.maze.getVersion() != this.version) {
+            throw new IllegalStateException("The maze changed after the path database was built.");
+        }
+    }
+
+
+    /**
+     * @return The number of runs of all the sources.
+     */
+    public final long getRunCount() {
+
+        long total = 0;
+        for (int[] row : this.rows) {
+            if (row != null) {
+                total += row.length;
+            }
+        }
+        return total;
+    }
+
+
+    /**
+     * @return The bytes taken by the runs and the numbering, without array headers.
+     */
+    public final long memoryBytes() {
+        return 4 * this.getRunCount() + 8L * this.rank.length;
+    }
+
+
+    /**
+     * @return The neighbour index of the first move, for connected cells.
+     */
+    private int move(int source, int target) {
+
+        int[] row = this.rows[source];
+        int key = this.rank[target] << 2 | 3;
+
+        // The last run that starts at or below the number of the target:
+        int lo = 0;
+        int hi = row.length - 1;
+
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (row[mid] <= key) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return row[lo] & 3;
+    }
+
+
+    /**
+     * @return The cell one move away, see Maze.neighbourId.
+     */
+    private int step(int cell, int move) {
+
+        switch (move) {
+            case 0:
+                return cell - this.yWidth;
+            case 1:
+                return cell + 1;
+            case 2:
+                return cell + this.yWidth;
+            default:
+                return cell - 1;
+        }
+    }
+
+
+    /**
+     * Writes the database. Layout: magic, xWidth and yWidth as ints, the
+     * number and the part of each cell, then the run count and the runs of
+     * each open cell in cell order.
+     *
+     * @param file The file, overwritten if it exists.
+     */
+    public void save(File file) throws IOException {
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(this.xWidth);
+            out.writeInt(this.yWidth);
+
+            for (int cell = 0; cell < this.rank.length; cell++) {
+                out.writeInt(this.rank[cell]);
+                out.writeInt(this.part[cell]);
+            }
+
+            for (int[] row : this.rows) {
+                if (row != null) {
+                    out.writeInt(row.length);
+                    for (int run : row) {
+                        out.writeInt(run);
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Reads a database written by save(). The database is bound to the given
+     * maze as it is now, and only answers for it until it changes.
+     *
+     * @param file The file.
+     * @param maze The maze the database was built for.
+     * @return The database.
+     * @throws IOException If the file is not a path database file, is cut short or does not fit the maze.
+     */
+    public static PathDatabase load(File file, Maze maze) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a path database file: " + file);
+            }
+
+            int xWidth = in.readInt();
+            int yWidth = in.readInt();
+
+            if (xWidth != maze.getxWidth() || yWidth != maze.getyWidth()) {
+                throw new IOException("The path database of a " + xWidth + " x " + yWidth + " maze does not fit a "
+                                      + maze.getxWidth() + " x " + maze.getyWidth() + " maze: " + file);
+            }
+
+            int size = xWidth * yWidth;
+
+            try {
+                int[] rank = new int[size];
+                int[] part = new int[size];
+
+                for (int cell = 0; cell < size; cell++) {
+                    rank[cell] = in.readInt();
+                    part[cell] = in.readInt();
+                }
+
+                int[][] rows = new int[size][];
+
+                for (int cell = 0; cell < size; cell++) {
+
+                    if (rank[cell] == -1) {
+                        continue;
+                    }
+
+                    int[] row = new int[in.readInt()];
+                    for (int k = 0; k < row.length; k++) {
+                        row[k] = in.readInt();
+                    }
+                    rows[cell] = row;
+                }
+
+                return new PathDatabase(maze, rank, part, rows);
+            } catch (EOFException e) {
+                throw new IOException("Truncated path database file: " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Radix heap over node ids for monotone keys, i.e. no key pushed is
+ * smaller than the last one polled. Bucket b holds the keys whose highest
+ * bit differing from the last polled key is bit b - 1, so a poll only
+ * redistributes one bucket. Keys below the last polled key are raised to it.
+ */
+public class RadixHeap implements OpenList {
+
+    private static final int BUCKETS = 65;
+
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+
+    /**
+     * The bucket of each node, -1 if not in the heap.
+     */
+    private final int[] bucketOf;
+
+    /**
+     * The position of each node inside its bucket.
+     */
+    private final int[] positionOf;
+
+    private final long[] keys;
+
+    /**
+     * The last polled key.
+     */
+    private long last = 0;
+
+    private int size = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of node ids the heap must hold.
+     */
+    public RadixHeap(int capacity) {
+
+        this.bucketOf = new int[capacity];
+        this.positionOf = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(this.bucketOf, -1);
+
+        for (int b = 0; b < BUCKETS; b++) {
+            this.buckets[b] = new int[4];
+        }
+    }
+
+
+    public void push(int node, long key) {
+
+        if (key < this.last) {
+            key = this.last;
+        }
+
+        if (this.bucketOf[node] != -1) {
+            if (key >= this.keys[node]) {
+                return;
+            }
+            this.removeFromBucket(node);
+        }
+        else {
+            this.size++;
+        }
+
+        this.keys[node] = key;
+        this.add(node, this.bucketIndex(key));
+    }
+
+
+    public int pollMin() {
+
+        this.settle();
+
+        int node = this.buckets[0][--this.bucketSizes[0]];
+        this.bucketOf[node] = -1;
+        this.size--;
+        return node;
+    }
+
+
+    public int peekMin() {
+
+        this.settle();
+        return this.buckets[0][this.bucketSizes[0] - 1];
+    }
+
+
+    public long peekMinKey() {
+        return this.keys[this.peekMin()];
+    }
+
+
+    public void remove(int node) {
+
+        if (this.bucketOf[node] == -1) {
+            return;
+        }
+
+        this.removeFromBucket(node);
+        this.size--;
+    }
+
+
+    public boolean contains(int node) {
+        return this.bucketOf[node] != -1;
+    }
+
+
+    public int size() {
+        return this.size;
+    }
+
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    public void clear() {
+
+        for (int b = 0; b < BUCKETS; b++) {
+            for (int p = 0; p < this.bucketSizes[b]; p++) {
+                this.bucketOf[this.buckets[b][p]] = -1;
+            }
+            this.bucketSizes[b] = 0;
+        }
+
+        this.last = 0;
+        this.size = 0;
+    }
+
+
+    public int capacity() {
+        return this.bucketOf.length;
+    }
+
+
+    private int bucketIndex(long key) {
+        return key == this.last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ this.last);
+    }
+
+
+    private void add(int node, int b) {
+
+        int count = this.bucketSizes[b];
+
+        if (count == this.buckets[b].length) {
+            this.buckets[b] = Arrays.copyOf(this.buckets[b], 2 * count);
+        }
+
+        this.buckets[b][count] = node;
+        this.bucketOf[node] = b;
+        this.positionOf[node] = count;
+        this.bucketSizes[b] = count + 1;
+    }
+
+
+    /**
+     * Makes sure bucket 0 holds the nodes with the smallest key.
+     */
+    private void settle() {
+
+        if (this.size == 0) {
+            throw new IllegalStateException("Poll from an empty open list.");
+        }
+
+        if (this.bucketSizes[0] > 0) {
+            return;
+        }
+
+        int b = 1;
+        while (this.bucketSizes[b] == 0) {
+            b++;
+        }
+
+        // The smallest key of the bucket becomes the new reference point:
+        int[] bucket = this.buckets[b];
+        int count = this.bucketSizes[b];
+        long min = Long.MAX_VALUE;
+
+        for (int p = 0; p < count; p++) {
+            min = Math.min(min, this.keys[bucket[p]]);
+        }
+
+        this.last = min;
+        this.bucketSizes[b] = 0;
+
+        // Every node of the bucket moves to a lower bucket:
+        for (int p = 0; p < count; p++) {
+            int node = bucket[p];
+            this.add(node, this.bucketIndex(this.keys[node]));
+        }
+    }
+
+
+    private void removeFromBucket(int node) {
+
+        int b = this.bucketOf[node];
+        int p = this.positionOf[node];
+        int lastIndex = --this.bucketSizes[b];
+
+        // Move the last node of the bucket into the hole:
+        int moved = this.buckets[b][lastIndex];
+        this.buckets[b][p] = moved;
+        this.positionOf[moved] = p;
+        this.bucketOf[node] = -1;
+    }
+}
@@ -0,0 +1,460 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeCell;
+import maze.Point;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.util.Arrays;
+
+/**
+ * A maze compressed into a region quadtree. The smallest power of two
+ * square that covers the maze is split into quarters until every part
+ * is uniform: all open or all blocked, the cells outside the maze not
+ * counting. Each open part is a leaf, a rectangle of open cells, so a
+ * map that is mostly empty has few leaves however large it is.
+ *
+ * Leaves that share a side are joined in a CsrGraph whose costs are the
+ * Manhattan distances between leaf centres, counted in half cells, and
+ * queries run GraphSearch over it. The leaf path is then refined into
+ * cells: inside a leaf every staircase between two cells is a shortest
+ * path, so the route crosses each shared side at the cell nearest to
+ * where it enters the leaf. Routes are valid but, as with any search on
+ * an abstraction, not always the shortest; their bound is infinite.
+ *
+ * Moves are between 4-neighbours at a cost of 1 each. The tree belongs
+ * to the maze as it was built and refuses to answer once it changed.
+ */
+public class RegionQuadtree implements PathFinder {
+
+    /**
+     * The child of a part that is blocked or outside the maze.
+     */
+    private static final int BLOCKED = -1;
+
+    private final Maze maze;
+    private final long version;
+    private final int xWidth;
+    private final int yWidth;
+
+    /**
+     * The side of the square the root covers, a power of two.
+     */
+    private final int side;
+
+    /**
+     * The root: BLOCKED, an open leaf -(2 + leaf), or an inner node.
+     */
+    private final int root;
+
+    /**
+     * The four children of each inner node k at 4k to 4k + 3, encoded as the root is;
+     * the quarters are ordered (low i, low j), (low i, high j), (high i, low j), (high i, high j).
+     */
+    private final int[] tree;
+
+    /**
+     * The rectangle of each leaf: i0, j0 inclusive and i1, j1 exclusive, at 4 * leaf.
+     */
+    private final int[] leaves;
+
+    private final CsrGraph graph;
+
+
+    private RegionQuadtree(Maze maze, int side, int root, int[] tree, int[] leaves, CsrGraph graph) {
+
+        this.maze = maze;
+        this.version = maze.getVersion();
+        this.xWidth = maze.getxWidth();
+        this.yWidth = maze.getyWidth();
+        this.side = side;
+        this.root = root;
+        this.tree = tree;
+        this.leaves = leaves;
+        this.graph = graph;
+    }
+
+
+    /**
+     * Compresses a maze.
+     *
+     * @param maze The given maze.
+     * @return The quadtree of the maze as it is now.
+     */
+    public static RegionQuadtree build(Maze maze) {
+
+        Builder builder = new Builder(maze);
+        int root = builder.split(0, 0, builder.side);
+        int leafCount = builder.leafCount;
+        int[] tree = Arrays.copyOf(builder.tree, 4 * builder.nodeCount);
+        int[] leaves = Arrays.copyOf(builder.leaves, 4 * leafCount);
+
+        // The tree without its graph answers leafAt() while the graph is built:
+        RegionQuadtree shape = new RegionQuadtree(maze, builder.side, root, tree, leaves, null);
+
+        // Join each leaf to the open leaves just outside its four sides:
+        CsrGraph.Builder edges = new CsrGraph.Builder(leafCount);
+
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+
+            int i0 = leaves[4 * leaf];
+            int j0 = leaves[4 * leaf + 1];
+            int i1 = leaves[4 * leaf + 2];
+            int j1 = leaves[4 * leaf + 3];
+
+            for (int j = j0; j < j1; ) {
+                j = shape.joinAlong(edges, leaf, i0 - 1, j, false, j1);
+            }
+            for (int j = j0; j < j1; ) {
+                j = shape.joinAlong(edges, leaf, i1, j, false, j1);
+            }
+            for (int i = i0; i < i1; ) {
+                i = shape.joinAlong(edges, leaf, i, j0 - 1, true, i1);
+            }
+            for (int i = i0; i < i1; ) {
+                i = shape.joinAlong(edges, leaf, i, j1, true, i1);
+            }
+        }
+
+        return new RegionQuadtree(maze, builder.side, root, tree, leaves, edges.build());
+    }
+
+
+    /**
+     * Joins a leaf to the leaf of a cell next to one of its sides.
+     *
+     * @param alongI True if the side runs along i, false if it runs along j.
+     * @param end    The end of the side.
+     * @return The first coordinate along the side past the leaf of the cell.
+     */
+    private int joinAlong(CsrGraph.Builder edges, int leaf, int i, int j, boolean alongI, int end) {
+
+        int other = this.leafAt(i, j);
+        int next = alongI ? i + 1 : j + 1;
+
+        if (other == -1) {
+            return next;
+        }
+
+        edges.addEdge(leaf, other, this.centreDistance(leaf, other));
+
+        // The rest of the other leaf along the side needs no look up:
+        return Math.min(end, Math.max(next, this.leaves[4 * other + (alongI ? 2 : 3)]));
+    }
+
+
+    /**
+     * @return The number of open leaves.
+     */
+    public final int getLeafCount() {
+        return this.leaves.length / 4;
+    }
+
+
+    /**
+     * @return The number of inner nodes of the tree.
+     */
+    public final int getInnerNodeCount() {
+        return this.tree.length / 4;
+    }
+
+
+    /**
+     * @return The leaf adjacency graph, with a node per leaf.
+     */
+    public final CsrGraph getGraph() {
+        return this.graph;
+    }
+
+
+    /**
+     * @return The bytes taken by the tree, the leaves and their graph.
+     */
+    public final long memoryBytes() {
+        return 4L * (this.tree.length + this.leaves.length + this.graph.nodeCount() + 1 + 2L * this.graph.edgeCount());
+    }
+
+
+    /**
+     * @param i The i coordinate of the cell.
+     * @param j The j coordinate of the cell.
+     * @return The open leaf the cell lies in, -1 if it is blocked or outside the maze.
+     */
+    public final int leafAt(int i, int j) {
+
+        if (i < 0 || j < 0 || i >= this.xWidth || j >= this.yWidth) {
+            return -1;
+        }
+
+        int entry = this.root;
+        int half = this.side;
+
+        while (entry >= 0) {
+            half >>>= 1;
+            int quarter = ((i & half) != 0 ? 2 : 0) + ((j & half) != 0 ? 1 : 0);
+            entry = this.tree[4 * entry + quarter];
+        }
+        return entry == BLOCKED ? -1 : -entry - 2;
+    }
+
+
+    /**
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return A route.
+     */
+    public Route find(final Maze maze, final Point start, final Point goal) {
+        return this.find(maze, start, goal, SearchBudget.unlimited());
+    }
+
+
+    /**
+     * @param maze   The maze the tree was built from.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query, charged once per leaf.
+     * @return A route. Empty if the goal cannot be reached.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    @Override
+    public Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        if (maze != this.maze) {
+            throw new IllegalArgumentException("A quadtree only answers for the maze it was built from.");
+        }
+        if (maze.getVersion() != this.version) {
+            throw new IllegalStateException("The maze changed after the quadtree was built.");
+        }
+
+        // Find the cell that actually corresponds to the source location:
+        MazeCell mCellStart = maze.findCell(start);
+
+        PathFinder.checkCell(mCellStart);
+
+        // Find the cell that corresponds to the goal location:
+        MazeCell mCellGoal = maze.findCell(goal);
+
+        PathFinder.checkCell(mCellGoal);
+
+        // If starting point is the same to the goal there is nothing else to do:
+        if (start.equals(goal)) {
+            Route route = new Route();
+            route.addItem(mCellStart.getId());
+            return route;
+        }
+
+        int goalLeaf = this.leafAt(goal.i, goal.j);
+        NodeHeuristic heuristic = this::centreDistance;
+
+        int[] leafPath = new GraphSearch(OpenListType.BINARY_HEAP, TieBreaking.LARGER_G)
+                .findPath(this.graph, this.leafAt(start.i, start.j), goalLeaf, heuristic, budget);
+
+        if (leafPath.length == 0) {
+            return new Route();
+        }
+
+        return new Route(this.refine(leafPath, start, goal), Double.POSITIVE_INFINITY);
+    }
+
+
+    /**
+     * Turns a path of leaves into cells, crossing every shared side at the
+     * cell nearest to where the route entered the leaf.
+     */
+    private int[] refine(int[] leafPath, Point start, Point goal) {
+
+        int[] cells = new int[16];
+        int size = 0;
+        int i = start.i;
+        int j = start.j;
+        cells[size++] = i * this.yWidth + j;
+
+        for (int k = 0; k < leafPath.length; k++) {
+
+            int targetI;
+            int targetJ;
+            int stepI = 0;
+            int stepJ = 0;
+
+            if (k == leafPath.length - 1) {
+                targetI = goal.i;
+                targetJ = goal.j;
+            }
+            else {
+                int a = 4 * leafPath[k];
+                int b = 4 * leafPath[k + 1];
+
+                if (this.leaves[a + 2] == this.leaves[b]) {
+                    // The next leaf is above, at larger i:
+                    targetI = this.leaves[a + 2] - 1;
+                    targetJ = clamp(j, a + 1, b + 1, a + 3, b + 3);
+                    stepI = 1;
+                }
+                else if (this.leaves[a] == this.leaves[b + 2]) {
+                    targetI = this.leaves[a];
+                    targetJ = clamp(j, a + 1, b + 1, a + 3, b + 3);
+                    stepI = -1;
+                }
+                else if (this.leaves[a + 3] == this.leaves[b + 1]) {
+                    targetI = clamp(i, a, b, a + 2, b + 2);
+                    targetJ = this.leaves[a + 3] - 1;
+                    stepJ = 1;
+                }
+                else {
+                    targetI = clamp(i, a, b, a + 2, b + 2);
+                    targetJ = this.leaves[a + 1];
+                    stepJ = -1;
+                }
+            }
+
+            // A staircase inside the leaf, along i first:
+            int length = Math.abs(targetI - i) + Math.abs(targetJ - j) + 1;
+            if (size + length > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(2 * cells.length, size + length));
+            }
+
+            while (i != targetI) {
+                i += Integer.signum(targetI - i);
+                cells[size++] = i * this.yWidth + j;
+            }
+            while (j != targetJ) {
+                j += Integer.signum(targetJ - j);
+                cells[size++] = i * this.yWidth + j;
+            }
+
+            // Across the shared side into the next leaf:
+            if (stepI != 0 || stepJ != 0) {
+                i += stepI;
+                j += stepJ;
+                cells[size++] = i * this.yWidth + j;
+            }
+        }
+
+        return Arrays.copyOf(cells, size);
+    }
+
+
+    /**
+     * @return The value moved into the part of a side the two leaves share,
+     *         given by the indices of their low and high ends in the leaves.
+     */
+    private int clamp(int value, int lowA, int lowB, int highA, int highB) {
+
+        int low = Math.max(this.leaves[lowA], this.leaves[lowB]);
+        int high = Math.min(this.leaves[highA], this.leaves[highB]);
+        return Math.max(low, Math.min(high - 1, value));
+    }
+
+
+    /**
+     * @return The Manhattan distance between the centres of two leaves, in half cells.
+     */
+    private int centreDistance(int a, int b) {
+
+        int[] l = this.leaves;
+        return Math.abs((l[4 * a] + l[4 * a + 2]) - (l[4 * b] + l[4 * b + 2]))
+               + Math.abs((l[4 * a + 1] + l[4 * a + 3]) - (l[4 * b + 1] + l[4 * b + 3]));
+    }
+
+
+    /**
+     * Splits the square of the maze and collects the tree and the leaves.
+     */
+    private static final class Builder {
+
+        private final int xWidth;
+        private final int yWidth;
+        private final int side;
+
+        /**
+         * The blocked cells in the rectangle from (0, 0) to (i, j), exclusive, at i * (yWidth + 1) + j.
+         */
+        private final int[] blockedBefore;
+
+        private int[] tree = new int[64];
+        private int nodeCount = 0;
+        private int[] leaves = new int[64];
+        private int leafCount = 0;
+
+
+        Builder(Maze maze) {
+
+            this.xWidth = maze.getxWidth();
+            this.yWidth = maze.getyWidth();
+
+            int side = 1;
+            while (side < Math.max(this.xWidth, this.yWidth)) {
+                side <<= 1;
+            }
+            this.side = side;
+
+            int stride = this.yWidth + 1;
+            this.blockedBefore = new int[(this.xWidth + 1) * stride];
+
+            for (int i = 0; i < this.xWidth; i++) {
+                int row = 0;
+                for (int j = 0; j < this.yWidth; j++) {
+                    if (maze.isBlocked(i * this.yWidth + j)) {
+                        row++;
+                    }
+                    this.blockedBefore[(i + 1) * stride + j + 1] = this.blockedBefore[i * stride + j + 1] + row;
+                }
+            }
+        }
+
+
+        /**
+         * @return The entry of the square with the given corner and side.
+         */
+        int split(int i0, int j0, int size) {
+
+            int i1 = Math.min(i0 + size, this.xWidth);
+            int j1 = Math.min(j0 + size, this.yWidth);
+
+            if (i0 >= i1 || j0 >= j1) {
+                return BLOCKED;
+            }
+
+            int stride = this.yWidth + 1;
+            int blocked = this.blockedBefore[i1 * stride + j1] - this.blockedBefore[i0 * stride + j1]
+                          - this.blockedBefore[i1 * stride + j0] + this.blockedBefore[i0 * stride + j0];
+
+            if (blocked == (i1 - i0) * (j1 - j0)) {
+                return BLOCKED;
+            }
+
+            if (blocked == 0) {
+                if (4 * this.leafCount + 4 > this.leaves.length) {
+                    this.leaves = Arrays.copyOf(this.leaves, 2 * this.leaves.length);
+                }
+                this.leaves[4 * this.leafCount] = i0;
+                this.leaves[4 * this.leafCount + 1] = j0;
+                this.leaves[4 * this.leafCount + 2] = i1;
+                this.leaves[4 * this.leafCount + 3] = j1;
+                return -2 - this.leafCount++;
+            }
+
+            int node = this.nodeCount++;
+            if (4 * this.nodeCount > this.tree.length) {
+                this.tree = Arrays.copyOf(this.tree, 2 * this.tree.length);
+            }
+
+            // The children may grow the arrays, so they are stored only when all are split:
+            int half = size >>> 1;
+            int lowLow = this.split(i0, j0, half);
+            int lowHigh = this.split(i0, j0 + half, half);
+            int highLow = this.split(i0 + half, j0, half);
+            int highHigh = this.split(i0 + half, j0 + half, half);
+
+            this.tree[4 * node] = lowLow;
+            this.tree[4 * node + 1] = lowHigh;
+            this.tree[4 * node + 2] = highLow;
+            this.tree[4 * node + 3] = highHigh;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package algorithms;
+
+import pathfinder.Route;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+
+/**
+ * Reusable per-cell state of a search: g-cost, parent, closed flag and
+ * the open lists. One context is pooled per thread and grows to the
+ * largest maze the thread has searched.
+ *
+ * Entries are stamped with the generation of the search that wrote them,
+ * so reset() only bumps the generation and a cell counts as initialised
+ * only if it was touched by the current search. A small query on a huge
+ * maze therefore costs what it touches, not what the maze holds.
+ *
+ * Usage:
+ *   SearchContext context = SearchContext.acquire(maze.size());
+ *   try { ... } finally { context.release(); }
+ */
+public class SearchContext {
+
+    private static final ThreadLocal<SearchContext> POOL = new ThreadLocal<SearchContext>() {
+        @Override
+        protected SearchContext initialValue() {
+            return new SearchContext(0, true);
+        }
+    };
+
+    private int[] gCost;
+    private int[] parent;
+
+    /**
+     * The generation that last wrote gCost and parent of each cell.
+     */
+    private int[] reachedStamp;
+
+    /**
+     * The closed generation that last closed each cell.
+     */
+    private int[] closedStamp;
+
+    private int generation = 0;
+
+    /**
+     * Bumped with every search and by clearClosed(), which reopens
+     * the cells without forgetting their g-costs.
+     */
+    private int closedGeneration = 0;
+
+    private final EnumMap<OpenListType, OpenList> openLists = new EnumMap<>(OpenListType.class);
+
+    /**
+     * True for the context owned by the thread pool, false for the
+     * fallback contexts handed out to nested searches.
+     */
+    private final boolean pooled;
+
+    private boolean inUse = false;
+
+
+    /**
+     * Constructor. Use acquire() unless the context must outlive the search.
+     *
+     * @param capacity The number of cells the context must hold.
+     */
+    public SearchContext(int capacity) {
+        this(capacity, false);
+    }
+
+
+    private SearchContext(int capacity, boolean pooled) {
+
+        this.pooled = pooled;
+        this.allocate(capacity);
+    }
+
+
+    /**
+     * Hands out the context of the calling thread, reset and grown to the
+     * given capacity. A thread that already holds its context (a search
+     * nested in another search) gets a fresh one instead.
+     *
+     * @param capacity The number of cells the context must hold.
+     * @return A reset context.
+     */
+    public static SearchContext acquire(int capacity) {
+
+        SearchContext context = POOL.get();
+
+        if (context.inUse) {
+            context = new SearchContext(capacity);
+        }
+
+        context.inUse = true;
+        context.reset(capacity);
+        return context;
+    }
+
+
+    /**
+     * Gives the context back to its thread.
+     */
+    public final void release() {
+        this.inUse = false;
+    }
+
+
+    /**
+     * Starts a new search. O(1) unless the context has to grow
+     * or the generation counter wraps around.
+     *
+     * @param capacity The number of cells the context must hold.
+     */
+    public final void reset(int capacity) {
+
+        if (capacity > this.capacity()) {
+            this.allocate(Math.max(capacity, this.capacity() + (this.capacity() >> 1)));
+            return;
+        }
+
+        if (++this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.reachedStamp, 0);
+            this.generation = 1;
+        }
+
+        this.clearClosed();
+
+        for (OpenList open : this.openLists.values()) {
+            open.clear();
+        }
+    }
+
+
+    /**
+     * @return The number of cells the context holds.
+     */
+    public final int capacity() {
+        return this.gCost.length;
+    }
+
+
+    /**
+     * @return True if the context is owned by the per-thread pool.
+     */
+    public final boolean isPooled() {
+        return this.pooled;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The g-cost of the cell, Integer.MAX_VALUE if not reached yet.
+     */
+    public final int getGCost(int cell) {
+        return this.reachedStamp[cell] == this.generation ? this.gCost[cell] : Integer.MAX_VALUE;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return The parent of the cell, -1 if it has none.
+     */
+    public final int getParent(int cell) {
+        return this.reachedStamp[cell] == this.generation ? this.parent[cell] : -1;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return True if the cell was reached by the current search.
+     */
+    public final boolean isReached(int cell) {
+        return this.reachedStamp[cell] == this.generation;
+    }
+
+
+    /**
+     * Records the best path so far to a cell.
+     *
+     * @param cell   The cell id.
+     * @param gCost  The cost of the path.
+     * @param parent The cell the path comes from, -1 for the start.
+     */
+    public final void reach(int cell, int gCost, int parent) {
+
+        this.gCost[cell] = gCost;
+        this.parent[cell] = parent;
+        this.reachedStamp[cell] = this.generation;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     * @return True if the cell was closed by the current search.
+     */
+    public final boolean isClosed(int cell) {
+        return this.closedStamp[cell] == this.closedGeneration;
+    }
+
+
+    /**
+     * @param cell The cell id.
+     */
+    public final void close(int cell) {
+        this.closedStamp[cell] = this.closedGeneration;
+    }
+
+
+    /**
+     * Reopens every closed cell and keeps the g-costs and parents, as
+     * needed between the iterations of an anytime search. O(1) unless
+     * the counter wraps around.
+     */
+    public final void clearClosed() {
+
+        if (++this.closedGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(this.closedStamp, 0);
+            this.closedGeneration = 1;
+        }
+    }
+
+
+    /**
+     * @param type The open list implementation.
+     * @return An empty open list of the given type that fits the context.
+     */
+    public final OpenList openList(OpenListType type) {
+
+        OpenList open = this.openLists.get(type);
+
+        if (open == null) {
+            open = type.create(this.capacity());
+            this.openLists.put(type, open);
+        }
+
+        return open;
+    }
+
+
+    /**
+     * Reconstructs the path to a cell reached by the current search. The
+     * parents are walked twice, once to count and once to fill the array
+     * from the back, so the path needs neither a list nor a reversal.
+     *
+     * @param start The id of the start.
+     * @param goal  The id of the goal.
+     * @return The path from the start to the goal. Empty if the goal was not reached.
+     */
+    public final int[] reconstructPath(int start, int goal) {
+
+        if (goal != start && this.getParent(goal) == -1) {
+            return new int[0];
+        }
+
+        int length = 1;
+        for (int node = goal; node != start; node = this.parent[node]) {
+            length++;
+        }
+
+        int[] nodes = new int[length];
+        for (int node = goal; node != start; node = this.parent[node]) {
+            nodes[--length] = node;
+        }
+        nodes[0] = start;
+
+        return nodes;
+    }
+
+
+    /**
+     * @param start The id of the start.
+     * @param goal  The id of the goal.
+     * @return The route from the start to the goal. Empty if the goal was not reached.
+     */
+    public final Route route(int start, int goal) {
+        return new Route(this.reconstructPath(start, goal));
+    }
+
+
+    private void allocate(int capacity) {
+
+        this.gCost = new int[capacity];
+        this.parent = new int[capacity];
+        this.reachedStamp = new int[capacity];
+        this.closedStamp = new int[capacity];
+        this.generation = 1;
+        this.closedGeneration = 1;
+        this.openLists.clear();
+    }
+}
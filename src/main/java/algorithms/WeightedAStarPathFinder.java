@@ -0,0 +1,77 @@
+package algorithms;
+
+import maze.Point;
+import utilities.Pair;
+
+/**
+ * An Implementation of weighted A*: the heuristic is inflated by
+ * (1 + epsilon), which makes the search much greedier. Cells whose
+ * cost improves after they were expanded are expanded again, so for
+ * an admissible heuristic the route costs at most (1 + epsilon) times
+ * the optimal cost. The found routes report that bound.
+ */
+public class WeightedAStarPathFinder extends AStarPathFinder {
+
+    private final double weight;
+
+
+    /**
+     * Constructor. Uses an indexed binary heap that prefers the larger
+     * g-cost among equal f-costs.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be admissible.
+     * @param epsilon            The allowed relative excess cost, not negative.
+     */
+    public WeightedAStarPathFinder(DistanceCalculator distanceCalculator,
+                                   HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                                   double epsilon) {
+
+        this(distanceCalculator, heuristic, epsilon, OpenListType.BINARY_HEAP, TieBreaking.LARGER_G);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param distanceCalculator The distance.
+     * @param heuristic          The heuristic, it must be admissible.
+     * @param epsilon            The allowed relative excess cost, not negative.
+     * @param openListType       The open list implementation.
+     * @param tieBreaking        The ordering among nodes with equal f-cost.
+     */
+    public WeightedAStarPathFinder(DistanceCalculator distanceCalculator,
+                                   HeuristicFunction<Pair<Point, Point>, Double> heuristic,
+                                   double epsilon, OpenListType openListType, TieBreaking tieBreaking) {
+
+        super(distanceCalculator, heuristic, openListType, tieBreaking);
+
+        if (!(epsilon >= 0.0) || Double.isInfinite(epsilon)) {
+            throw new IllegalArgumentException("Epsilon must be a finite non-negative number: " + epsilon);
+        }
+
+        this.weight = 1.0 + epsilon;
+    }
+
+
+    /**
+     * @return The weight of the heuristic, 1 + epsilon.
+     */
+    public final double getWeight() {
+        return this.weight;
+    }
+
+
+    @Override
+    protected int estimate(int i, int j, int goalI, int goalJ) {
+
+        // Rounding down keeps the inflated estimate within weight times the heuristic:
+        return (int) Math.min(this.weight * super.estimate(i, j, goalI, goalJ), Integer.MAX_VALUE >> 1);
+    }
+
+
+    @Override
+    protected double suboptimalityBound() {
+        return this.weight;
+    }
+}
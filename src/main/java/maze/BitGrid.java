@@ -0,0 +1,142 @@
+package maze;
+
+/**
+ * The open cells of a maze packed one bit per cell, row by row. Every
+ * row starts at a new long word, so a whole row of 64 cells moves
+ * east or west with one shift and to the next row with one word step.
+ * The bits past the last column of a row are always 0.
+ *
+ * Word w holds cells (w / wordsPerRow, 64 * (w % wordsPerRow) + b) for
+ * bits b = 0..63. A grid is a copy: later changes to the maze are not
+ * seen, see getVersion().
+ */
+public final class BitGrid {
+
+    private final long[] open;
+    private final int xWidth;
+    private final int yWidth;
+    private final int wordsPerRow;
+    private final long version;
+
+
+    private BitGrid(long[] open, int xWidth, int yWidth, int wordsPerRow, long version) {
+
+        this.open = open;
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.wordsPerRow = wordsPerRow;
+        this.version = version;
+    }
+
+
+    /**
+     * Packs the open cells of a maze.
+     *
+     * @param maze The maze.
+     * @return The grid of the maze as it is now.
+     */
+    public static BitGrid of(Maze maze) {
+
+        if (maze == null) {
+            throw new NullPointerException("Null maze was provided.");
+        }
+
+        int xWidth = maze.getxWidth();
+        int yWidth = maze.getyWidth();
+        int wordsPerRow = (yWidth + 63) >>> 6;
+
+        if ((long) xWidth * wordsPerRow > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze of " + xWidth + " x " + yWidth + " is too large for a BitGrid.");
+        }
+
+        long version = maze.getVersion();
+        long[] open = new long[xWidth * wordsPerRow];
+
+        for (int i = 0; i < xWidth; i++) {
+
+            long address = (long) i * yWidth;
+            int rowWord = i * wordsPerRow;
+
+            for (int j = 0; j < yWidth; j++) {
+                if (!maze.isBlocked(address + j)) {
+                    open[rowWord + (j >>> 6)] |= 1L << j;
+                }
+            }
+        }
+
+        return new BitGrid(open, xWidth, yWidth, wordsPerRow, version);
+    }
+
+
+    /**
+     * @return Cells in x direction.
+     */
+    public int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return Cells in y direction.
+     */
+    public int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    /**
+     * @return The number of words of each row.
+     */
+    public int getWordsPerRow() {
+        return this.wordsPerRow;
+    }
+
+
+    /**
+     * @return The number of words of the grid.
+     */
+    public int getWordCount() {
+        return this.open.length;
+    }
+
+
+    /**
+     * @return The version of the maze the grid was packed from.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+
+    /**
+     * @param w The word index.
+     * @return The open bits of the word.
+     */
+    public long getWord(int w) {
+        return this.open[w];
+    }
+
+
+    /**
+     * @param i The row.
+     * @param j The column.
+     * @return True if the cell is inside the grid and open.
+     */
+    public boolean isOpen(int i, int j) {
+
+        if (i < 0 || i >= this.xWidth || j < 0 || j >= this.yWidth) {
+            return false;
+        }
+        return (this.open[i * this.wordsPerRow + (j >>> 6)] & (1L << j)) != 0;
+    }
+
+
+    /**
+     * @param i The row.
+     * @param j The column.
+     * @return The index of the word that holds the cell.
+     */
+    public int wordIndex(int i, int j) {
+        return i * this.wordsPerRow + (j >>> 6);
+    }
+}
@@ -0,0 +1,256 @@
+package maze;
+
+/**
+ * A cache friendly numbering of the cells of a grid. The grid is cut into
+ * square tiles of 2^tileShift cells a side, numbered row by row, and the
+ * cells of a tile follow the Z-order (Morton) curve: the bits of i and j
+ * inside the tile are interleaved, i taking the odd bits.
+ *
+ * With row-major ids the neighbours of a cell towards smaller and larger
+ * i are yWidth ids away, so on wide grids nearly every such step of a
+ * search touches a new cache line of its per-cell arrays. Here most
+ * neighbours are within the same tile, a few hundred ids away at most.
+ *
+ * The tiles cover the grid rounded up to whole tiles, so size() may be
+ * a little larger than the number of cells; the ids of the padding are
+ * never handed out by neighbourId().
+ */
+public final class CellLayout {
+
+    /**
+     * 16 x 16 cells: 1 KB per int array and tile.
+     */
+    public static final int DEFAULT_TILE_SHIFT = 4;
+
+    private final int xWidth;
+    private final int yWidth;
+    private final int tileShift;
+    private final int tileMask;
+    private final int tilesInY;
+    private final int size;
+
+    /**
+     * The bits of i and of j within the id of a cell in its tile.
+     */
+    private final int iBits;
+    private final int jBits;
+
+    /**
+     * The bits within the tile of the last i and the last j of the grid,
+     * and the first tile of the last row of tiles.
+     */
+    private final int lastIBits;
+    private final int lastJBits;
+    private final int lastTileRow;
+
+
+    /**
+     * Constructor for tiles of DEFAULT_TILE_SHIFT.
+     *
+     * @param xWidth Cells in x direction.
+     * @param yWidth Cells in y direction.
+     */
+    public CellLayout(int xWidth, int yWidth) {
+        this(xWidth, yWidth, DEFAULT_TILE_SHIFT);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param xWidth    Cells in x direction.
+     * @param yWidth    Cells in y direction.
+     * @param tileShift The tiles are 2^tileShift cells a side, 0 to 15.
+     */
+    public CellLayout(int xWidth, int yWidth, int tileShift) {
+
+        if (xWidth <= 0 || yWidth <= 0) {
+            throw new IllegalArgumentException("Cannot lay out a grid without any cells.");
+        }
+        if (tileShift < 0 || tileShift > 15) {
+            throw new IllegalArgumentException("Tile shift must be between 0 and 15: " + tileShift);
+        }
+
+        long tilesInX = (xWidth + (1L << tileShift) - 1) >> tileShift;
+        long tilesInY = (yWidth + (1L << tileShift) - 1) >> tileShift;
+        long size = (tilesInX * tilesInY) << (2 * tileShift);
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid of " + xWidth + " x " + yWidth + " cells is too large to lay out"
+                                               + " in tiles of " + (1 << tileShift) + " cells a side.");
+        }
+
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.tileShift = tileShift;
+        this.tileMask = (1 << tileShift) - 1;
+        this.tilesInY = (int) tilesInY;
+        this.size = (int) size;
+        this.iBits = spread(this.tileMask) << 1;
+        this.jBits = spread(this.tileMask);
+        this.lastIBits = spread((xWidth - 1) & this.tileMask) << 1;
+        this.lastJBits = spread((yWidth - 1) & this.tileMask);
+        this.lastTileRow = (int) ((tilesInX - 1) * tilesInY);
+    }
+
+
+    /**
+     * @return The number of ids, padding included.
+     */
+    public int size() {
+        return this.size;
+    }
+
+
+    /**
+     * @return Cells in x direction.
+     */
+    public int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return Cells in y direction.
+     */
+    public int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    /**
+     * @return The tiles are 2^tileShift cells a side.
+     */
+    public int getTileShift() {
+        return this.tileShift;
+    }
+
+
+    /**
+     * @param i The i coordinate of the cell.
+     * @param j The j coordinate of the cell.
+     * @return The id of the cell in this layout.
+     */
+    public int idOf(int i, int j) {
+
+        int tile = (i >> this.tileShift) * this.tilesInY + (j >> this.tileShift);
+        return (tile << (2 * this.tileShift)) | (spread(i & this.tileMask) << 1) | spread(j & this.tileMask);
+    }
+
+
+    /**
+     * @param id The id of a cell in this layout.
+     * @return The i coordinate of the cell.
+     */
+    public int iOf(int id) {
+
+        int tile = id >>> (2 * this.tileShift);
+        return ((tile / this.tilesInY) << this.tileShift) | compact(id >>> 1);
+    }
+
+
+    /**
+     * @param id The id of a cell in this layout.
+     * @return The j coordinate of the cell.
+     */
+    public int jOf(int id) {
+
+        int tile = id >>> (2 * this.tileShift);
+        return ((tile % this.tilesInY) << this.tileShift) | compact(id);
+    }
+
+
+    /**
+     * @param id The id of a cell in this layout.
+     * @return The row-major id of the cell, as a Maze numbers it.
+     */
+    public int cellOf(int id) {
+        return this.iOf(id) * this.yWidth + this.jOf(id);
+    }
+
+
+    /**
+     * @param cell The row-major id of a cell.
+     * @return The id of the cell in this layout.
+     */
+    public int idOfCell(int cell) {
+        return this.idOf(cell / this.yWidth, cell % this.yWidth);
+    }
+
+
+    /**
+     * Same as Maze.neighbourId, for ids of this layout. The step is taken
+     * on the interleaved bits: adding or subtracting one to the i or the
+     * j bits of the id, with the bits of the other coordinate set so the
+     * carry passes over them. Only a step off the edge of a tile moves to
+     * the neighbouring tile.
+     *
+     * @param id The id of a cell in this layout.
+     * @param n  The neighbour index (0 to Maze.NUMBER_OF_NEIGHBOURS - 1).
+     * @return The id of the neighbour, or -1 if it is outside the grid.
+     */
+    public int neighbourId(int id, int n) {
+
+        int tileBits = 2 * this.tileShift;
+        int tile = id >>> tileBits;
+        int i = id & this.iBits;
+        int j = id & this.jBits;
+
+        switch (n) {
+            case 0:
+                if (i != 0) {
+                    return id - i | ((i - 1) & this.iBits);
+                }
+                return tile < this.tilesInY ? -1 : ((tile - this.tilesInY) << tileBits) | this.iBits | j;
+            case 1:
+                if (j == this.lastJBits && tile % this.tilesInY == this.tilesInY - 1) {
+                    return -1;
+                }
+                if (j != this.jBits) {
+                    return id - j | (((j | this.iBits) + 1) & this.jBits);
+                }
+                return ((tile + 1) << tileBits) | i;
+            case 2:
+                if (i == this.lastIBits && tile >= this.lastTileRow) {
+                    return -1;
+                }
+                if (i != this.iBits) {
+                    return id - i | (((i | this.jBits) + 1) & this.iBits);
+                }
+                return ((tile + this.tilesInY) << tileBits) | j;
+            case 3:
+                if (j != 0) {
+                    return id - j | ((j - 1) & this.jBits);
+                }
+                return tile % this.tilesInY == 0 ? -1 : ((tile - 1) << tileBits) | i | this.jBits;
+            default:
+                return -1;
+        }
+    }
+
+
+    /**
+     * @return The low 16 bits of the value moved to the even bits.
+     */
+    private static int spread(int value) {
+
+        int x = value & 0xFFFF;
+        x = (x | (x << 8)) & 0x00FF00FF;
+        x = (x | (x << 4)) & 0x0F0F0F0F;
+        x = (x | (x << 2)) & 0x33333333;
+        return (x | (x << 1)) & 0x55555555;
+    }
+
+
+    /**
+     * @return The even bits of the value packed into the low 16 bits.
+     */
+    private int compact(int value) {
+
+        int x = value & 0x55555555 & ((1 << (2 * this.tileShift)) - 1);
+        x = (x | (x >>> 1)) & 0x33333333;
+        x = (x | (x >>> 2)) & 0x0F0F0F0F;
+        x = (x | (x >>> 4)) & 0x00FF00FF;
+        return (x | (x >>> 8)) & 0x0000FFFF;
+    }
+}
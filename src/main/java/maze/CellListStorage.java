@@ -0,0 +1,65 @@
+package maze;
+
+import java.util.ArrayList;
+
+/**
+ * The classic in-heap storage: one MazeCell object per cell,
+ * added one by one (see MazeBuilder).
+ */
+public class CellListStorage implements MazeStorage {
+
+    /**
+     * The maze cells.
+     */
+    private final ArrayList<MazeCell> cells;
+
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The expected number of cells.
+     */
+    public CellListStorage(int capacity) {
+        this.cells = new ArrayList<MazeCell>(capacity);
+    }
+
+
+    public long cellCount() {
+        return this.cells.size();
+    }
+
+
+    public boolean isBlocked(long cell) {
+        return this.cells.get((int) cell).isBlocked();
+    }
+
+
+    public void setBlocked(long cell, boolean blocked) {
+        this.cells.get((int) cell).setBlocked(blocked);
+    }
+
+
+    /**
+     * @param c the index of the cell.
+     * @return the maze cell at given index.
+     */
+    public final MazeCell getCell(int c) {
+        return this.cells.get(c);
+    }
+
+
+    /**
+     * @return How many cells have been added.
+     */
+    public final int size() {
+        return this.cells.size();
+    }
+
+
+    /**
+     * @param cell A maze cell.
+     */
+    public final void addCell(MazeCell cell) {
+        this.cells.add(cell);
+    }
+}
@@ -0,0 +1,207 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Writer side of lock-free maze snapshots. The writer changes the flags
+ * in place and publish() hands out an immutable MazeSnapshot of the
+ * current state. After a publish, the first change to a block copies
+ * only that block and the chunk and directory arrays on its path, so a
+ * new snapshot costs memory proportional to the blocks that changed.
+ *
+ * Ownership is tracked with epochs: a block, chunk or directory array is
+ * private to the writer if it was copied in the current epoch, and
+ * publish() starts a new epoch, so publishing is O(1).
+ *
+ * There must be a single writer; readers only touch snapshots.
+ */
+public class CopyOnWriteMazeStorage implements MazeStorage {
+
+    private final int xWidth;
+    private final int yWidth;
+
+    private long[][][] chunks;
+
+    /**
+     * The epoch in which the directory, each chunk and each block were copied.
+     */
+    private int directoryEpoch = 0;
+    private final int[] chunkEpoch;
+    private final int[][] blockEpoch;
+
+    private int epoch = 1;
+
+    private long version = 0;
+
+    private volatile MazeSnapshot current;
+
+
+    /**
+     * Creates an x * y maze with every cell open.
+     *
+     * @param xWidth Cells in x direction.
+     * @param yWidth Cells in y direction.
+     */
+    public CopyOnWriteMazeStorage(int xWidth, int yWidth) {
+
+        long cellCount = (long) xWidth * yWidth;
+
+        if (xWidth <= 0 || yWidth <= 0) {
+            throw new IllegalArgumentException("Cannot create a Maze without any cells.");
+        }
+
+        long blocks = (cellCount + MazeSnapshot.BLOCK_CELLS - 1) >>> MazeSnapshot.BLOCK_SHIFT;
+        long chunkCount = (blocks + MazeSnapshot.CHUNK_BLOCKS - 1) >>> MazeSnapshot.CHUNK_SHIFT;
+
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze of " + cellCount + " cells is too large.");
+        }
+
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.chunks = new long[(int) chunkCount][][];
+        this.chunkEpoch = new int[(int) chunkCount];
+        this.blockEpoch = new int[(int) chunkCount][];
+        this.current = new MazeSnapshot(this.chunks, xWidth, yWidth, this.version);
+    }
+
+
+    /**
+     * Copies the blocked flags of a maze.
+     *
+     * @param maze The maze.
+     * @return The storage, with its first snapshot published.
+     */
+    public static CopyOnWriteMazeStorage copyOf(Maze maze) {
+
+        CopyOnWriteMazeStorage storage = new CopyOnWriteMazeStorage(maze.getxWidth(), maze.getyWidth());
+        long count = maze.cellCount();
+
+        for (long c = 0; c < count; c++) {
+            if (maze.isBlocked(c)) {
+                storage.setBlocked(c, true);
+            }
+        }
+
+        storage.publish();
+        return storage;
+    }
+
+
+    public long cellCount() {
+        return (long) this.xWidth * this.yWidth;
+    }
+
+
+    /**
+     * Reads the writer's current state, including unpublished changes.
+     */
+    public boolean isBlocked(long cell) {
+        return MazeSnapshot.isBlocked(this.chunks, cell);
+    }
+
+
+    public void setBlocked(long cell, boolean blocked) {
+
+        int blockIndex = (int) (cell >>> MazeSnapshot.BLOCK_SHIFT);
+        int c = blockIndex >>> MazeSnapshot.CHUNK_SHIFT;
+        int b = blockIndex & MazeSnapshot.CHUNK_MASK;
+
+        long[][] chunk = this.chunks[c];
+        long[] block = chunk == null ? null : chunk[b];
+
+        // Nothing to copy if the bit already has the value:
+        boolean isSet = block != null
+                && (block[(int) (cell >>> 6) & (MazeSnapshot.WORDS_PER_BLOCK - 1)] & (1L << cell)) != 0;
+        if (isSet == blocked) {
+            return;
+        }
+
+        if (this.directoryEpoch != this.epoch) {
+            this.chunks = this.chunks.clone();
+            this.directoryEpoch = this.epoch;
+        }
+
+        if (this.chunkEpoch[c] != this.epoch) {
+            chunk = chunk == null ? new long[MazeSnapshot.CHUNK_BLOCKS][] : chunk.clone();
+            this.chunks[c] = chunk;
+            this.chunkEpoch[c] = this.epoch;
+        }
+
+        if (this.blockEpoch[c] == null) {
+            this.blockEpoch[c] = new int[MazeSnapshot.CHUNK_BLOCKS];
+        }
+
+        if (this.blockEpoch[c][b] != this.epoch) {
+            block = block == null ? new long[MazeSnapshot.WORDS_PER_BLOCK] : block.clone();
+            chunk[b] = block;
+            this.blockEpoch[c][b] = this.epoch;
+        }
+
+        int word = (int) (cell >>> 6) & (MazeSnapshot.WORDS_PER_BLOCK - 1);
+
+        if (blocked) {
+            block[word] |= 1L << cell;
+        }
+        else {
+            block[word] &= ~(1L << cell);
+        }
+    }
+
+
+    /**
+     * Publishes the current state as a new snapshot.
+     *
+     * @return The new snapshot.
+     */
+    public MazeSnapshot publish() {
+
+        MazeSnapshot snapshot = new MazeSnapshot(this.chunks, this.xWidth, this.yWidth, ++this.version);
+
+        // From now on every array the snapshot references belongs to it:
+        if (++this.epoch == Integer.MAX_VALUE) {
+            this.resetEpochs();
+        }
+        this.current = snapshot;
+        return snapshot;
+    }
+
+
+    /**
+     * @return The last published snapshot. Safe to call from any thread.
+     */
+    public MazeSnapshot snapshot() {
+        return this.current;
+    }
+
+
+    /**
+     * @return cells in x-direction.
+     */
+    public final int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return cells in y-direction.
+     */
+    public final int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    private void resetEpochs() {
+
+        this.directoryEpoch = 0;
+        Arrays.fill(this.chunkEpoch, 0);
+
+        for (int[] epochs : this.blockEpoch) {
+            if (epochs != null) {
+                Arrays.fill(epochs, 0);
+            }
+        }
+
+        this.epoch = 1;
+    }
+}
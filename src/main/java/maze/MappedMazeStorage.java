@@ -0,0 +1,217 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Off-heap storage that keeps one blocked bit per cell in a file mapped
+ * through FileChannel.map. The data lives in the OS page cache instead
+ * of the Java heap, and cells have long addresses, so a maze may hold
+ * more than 2^31 cells. Files larger than one mapping can cover are
+ * mapped as several segments.
+ *
+ * File layout: a header of HEADER_BYTES (magic, xWidth, yWidth) followed
+ * by the bitset, cell c being bit (c % 8) of byte (c / 8).
+ *
+ * Reads are safe from any number of threads; writes need a single writer.
+ */
+public class MappedMazeStorage implements MazeStorage, Closeable {
+
+    /**
+     * Marks a mapped maze file ("MAZ1").
+     */
+    public static final int MAGIC = 0x4D415A31;
+
+    public static final int HEADER_BYTES = 16;
+
+    /**
+     * Bytes covered by one mapped segment.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_BYTES - 1;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int xWidth;
+    private final int yWidth;
+    private final long cellCount;
+    private final boolean readOnly;
+
+
+    private MappedMazeStorage(RandomAccessFile file, int xWidth, int yWidth, boolean readOnly) throws IOException {
+
+        this.file = file;
+        this.channel = file.getChannel();
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.cellCount = (long) xWidth * yWidth;
+        this.readOnly = readOnly;
+
+        long dataBytes = MappedMazeStorage.dataBytes(this.cellCount);
+        int count = (int) ((dataBytes + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT);
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+
+        this.segments = new MappedByteBuffer[count];
+
+        for (int s = 0; s < count; s++) {
+            long offset = (long) s << SEGMENT_SHIFT;
+            long length = Math.min(SEGMENT_BYTES, dataBytes - offset);
+            this.segments[s] = this.channel.map(mode, HEADER_BYTES + offset, length);
+        }
+    }
+
+
+    /**
+     * Creates (or overwrites) a mapped maze file with every cell open.
+     *
+     * @param path   The file.
+     * @param xWidth Cells in x direction.
+     * @param yWidth Cells in y direction.
+     * @return The storage, open for reading and writing.
+     */
+    public static MappedMazeStorage create(File path, int xWidth, int yWidth) throws IOException {
+
+        if (xWidth <= 0 || yWidth <= 0) {
+            throw new IllegalArgumentException("Cannot create a Maze without any cells.");
+        }
+
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+
+        try {
+            // A fresh file reads as zeros, i.e. all cells open:
+            file.setLength(0);
+            file.setLength(HEADER_BYTES + MappedMazeStorage.dataBytes((long) xWidth * yWidth));
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(xWidth).putInt(yWidth).putInt(0);
+            header.flip();
+            file.getChannel().write(header, 0);
+
+            return new MappedMazeStorage(file, xWidth, yWidth, false);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Opens an existing mapped maze file.
+     *
+     * @param path     The file.
+     * @param readOnly Whether the maze may be changed.
+     * @return The storage.
+     */
+    public static MappedMazeStorage open(File path, boolean readOnly) throws IOException {
+
+        RandomAccessFile file = new RandomAccessFile(path, readOnly ? "r" : "rw");
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            file.getChannel().read(header, 0);
+            header.flip();
+
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a mapped maze file: " + path);
+            }
+
+            int xWidth = header.getInt();
+            int yWidth = header.getInt();
+
+            if (xWidth <= 0 || yWidth <= 0
+                    || file.length() < HEADER_BYTES + MappedMazeStorage.dataBytes((long) xWidth * yWidth)) {
+                throw new IOException("Corrupt mapped maze file: " + path);
+            }
+
+            return new MappedMazeStorage(file, xWidth, yWidth, readOnly);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+
+    public long cellCount() {
+        return this.cellCount;
+    }
+
+
+    public boolean isBlocked(long cell) {
+
+        long byteIndex = cell >>> 3;
+        byte b = this.segments[(int) (byteIndex >>> SEGMENT_SHIFT)].get((int) (byteIndex & SEGMENT_MASK));
+        return (b & (1 << (cell & 7))) != 0;
+    }
+
+
+    public void setBlocked(long cell, boolean blocked) {
+
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Mapped maze was opened read-only.");
+        }
+
+        long byteIndex = cell >>> 3;
+        MappedByteBuffer segment = this.segments[(int) (byteIndex >>> SEGMENT_SHIFT)];
+        int offset = (int) (byteIndex & SEGMENT_MASK);
+        int bit = 1 << (cell & 7);
+        byte b = segment.get(offset);
+
+        segment.put(offset, (byte) (blocked ? b | bit : b & ~bit));
+    }
+
+
+    /**
+     * @return cells in x-direction.
+     */
+    public final int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return cells in y-direction.
+     */
+    public final int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    /**
+     * Writes changed pages back to the file.
+     */
+    public final void force() {
+
+        if (this.readOnly) {
+            return;
+        }
+
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+
+    /**
+     * Flushes and closes the file. The mappings stay valid until
+     * they are garbage collected, but must not be used any more.
+     */
+    @Override
+    public void close() throws IOException {
+
+        this.force();
+        this.channel.close();
+        this.file.close();
+    }
+
+
+    private static long dataBytes(long cellCount) {
+        return (cellCount + 7) >>> 3;
+    }
+}
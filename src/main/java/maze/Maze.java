@@ -1,12 +1,38 @@
 package maze;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Class that represents a 2D Maze.
+ *
+ * The blocked flags are kept by a MazeStorage. The default storage holds
+ * one MazeCell per cell (CellListStorage); other storages (e.g.
+ * MappedMazeStorage) only hold the flags, and getCell() then hands out
+ * a MazeCell view without neighbour links.
  */
 public class Maze {
 
+    /**
+     * Every cell has a SOUTH, EAST, NORTH and WEST neighbour slot.
+     */
+    public static final int NUMBER_OF_NEIGHBOURS = 4;
+
+    /**
+     * The changed cells of a batch are recorded in clusters of at most
+     * this many cells a side.
+     */
+    private static final int DIRTY_CLUSTER_SIZE = 16;
+
+    /**
+     * Past this many dirty regions they are folded into their bounding
+     * region, which keeps recording a change cheap.
+     */
+    private static final int MAX_DIRTY_REGIONS = 64;
+
     /**
      * Number of cells in x direction.
      */
@@ -18,9 +44,26 @@ public class Maze {
     private int yWidth;
 
     /**
-     * The main.java.maze cells.
+     * The storage of the maze cells.
+     */
+    private MazeStorage storage;
+
+    /**
+     * The storage if it holds MazeCell objects, null otherwise.
+     */
+    private CellListStorage cells;
+
+    /**
+     * Bumped once for every batch of changes.
+     */
+    private volatile long version = 0;
+
+    /**
+     * The areas changed since the last call to clearDirtyRegions().
      */
-    private ArrayList<MazeCell> cells;
+    private final List<Region> dirtyRegions = new ArrayList<>();
+
+    private final List<MazeChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     public Maze() {
     }
@@ -31,6 +74,33 @@ public class Maze {
     }
 
 
+    /**
+     * Creates an x * y maze over the given storage.
+     *
+     * @param storage The storage of the blocked flags.
+     * @param xWidth  Cells in x direction.
+     * @param yWidth  Cells in y direction.
+     */
+    public Maze(MazeStorage storage, int xWidth, int yWidth) {
+
+        if (storage == null) {
+            throw new NullPointerException("Null storage was provided.");
+        }
+        if ((long) xWidth * yWidth <= 0) {
+            throw new IllegalArgumentException("Cannot create a Maze without any cells.");
+        }
+        if (storage.cellCount() < (long) xWidth * yWidth) {
+            throw new IllegalArgumentException("Storage holds " + storage.cellCount()
+                    + " cells but the maze needs " + (long) xWidth * yWidth);
+        }
+
+        this.storage = storage;
+        this.cells = storage instanceof CellListStorage ? (CellListStorage) storage : null;
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+    }
+
+
     /**
      * Returns the c-th maze cell
      *
@@ -38,7 +108,17 @@ public class Maze {
      * @return the maze cell at given index.
      */
     public final MazeCell getCell(int c) {
-        return this.cells.get(c);
+
+        if (this.cells != null) {
+            return this.cells.getCell(c);
+        }
+
+        if (c < 0 || c >= this.cellCount()) {
+            throw new IndexOutOfBoundsException("Index: " + c + ", Size: " + this.cellCount());
+        }
+
+        // A view of the stored flag, without neighbour links:
+        return new MazeCell(c, c / this.yWidth, c % this.yWidth, this.storage.isBlocked(c) ? "X" : "O");
     }
 
 
@@ -46,9 +126,40 @@ public class Maze {
      * How many cells is the maze currently holding.
      *
      * @return the current size of the maze.
+     * @throws IllegalStateException If the maze holds more than Integer.MAX_VALUE cells.
      */
     public final int size() {
-        return this.cells.size();
+
+        if (this.cells != null) {
+            return this.cells.size();
+        }
+
+        long count = this.cellCount();
+
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Maze holds " + count + " cells, use cellCount().");
+        }
+        return (int) count;
+    }
+
+
+    /**
+     * @return How many cells the maze holds, for mazes of any size.
+     */
+    public final long cellCount() {
+
+        if (this.cells != null) {
+            return this.cells.size();
+        }
+        return (long) this.xWidth * this.yWidth;
+    }
+
+
+    /**
+     * @return The storage of the maze cells.
+     */
+    public final MazeStorage getStorage() {
+        return this.storage;
     }
 
 
@@ -76,7 +187,218 @@ public class Maze {
      */
     public final void setCellBlockedFlag(int id, String flag) {
 
-        this.cells.get(id).setIsBlockedFlag(flag);
+        this.setBlocked(new int[]{id}, new boolean[]{MazeCell.parseBlockedFlag(flag)});
+    }
+
+
+    /**
+     * Sets blocked or open status for a batch of cells. Cells whose flag
+     * changes are recorded in the dirty regions, in small clusters of
+     * neighbouring cells, then the version is bumped and the listeners
+     * are told once for the whole batch.
+     *
+     * @param ids     Global ids of the cells.
+     * @param blocked The new flag of each cell.
+     * @return How many cells actually changed.
+     */
+    public final int setBlocked(int[] ids, boolean[] blocked) {
+
+        if (ids.length != blocked.length) {
+            throw new IllegalArgumentException("Got " + ids.length + " cells but " + blocked.length + " flags.");
+        }
+
+        int[] changedCells = new int[ids.length];
+        boolean[] changedFlags = new boolean[ids.length];
+        int changed = 0;
+
+        int minI = Integer.MAX_VALUE;
+        int minJ = Integer.MAX_VALUE;
+        int maxI = Integer.MIN_VALUE;
+        int maxJ = Integer.MIN_VALUE;
+
+        // Clusters of neighbouring changed cells, the last one still growing:
+        List<Region> clusters = new ArrayList<>();
+        Region cluster = null;
+
+        for (int k = 0; k < ids.length; k++) {
+
+            int id = ids[k];
+
+            if (id < 0 || id >= this.cellCount()) {
+                throw new IndexOutOfBoundsException("Index: " + id + ", Size: " + this.cellCount());
+            }
+
+            if (this.storage.isBlocked(id) == blocked[k]) {
+                continue;
+            }
+
+            this.storage.setBlocked(id, blocked[k]);
+            changedCells[changed] = id;
+            changedFlags[changed++] = blocked[k];
+
+            int i = id / this.yWidth;
+            int j = id % this.yWidth;
+            minI = Math.min(minI, i);
+            minJ = Math.min(minJ, j);
+            maxI = Math.max(maxI, i);
+            maxJ = Math.max(maxJ, j);
+
+            Region cell = new Region(i, j, i, j);
+
+            if (cluster != null && cluster.touches(cell)) {
+                Region grown = cluster.union(cell);
+                if (grown.maxI - grown.minI < DIRTY_CLUSTER_SIZE && grown.maxJ - grown.minJ < DIRTY_CLUSTER_SIZE) {
+                    cluster = grown;
+                    continue;
+                }
+            }
+
+            if (cluster != null) {
+                clusters.add(cluster);
+            }
+            cluster = cell;
+        }
+
+        if (changed == 0) {
+            return 0;
+        }
+
+        clusters.add(cluster);
+
+        Region region = new Region(minI, minJ, maxI, maxJ);
+        long newVersion;
+
+        synchronized (this.dirtyRegions) {
+            for (Region dirty : clusters) {
+                this.addDirtyRegion(dirty);
+            }
+            newVersion = ++this.version;
+        }
+
+        if (!this.listeners.isEmpty()) {
+
+            MazeChangeEvent event = new MazeChangeEvent(this, newVersion,
+                    Arrays.copyOf(changedCells, changed), Arrays.copyOf(changedFlags, changed), region);
+
+            for (MazeChangeListener listener : this.listeners) {
+                listener.mazeChanged(event);
+            }
+        }
+
+        return changed;
+    }
+
+
+    /**
+     * Sets the same blocked or open status for a batch of cells.
+     *
+     * @param ids     Global ids of the cells.
+     * @param blocked The new flag of every cell.
+     * @return How many cells actually changed.
+     */
+    public final int setBlocked(int[] ids, boolean blocked) {
+
+        boolean[] flags = new boolean[ids.length];
+        Arrays.fill(flags, blocked);
+        return this.setBlocked(ids, flags);
+    }
+
+
+    /**
+     * Sets a flag without recording or telling anyone, for
+     * filling a maze that nobody is looking at yet.
+     */
+    final void loadBlockedFlag(long cell, boolean blocked) {
+        this.storage.setBlocked(cell, blocked);
+    }
+
+
+    /**
+     * Searches and their precomputed tables trust the version to tell
+     * whether the maze changed, so once a maze is built its flags are only
+     * changed through setBlocked() or setCellBlockedFlag(); writing a
+     * MazeCell or the storage directly is not supported from then on.
+     *
+     * @return The number of batches of changes so far.
+     */
+    public final long getVersion() {
+        return this.version;
+    }
+
+
+    /**
+     * @return The regions changed since the last clearDirtyRegions(). Touching regions are merged,
+     *         and too many of them are folded into their bounding region.
+     */
+    public final List<Region> getDirtyRegions() {
+
+        synchronized (this.dirtyRegions) {
+            return Collections.unmodifiableList(new ArrayList<>(this.dirtyRegions));
+        }
+    }
+
+
+    /**
+     * Forgets the recorded dirty regions.
+     */
+    public final void clearDirtyRegions() {
+
+        synchronized (this.dirtyRegions) {
+            this.dirtyRegions.clear();
+        }
+    }
+
+
+    /**
+     * @param listener Gets told about every batch of changes from now on.
+     */
+    public final void addChangeListener(MazeChangeListener listener) {
+
+        if (listener == null) {
+            throw new NullPointerException("Null listener was provided.");
+        }
+        this.listeners.add(listener);
+    }
+
+
+    /**
+     * @param listener A listener added before.
+     */
+    public final void removeChangeListener(MazeChangeListener listener) {
+        this.listeners.remove(listener);
+    }
+
+
+    private void addDirtyRegion(Region region) {
+
+        // Merge with every region it touches, which may make the result touch others:
+        boolean merged = true;
+
+        while (merged) {
+
+            merged = false;
+
+            for (int r = 0; r < this.dirtyRegions.size(); r++) {
+                if (this.dirtyRegions.get(r).touches(region)) {
+                    region = region.union(this.dirtyRegions.remove(r));
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        this.dirtyRegions.add(region);
+
+        if (this.dirtyRegions.size() > MAX_DIRTY_REGIONS) {
+
+            Region bounds = this.dirtyRegions.get(0);
+            for (Region dirty : this.dirtyRegions) {
+                bounds = bounds.union(dirty);
+            }
+
+            this.dirtyRegions.clear();
+            this.dirtyRegions.add(bounds);
+        }
     }
 
 
@@ -87,11 +409,18 @@ public class Maze {
      * @param yWidth Cells in y direction.
      */
     public final void initialize(int xWidth, int yWidth) {
-        if (xWidth * yWidth == 0) {
+        long count = (long) xWidth * yWidth;
+
+        if (count == 0) {
             throw new IllegalArgumentException("Cannot create a Maze without any cells.");
         }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze of " + count + " cells does not fit in the heap,"
+                    + " use a MappedMazeStorage.");
+        }
 
-        this.cells = new ArrayList<MazeCell>(xWidth * yWidth);
+        this.cells = new CellListStorage((int) count);
+        this.storage = this.cells;
         this.xWidth = xWidth;
         this.yWidth = yWidth;
     }
@@ -106,8 +435,12 @@ public class Maze {
         if (cell == null) {
             throw new IllegalArgumentException("Cell trying to be added is null.");
         }
+        if (this.cells == null) {
+            throw new UnsupportedOperationException("Cells cannot be added to a " +
+                    this.storage.getClass().getSimpleName());
+        }
 
-        this.cells.add(cell);
+        this.cells.addCell(cell);
     }
 
 
@@ -118,13 +451,149 @@ public class Maze {
      */
     public final MazeCell findCell(Point coordinates) {
 
+        int id = this.cellId(coordinates);
+
+        if (id == -1) {
+            return null;
+        }
+
+        if (this.cells == null) {
+            return this.getCell(id);
+        }
+
+        // Cells added in row-major order (as MazeBuilder does) are found directly:
+        if (id < this.size()) {
+            MazeCell cell = this.cells.getCell(id);
+            if (cell.getCoordinates().equals(coordinates)) {
+                return cell;
+            }
+        }
+
         for (int c = 0; c < this.size(); c++) {
 
-            MazeCell cell = this.cells.get(c);
+            MazeCell cell = this.cells.getCell(c);
             if (cell.getCoordinates().equals(coordinates)) {
                 return cell;
             }
         }
         return null;
     }
+
+
+    /**
+     * The global id of the cell at the given coordinates,
+     * assuming the row-major numbering MazeBuilder uses.
+     *
+     * @param coordinates Coordinates of the cell.
+     * @return The id of the cell, or -1 if the coordinates are outside the maze.
+     */
+    public final int cellId(Point coordinates) {
+
+        if (coordinates == null) {
+            return -1;
+        }
+
+        return this.cellId(coordinates.i, coordinates.j);
+    }
+
+
+    /**
+     * @param i The i coordinate of the cell.
+     * @param j The j coordinate of the cell.
+     * @return The id of the cell, or -1 if the coordinates are outside the maze.
+     */
+    public final int cellId(int i, int j) {
+
+        long address = this.cellAddress(i, j);
+
+        if (address > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Cell (" + i + ", " + j + ") has no int id, use cellAddress().");
+        }
+        return (int) address;
+    }
+
+
+    /**
+     * The 64-bit address of the cell at the given coordinates.
+     *
+     * @param i The i coordinate of the cell.
+     * @param j The j coordinate of the cell.
+     * @return The address of the cell, or -1 if the coordinates are outside the maze.
+     */
+    public final long cellAddress(int i, int j) {
+
+        if (i < 0 || j < 0 || i >= this.xWidth || j >= this.yWidth) {
+            return -1;
+        }
+
+        return (long) i * this.yWidth + j;
+    }
+
+
+    /**
+     * @param id Global id of cell.
+     * @return true if the cell is blocked.
+     */
+    public final boolean isBlocked(int id) {
+        return this.storage.isBlocked(id);
+    }
+
+
+    /**
+     * @param cell The 64-bit address of the cell.
+     * @return true if the cell is blocked.
+     */
+    public final boolean isBlocked(long cell) {
+        return this.storage.isBlocked(cell);
+    }
+
+
+    /**
+     * The id of a neighbour straight from the row-major numbering,
+     * without going through the MazeCell neighbour maps.
+     * For mapping of int to Direction, see Utils.java.
+     *
+     * @param id The global id of the cell.
+     * @param n  The neighbour index (0 to NUMBER_OF_NEIGHBOURS - 1).
+     * @return The id of the neighbour, or -1 if it is outside the maze.
+     */
+    public final int neighbourId(int id, int n) {
+
+        switch (n) {
+            case 0:
+                return id >= this.yWidth ? id - this.yWidth : -1;
+            case 1:
+                return (id % this.yWidth) < this.yWidth - 1 ? id + 1 : -1;
+            case 2:
+                return id < (this.xWidth - 1) * this.yWidth ? id + this.yWidth : -1;
+            case 3:
+                return (id % this.yWidth) > 0 ? id - 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+
+    /**
+     * The 64-bit counterpart of neighbourId.
+     *
+     * @param cell The 64-bit address of the cell.
+     * @param n    The neighbour index (0 to NUMBER_OF_NEIGHBOURS - 1).
+     * @return The address of the neighbour, or -1 if it is outside the maze.
+     */
+    public final long neighbourAddress(long cell, int n) {
+
+        switch (n) {
+            case 0:
+                return cell >= this.yWidth ? cell - this.yWidth : -1;
+            case 1:
+                return (cell % this.yWidth) < this.yWidth - 1 ? cell + 1 : -1;
+            case 2:
+                return cell < (long) (this.xWidth - 1) * this.yWidth ? cell + this.yWidth : -1;
+            case 3:
+                return (cell % this.yWidth) > 0 ? cell - 1 : -1;
+            default:
+                return -1;
+        }
+    }
 }
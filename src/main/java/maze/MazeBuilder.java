@@ -112,27 +112,9 @@ public class MazeBuilder {
 
         try {
 
-            String line = reader.readLine();
-            MazeBuilder.checkNullLine(line);
-
-            String[] lineData = line.split("=");
-            MazeBuilder.trimArray(lineData);
-            String[] shouldBe = {"n_rows", "NonZeroInteger"};
-
-            MazeBuilder.checkLineData(lineData, shouldBe);
-
-            int nx = Integer.parseInt(lineData[1]);
-
-            line = reader.readLine();
-            MazeBuilder.checkNullLine(line);
-
-            lineData = line.split("=");
-            MazeBuilder.trimArray(lineData);
-            shouldBe[0] = "n_cols";
-
-            MazeBuilder.checkLineData(lineData, shouldBe);
-
-            int ny = Integer.parseInt(lineData[1]);
+            int[] dimensions = MazeBuilder.readDimensions(reader);
+            int nx = dimensions[0];
+            int ny = dimensions[1];
 
             maze.initialize(nx, ny);
 
@@ -146,27 +128,166 @@ public class MazeBuilder {
                 }
             }
 
-            // Loop over the file and actually read whether the cell is blocked or not
-            line = reader.readLine();
-            String[] cellData;
-            String[] cellDataShouldBe = {"Integer", "OorX"};
+            MazeBuilder.readCellFlags(reader, maze);
+            return maze;
 
-            while (line != null) {
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return maze;
+    }
 
-                cellData = line.split(",");
-                MazeBuilder.trimArray(cellData);
-                MazeBuilder.checkLineData(cellData, cellDataShouldBe);
 
-                maze.setCellBlockedFlag(Integer.parseInt(cellData[0]), cellData[1]);
-                line = reader.readLine();
+    /**
+     * Builds an off-heap maze from a given file. The cells are streamed
+     * into a MappedMazeStorage backed by mappedFile, so no MazeCell objects
+     * are created. The caller closes the storage when done with the maze.
+     *
+     * @param filename   The name of the file that contains the maze connectivity.
+     * @param mappedFile The file that will back the maze.
+     * @return A maze over a MappedMazeStorage.
+     */
+    public static Maze buildMapped(String filename, File mappedFile) throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+
+            int[] dimensions = MazeBuilder.readDimensions(reader);
+            MappedMazeStorage storage = MappedMazeStorage.create(mappedFile, dimensions[0], dimensions[1]);
+
+            try {
+                Maze maze = new Maze(storage, dimensions[0], dimensions[1]);
+                MazeBuilder.readCellFlags(reader, maze);
+                storage.force();
+                return maze;
+            } catch (IOException | RuntimeException e) {
+                storage.close();
+                throw e;
             }
+        }
+    }
 
-            return maze;
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Opens an off-heap maze written by buildMapped (or MappedMazeStorage.create).
+     *
+     * @param mappedFile The file that backs the maze.
+     * @param readOnly   Whether the maze may be changed.
+     * @return A maze over a MappedMazeStorage.
+     */
+    public static Maze openMapped(File mappedFile, boolean readOnly) throws IOException {
+
+        MappedMazeStorage storage = MappedMazeStorage.open(mappedFile, readOnly);
+        return new Maze(storage, storage.getxWidth(), storage.getyWidth());
+    }
+
+
+    /**
+     * Builds a tiled maze from a given file. The cells are streamed into
+     * a TiledMazeStorage in tileDirectory, which is flushed before returning.
+     * If the file cannot be read, the tiles written so far are deleted.
+     *
+     * @param filename          The name of the file that contains the maze connectivity.
+     * @param tileDirectory     The directory that will hold the tiles.
+     * @param tileSize          Cells along each side of a tile.
+     * @param memoryBudgetBytes How many bytes of tiles may be kept in memory.
+     * @return A maze over a TiledMazeStorage.
+     */
+    public static Maze buildTiled(String filename, File tileDirectory, int tileSize,
+                                  long memoryBudgetBytes) throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+
+            int[] dimensions = MazeBuilder.readDimensions(reader);
+            TiledMazeStorage storage = TiledMazeStorage.create(tileDirectory, dimensions[0], dimensions[1],
+                    tileSize, memoryBudgetBytes);
+
+            try {
+                Maze maze = new Maze(storage, dimensions[0], dimensions[1]);
+                MazeBuilder.readCellFlags(reader, maze);
+                storage.flush();
+                return maze;
+            } catch (IOException | RuntimeException e) {
+                // A half written tile directory must not be opened as a maze:
+                storage.delete();
+                throw e;
+            }
+        }
+    }
+
+
+    /**
+     * Opens a tiled maze written by buildTiled (or TiledMazeStorage.create).
+     * No tile is read until a search touches it.
+     *
+     * @param tileDirectory     The directory that holds the tiles.
+     * @param memoryBudgetBytes How many bytes of tiles may be kept in memory.
+     * @return A maze over a TiledMazeStorage.
+     */
+    public static Maze openTiled(File tileDirectory, long memoryBudgetBytes) throws IOException {
+
+        TiledMazeStorage storage = TiledMazeStorage.open(tileDirectory, memoryBudgetBytes);
+        return new Maze(storage, storage.getxWidth(), storage.getyWidth());
+    }
+
+
+    /**
+     * Reads the n_rows and n_cols lines of the maze file.
+     * @param reader The file reader.
+     * @return The number of rows and columns.
+     */
+    protected static int[] readDimensions(BufferedReader reader) throws IOException {
+
+        String line = reader.readLine();
+        MazeBuilder.checkNullLine(line);
+
+        String[] lineData = line.split("=");
+        MazeBuilder.trimArray(lineData);
+        String[] shouldBe = {"n_rows", "NonZeroInteger"};
+
+        MazeBuilder.checkLineData(lineData, shouldBe);
+
+        int nx = Integer.parseInt(lineData[1]);
+
+        line = reader.readLine();
+        MazeBuilder.checkNullLine(line);
+
+        lineData = line.split("=");
+        MazeBuilder.trimArray(lineData);
+        shouldBe[0] = "n_cols";
+
+        MazeBuilder.checkLineData(lineData, shouldBe);
+
+        int ny = Integer.parseInt(lineData[1]);
+
+        return new int[]{nx, ny};
+    }
+
+
+    /**
+     * Loops over the rest of the maze file and reads whether each cell is blocked or not.
+     * Cell ids are read as longs so mapped mazes with more than 2^31 cells load too.
+     * @param reader The file reader.
+     * @param maze   The maze to set the flags on.
+     */
+    protected static void readCellFlags(BufferedReader reader, Maze maze) throws IOException {
+
+        String line = reader.readLine();
+        String[] cellData;
+        String[] cellDataShouldBe = {"Long", "OorX"};
+
+        while (line != null) {
+
+            cellData = line.split(",");
+            MazeBuilder.trimArray(cellData);
+            MazeBuilder.checkLineData(cellData, cellDataShouldBe);
+
+            long cell = Long.parseLong(cellData[0]);
+            if (cell < 0 || cell >= maze.cellCount()) {
+                throw new IllegalArgumentException("Cell " + cell + " is outside the maze.");
+            }
+            maze.loadBlockedFlag(cell, MazeCell.parseBlockedFlag(cellData[1]));
+            line = reader.readLine();
         }
-        return maze;
     }
 
 
@@ -212,6 +333,9 @@ public class MazeBuilder {
                 else if (lineShouldBe[i].equals("Integer") && !MazeBuilder.isInteger(lineIs[i])) {
                     throw new IllegalArgumentException("Expected an integer but found: " + lineIs[i]);
                 }
+                else if (lineShouldBe[i].equals("Long") && !MazeBuilder.isLong(lineIs[i])) {
+                    throw new IllegalArgumentException("Expected an integer but found: " + lineIs[i]);
+                }
                 else if (lineShouldBe[i].equals("OorX") && (!lineIs[i].equals("O") && !lineIs[i].equals("X"))) {
                     throw new IllegalArgumentException("Expected an O or an X but found: " + lineIs[i]);
                 }
@@ -238,6 +362,24 @@ public class MazeBuilder {
     }
 
 
+    /**
+     * Returns true if given string can be parsed to long.
+     *
+     * @param s The given string.
+     * @return Boolean.
+     */
+    protected static boolean isLong(String s) {
+        try {
+            Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return false;
+        } catch (NullPointerException e) {
+            return false;
+        }
+        return true;
+    }
+
+
     /**
      * Trims a given array.
      *
@@ -97,24 +97,45 @@ public class MazeCell {
     }
 
     /**
-     * Set the flag indicating whether cell is blocked or not.
+     * Set the flag indicating whether cell is blocked or not. Only for
+     * building a maze: afterwards change it through Maze.setBlocked(),
+     * which bumps the maze version, see Maze.getVersion().
      *
      * @param flag "O" = open or "X" = blocked.
      */
     public final void setIsBlockedFlag(String flag) {
+        this.isBlocked = MazeCell.parseBlockedFlag(flag);
+    }
+
+
+    /**
+     * Parses the blocked flag of a cell.
+     *
+     * @param flag "O" = open or "X" = blocked.
+     * @return true for a blocked cell.
+     */
+    public static boolean parseBlockedFlag(String flag) {
 
         if (flag == null) {
             throw new NullPointerException("Null flag was provided.");
         }
-        else if (!flag.equals("O") && !flag.equals("X")) {
-            throw new IllegalArgumentException("Flag should be either O or X but got: " + flag);
-        }
         else if (flag.equals("X")) {
-            this.isBlocked = true;
+            return true;
         }
         else if (flag.equals("O")) {
-            this.isBlocked = false;
+            return false;
         }
+        throw new IllegalArgumentException("Flag should be either O or X but got: " + flag);
+    }
+
+
+    /**
+     * Set the flag indicating whether cell is blocked or not.
+     *
+     * @param blocked true for a blocked cell.
+     */
+    final void setBlocked(boolean blocked) {
+        this.isBlocked = blocked;
     }
 
 
@@ -0,0 +1,74 @@
+package maze;
+
+/**
+ * Describes one batch of changes to a Maze. Only cells whose
+ * flag actually changed are listed.
+ */
+public class MazeChangeEvent {
+
+    private final Maze maze;
+    private final long version;
+    private final int[] cells;
+    private final boolean[] blocked;
+    private final Region region;
+
+
+    MazeChangeEvent(Maze maze, long version, int[] cells, boolean[] blocked, Region region) {
+
+        this.maze = maze;
+        this.version = version;
+        this.cells = cells;
+        this.blocked = blocked;
+        this.region = region;
+    }
+
+
+    /**
+     * @return The maze that changed.
+     */
+    public final Maze getMaze() {
+        return this.maze;
+    }
+
+
+    /**
+     * @return The version of the maze after the batch.
+     */
+    public final long getVersion() {
+        return this.version;
+    }
+
+
+    /**
+     * @return How many cells changed.
+     */
+    public final int size() {
+        return this.cells.length;
+    }
+
+
+    /**
+     * @param k Index of the change.
+     * @return The id of the k-th changed cell.
+     */
+    public final int getCell(int k) {
+        return this.cells[k];
+    }
+
+
+    /**
+     * @param k Index of the change.
+     * @return The new blocked flag of the k-th changed cell.
+     */
+    public final boolean isBlocked(int k) {
+        return this.blocked[k];
+    }
+
+
+    /**
+     * @return The bounding rectangle of the changed cells.
+     */
+    public final Region getRegion() {
+        return this.region;
+    }
+}
@@ -0,0 +1,13 @@
+package maze;
+
+/**
+ * Gets told about changes to a Maze, once per batch,
+ * on the thread that made the changes.
+ */
+public interface MazeChangeListener {
+
+    /**
+     * @param event The changes of one batch.
+     */
+    void mazeChanged(MazeChangeEvent event);
+}
@@ -0,0 +1,111 @@
+package maze;
+
+/**
+ * An immutable view of the blocked flags of a maze, published by a
+ * CopyOnWriteMazeStorage. Nothing a snapshot references is ever written
+ * again, so any number of threads can search it without locking while
+ * the writer keeps changing the maze.
+ *
+ * The flags are kept in blocks of BLOCK_CELLS bits, grouped in chunks of
+ * CHUNK_BLOCKS blocks. A null chunk or block has all of its cells open.
+ */
+public final class MazeSnapshot implements MazeStorage {
+
+    static final int BLOCK_SHIFT = 12;
+    static final int BLOCK_CELLS = 1 << BLOCK_SHIFT;
+    static final int WORDS_PER_BLOCK = BLOCK_CELLS >>> 6;
+    static final int CHUNK_SHIFT = 8;
+    static final int CHUNK_BLOCKS = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_BLOCKS - 1;
+
+    private final long[][][] chunks;
+    private final int xWidth;
+    private final int yWidth;
+    private final long version;
+
+
+    MazeSnapshot(long[][][] chunks, int xWidth, int yWidth, long version) {
+
+        this.chunks = chunks;
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.version = version;
+    }
+
+
+    public long cellCount() {
+        return (long) this.xWidth * this.yWidth;
+    }
+
+
+    public boolean isBlocked(long cell) {
+        return MazeSnapshot.isBlocked(this.chunks, cell);
+    }
+
+
+    /**
+     * Snapshots cannot be changed.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    public void setBlocked(long cell, boolean blocked) {
+        throw new UnsupportedOperationException("Maze snapshots are immutable.");
+    }
+
+
+    /**
+     * @return A Maze over this snapshot. Its setCellBlockedFlag throws.
+     */
+    public Maze asMaze() {
+        return new Maze(this, this.xWidth, this.yWidth);
+    }
+
+
+    /**
+     * @return The number of publishes before this snapshot.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+
+    /**
+     * @return cells in x-direction.
+     */
+    public int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return cells in y-direction.
+     */
+    public int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    /**
+     * @return The block holding the cell, null if it is all open.
+     */
+    long[] block(long cell) {
+
+        int blockIndex = (int) (cell >>> BLOCK_SHIFT);
+        long[][] chunk = this.chunks[blockIndex >>> CHUNK_SHIFT];
+        return chunk == null ? null : chunk[blockIndex & CHUNK_MASK];
+    }
+
+
+    static boolean isBlocked(long[][][] chunks, long cell) {
+
+        int blockIndex = (int) (cell >>> BLOCK_SHIFT);
+        long[][] chunk = chunks[blockIndex >>> CHUNK_SHIFT];
+
+        if (chunk == null) {
+            return false;
+        }
+
+        long[] block = chunk[blockIndex & CHUNK_MASK];
+        return block != null && (block[(int) (cell >>> 6) & (WORDS_PER_BLOCK - 1)] & (1L << cell)) != 0;
+    }
+}
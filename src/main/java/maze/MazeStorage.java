@@ -0,0 +1,31 @@
+package maze;
+
+/**
+ * Where a Maze keeps the blocked flags of its cells. Cells are
+ * addressed by long so that a storage can hold more than 2^31 cells;
+ * the address of cell (i, j) is i * yWidth + j.
+ *
+ * Once a Maze is built over a storage, its flags are changed through
+ * the maze, which keeps the version, see Maze.getVersion().
+ */
+public interface MazeStorage {
+
+    /**
+     * @return How many cells the storage holds.
+     */
+    long cellCount();
+
+
+    /**
+     * @param cell The address of the cell.
+     * @return true if the cell is blocked.
+     */
+    boolean isBlocked(long cell);
+
+
+    /**
+     * @param cell    The address of the cell.
+     * @param blocked The new blocked flag of the cell.
+     */
+    void setBlocked(long cell, boolean blocked);
+}
@@ -0,0 +1,89 @@
+package maze;
+
+/**
+ * A rectangle of cells, bounds included.
+ */
+public class Region {
+
+    public final int minI;
+    public final int minJ;
+    public final int maxI;
+    public final int maxJ;
+
+
+    public Region(int minI, int minJ, int maxI, int maxJ) {
+
+        if (minI > maxI || minJ > maxJ) {
+            throw new IllegalArgumentException("Empty region: " + minI + ", " + minJ + ", " + maxI + ", " + maxJ);
+        }
+
+        this.minI = minI;
+        this.minJ = minJ;
+        this.maxI = maxI;
+        this.maxJ = maxJ;
+    }
+
+
+    /**
+     * @return True if the cell lies in the region.
+     */
+    public final boolean contains(int i, int j) {
+        return i >= this.minI && i <= this.maxI && j >= this.minJ && j <= this.maxJ;
+    }
+
+
+    /**
+     * @return True if the regions overlap or share an edge or a corner.
+     */
+    public final boolean touches(Region other) {
+
+        return other.minI <= this.maxI + 1 && this.minI <= other.maxI + 1
+                && other.minJ <= this.maxJ + 1 && this.minJ <= other.maxJ + 1;
+    }
+
+
+    /**
+     * @return The smallest region holding both regions.
+     */
+    public final Region union(Region other) {
+
+        return new Region(Math.min(this.minI, other.minI), Math.min(this.minJ, other.minJ),
+                Math.max(this.maxI, other.maxI), Math.max(this.maxJ, other.maxJ));
+    }
+
+
+    /**
+     * @return The number of cells in the region.
+     */
+    public final long area() {
+        return (long) (this.maxI - this.minI + 1) * (this.maxJ - this.minJ + 1);
+    }
+
+
+    @Override
+    public final boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Region)) {
+            return false;
+        }
+
+        Region other = (Region) obj;
+        return this.minI == other.minI && this.minJ == other.minJ
+                && this.maxI == other.maxI && this.maxJ == other.maxJ;
+    }
+
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * this.minI + this.minJ) + this.maxI) + this.maxJ;
+    }
+
+
+    @Override
+    public String toString() {
+        return "[" + this.minI + ", " + this.minJ + "] - [" + this.maxI + ", " + this.maxJ + "]";
+    }
+}
@@ -0,0 +1,393 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Storage that splits the grid into square tiles of tileSize x tileSize
+ * cells, each kept in its own file of a tile directory. Opening the
+ * storage only reads the directory header; a tile is read the first time
+ * one of its cells is touched, and the least recently used tiles are
+ * evicted (and written back if changed) to stay within a memory budget.
+ * A tile without a file has all of its cells open, so sparse mazes only
+ * pay for the tiles that contain walls.
+ *
+ * Access to the tile cache is synchronized, so several searches can share
+ * the storage; the last tile used is kept aside so that consecutive reads
+ * from the same tile skip the cache lookup.
+ */
+public class TiledMazeStorage implements MazeStorage, Closeable {
+
+    /**
+     * Marks a tile directory header ("MZT1").
+     */
+    public static final int MAGIC = 0x4D5A5431;
+
+    public static final String HEADER_FILE = "maze.tiles";
+
+    /**
+     * One tile: its key and one bit per cell, row-major inside the tile.
+     */
+    private static final class Tile {
+
+        final long key;
+        final long[] bits;
+        boolean dirty = false;
+
+        Tile(long key, long[] bits) {
+            this.key = key;
+            this.bits = bits;
+        }
+    }
+
+    private final File directory;
+    private final int xWidth;
+    private final int yWidth;
+    private final int tileSize;
+    private final int tilesInY;
+    private final int wordsPerTile;
+    private final int maxTiles;
+
+    /**
+     * The loaded tiles in least recently used order.
+     */
+    private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile Tile lastTile = null;
+
+    private long loads = 0;
+    private long evictions = 0;
+
+
+    private TiledMazeStorage(File directory, int xWidth, int yWidth, int tileSize, long memoryBudgetBytes) {
+
+        this.directory = directory;
+        this.xWidth = xWidth;
+        this.yWidth = yWidth;
+        this.tileSize = tileSize;
+        this.tilesInY = (yWidth + tileSize - 1) / tileSize;
+        this.wordsPerTile = (int) (((long) tileSize * tileSize + 63) >>> 6);
+        this.maxTiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / (8L * this.wordsPerTile)));
+    }
+
+
+    /**
+     * Creates an empty tile directory, i.e. a maze with every cell open.
+     *
+     * @param directory         The directory of the tiles; created if missing.
+     * @param xWidth            Cells in x direction.
+     * @param yWidth            Cells in y direction.
+     * @param tileSize          Cells along each side of a tile.
+     * @param memoryBudgetBytes How many bytes of tiles may be kept in memory.
+     * @return The storage.
+     */
+    public static TiledMazeStorage create(File directory, int xWidth, int yWidth, int tileSize,
+                                          long memoryBudgetBytes) throws IOException {
+
+        if (xWidth <= 0 || yWidth <= 0) {
+            throw new IllegalArgumentException("Cannot create a Maze without any cells.");
+        }
+        if (tileSize <= 0 || (long) tileSize * tileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid tile size: " + tileSize);
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create tile directory: " + directory);
+        }
+
+        // Tiles left over from an earlier maze would be read as part of this one:
+        File[] old = directory.listFiles();
+        if (old != null) {
+            for (File file : old) {
+                if (file.getName().startsWith("tile_")) {
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(new File(directory, HEADER_FILE).toPath()))) {
+            out.writeInt(MAGIC);
+            out.writeInt(xWidth);
+            out.writeInt(yWidth);
+            out.writeInt(tileSize);
+        }
+
+        return new TiledMazeStorage(directory, xWidth, yWidth, tileSize, memoryBudgetBytes);
+    }
+
+
+    /**
+     * Opens a tile directory. Only the header is read.
+     *
+     * @param directory         The directory of the tiles.
+     * @param memoryBudgetBytes How many bytes of tiles may be kept in memory.
+     * @return The storage.
+     */
+    public static TiledMazeStorage open(File directory, long memoryBudgetBytes) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(new File(directory, HEADER_FILE).toPath()))) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a tile directory: " + directory);
+            }
+
+            int xWidth = in.readInt();
+            int yWidth = in.readInt();
+            int tileSize = in.readInt();
+
+            return new TiledMazeStorage(directory, xWidth, yWidth, tileSize, memoryBudgetBytes);
+        }
+    }
+
+
+    public long cellCount() {
+        return (long) this.xWidth * this.yWidth;
+    }
+
+
+    public boolean isBlocked(long cell) {
+
+        int i = (int) (cell / this.yWidth);
+        int j = (int) (cell % this.yWidth);
+        long key = this.tileKey(i, j);
+
+        Tile tile = this.lastTile;
+        if (tile == null || tile.key != key) {
+            tile = this.tile(key);
+        }
+
+        int bit = this.bitInTile(i, j);
+        return (tile.bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+
+    public synchronized void setBlocked(long cell, boolean blocked) {
+
+        int i = (int) (cell / this.yWidth);
+        int j = (int) (cell % this.yWidth);
+        long key = this.tileKey(i, j);
+
+        // A tile without a file is all open already, no need to load or create it:
+        if (!blocked && !this.tiles.containsKey(key) && !this.tileFile(key).exists()) {
+            return;
+        }
+
+        Tile tile = this.tile(key);
+
+        int bit = this.bitInTile(i, j);
+        long mask = 1L << bit;
+
+        if (((tile.bits[bit >>> 6] & mask) != 0) == blocked) {
+            return;
+        }
+
+        if (blocked) {
+            tile.bits[bit >>> 6] |= mask;
+        }
+        else {
+            tile.bits[bit >>> 6] &= ~mask;
+        }
+        tile.dirty = true;
+    }
+
+
+    /**
+     * @return cells in x-direction.
+     */
+    public final int getxWidth() {
+        return this.xWidth;
+    }
+
+
+    /**
+     * @return cells in y-direction.
+     */
+    public final int getyWidth() {
+        return this.yWidth;
+    }
+
+
+    /**
+     * @return Cells along each side of a tile.
+     */
+    public final int getTileSize() {
+        return this.tileSize;
+    }
+
+
+    /**
+     * @return How many tiles are in memory.
+     */
+    public final synchronized int loadedTiles() {
+        return this.tiles.size();
+    }
+
+
+    /**
+     * @return How many tiles may be in memory at once.
+     */
+    public final int maxTiles() {
+        return this.maxTiles;
+    }
+
+
+    /**
+     * @return How many times a tile was read from disk (or created).
+     */
+    public final synchronized long loads() {
+        return this.loads;
+    }
+
+
+    /**
+     * @return How many times a tile was evicted.
+     */
+    public final synchronized long evictions() {
+        return this.evictions;
+    }
+
+
+    /**
+     * Writes every changed tile to disk.
+     */
+    public synchronized void flush() throws IOException {
+
+        for (Tile tile : this.tiles.values()) {
+            this.write(tile);
+        }
+    }
+
+
+    /**
+     * Writes every changed tile to disk and drops the tiles from memory.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        this.flush();
+        this.tiles.clear();
+        this.lastTile = null;
+    }
+
+
+    /**
+     * Drops the tiles from memory without writing them and deletes the
+     * tile files and the header, so the directory is no longer a maze.
+     */
+    public synchronized void delete() throws IOException {
+
+        this.tiles.clear();
+        this.lastTile = null;
+
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("tile_")) {
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+
+        Files.deleteIfExists(new File(this.directory, HEADER_FILE).toPath());
+    }
+
+
+    private long tileKey(int i, int j) {
+        return (long) (i / this.tileSize) * this.tilesInY + (j / this.tileSize);
+    }
+
+
+    private int bitInTile(int i, int j) {
+        return (i % this.tileSize) * this.tileSize + (j % this.tileSize);
+    }
+
+
+    /**
+     * Finds a tile in the cache, loading it and evicting others if needed.
+     */
+    private synchronized Tile tile(long key) {
+
+        Tile tile = this.tiles.get(key);
+
+        if (tile == null) {
+
+            try {
+                while (this.tiles.size() >= this.maxTiles) {
+                    Iterator<Map.Entry<Long, Tile>> eldest = this.tiles.entrySet().iterator();
+                    Tile evicted = eldest.next().getValue();
+                    this.write(evicted);
+                    eldest.remove();
+                    this.evictions++;
+                }
+
+                tile = new Tile(key, this.read(key));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            this.tiles.put(key, tile);
+            this.loads++;
+        }
+
+        this.lastTile = tile;
+        return tile;
+    }
+
+
+    private File tileFile(long key) {
+        return new File(this.directory, "tile_" + key + ".bin");
+    }
+
+
+    private long[] read(long key) throws IOException {
+
+        long[] bits = new long[this.wordsPerTile];
+        File file = this.tileFile(key);
+
+        if (file.exists()) {
+            ByteBuffer.wrap(Files.readAllBytes(file.toPath())).asLongBuffer().get(bits);
+        }
+
+        return bits;
+    }
+
+
+    private void write(Tile tile) throws IOException {
+
+        if (!tile.dirty) {
+            return;
+        }
+
+        // A tile that has no walls left goes back to having no file:
+        if (isOpen(tile.bits)) {
+            Files.deleteIfExists(this.tileFile(tile.key).toPath());
+            tile.dirty = false;
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 * this.wordsPerTile);
+        buffer.asLongBuffer().put(tile.bits);
+        Files.write(this.tileFile(tile.key).toPath(), buffer.array());
+        tile.dirty = false;
+    }
+
+
+    private static boolean isOpen(long[] bits) {
+
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
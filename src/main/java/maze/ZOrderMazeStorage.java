@@ -0,0 +1,91 @@
+package maze;
+
+/**
+ * Storage that keeps one bit per cell in the order of a CellLayout, so
+ * the flags of the neighbours of a cell share its cache lines in every
+ * direction. Addresses stay row-major, as MazeStorage defines them, and
+ * are translated on every access; searches that number the cells the
+ * same way read the flags straight with isBlockedAt(), see MazeGraph.
+ */
+public class ZOrderMazeStorage implements MazeStorage {
+
+    private final CellLayout layout;
+    private final long[] bits;
+
+
+    /**
+     * Creates an x * y maze with every cell open, in tiles of CellLayout.DEFAULT_TILE_SHIFT.
+     *
+     * @param xWidth Cells in x direction.
+     * @param yWidth Cells in y direction.
+     */
+    public ZOrderMazeStorage(int xWidth, int yWidth) {
+        this(new CellLayout(xWidth, yWidth));
+    }
+
+
+    /**
+     * Creates a maze with every cell open.
+     *
+     * @param layout The layout of the cells.
+     */
+    public ZOrderMazeStorage(CellLayout layout) {
+
+        this.layout = layout;
+        this.bits = new long[(int) (((long) layout.size() + 63) >>> 6)];
+    }
+
+
+    /**
+     * @return The layout of the cells.
+     */
+    public final CellLayout getLayout() {
+        return this.layout;
+    }
+
+
+    @Override
+    public long cellCount() {
+        return (long) this.layout.getxWidth() * this.layout.getyWidth();
+    }
+
+
+    @Override
+    public boolean isBlocked(long cell) {
+        return this.isBlockedAt(this.idOf(cell));
+    }
+
+
+    @Override
+    public void setBlocked(long cell, boolean blocked) {
+
+        int id = this.idOf(cell);
+
+        if (blocked) {
+            this.bits[id >>> 6] |= 1L << id;
+        }
+        else {
+            this.bits[id >>> 6] &= ~(1L << id);
+        }
+    }
+
+
+    /**
+     * @param id The id of the cell in the layout.
+     * @return true if the cell is blocked.
+     */
+    public final boolean isBlockedAt(int id) {
+        return (this.bits[id >>> 6] & (1L << id)) != 0;
+    }
+
+
+    private int idOf(long cell) {
+
+        if (cell < 0 || cell >= this.cellCount()) {
+            throw new IndexOutOfBoundsException("Cell " + cell + " is outside the maze.");
+        }
+
+        int yWidth = this.layout.getyWidth();
+        return this.layout.idOf((int) (cell / yWidth), (int) (cell % yWidth));
+    }
+}
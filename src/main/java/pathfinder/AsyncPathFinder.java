@@ -0,0 +1,99 @@
+package pathfinder;
+
+import maze.Maze;
+import maze.Point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the queries of a PathFinder on an executor so that callers
+ * do not block on a search.
+ *
+ * Every query gets its own SearchBudget. Cancelling the returned future
+ * cancels the budget, and the search stops at its next budget check.
+ * A query that runs out of budget completes exceptionally with a
+ * SearchBudgetExceededException that holds the partial route.
+ */
+public class AsyncPathFinder {
+
+    private final PathFinder finder;
+    private final Executor executor;
+    private final long maxExpandedNodes;
+    private final long maxWallTimeMillis;
+
+
+    /**
+     * Constructor. Queries are not limited unless a budget is given per query.
+     *
+     * @param finder   The path finder that does the actual search.
+     * @param executor The executor the searches run on.
+     */
+    public AsyncPathFinder(PathFinder finder, Executor executor) {
+        this(finder, executor, SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param finder            The path finder that does the actual search.
+     * @param executor          The executor the searches run on.
+     * @param maxExpandedNodes  Default limit of expanded nodes per query.
+     * @param maxWallTimeMillis Default limit of wall time per query in milliseconds.
+     */
+    public AsyncPathFinder(PathFinder finder, Executor executor, long maxExpandedNodes, long maxWallTimeMillis) {
+
+        if (finder == null || executor == null) {
+            throw new NullPointerException("Null path finder or executor was provided.");
+        }
+
+        this.finder = finder;
+        this.executor = executor;
+        this.maxExpandedNodes = maxExpandedNodes;
+        this.maxWallTimeMillis = maxWallTimeMillis;
+    }
+
+
+    /**
+     * Finds a Route asynchronously with the default limits.
+     *
+     * @param maze  The given maze.
+     * @param start The starting point.
+     * @param goal  The finishing point.
+     * @return The future route.
+     */
+    public CompletableFuture<Route> findAsync(final Maze maze, final Point start, final Point goal) {
+        return this.findAsync(maze, start, goal, new SearchBudget(this.maxExpandedNodes, this.maxWallTimeMillis));
+    }
+
+
+    /**
+     * Finds a Route asynchronously within the given budget.
+     *
+     * @param maze   The given maze.
+     * @param start  The starting point.
+     * @param goal   The finishing point.
+     * @param budget The limits of this query.
+     * @return The future route.
+     */
+    public CompletableFuture<Route> findAsync(final Maze maze, final Point start, final Point goal,
+                                              final SearchBudget budget) {
+
+        if (budget == null) {
+            throw new NullPointerException("Null search budget was provided.");
+        }
+
+        CompletableFuture<Route> future =
+                CompletableFuture.supplyAsync(() -> this.finder.find(maze, start, goal, budget), this.executor);
+
+        // Cancelling the future only completes it, so tell the search to stop as well:
+        future.whenComplete((route, error) -> {
+            if (future.isCancelled()) {
+                budget.cancel();
+            }
+        });
+
+        return future;
+    }
+}
@@ -0,0 +1,298 @@
+package pathfinder;
+
+import utilities.Direction;
+import utilities.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A Route stored as its start cell plus the Direction of every step,
+ * run-length encoded. Each run of steps in the same direction is one
+ * varint holding (run length - 1) << 2 | direction, where the direction
+ * uses the int mapping of Utils. A straight corridor costs a few bytes
+ * and a staircase one byte per step, against four bytes per cell for
+ * a Route, which makes this the form to cache or send over the wire.
+ *
+ * Cell ids are only expanded on demand, see iterator() and toRoute().
+ */
+public class CompactRoute {
+
+    /**
+     * The first cell of the route, -1 for an empty route.
+     */
+    private final int start;
+
+    /**
+     * Number of cells in the route.
+     */
+    private final int size;
+
+    /**
+     * Cells in y direction of the maze the route belongs to.
+     */
+    private final int yWidth;
+
+    /**
+     * The varint encoded runs of steps.
+     */
+    private final byte[] runs;
+
+
+    private CompactRoute(int start, int size, int yWidth, byte[] runs) {
+
+        this.start = start;
+        this.size = size;
+        this.yWidth = yWidth;
+        this.runs = runs;
+    }
+
+
+    /**
+     * Encodes a route.
+     *
+     * @param route  The route.
+     * @param yWidth Cells in y direction of the maze the route belongs to.
+     * @return The compact route.
+     * @throws IllegalArgumentException If two consecutive cells are not neighbours.
+     */
+    public static CompactRoute encode(Route route, int yWidth) {
+
+        if (yWidth <= 0) {
+            throw new IllegalArgumentException("Expected a positive yWidth but got " + yWidth);
+        }
+
+        if (route.empty()) {
+            return new CompactRoute(-1, 0, yWidth, new byte[0]);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int runDirection = -1;
+        int runLength = 0;
+
+        for (int c = 1; c < route.size(); c++) {
+
+            int direction = CompactRoute.direction(route.getCell(c - 1), route.getCell(c), yWidth);
+
+            if (direction == runDirection) {
+                runLength++;
+                continue;
+            }
+
+            if (runLength > 0) {
+                CompactRoute.writeVarint(out, (runLength - 1) << 2 | runDirection);
+            }
+
+            runDirection = direction;
+            runLength = 1;
+        }
+
+        if (runLength > 0) {
+            CompactRoute.writeVarint(out, (runLength - 1) << 2 | runDirection);
+        }
+
+        return new CompactRoute(route.getCell(0), route.size(), yWidth, out.toByteArray());
+    }
+
+
+    /**
+     * @return How many cells are in the route.
+     */
+    public final int size() {
+        return this.size;
+    }
+
+
+    /**
+     * @return True if route is empty.
+     */
+    public final boolean empty() {
+        return this.size == 0;
+    }
+
+
+    /**
+     * @return The number of bytes toBytes() produces.
+     */
+    public final int encodedSize() {
+        return this.toBytes().length;
+    }
+
+
+    /**
+     * @return An iterator that expands the cell ids one step at a time.
+     */
+    public final PrimitiveIterator.OfInt iterator() {
+
+        return new PrimitiveIterator.OfInt() {
+
+            private int cell = CompactRoute.this.start;
+            private int returned = 0;
+            private int offset = 0;
+            private int remaining = 0;
+            private int delta = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.returned < CompactRoute.this.size;
+            }
+
+            @Override
+            public int nextInt() {
+
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                if (this.returned++ == 0) {
+                    return this.cell;
+                }
+
+                if (this.remaining == 0) {
+
+                    // Decode the next run:
+                    int value = 0;
+                    int shift = 0;
+                    byte b;
+
+                    do {
+                        b = CompactRoute.this.runs[this.offset++];
+                        value |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+
+                    this.remaining = (value >>> 2) + 1;
+                    this.delta = CompactRoute.delta(Utils.convertIntToDirection(value & 3), CompactRoute.this.yWidth);
+                }
+
+                this.remaining--;
+                this.cell += this.delta;
+                return this.cell;
+            }
+        };
+    }
+
+
+    /**
+     * @return The route with every cell id expanded.
+     */
+    public final Route toRoute() {
+
+        int[] path = new int[this.size];
+        PrimitiveIterator.OfInt it = this.iterator();
+
+        for (int c = 0; c < this.size; c++) {
+            path[c] = it.nextInt();
+        }
+
+        return new Route(path);
+    }
+
+
+    /**
+     * @return The route as bytes: start, size and yWidth as varints followed by the runs.
+     */
+    public final byte[] toBytes() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.runs.length + 15);
+        CompactRoute.writeVarint(out, this.start + 1);
+        CompactRoute.writeVarint(out, this.size);
+        CompactRoute.writeVarint(out, this.yWidth);
+        out.write(this.runs, 0, this.runs.length);
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Reads a route written by toBytes().
+     *
+     * @param bytes The bytes.
+     * @return The compact route.
+     */
+    public static CompactRoute fromBytes(byte[] bytes) {
+
+        int[] offset = {0};
+        int start = CompactRoute.readVarint(bytes, offset) - 1;
+        int size = CompactRoute.readVarint(bytes, offset);
+        int yWidth = CompactRoute.readVarint(bytes, offset);
+
+        byte[] runs = new byte[bytes.length - offset[0]];
+        System.arraycopy(bytes, offset[0], runs, 0, runs.length);
+        return new CompactRoute(start, size, yWidth, runs);
+    }
+
+
+    /**
+     * @return The direction of the step between two neighbouring cells, in the int mapping of Utils.
+     */
+    private static int direction(int from, int to, int yWidth) {
+
+        Direction direction;
+
+        if (to == from - yWidth) {
+            direction = Direction.SOUTH;
+        }
+        else if (to == from + 1 && to % yWidth != 0) {
+            direction = Direction.EAST;
+        }
+        else if (to == from + yWidth) {
+            direction = Direction.NORTH;
+        }
+        else if (to == from - 1 && from % yWidth != 0) {
+            direction = Direction.WEST;
+        }
+        else {
+            throw new IllegalArgumentException("Cells " + from + " and " + to + " are not neighbours.");
+        }
+
+        return Utils.convertDirectionToInt(direction);
+    }
+
+
+    /**
+     * @return The change of cell id for a step in the given direction.
+     */
+    private static int delta(Direction direction, int yWidth) {
+
+        switch (direction) {
+            case SOUTH:
+                return -yWidth;
+            case EAST:
+                return 1;
+            case NORTH:
+                return yWidth;
+            case WEST:
+                return -1;
+            default:
+                throw new IllegalArgumentException("Invalid direction: " + direction);
+        }
+    }
+
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+
+    private static int readVarint(byte[] bytes, int[] offset) {
+
+        int value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = bytes[offset[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return value;
+    }
+}
@@ -24,6 +24,25 @@ public interface PathFinder {
     Route find(final Maze maze, final Point start, final Point goal);
 
 
+    /**
+     * Finds a Route in a given Maze within the given budget.
+     * Path finders that cannot check a budget simply ignore it.
+     *
+     * @param maze The given maze.
+     * @param start The starting point.
+     * @param goal The finishing point.
+     * @param budget The limits of this query.
+     * @return Route.
+     * @throws SearchBudgetExceededException If the budget ran out or was cancelled.
+     */
+    default Route find(final Maze maze, final Point start, final Point goal, final SearchBudget budget) {
+
+        budget.start();
+        budget.check();
+        return this.find(maze, start, goal);
+    }
+
+
     /**
      * Performs checks on cell position.
      * @param c The given cell.
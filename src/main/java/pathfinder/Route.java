@@ -1,22 +1,78 @@
 package pathfinder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
 
 /**
  * Represents a collection of points
  * that form a path in a maze.
+ *
+ * The cell ids are kept in an int array. Search engines hand over
+ * their array with Route(int[]) so the path is never copied, and
+ * callers can walk it with iterator() or forEach() without boxing.
+ * See CompactRoute for a much smaller form to cache or send.
+ *
+ * Bounded-suboptimal searches (e.g. weighted A*) also record how far
+ * the route may be from the shortest one, see getSuboptimalityBound().
  */
 public class Route {
 
     /**
      * The list of points that form the path that
-     * this route represents.
+     * this route represents. Only the first size entries are used.
      */
-    private ArrayList<Integer> points;
+    private int[] points;
+
+    private int size;
+
+    /**
+     * The cost of this route is at most this factor times the optimal cost.
+     */
+    private final double suboptimalityBound;
 
 
     public Route() {
-        this.points = new ArrayList<Integer>();
+        this.points = new int[8];
+        this.size = 0;
+        this.suboptimalityBound = 1.0;
+    }
+
+
+    /**
+     * Creates a route over the given cell ids. The array is
+     * taken over as it is, not copied.
+     *
+     * @param path The cell ids from the start to the goal.
+     */
+    public Route(final int[] path) {
+        this(path, 1.0);
+    }
+
+
+    /**
+     * Creates a route over the given cell ids, found by a search that only
+     * guarantees a cost within the given factor of the optimal one. The
+     * array is taken over as it is, not copied.
+     *
+     * @param path               The cell ids from the start to the goal.
+     * @param suboptimalityBound The guaranteed factor, at least 1.
+     */
+    public Route(final int[] path, double suboptimalityBound) {
+
+        if (path == null) {
+            throw new NullPointerException("Null path was provided.");
+        }
+
+        if (!(suboptimalityBound >= 1.0)) {
+            throw new IllegalArgumentException("Suboptimality bound must be at least 1: " + suboptimalityBound);
+        }
+
+        this.points = path;
+        this.size = path.length;
+        this.suboptimalityBound = suboptimalityBound;
     }
 
 
@@ -26,7 +82,21 @@ public class Route {
      * @return The i-th item in route.
      */
     public final Integer getItem(int i) {
-        return this.points.get(i);
+        return this.getCell(i);
+    }
+
+
+    /**
+     * @param i Item in route.
+     * @return The cell id of the i-th item in route.
+     */
+    public final int getCell(int i) {
+
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size);
+        }
+
+        return this.points[i];
     }
 
 
@@ -36,8 +106,10 @@ public class Route {
      */
     public final void setPath(final ArrayList<Integer> path) {
 
+        this.ensureCapacity(this.size + path.size());
+
         for (int i = 0; i < path.size(); i++) {
-            this.points.add(path.get(i));
+            this.points[this.size++] = path.get(i);
         }
     }
 
@@ -46,7 +118,7 @@ public class Route {
      * @return How many items are in route.
      */
     public final int size() {
-        return this.points.size();
+        return this.size;
     }
 
 
@@ -54,7 +126,16 @@ public class Route {
      * @return True if route is empty.
      */
     public final boolean empty() {
-        return this.points.size() == 0;
+        return this.size == 0;
+    }
+
+
+    /**
+     * @return The cost of this route is at most this factor times the
+     *         optimal cost; 1 for routes from optimal searches.
+     */
+    public final double getSuboptimalityBound() {
+        return this.suboptimalityBound;
     }
 
 
@@ -63,6 +144,63 @@ public class Route {
      * @param p Item for path.
      */
     public final void addItem(Integer p) {
-        this.points.add(p);
+
+        this.ensureCapacity(this.size + 1);
+        this.points[this.size++] = p;
+    }
+
+
+    /**
+     * @return A copy of the cell ids of the route.
+     */
+    public final int[] toArray() {
+        return Arrays.copyOf(this.points, this.size);
+    }
+
+
+    /**
+     * @return An iterator over the cell ids that does not box them.
+     */
+    public final PrimitiveIterator.OfInt iterator() {
+
+        return new PrimitiveIterator.OfInt() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < Route.this.size;
+            }
+
+            @Override
+            public int nextInt() {
+
+                if (this.next >= Route.this.size) {
+                    throw new NoSuchElementException();
+                }
+                return Route.this.points[this.next++];
+            }
+        };
+    }
+
+
+    /**
+     * Passes every cell id of the route to the action, in order.
+     *
+     * @param action The action.
+     */
+    public final void forEach(IntConsumer action) {
+
+        for (int i = 0; i < this.size; i++) {
+            action.accept(this.points[i]);
+        }
+    }
+
+
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > this.points.length) {
+            this.points = Arrays.copyOf(this.points, Math.max(capacity, 2 * this.points.length));
+        }
     }
 }
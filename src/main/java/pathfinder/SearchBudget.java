@@ -0,0 +1,177 @@
+package pathfinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-query limits for a path finding search.
+ *
+ * A budget caps the number of nodes a search may expand and the wall
+ * time it may take, and it can be cancelled from another thread.
+ * Searches call {@link #charge()} once per expanded node and stop by
+ * throwing a {@link SearchBudgetExceededException} once the budget is spent.
+ *
+ * A budget belongs to a single query and is not meant to be reused.
+ */
+public class SearchBudget {
+
+    /**
+     * Value used for limits that should not be enforced.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * The wall time is only looked at every so many expansions
+     * so that the clock does not dominate cheap expansions.
+     */
+    private static final int CLOCK_CHECK_MASK = 0x3F;
+
+    /**
+     * Maximum number of nodes the search may expand.
+     */
+    private final long maxExpandedNodes;
+
+    /**
+     * Maximum wall time of the search in nanoseconds.
+     */
+    private final long maxWallTimeNanos;
+
+    /**
+     * Number of nodes expanded so far.
+     */
+    private long expandedNodes = 0;
+
+    /**
+     * The point in time (System.nanoTime) after which the search must stop.
+     */
+    private long deadline = Long.MAX_VALUE;
+
+    /**
+     * Flag raised by another thread that wants the search to stop.
+     */
+    private volatile boolean cancelled = false;
+
+
+    /**
+     * Constructor.
+     *
+     * @param maxExpandedNodes  Maximum number of expanded nodes or UNLIMITED.
+     * @param maxWallTimeMillis Maximum wall time in milliseconds or UNLIMITED.
+     */
+    public SearchBudget(long maxExpandedNodes, long maxWallTimeMillis) {
+
+        if (maxExpandedNodes <= 0 || maxWallTimeMillis <= 0) {
+            throw new IllegalArgumentException("Search budget limits must be positive.");
+        }
+
+        this.maxExpandedNodes = maxExpandedNodes;
+
+        // Very long limits saturate at UNLIMITED instead of overflowing:
+        this.maxWallTimeNanos = TimeUnit.MILLISECONDS.toNanos(maxWallTimeMillis);
+    }
+
+
+    /**
+     * @return A budget that never runs out but can still be cancelled.
+     */
+    public static SearchBudget unlimited() {
+        return new SearchBudget(UNLIMITED, UNLIMITED);
+    }
+
+
+    /**
+     * Starts the wall clock of the budget. Searches call this
+     * once before expanding the first node.
+     */
+    public final void start() {
+
+        this.expandedNodes = 0;
+
+        if (this.maxWallTimeNanos == UNLIMITED) {
+            this.deadline = Long.MAX_VALUE;
+        }
+        else {
+            this.deadline = System.nanoTime() + this.maxWallTimeNanos;
+        }
+    }
+
+
+    /**
+     * Accounts for one expanded node.
+     *
+     * @throws SearchBudgetExceededException If the search has to stop.
+     */
+    public final void charge() {
+
+        if (++this.expandedNodes > this.maxExpandedNodes) {
+            throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.EXPANDED_NODES,
+                    this.expandedNodes - 1);
+        }
+
+        if (this.cancelled || (this.expandedNodes & CLOCK_CHECK_MASK) == 0) {
+            this.check();
+        }
+    }
+
+
+    /**
+     * Accounts for nodes expanded elsewhere, e.g. by the workers of a
+     * parallel search, and checks the limits once.
+     *
+     * @param nodes The number of expanded nodes, not negative.
+     * @throws SearchBudgetExceededException If the search has to stop.
+     */
+    public final void charge(long nodes) {
+
+        this.expandedNodes += nodes;
+
+        if (this.expandedNodes > this.maxExpandedNodes) {
+            throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.EXPANDED_NODES,
+                    this.expandedNodes);
+        }
+
+        this.check();
+    }
+
+
+    /**
+     * Checks cancellation and wall time without accounting for an expansion.
+     *
+     * @throws SearchBudgetExceededException If the search has to stop.
+     */
+    public final void check() {
+
+        if (this.cancelled) {
+            throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.CANCELLED,
+                    this.expandedNodes);
+        }
+
+        if (this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline > 0) {
+            throw new SearchBudgetExceededException(SearchBudgetExceededException.Reason.WALL_TIME,
+                    this.expandedNodes);
+        }
+    }
+
+
+    /**
+     * Asks the search to stop at its next check. Safe to call from any thread.
+     */
+    public final void cancel() {
+        this.cancelled = true;
+    }
+
+
+    /**
+     * @return True if the budget was cancelled.
+     */
+    public final boolean isCancelled() {
+        return this.cancelled;
+    }
+
+
+    /**
+     * @return How many nodes have been expanded so far.
+     */
+    public final long getExpandedNodes() {
+        return this.expandedNodes;
+    }
+}
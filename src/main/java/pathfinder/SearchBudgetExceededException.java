@@ -0,0 +1,76 @@
+package pathfinder;
+
+/**
+ * Thrown by a search that had to stop because its SearchBudget ran out
+ * or was cancelled. It carries the best partial route found so far.
+ */
+public class SearchBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Why the search stopped.
+     */
+    public enum Reason {
+        EXPANDED_NODES,
+        WALL_TIME,
+        CANCELLED
+    }
+
+    private final Reason reason;
+    private final long expandedNodes;
+    private Route partialRoute = new Route();
+
+
+    /**
+     * Constructor.
+     *
+     * @param reason        Why the search stopped.
+     * @param expandedNodes How many nodes were expanded before stopping.
+     */
+    public SearchBudgetExceededException(Reason reason, long expandedNodes) {
+
+        super("Search stopped (" + reason + ") after expanding " + expandedNodes + " nodes.");
+        this.reason = reason;
+        this.expandedNodes = expandedNodes;
+    }
+
+
+    /**
+     * @return Why the search stopped.
+     */
+    public final Reason getReason() {
+        return this.reason;
+    }
+
+
+    /**
+     * @return How many nodes were expanded before stopping.
+     */
+    public final long getExpandedNodes() {
+        return this.expandedNodes;
+    }
+
+
+    /**
+     * @return The route from the start to the last expanded node. Empty if none is known.
+     */
+    public final Route getPartialRoute() {
+        return this.partialRoute;
+    }
+
+
+    /**
+     * Attaches the partial route found before the search stopped.
+     *
+     * @param partialRoute Route from the start to the last expanded node.
+     * @return This exception.
+     */
+    public final SearchBudgetExceededException withPartialRoute(Route partialRoute) {
+
+        if (partialRoute != null) {
+            this.partialRoute = partialRoute;
+        }
+        return this;
+    }
+}
@@ -0,0 +1,92 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free queue for many producers and a single consumer
+ * (after D. Vyukov). Producers swap themselves in as the tail with one
+ * atomic operation and then link the old tail to their node, so offer()
+ * never blocks or retries. Only one thread may call poll().
+ *
+ * A node whose producer is between the swap and the link is not visible
+ * yet, so poll() may briefly return null while an offer() is still in
+ * progress. Callers that need to know about such messages count them
+ * themselves before offering.
+ *
+ * @param <E> The type of the elements.
+ */
+public class MpscQueue<E> {
+
+    private static final class Node<E> {
+
+        private E value;
+        private volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * The last node, shared by the producers.
+     */
+    private final AtomicReference<Node<E>> tail;
+
+    /**
+     * The node before the first element, owned by the consumer.
+     */
+    private Node<E> head;
+
+
+    public MpscQueue() {
+
+        Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+
+    /**
+     * Adds an element. Safe to call from any thread.
+     *
+     * @param value The element, not null.
+     */
+    public final void offer(E value) {
+
+        if (value == null) {
+            throw new NullPointerException("Null element was provided.");
+        }
+
+        Node<E> node = new Node<>(value);
+        Node<E> previous = this.tail.getAndSet(node);
+        previous.next = node;
+    }
+
+
+    /**
+     * Takes the first element. Only the consumer thread may call this.
+     *
+     * @return The first element, null if none is visible.
+     */
+    public final E poll() {
+
+        Node<E> next = this.head.next;
+
+        if (next == null) {
+            return null;
+        }
+
+        E value = next.value;
+        next.value = null;
+        this.head = next;
+        return value;
+    }
+
+
+    /**
+     * @return True if no element is visible to the consumer.
+     */
+    public final boolean isEmpty() {
+        return this.head.next == null;
+    }
+}
@@ -0,0 +1,124 @@
+package algorithms;
+
+import maze.BitGrid;
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BitParallelBFSPathFinder, BFSWaves and BitGrid.
+ */
+public class BitParallelBFSTest {
+
+    /**
+     * Test Scenario: The application packs the test maze and finds its route.
+     * Expected Output: The grid has the flags of the maze and the route is the A* one.
+     */
+    @Test
+    public void testTestMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        BitGrid grid = BitGrid.of(maze);
+        assertEquals(1, grid.getWordsPerRow());
+        for (int id = 0; id < maze.size(); id++) {
+            assertEquals(!maze.isBlocked(id), grid.isOpen(id / 20, id % 20));
+        }
+        assertFalse(grid.isOpen(-1, 0));
+        assertFalse(grid.isOpen(0, 20));
+
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+        BitParallelBFSPathFinder finder = new BitParallelBFSPathFinder();
+
+        assertArrayEquals(expected.toArray(), finder.find(maze, new Point(0, 0), new Point(11, 19)).toArray());
+
+        BFSWaves waves = finder.flood(maze, new Point(0, 0));
+        assertEquals(30, waves.getDistance(239));
+        assertFalse(waves.isReachable(13));
+        assertEquals(-1, waves.getDistance(13));
+        assertTrue(waves.route(13).empty());
+    }
+
+
+    /**
+     * Test Scenario: The application floods random mazes whose rows span several words.
+     * Expected Output: Reachability and distances match the parallel BFS, and every route
+     *                  is a chain of open neighbours as long as the distance.
+     */
+    @Test
+    public void testRandomMazes() {
+
+        Random random = new Random(31);
+        ParallelBFSPathFinder reference = new ParallelBFSPathFinder();
+        BitParallelBFSPathFinder finder = new BitParallelBFSPathFinder();
+
+        int[][] sizes = {{70, 130}, {129, 64}, {33, 200}};
+
+        for (int[] size : sizes) {
+
+            int x = size[0];
+            int y = size[1];
+            Maze maze = new Maze(new CopyOnWriteMazeStorage(x, y), x, y);
+
+            for (int id = 1; id < x * y; id++) {
+                if (random.nextDouble() < 0.3) {
+                    maze.setBlocked(new int[]{id}, true);
+                }
+            }
+
+            BFSTree tree = reference.flood(maze, new Point(0, 0));
+            BFSWaves waves = finder.flood(maze, new Point(0, 0));
+
+            assertEquals(tree.getReached(), waves.getReached());
+            assertEquals(tree.getLevels(), waves.getLevels());
+
+            for (int cell = 0; cell < x * y; cell++) {
+
+                assertEquals(tree.isReachable(cell), waves.isReachable(cell));
+                assertEquals(tree.getDistance(cell), waves.getDistance(cell));
+
+                if (cell % 37 == 0 && waves.isReachable(cell)) {
+
+                    Route route = waves.route(cell);
+                    assertEquals(tree.getDistance(cell) + 1, route.size());
+                    assertEquals(0, route.getCell(0));
+
+                    for (int k = 1; k < route.size(); k++) {
+                        int a = route.getCell(k - 1);
+                        int b = route.getCell(k);
+                        assertFalse(maze.isBlocked(b));
+                        assertEquals(1, Math.abs(a / y - b / y) + Math.abs(a % y - b % y));
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application walls a cell through the maze between two searches.
+     * Expected Output: The packed grid is not reused and the second search sees the wall.
+     */
+    @Test
+    public void testChangeBetweenQueries() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(1, 3), 1, 3);
+
+        BitParallelBFSPathFinder finder = new BitParallelBFSPathFinder();
+        assertEquals(3, finder.find(maze, new Point(0, 0), new Point(0, 2)).size());
+
+        maze.setCellBlockedFlag(1, "X");
+        assertTrue(finder.find(maze, new Point(0, 0), new Point(0, 2)).empty());
+    }
+}
@@ -0,0 +1,136 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DStarLitePathFinder.
+ */
+public class DStarLiteTest {
+
+    /**
+     * Test Scenario: The application plans on a maze, then moves the start along the route and replans.
+     * Expected Output: The first route is the A* one and every replan gives the rest of it.
+     */
+    @Test
+    public void testMovingStart() throws IOException {
+
+        Maze maze = this.load("maze_12_20.txt");
+
+        DStarLitePathFinder finder = new DStarLitePathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+
+        Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+        assertArrayEquals(expected.toArray(), route.toArray());
+
+        for (int k = 5; k < expected.size(); k += 5) {
+
+            int cell = expected.getCell(k);
+            Route rest = finder.find(maze, new Point(cell / 20, cell % 20), new Point(11, 19));
+
+            assertEquals(expected.size() - k, rest.size());
+            for (int p = 0; p < rest.size(); p++) {
+                assertEquals(expected.getCell(k + p), rest.getCell(p));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application blocks cells of the maze between two queries, on and off the route.
+     * Expected Output: The finder hears of the changes, repairs its state and gives routes as short as
+     *                  a fresh A* search; a change far from the route costs fewer expansions than planning.
+     */
+    @Test
+    public void testReplanAfterChanges() throws IOException {
+
+        Maze maze = this.load("maze_12_20.txt");
+
+        DStarLitePathFinder finder = new DStarLitePathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        PathFinder reference = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Point start = new Point(0, 0);
+        Point goal = new Point(11, 19);
+
+        finder.find(maze, start, goal);
+        long planning = finder.getLastExpansions();
+
+        // A cell far from the route:
+        maze.setBlocked(new int[]{200}, true);
+        Route route = finder.find(maze, start, goal);
+        this.assertShortest(maze, reference.find(maze, start, goal), route);
+        assertTrue(finder.getLastExpansions() < planning);
+
+        // A cell on the route forces a detour:
+        maze.setBlocked(new int[]{32}, true);
+        route = finder.find(maze, start, goal);
+        this.assertShortest(maze, reference.find(maze, start, goal), route);
+        assertFalse(route.toArray()[13] == 32);
+
+        // Opening it again brings the old route back:
+        maze.setBlocked(new int[]{32}, false);
+        route = finder.find(maze, start, goal);
+        this.assertShortest(maze, reference.find(maze, start, goal), route);
+        assertEquals(31, route.size());
+
+        finder.reset();
+    }
+
+
+    /**
+     * Test Scenario: The application cuts the goal off the start and opens the way again.
+     * Expected Output: An empty route while it is cut off, the right route once it is open.
+     */
+    @Test
+    public void testUnreachableGoal() throws IOException {
+
+        Maze maze = this.load("maze_3_3.txt");
+
+        DStarLitePathFinder finder = new DStarLitePathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Point start = new Point(0, 0);
+        Point goal = new Point(2, 2);
+
+        assertArrayEquals(new int[]{0, 3, 4, 5, 8}, finder.find(maze, start, goal).toArray());
+
+        maze.setBlocked(new int[]{1, 3}, true);
+        assertTrue(finder.find(maze, start, goal).empty());
+
+        maze.setBlocked(new int[]{3}, false);
+        assertArrayEquals(new int[]{0, 3, 4, 5, 8}, finder.find(maze, start, goal).toArray());
+    }
+
+
+    private Maze load(String name) throws IOException {
+
+        File directory = new File("./");
+        return MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/" + name);
+    }
+
+
+    private void assertShortest(Maze maze, Route expected, Route route) {
+
+        assertEquals(expected.size(), route.size());
+        assertEquals(expected.getCell(0), route.getCell(0));
+        assertEquals(expected.getCell(expected.size() - 1), route.getCell(route.size() - 1));
+
+        for (int k = 0; k < route.size(); k++) {
+            assertFalse(maze.isBlocked(route.getCell(k)));
+            if (k > 0) {
+                int a = route.getCell(k - 1);
+                int b = route.getCell(k);
+                assertEquals(1, Math.abs(a / 20 - b / 20) + Math.abs(a % 20 - b % 20));
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DistanceMatrixFinder and DistanceMatrix.
+ */
+public class DistanceMatrixTest {
+
+    /**
+     * Test Scenario: The application computes the matrix of the test maze, with a target given twice.
+     * Expected Output: Every cost is the length of the Dijkstra route and both copies of the target agree.
+     */
+    @Test
+    public void testTestMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        Point[] sources = {new Point(0, 0), new Point(11, 19), new Point(5, 0)};
+        Point[] targets = {new Point(11, 19), new Point(0, 0), new Point(11, 19), new Point(5, 0)};
+
+        DistanceMatrix matrix = new DistanceMatrixFinder(new ManhattanCalculator()).compute(maze, sources, targets);
+
+        assertEquals(3, matrix.getRows());
+        assertEquals(4, matrix.getColumns());
+        assertEquals(12, matrix.getCosts().length);
+        assertEquals(30, matrix.get(0, 0));
+        assertEquals(30, matrix.get(0, 2));
+        assertEquals(0, matrix.get(1, 0));
+
+        DijkstraPathFinder dijkstra = new DijkstraPathFinder(new ManhattanCalculator());
+
+        for (int s = 0; s < sources.length; s++) {
+            for (int t = 0; t < targets.length; t++) {
+                Route route = dijkstra.find(maze, sources[s], targets[t]);
+                assertEquals(route.size() - 1, matrix.get(s, t));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application computes matrices of random mazes on 4 threads, with an open cell walled in.
+     * Expected Output: The costs match separate Dijkstra queries and the walled in cell is UNREACHABLE.
+     */
+    @Test
+    public void testRandomMazes() {
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            DistanceMatrixFinder finder = new DistanceMatrixFinder(new ManhattanCalculator(), executor, 4);
+            DijkstraPathFinder dijkstra = new DijkstraPathFinder(new ManhattanCalculator());
+            Random random = new Random(41);
+            int width = 60;
+
+            for (int t = 0; t < 3; t++) {
+
+                Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+                for (int id = 1; id < width * width; id++) {
+                    if (random.nextDouble() < 0.25) {
+                        maze.setBlocked(new int[]{id}, true);
+                    }
+                }
+
+                // Cell (30, 30) is open and walled in:
+                maze.setBlocked(new int[]{30 * width + 30}, false);
+                maze.setBlocked(new int[]{29 * width + 30, 31 * width + 30, 30 * width + 29, 30 * width + 31}, true);
+
+                Point[] sources = new Point[12];
+                Point[] targets = new Point[9];
+                this.openPoints(maze, random, sources);
+                this.openPoints(maze, random, targets);
+                targets[8] = new Point(30, 30);
+
+                DistanceMatrix matrix = finder.compute(maze, sources, targets);
+
+                for (int s = 0; s < sources.length; s++) {
+                    for (int c = 0; c < targets.length; c++) {
+                        Route route = dijkstra.find(maze, sources[s], targets[c]);
+                        int expected = route.empty() ? DistanceMatrix.UNREACHABLE : route.size() - 1;
+                        assertEquals(expected, matrix.get(s, c));
+                    }
+                    if (!sources[s].equals(targets[8])) {
+                        assertFalse(matrix.isReachable(s, 8));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application computes a matrix with a blocked target, a cancelled budget and bad indices.
+     * Expected Output: IllegalArgumentException, SearchBudgetExceededException and IndexOutOfBoundsException.
+     */
+    @Test
+    public void testErrors() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt");
+        DistanceMatrixFinder finder = new DistanceMatrixFinder(new ManhattanCalculator());
+
+        try {
+            finder.compute(maze, new Point[]{new Point(0, 0)}, new Point[]{new Point(0, 1)});
+            fail("A blocked target must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        SearchBudget budget = SearchBudget.unlimited();
+        budget.cancel();
+
+        try {
+            finder.compute(maze, new Point[]{new Point(0, 0)}, new Point[]{new Point(2, 2)}, budget);
+            fail("A cancelled budget must stop the matrix.");
+        } catch (SearchBudgetExceededException e) {
+            assertEquals(SearchBudgetExceededException.Reason.CANCELLED, e.getReason());
+        }
+
+        DistanceMatrix matrix = finder.compute(maze, new Point[]{new Point(0, 0)}, new Point[]{new Point(2, 2)});
+        assertEquals(4, matrix.get(0, 0));
+
+        try {
+            matrix.get(1, 0);
+            fail("A row past the sources must be rejected.");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        }
+    }
+
+
+    private void openPoints(Maze maze, Random random, Point[] points) {
+
+        int width = maze.getyWidth();
+
+        for (int k = 0; k < points.length; k++) {
+            int id;
+            do {
+                id = random.nextInt(maze.size());
+            } while (maze.isBlocked(id));
+            points[k] = new Point(id / width, id % width);
+        }
+    }
+}
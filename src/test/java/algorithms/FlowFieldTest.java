@@ -0,0 +1,202 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import utilities.Direction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for FlowField and FlowFieldCache.
+ */
+public class FlowFieldTest {
+
+    /**
+     * Test Scenario: The application builds the field of the goal of the test maze.
+     * Expected Output: The costs are the breadth-first distances from the goal and the
+     *                  route along the field from the start is as long as the A* one.
+     */
+    @Test
+    public void testTestMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        FlowField field = FlowField.build(maze, new Point(11, 19), new ManhattanCalculator());
+        BFSTree tree = new ParallelBFSPathFinder().flood(maze, new Point(11, 19));
+
+        assertEquals(239, field.getGoal());
+        assertArrayEquals(tree.getDistances(), this.distances(field, maze.size()));
+        assertEquals(Direction.INVALID, field.getDirection(239));
+        assertEquals(-1, field.nextCell(239));
+        assertEquals(Direction.INVALID, field.getDirection(13));
+        assertEquals(FlowField.UNREACHABLE, field.getDistance(13));
+        assertTrue(field.route(13).empty());
+
+        Route route = field.route(0);
+        assertEquals(31, route.size());
+        assertEquals(0, route.getCell(0));
+        assertEquals(239, route.getCell(30));
+    }
+
+
+    /**
+     * Test Scenario: The application blocks and opens random cells of a maze, the goal included,
+     *                and updates the field after every batch.
+     * Expected Output: The updated field has the costs of a field built from scratch and every
+     *                  step goes to a neighbour one step closer.
+     */
+    @Test
+    public void testIncrementalUpdates() {
+
+        Random random = new Random(43);
+        int width = 60;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+
+        for (int id = 0; id < width * width; id++) {
+            if (random.nextDouble() < 0.25) {
+                maze.setBlocked(new int[]{id}, true);
+            }
+        }
+        maze.setBlocked(new int[]{30 * width + 30}, false);
+
+        FlowField field = FlowField.build(maze, new Point(30, 30), new ManhattanCalculator());
+
+        for (int round = 0; round < 40; round++) {
+
+            int[] cells = new int[1 + random.nextInt(8)];
+            boolean[] flags = new boolean[cells.length];
+
+            for (int k = 0; k < cells.length; k++) {
+                cells[k] = random.nextInt(width * width);
+                flags[k] = random.nextDouble() < 0.6;
+            }
+
+            // Now and then close the goal or open it again:
+            if (round % 10 == 4) {
+                cells[0] = 30 * width + 30;
+                flags[0] = true;
+            }
+            if (round % 10 == 6) {
+                cells[0] = 30 * width + 30;
+                flags[0] = false;
+            }
+
+            maze.setBlocked(cells, flags);
+            field.update(cells);
+
+            assertEquals(maze.getVersion(), field.getVersion());
+
+            if (maze.isBlocked(30 * width + 30)) {
+                for (int cell = 0; cell < width * width; cell++) {
+                    assertFalse(field.isReachable(cell));
+                }
+            }
+            else {
+                FlowField expected = FlowField.build(maze, new Point(30, 30), new ManhattanCalculator());
+                assertArrayEquals(this.distances(expected, maze.size()), this.distances(field, maze.size()));
+            }
+
+            for (int cell = 0; cell < width * width; cell++) {
+                int next = field.nextCell(cell);
+                if (next != -1) {
+                    assertFalse(maze.isBlocked(next));
+                    assertEquals(field.getDistance(cell) - 1, field.getDistance(next));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application asks a cache that holds two fields for three goals, changes the
+     *                maze and asks again, then asks a cache too small for any field.
+     * Expected Output: The least recently used field is dropped, a kept field is repaired in place,
+     *                  and a field larger than the bound is not kept.
+     */
+    @Test
+    public void testCache() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        FlowFieldCache cache = new FlowFieldCache(new ManhattanCalculator(), 2 * 5 * 240);
+
+        FlowField first = cache.get(maze, new Point(11, 19));
+        FlowField second = cache.get(maze, new Point(0, 0));
+
+        assertSame(first, cache.get(maze, new Point(11, 19)));
+        assertEquals(2, cache.size());
+        assertEquals(2 * 5 * 240, cache.getBytes());
+
+        // The field of (0, 0) is the least recently used one now:
+        cache.get(maze, new Point(5, 0));
+        assertEquals(2, cache.size());
+        assertNotSame(second, cache.get(maze, new Point(0, 0)));
+
+        // Block the route of the start along the field:
+        FlowField field = cache.get(maze, new Point(11, 19));
+        int blocked = field.nextCell(field.nextCell(0));
+        maze.setBlocked(new int[]{blocked}, true);
+
+        assertSame(field, cache.get(maze, new Point(11, 19)));
+        FlowField expected = FlowField.build(maze, new Point(11, 19), new ManhattanCalculator());
+        assertArrayEquals(this.distances(expected, maze.size()), this.distances(field, maze.size()));
+        assertEquals(FlowField.UNREACHABLE, field.getDistance(blocked));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+
+        FlowFieldCache tiny = new FlowFieldCache(new ManhattanCalculator(), 100);
+        assertNotNull(tiny.get(maze, new Point(11, 19)));
+        assertEquals(0, tiny.size());
+    }
+
+
+    /**
+     * Test Scenario: The application keeps changing the maze of a cached field that nobody asks for.
+     * Expected Output: The queue of changed cells stops at an eighth of the maze, and the field asked
+     *                  for afterwards is built again and up to date.
+     */
+    @Test
+    public void testCachePendingBound() {
+
+        int width = 20;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        FlowFieldCache cache = new FlowFieldCache(new ManhattanCalculator(), 1 << 20);
+        FlowField field = cache.get(maze, new Point(0, 0));
+
+        for (int j = 1; j < width; j++) {
+            maze.setBlocked(new int[]{width + j, 3 * width + j - 1}, true);
+        }
+        assertEquals(2 * (width - 1), cache.pendingCells());
+
+        for (int j = 1; j < width; j++) {
+            maze.setBlocked(new int[]{5 * width + j}, true);
+        }
+        assertEquals(0, cache.pendingCells());
+
+        assertSame(field, cache.get(maze, new Point(0, 0)));
+        FlowField expected = FlowField.build(maze, new Point(0, 0), new ManhattanCalculator());
+        assertArrayEquals(this.distances(expected, maze.size()), this.distances(field, maze.size()));
+    }
+
+
+    private int[] distances(FlowField field, int size) {
+
+        int[] distances = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            distances[cell] = field.getDistance(cell);
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,195 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for GoalBounding.
+ */
+public class GoalBoundingTest {
+
+    /**
+     * Test Scenario: The application builds the tables of the 3x3 test maze.
+     * Expected Output: Every target of the start lies beyond its move to the north, none beyond the blocked
+     *                  cell, and A* with the tables finds the usual route.
+     */
+    @Test
+    public void testSmallMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt");
+
+        GoalBounding tables = GoalBounding.build(maze, new ManhattanCalculator());
+
+        assertArrayEquals(new int[]{1, 0, 2, 2}, tables.getBox(0, 2));
+        assertNull(tables.getBox(0, 1));
+        assertTrue(tables.mayLeadTo(0, 2, 2, 2));
+        assertFalse(tables.mayLeadTo(0, 1, 2, 2));
+        assertEquals(3 * 3 * 32, tables.memoryBytes());
+
+        AStarPathFinder astar = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), tables);
+        assertArrayEquals(new int[]{0, 3, 4, 5, 8}, astar.find(maze, new Point(0, 0), new Point(2, 2)).toArray());
+    }
+
+
+    /**
+     * Test Scenario: The application builds the tables of a random maze with one worker and with 4 threads,
+     *                and runs A* with and without them between random cells.
+     * Expected Output: The same tables, routes of the same cost, and far fewer expansions with the tables.
+     */
+    @Test
+    public void testPruning() {
+
+        Random random = new Random(49);
+        int width = 50;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        for (int id = 0; id < width * width; id++) {
+            if (random.nextDouble() < 0.3) {
+                maze.setBlocked(new int[]{id}, true);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            GoalBounding sequential = GoalBounding.build(maze, new ManhattanCalculator(), Runnable::run, 1);
+            GoalBounding parallel = GoalBounding.build(maze, new ManhattanCalculator(), executor, 4);
+
+            for (int cell = 0; cell < width * width; cell++) {
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                    assertArrayEquals(sequential.getBox(cell, n), parallel.getBox(cell, n));
+                }
+            }
+
+            AStarPathFinder plain = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+            AStarPathFinder bounded = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(),
+                                                          parallel);
+            long plainExpansions = 0;
+            long boundedExpansions = 0;
+
+            for (int q = 0; q < 300; q++) {
+
+                Point start = new Point(random.nextInt(width), random.nextInt(width));
+                Point goal = new Point(random.nextInt(width), random.nextInt(width));
+
+                if (start.equals(goal) || maze.isBlocked(start.i * width + start.j)
+                        || maze.isBlocked(goal.i * width + goal.j)) {
+                    continue;
+                }
+
+                SearchBudget plainBudget = new SearchBudget(SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+                SearchBudget boundedBudget = new SearchBudget(SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+
+                Route expected = plain.find(maze, start, goal, plainBudget);
+                Route route = bounded.find(maze, start, goal, boundedBudget);
+
+                assertEquals(expected.size(), route.size());
+                plainExpansions += plainBudget.getExpandedNodes();
+                boundedExpansions += boundedBudget.getExpandedNodes();
+            }
+
+            assertTrue(2 * boundedExpansions < plainExpansions);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application builds the tables of an open 3x5 maze, then searches another maze of
+     *                the same size, and the same maze after blocking two cells.
+     * Expected Output: An IllegalArgumentException for the other maze and an IllegalStateException after
+     *                  the change, instead of a search pruned by stale boxes.
+     */
+    @Test
+    public void testStaleTables() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(3, 5), 3, 5);
+        Maze other = new Maze(new CopyOnWriteMazeStorage(3, 5), 3, 5);
+        GoalBounding tables = GoalBounding.build(maze, new ManhattanCalculator());
+        AStarPathFinder astar = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), tables);
+
+        assertEquals(5, astar.find(maze, new Point(0, 0), new Point(0, 4)).size());
+
+        try {
+            astar.find(other, new Point(0, 0), new Point(0, 4));
+            fail("Tables must not prune another maze.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        maze.setBlocked(new int[]{2, 7}, true);
+
+        try {
+            astar.find(maze, new Point(0, 0), new Point(0, 4));
+            fail("Tables must not prune a maze that changed.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application saves the tables of the test maze next to its file, loads them back,
+     *                and loads them for a maze of another size and from a file that holds no tables.
+     * Expected Output: The loaded tables hold the same boxes, and the other loads get an IOException.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        Maze small = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt");
+        GoalBounding tables = GoalBounding.build(maze, new ManhattanCalculator());
+
+        File mazeFile = File.createTempFile("maze", ".txt");
+        File file = GoalBounding.fileOf(mazeFile);
+
+        try {
+            tables.save(file);
+            GoalBounding loaded = GoalBounding.load(file, maze);
+
+            for (int cell = 0; cell < maze.size(); cell++) {
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                    assertArrayEquals(tables.getBox(cell, n), loaded.getBox(cell, n));
+                }
+            }
+
+            try {
+                GoalBounding.load(file, small);
+                fail("Tables of another maze size must be rejected.");
+            } catch (IOException e) {
+                // Expected.
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                out.writeInt(42);
+            }
+
+            try {
+                GoalBounding.load(file, maze);
+                fail("A file that holds no tables must be rejected.");
+            } catch (IOException e) {
+                // Expected.
+            }
+        } finally {
+            file.delete();
+            mazeFile.delete();
+        }
+    }
+}
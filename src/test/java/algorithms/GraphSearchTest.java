@@ -0,0 +1,190 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import maze.ZOrderMazeStorage;
+import org.junit.Test;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for GraphSearch, CsrGraph and MazeGraph.
+ */
+public class GraphSearchTest {
+
+    /**
+     * Test Scenario: The application builds a small waypoint graph whose direct edge is dearer than a detour,
+     *                and searches it with Dijkstra and with A* on the waypoint coordinates.
+     * Expected Output: Both take the detour, the costs are the Dijkstra ones, and the node without
+     *                  edges cannot be reached.
+     */
+    @Test
+    public void testWaypointGraph() {
+
+        // Waypoints on a line at x = 0, 3, 5, 9 and 12, the last one unconnected:
+        final int[] x = {0, 3, 5, 9, 12};
+
+        CsrGraph graph = new CsrGraph.Builder(5)
+                .addEdges(0, 3, 20)
+                .addEdges(0, 1, 3)
+                .addEdges(1, 2, 2)
+                .addEdges(2, 3, 4)
+                .build();
+
+        assertEquals(5, graph.nodeCount());
+        assertEquals(8, graph.edgeCount());
+
+        GraphSearch search = new GraphSearch();
+        NodeHeuristic straightLine = (node, goal) -> Math.abs(x[node] - x[goal]);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, search.find(graph, 0, 3, NodeHeuristic.ZERO).toArray());
+        assertArrayEquals(new int[]{0, 1, 2, 3}, search.find(graph, 0, 3, straightLine).toArray());
+        assertArrayEquals(new int[]{3, 2, 1, 0}, search.find(graph, 3, 0, straightLine).toArray());
+        assertTrue(search.find(graph, 0, 4, straightLine).empty());
+
+        assertArrayEquals(new int[]{0, 3, 5, 9, GraphSearch.UNREACHABLE},
+                          search.distances(graph, 0, SearchBudget.unlimited()));
+    }
+
+
+    /**
+     * Test Scenario: The application searches the graph of the test maze, directly and copied into CSR arrays,
+     *                with every open list type.
+     * Expected Output: The route of the A* path finder, and the breadth-first costs from the goal.
+     */
+    @Test
+    public void testMazeGraph() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        int width = maze.getyWidth();
+
+        MazeGraph graph = new MazeGraph(maze, new ManhattanCalculator());
+        CsrGraph copy = CsrGraph.copyOf(graph);
+        NodeHeuristic manhattan = (node, goal) -> Math.abs(node / width - goal / width)
+                                                  + Math.abs(node % width - goal % width);
+
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+
+        for (OpenListType type : OpenListType.values()) {
+
+            GraphSearch search = new GraphSearch(type, TieBreaking.LARGER_G);
+
+            assertEquals(expected.size(), search.find(graph, 0, 239, manhattan).size());
+            assertEquals(expected.size(), search.find(copy, 0, 239, manhattan).size());
+            assertTrue(search.find(graph, 0, 13, manhattan).empty());
+        }
+
+        BFSTree tree = new ParallelBFSPathFinder().flood(maze, new Point(11, 19));
+        GraphSearch search = new GraphSearch();
+
+        assertArrayEquals(tree.getDistances(), search.distances(graph, 239, SearchBudget.unlimited()));
+        assertArrayEquals(tree.getDistances(), search.distances(copy, 239, SearchBudget.unlimited()));
+
+        // The graph follows the maze:
+        maze.setBlocked(new int[]{1}, true);
+        assertEquals(GraphSearch.UNREACHABLE, search.distances(graph, 239, SearchBudget.unlimited())[1]);
+    }
+
+
+    /**
+     * Test Scenario: The application keeps the same wide random maze row-major and in a ZOrderMazeStorage,
+     *                and runs A*, Dijkstra and a search that runs out of budget on both.
+     * Expected Output: The same routes of row-major cell ids, and a partial route of row-major ids
+     *                  from the start.
+     */
+    @Test
+    public void testZOrderMaze() {
+
+        Random random = new Random(50);
+        int xWidth = 24;
+        int yWidth = 900;
+        Maze rowMajor = new Maze(new CopyOnWriteMazeStorage(xWidth, yWidth), xWidth, yWidth);
+        Maze zOrder = new Maze(new ZOrderMazeStorage(xWidth, yWidth), xWidth, yWidth);
+
+        for (int id = 0; id < xWidth * yWidth; id++) {
+            if (random.nextDouble() < 0.25) {
+                rowMajor.setBlocked(new int[]{id}, true);
+                zOrder.setBlocked(new int[]{id}, true);
+            }
+        }
+        rowMajor.setBlocked(new int[]{0, xWidth * yWidth - 1}, false);
+        zOrder.setBlocked(new int[]{0, xWidth * yWidth - 1}, false);
+
+        MazeGraph graph = new MazeGraph(zOrder, new ManhattanCalculator());
+        assertEquals(2 * 16 * 57 * 16, graph.nodeCount());
+        assertEquals(xWidth * yWidth - 1, graph.cellOf(graph.nodeOf(xWidth * yWidth - 1)));
+
+        BestFirstPathFinder[] finders = {
+            new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator()),
+            new DijkstraPathFinder(new ManhattanCalculator())
+        };
+
+        for (BestFirstPathFinder finder : finders) {
+            for (int q = 0; q < 20; q++) {
+
+                Point start = new Point(random.nextInt(xWidth), random.nextInt(yWidth));
+                Point goal = new Point(random.nextInt(xWidth), random.nextInt(yWidth));
+
+                if (start.equals(goal) || rowMajor.isBlocked(start.i * yWidth + start.j)
+                        || rowMajor.isBlocked(goal.i * yWidth + goal.j)) {
+                    continue;
+                }
+
+                assertArrayEquals(finder.find(rowMajor, start, goal).toArray(),
+                                  finder.find(zOrder, start, goal).toArray());
+            }
+        }
+
+        try {
+            finders[1].find(zOrder, new Point(0, 0), new Point(xWidth - 1, yWidth - 1), new SearchBudget(200, SearchBudget.UNLIMITED));
+            fail("The budget must run out.");
+        } catch (SearchBudgetExceededException e) {
+            Route partial = e.getPartialRoute();
+            assertEquals(0, partial.getCell(0));
+            for (int k = 1; k < partial.size(); k++) {
+                int a = partial.getCell(k - 1);
+                int b = partial.getCell(k);
+                assertFalse(zOrder.isBlocked(b));
+                assertEquals(1, Math.abs(a / yWidth - b / yWidth) + Math.abs(a % yWidth - b % yWidth));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application gives edges outside the graph, negative costs and offsets that do
+     *                not match the edges.
+     * Expected Output: An IllegalArgumentException every time.
+     */
+    @Test
+    public void testInvalidGraphs() {
+
+        Runnable[] cases = {
+            () -> new CsrGraph.Builder(2).addEdge(0, 2, 1),
+            () -> new CsrGraph.Builder(2).addEdge(0, 1, -1),
+            () -> new CsrGraph(new int[]{0, 2}, new int[]{1}, new int[]{1}),
+            () -> new CsrGraph(new int[]{0, 1}, new int[]{1}, new int[]{1}),
+            () -> new GraphSearch().find(new CsrGraph.Builder(1).build(), 0, 1, NodeHeuristic.ZERO)
+        };
+
+        for (Runnable c : cases) {
+            try {
+                c.run();
+                fail("An invalid graph or query must be rejected.");
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import utilities.Pair;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static utilities.Utils.makePair;
+
+/**
+ * Unit tests for the primitive grid calculators.
+ */
+public class GridCalculatorTest {
+
+    private static final double TOLERANCE = 1.0e-9;
+
+    /**
+     * Test Scenario: The application computes the distance between two cells with every metric.
+     * Expected Output: The primitive, Point and heuristic forms agree with the textbook values.
+     */
+    @Test
+    public void testDistances() {
+
+        Point p1 = new Point(1, 2);
+        Point p2 = new Point(4, 6);
+
+        assertEquals(5.0, new EuclideanCalculator().calculateDistance(1, 2, 4, 6), TOLERANCE);
+        assertEquals(7.0, new ManhattanCalculator().calculateDistance(1, 2, 4, 6), TOLERANCE);
+        assertEquals(4.0, new ChebyshevCalculator().calculateDistance(1, 2, 4, 6), TOLERANCE);
+        assertEquals(4.0 + 3.0 * (Math.sqrt(2.0) - 1.0),
+                new OctileCalculator().calculateDistance(1, 2, 4, 6), TOLERANCE);
+
+        GridCalculator[] calculators = {new EuclideanCalculator(), new ManhattanCalculator(),
+                new ChebyshevCalculator(), new OctileCalculator()};
+
+        for (GridCalculator calculator : calculators) {
+
+            double expected = calculator.calculateDistance(1, 2, 4, 6);
+
+            assertEquals(expected, calculator.calculateDistance(p1, p2), TOLERANCE);
+            assertEquals(expected, calculator.heuristicOut(makePair(p1, p2)), TOLERANCE);
+            assertEquals((int) expected, calculator.estimate(1, 2, 4, 6));
+
+            // Cell ids on a maze with 10 cells in y direction:
+            assertEquals(expected, calculator.calculateDistance(12, 46, 10), TOLERANCE);
+            assertEquals((int) expected, calculator.estimate(12, 46, 10));
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application adapts Point based calculators that know nothing of the grid.
+     * Expected Output: The adapters give the same values as the wrapped calculators.
+     */
+    @Test
+    public void testAdapters() {
+
+        DistanceCalculator distance = new DistanceCalculator() {
+            @Override
+            public double calculateDistance(Point p1, Point p2) {
+                return Math.abs(p1.i - p2.i) + Math.abs(p1.j - p2.j);
+            }
+        };
+
+        HeuristicFunction<Pair<Point, Point>, Double> heuristic = new HeuristicFunction<Pair<Point, Point>, Double>() {
+            @Override
+            public Double heuristicOut(Pair<Point, Point> in) {
+                return 0.5 * distance.calculateDistance(in.first, in.second);
+            }
+        };
+
+        assertEquals(7.0, GridAdapters.toGridDistance(distance).calculateDistance(1, 2, 4, 6), TOLERANCE);
+        assertEquals(3, GridAdapters.toGridHeuristic(heuristic).estimate(1, 2, 4, 6));
+
+        ManhattanCalculator manhattan = new ManhattanCalculator();
+        assertSame(manhattan, GridAdapters.toGridDistance(manhattan));
+        assertSame(manhattan, GridAdapters.toGridHeuristic(manhattan));
+    }
+
+
+    /**
+     * Test Scenario: The application uses A* with the Manhattan heuristic.
+     * Expected Output: The same route as with the Euclidean heuristic is computed.
+     */
+    @Test
+    public void testAStarWithManhattan() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        PathFinder finder = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+
+        int[] cellIDs = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11,
+                12, 32, 52, 53, 54, 55, 56, 57, 58,
+                59, 79, 99, 119, 139, 159, 179, 199, 219, 239};
+
+        assertEquals(cellIDs.length, route.size());
+
+        for (int i = 0; i < route.size(); ++i) {
+            assertEquals(cellIDs[i], route.getItem(i).intValue());
+        }
+    }
+}
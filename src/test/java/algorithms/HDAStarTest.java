@@ -0,0 +1,105 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for HDAStarPathFinder.
+ */
+public class HDAStarTest {
+
+    /**
+     * Test Scenario: The application finds the route of the test maze with several numbers of workers.
+     * Expected Output: The same route as A*.
+     */
+    @Test
+    public void testSameRouteAsAStar() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+
+        for (int threads = 1; threads <= 4; threads++) {
+            PathFinder finder = new HDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), threads);
+            assertArrayEquals(expected.toArray(), finder.find(maze, new Point(0, 0), new Point(11, 19)).toArray());
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application searches random mazes with 4 workers, some without a route.
+     * Expected Output: Routes are valid and as short as the A* ones, and empty when A* finds none.
+     */
+    @Test
+    public void testRandomMazes() {
+
+        Random random = new Random(17);
+        PathFinder reference = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        PathFinder finder = new HDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), 4);
+
+        for (int t = 0; t < 10; t++) {
+
+            int width = 100;
+            Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+            double density = 0.2 + 0.03 * t;
+
+            for (int id = 1; id < width * width - 1; id++) {
+                if (random.nextDouble() < density) {
+                    maze.setBlocked(new int[]{id}, true);
+                }
+            }
+
+            Point start = new Point(0, 0);
+            Point goal = new Point(width - 1, width - 1);
+
+            Route expected = reference.find(maze, start, goal);
+            Route route = finder.find(maze, start, goal);
+
+            assertEquals(expected.size(), route.size());
+
+            for (int k = 1; k < route.size(); k++) {
+                int a = route.getCell(k - 1);
+                int b = route.getCell(k);
+                assertFalse(maze.isBlocked(b));
+                assertEquals(1, Math.abs(a / width - b / width) + Math.abs(a % width - b % width));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application cancels the budget of a query before it starts.
+     * Expected Output: SearchBudgetExceededException with the CANCELLED reason.
+     */
+    @Test
+    public void testCancelled() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(500, 500), 500, 500);
+        PathFinder finder = new HDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), 2);
+
+        SearchBudget budget = SearchBudget.unlimited();
+        budget.cancel();
+
+        try {
+            finder.find(maze, new Point(0, 0), new Point(499, 499), budget);
+            fail("A cancelled budget must stop the search.");
+        } catch (SearchBudgetExceededException e) {
+            assertEquals(SearchBudgetExceededException.Reason.CANCELLED, e.getReason());
+        }
+    }
+}
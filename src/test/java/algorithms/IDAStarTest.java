@@ -0,0 +1,106 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for IDAStarPathFinder.
+ */
+public class IDAStarTest {
+
+    /**
+     * Test Scenario: The application finds the routes of the test mazes with a small transposition table.
+     * Expected Output: The same routes as A*.
+     */
+    @Test
+    public void testSameRoutesAsAStar() throws IOException {
+
+        File directory = new File("./");
+        PathFinder finder = new IDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), 4096);
+
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+        assertArrayEquals(expected.toArray(), route.toArray());
+
+        maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3_lower_right_blocked.txt");
+        assertArrayEquals(new int[]{0, 3, 6, 7, 8}, finder.find(maze, new Point(0, 0), new Point(2, 2)).toArray());
+    }
+
+
+    /**
+     * Test Scenario: The application searches random mazes with tables from a few entries to plenty.
+     * Expected Output: Every table size gives a route as short as A*, or none when A* finds none.
+     */
+    @Test
+    public void testTableSizes() {
+
+        Random random = new Random(5);
+        PathFinder reference = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        for (int t = 0; t < 5; t++) {
+
+            Maze maze = new Maze(new CopyOnWriteMazeStorage(20, 20), 20, 20);
+            for (int id = 1; id < 399; id++) {
+                if (random.nextDouble() < 0.3) {
+                    maze.setBlocked(new int[]{id}, true);
+                }
+            }
+
+            Route expected = reference.find(maze, new Point(0, 0), new Point(19, 19));
+
+            for (long bytes : new long[]{16 * 256, 16 * 1024, 1 << 20}) {
+
+                IDAStarPathFinder finder = new IDAStarPathFinder(new ManhattanCalculator(),
+                                                                 new ManhattanCalculator(), bytes);
+                assertEquals(bytes / IDAStarPathFinder.ENTRY_BYTES, finder.getTableEntries());
+
+                Route route = finder.find(maze, new Point(0, 0), new Point(19, 19));
+                assertEquals(expected.size(), route.size());
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application searches with a budget that runs out and with a too small table.
+     * Expected Output: SearchBudgetExceededException with a partial route from the start,
+     *                  and IllegalArgumentException for the table.
+     */
+    @Test
+    public void testLimits() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        PathFinder finder = new IDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), 4096);
+
+        try {
+            finder.find(maze, new Point(0, 0), new Point(11, 19), new SearchBudget(10, SearchBudget.UNLIMITED));
+            fail("The budget cannot be enough for a route.");
+        } catch (SearchBudgetExceededException e) {
+            assertEquals(0, e.getPartialRoute().getCell(0));
+        }
+
+        try {
+            new IDAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), 8);
+            fail("A table needs room for one entry.");
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for JunctionGraph.
+ */
+public class JunctionGraphTest {
+
+    /**
+     * Test Scenario: The application compiles the test maze and asks for every pair of open cells.
+     * Expected Output: Every route is a chain of open neighbours as cheap as the distance matrix says,
+     *                  and pairs without a route get an empty one.
+     */
+    @Test
+    public void testAllPairs() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        int width = maze.getyWidth();
+
+        JunctionGraph graph = JunctionGraph.build(maze, new ManhattanCalculator());
+
+        Point[] open = this.openPoints(maze);
+        DistanceMatrix matrix = new DistanceMatrixFinder(new ManhattanCalculator()).compute(maze, open, open);
+
+        for (int s = 0; s < open.length; s++) {
+            for (int t = 0; t < open.length; t++) {
+
+                if (s == t) {
+                    continue;
+                }
+
+                Route route = graph.find(maze, open[s], open[t]);
+
+                if (!matrix.isReachable(s, t)) {
+                    assertTrue(route.empty());
+                    continue;
+                }
+
+                this.checkRoute(maze, route, matrix.get(s, t));
+                assertEquals(open[s].i * width + open[s].j, route.getCell(0));
+                assertEquals(open[t].i * width + open[t].j, route.getCell(route.size() - 1));
+            }
+        }
+
+        assertEquals(31, graph.find(maze, new Point(0, 0), new Point(11, 19)).size());
+    }
+
+
+    /**
+     * Test Scenario: The application compiles a generated perfect maze, and the same maze with a few
+     *                walls knocked out, and asks for random pairs of cells.
+     * Expected Output: The perfect maze keeps a single node, the one with loops at least 10 times
+     *                  fewer nodes than open cells, and every route is a shortest one.
+     */
+    @Test
+    public void testPerfectMaze() {
+
+        Random random = new Random(47);
+        int width = 81;
+        Maze maze = this.perfectMaze(width, random);
+
+        JunctionGraph perfect = JunctionGraph.build(maze, new ManhattanCalculator());
+        assertEquals(1, perfect.getNodeCount());
+        assertEquals(this.openPoints(maze).length - 1, perfect.getRemovedCount());
+        this.checkRandomQueries(maze, perfect, random, 300);
+
+        // Knock out some walls between two corridors to make loops:
+        for (int k = 0; k < 60; k++) {
+            int i = 1 + random.nextInt(width - 2);
+            int j = 1 + 2 * random.nextInt((width - 2) / 2);
+            if (i % 2 == 0) {
+                maze.setBlocked(new int[]{i * width + j}, false);
+            }
+        }
+
+        JunctionGraph looped = JunctionGraph.build(maze, new ManhattanCalculator());
+        assertTrue(looped.getNodeCount() > 1);
+        assertTrue(looped.getNodeCount() * 10 <= this.openPoints(maze).length);
+        this.checkRandomQueries(maze, looped, random, 300);
+    }
+
+
+    /**
+     * Test Scenario: The application compiles random mazes with open areas and asks for random pairs of cells.
+     * Expected Output: Every route is as cheap as the breadth-first distance, and empty without one.
+     */
+    @Test
+    public void testRandomMazes() {
+
+        Random random = new Random(48);
+
+        for (double density : new double[]{0.2, 0.35, 0.45}) {
+
+            int width = 40;
+            Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+            for (int id = 0; id < width * width; id++) {
+                if (random.nextDouble() < density) {
+                    maze.setBlocked(new int[]{id}, true);
+                }
+            }
+
+            this.checkRandomQueries(maze, JunctionGraph.build(maze, new ManhattanCalculator()), random, 400);
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application compiles the test maze, changes it and asks again, and asks for another maze.
+     * Expected Output: An IllegalStateException and an IllegalArgumentException.
+     */
+    @Test
+    public void testStaleGraph() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        Maze other = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        JunctionGraph graph = JunctionGraph.build(maze, new ManhattanCalculator());
+
+        try {
+            graph.find(other, new Point(0, 0), new Point(11, 19));
+            fail("A graph must not answer for another maze.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        maze.setBlocked(new int[]{1}, true);
+
+        try {
+            graph.find(maze, new Point(0, 0), new Point(11, 19));
+            fail("A graph must not answer after its maze changed.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+
+    private void checkRandomQueries(Maze maze, JunctionGraph graph, Random random, int queries) {
+
+        int width = maze.getyWidth();
+        Point[] open = this.openPoints(maze);
+
+        for (int q = 0; q < queries; q++) {
+
+            Point start = open[random.nextInt(open.length)];
+            Point goal = open[random.nextInt(open.length)];
+
+            if (start.equals(goal)) {
+                continue;
+            }
+
+            FlowField field = FlowField.build(maze, goal, new ManhattanCalculator());
+            Route route = graph.find(maze, start, goal);
+            int distance = field.getDistance(start.i * width + start.j);
+
+            if (distance == FlowField.UNREACHABLE) {
+                assertTrue(route.empty());
+                continue;
+            }
+
+            this.checkRoute(maze, route, distance);
+            assertEquals(start.i * width + start.j, route.getCell(0));
+            assertEquals(goal.i * width + goal.j, route.getCell(route.size() - 1));
+        }
+    }
+
+
+    /**
+     * @return A maze of odd width carved by a random depth-first walk, cells at odd coordinates being rooms.
+     */
+    private Maze perfectMaze(int width, Random random) {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        boolean[] blocked = new boolean[width * width];
+        int[] cells = new int[width * width];
+        for (int id = 0; id < width * width; id++) {
+            cells[id] = id;
+            blocked[id] = true;
+        }
+
+        int[] stack = new int[width * width];
+        int top = 0;
+        stack[top++] = width + 1;
+        blocked[width + 1] = false;
+
+        int[][] steps = {{0, 2}, {2, 0}, {0, -2}, {-2, 0}};
+
+        while (top > 0) {
+
+            int cell = stack[top - 1];
+            int i = cell / width;
+            int j = cell % width;
+            int[] options = new int[4];
+            int count = 0;
+
+            for (int k = 0; k < 4; k++) {
+                int ni = i + steps[k][0];
+                int nj = j + steps[k][1];
+                if (ni > 0 && nj > 0 && ni < width - 1 && nj < width - 1 && blocked[ni * width + nj]) {
+                    options[count++] = k;
+                }
+            }
+
+            if (count == 0) {
+                top--;
+                continue;
+            }
+
+            int k = options[random.nextInt(count)];
+            int next = (i + steps[k][0]) * width + j + steps[k][1];
+            blocked[(i + steps[k][0] / 2) * width + j + steps[k][1] / 2] = false;
+            blocked[next] = false;
+            stack[top++] = next;
+        }
+
+        maze.setBlocked(cells, blocked);
+        return maze;
+    }
+
+
+    private void checkRoute(Maze maze, Route route, int cost) {
+
+        int width = maze.getyWidth();
+        assertEquals(cost + 1, route.size());
+
+        for (int k = 1; k < route.size(); k++) {
+            int a = route.getCell(k - 1);
+            int b = route.getCell(k);
+            assertFalse(maze.isBlocked(b));
+            assertEquals(1, Math.abs(a / width - b / width) + Math.abs(a % width - b % width));
+        }
+    }
+
+
+    private Point[] openPoints(Maze maze) {
+
+        int width = maze.getyWidth();
+        int count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                count++;
+            }
+        }
+
+        Point[] points = new Point[count];
+        count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                points[count++] = new Point(id / width, id % width);
+            }
+        }
+        return points;
+    }
+}
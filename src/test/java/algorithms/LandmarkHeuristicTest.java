@@ -0,0 +1,206 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LandmarkHeuristic.
+ */
+public class LandmarkHeuristicTest {
+
+    /**
+     * Test Scenario: The application places 4 landmarks on an open 10x10 maze.
+     * Expected Output: The landmarks are the 4 corners and the estimates are the Manhattan distances.
+     */
+    @Test
+    public void testFarthestPointSelection() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(10, 10), 10, 10);
+        LandmarkHeuristic heuristic = LandmarkHeuristic.build(maze, 4, new ManhattanCalculator());
+
+        int[] landmarks = heuristic.getLandmarks();
+        Arrays.sort(landmarks);
+
+        assertArrayEquals(new int[]{0, 9, 90, 99}, landmarks);
+        assertEquals(2L * 4 * 100, heuristic.memoryBytes());
+        assertEquals(9, heuristic.estimate(0, 0, 9, 0));
+        assertEquals(18, heuristic.estimate(0, 0, 9, 9));
+        assertEquals(7, heuristic.estimate(3, 4, 7, 7));
+    }
+
+
+    /**
+     * Test Scenario: The application runs A* with landmarks on random mazes, one of them cut in two.
+     * Expected Output: Every estimate is a lower bound of the Dijkstra cost and A* finds routes as cheap as Dijkstra.
+     */
+    @Test
+    public void testAdmissible() {
+
+        Random random = new Random(44);
+        DijkstraPathFinder dijkstra = new DijkstraPathFinder(new ManhattanCalculator());
+        int width = 50;
+
+        for (int t = 0; t < 3; t++) {
+
+            Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+            for (int id = 0; id < width * width; id++) {
+                if (random.nextDouble() < 0.3) {
+                    maze.setBlocked(new int[]{id}, true);
+                }
+            }
+
+            // Cut the last maze in two with a wall:
+            if (t == 2) {
+                for (int j = 0; j < width; j++) {
+                    maze.setBlocked(new int[]{25 * width + j}, true);
+                }
+            }
+
+            LandmarkHeuristic heuristic = LandmarkHeuristic.build(maze, 6, new ManhattanCalculator());
+            AStarPathFinder alt = new AStarPathFinder(new ManhattanCalculator(), heuristic);
+
+            for (int q = 0; q < 40; q++) {
+
+                Point start = this.openPoint(maze, random);
+                Point goal = this.openPoint(maze, random);
+
+                Route expected = dijkstra.find(maze, start, goal);
+                Route route = alt.find(maze, start, goal);
+
+                assertEquals(expected.size(), route.size());
+
+                if (!expected.empty()) {
+                    assertTrue(heuristic.estimate(start.i, start.j, goal.i, goal.j) <= expected.size() - 1);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application searches around a long wall, with Manhattan and with landmarks.
+     * Expected Output: Same route cost, and landmarks expand at least 5 times fewer cells.
+     */
+    @Test
+    public void testFewerExpansions() {
+
+        int width = 60;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+
+        // A wall down the middle with a gap in the last row only:
+        for (int i = 0; i < width - 1; i++) {
+            maze.setBlocked(new int[]{i * width + width / 2}, true);
+        }
+
+        Point start = new Point(0, width / 2 - 1);
+        Point goal = new Point(0, width / 2 + 1);
+
+        SearchBudget manhattanBudget = SearchBudget.unlimited();
+        Route manhattan = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, start, goal, manhattanBudget);
+
+        LandmarkHeuristic heuristic = LandmarkHeuristic.build(maze, 4, new ManhattanCalculator());
+        SearchBudget altBudget = SearchBudget.unlimited();
+        Route alt = new AStarPathFinder(new ManhattanCalculator(), heuristic).find(maze, start, goal, altBudget);
+
+        assertEquals(manhattan.size(), alt.size());
+        assertTrue(altBudget.getExpandedNodes() * 5 <= manhattanBudget.getExpandedNodes());
+    }
+
+
+    /**
+     * Test Scenario: The application saves tables next to a maze file, loads them, and loads them for another maze.
+     * Expected Output: The loaded tables give the same estimates, and a maze of another size gets an IOException.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+
+        Random random = new Random(45);
+        int width = 30;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        for (int id = 0; id < width * width; id++) {
+            if (random.nextDouble() < 0.25) {
+                maze.setBlocked(new int[]{id}, true);
+            }
+        }
+
+        LandmarkHeuristic heuristic = LandmarkHeuristic.build(maze, 5, new ManhattanCalculator());
+
+        File mazeFile = File.createTempFile("maze", ".txt");
+        File file = LandmarkHeuristic.fileOf(mazeFile);
+
+        try {
+            assertTrue(file.getName().endsWith(LandmarkHeuristic.FILE_SUFFIX));
+            heuristic.save(file);
+
+            LandmarkHeuristic loaded = LandmarkHeuristic.load(file, maze);
+
+            assertArrayEquals(heuristic.getLandmarks(), loaded.getLandmarks());
+            for (int cell = 0; cell < width * width; cell++) {
+                for (int l = 0; l < 5; l++) {
+                    assertEquals(heuristic.getCost(cell, l), loaded.getCost(cell, l));
+                }
+                assertEquals(heuristic.estimate(cell, 0, width), loaded.estimate(cell, 0, width));
+            }
+
+            try {
+                LandmarkHeuristic.load(file, new Maze(new CopyOnWriteMazeStorage(10, 10), 10, 10));
+                fail("Tables of another maze must be rejected.");
+            } catch (IOException e) {
+                // Expected.
+            }
+        } finally {
+            file.delete();
+            mazeFile.delete();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application builds tables with a wall, opens a cell of the wall and estimates again.
+     * Expected Output: IllegalStateException is thrown instead of an estimate that may be too large.
+     */
+    @Test
+    public void testStaleTables() {
+
+        int width = 10;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        for (int i = 0; i < width - 1; i++) {
+            maze.setBlocked(new int[]{i * width + width / 2}, true);
+        }
+
+        LandmarkHeuristic heuristic = LandmarkHeuristic.build(maze, 4, new ManhattanCalculator());
+        assertEquals(20, heuristic.estimate(0, 4, 0, 6));
+
+        maze.setBlocked(new int[]{width / 2}, false);
+
+        try {
+            heuristic.estimate(0, 4, 0, 6);
+            fail("Tables of a changed maze must not be used.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+
+    private Point openPoint(Maze maze, Random random) {
+
+        int width = maze.getyWidth();
+        int id;
+        do {
+            id = random.nextInt(maze.size());
+        } while (maze.isBlocked(id));
+        return new Point(id / width, id % width);
+    }
+}
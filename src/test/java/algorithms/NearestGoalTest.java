@@ -0,0 +1,190 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for NearestGoalPathFinder.
+ */
+public class NearestGoalTest {
+
+    /**
+     * Test Scenario: The application asks for the nearest of the goal of the test maze and a farther cell.
+     * Expected Output: The A* route to the goal, in both directions of the query.
+     */
+    @Test
+    public void testTestMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+
+        NearestGoalPathFinder finder = new NearestGoalPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        assertArrayEquals(expected.toArray(), finder.find(maze, new Point(0, 0), new Point(11, 19)).toArray());
+
+        Route nearest = finder.findNearest(maze, new Point(0, 0), new Point[]{new Point(11, 19), new Point(11, 19)});
+        assertArrayEquals(expected.toArray(), nearest.toArray());
+
+        Route fromNearest = finder.findFromNearest(maze, new Point[]{new Point(11, 19), new Point(0, 0)},
+                                                   new Point(0, 0));
+        assertEquals(1, fromNearest.size());
+        assertEquals(0, fromNearest.getCell(0));
+    }
+
+
+    /**
+     * Test Scenario: The application asks random mazes for the nearest of few and of many goals, and
+     *                for the route from the nearest of many starts.
+     * Expected Output: The cost of the route is the smallest entry of the distance matrix, the route
+     *                  ends at a goal (begins at a start) and every step goes to an open neighbour.
+     */
+    @Test
+    public void testRandomMazes() {
+
+        Random random = new Random(42);
+        NearestGoalPathFinder finder = new NearestGoalPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        DistanceMatrixFinder matrixFinder = new DistanceMatrixFinder(new ManhattanCalculator());
+        int width = 80;
+
+        int[] goalCounts = {3, NearestGoalPathFinder.MAX_EXACT_GOALS + 20};
+
+        for (int goalCount : goalCounts) {
+            for (int t = 0; t < 3; t++) {
+
+                Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+                for (int id = 0; id < width * width; id++) {
+                    if (random.nextDouble() < 0.25) {
+                        maze.setBlocked(new int[]{id}, true);
+                    }
+                }
+
+                Point one = this.openPoint(maze, random);
+                Point[] many = new Point[goalCount];
+                for (int k = 0; k < goalCount; k++) {
+                    many[k] = this.openPoint(maze, random);
+                }
+
+                // The nearest goal:
+                DistanceMatrix matrix = matrixFinder.compute(maze, new Point[]{one}, many);
+                int best = this.smallest(matrix.getCosts());
+                Route route = finder.findNearest(maze, one, many);
+
+                this.checkRoute(maze, route, best);
+                if (best != DistanceMatrix.UNREACHABLE) {
+                    assertEquals(one.i * width + one.j, route.getCell(0));
+                    assertTrue(this.isOneOf(route.getCell(route.size() - 1), many, width));
+                }
+
+                // The nearest start:
+                matrix = matrixFinder.compute(maze, many, new Point[]{one});
+                best = this.smallest(matrix.getCosts());
+                route = finder.findFromNearest(maze, many, one);
+
+                this.checkRoute(maze, route, best);
+                if (best != DistanceMatrix.UNREACHABLE) {
+                    assertTrue(this.isOneOf(route.getCell(0), many, width));
+                    assertEquals(one.i * width + one.j, route.getCell(route.size() - 1));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application asks for the nearest goal when every goal is walled off, and with no goals.
+     * Expected Output: An empty route, and IllegalArgumentException.
+     */
+    @Test
+    public void testNoGoal() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        NearestGoalPathFinder finder = new NearestGoalPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Route reachable = new DijkstraPathFinder(new ManhattanCalculator()).find(maze, new Point(0, 0), new Point(11, 19));
+        assertFalse(reachable.empty());
+
+        // Wall the goal in by blocking every open neighbour:
+        for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+            int nn = maze.neighbourId(239, n);
+            if (nn != -1) {
+                maze.setBlocked(new int[]{nn}, true);
+            }
+        }
+
+        assertTrue(finder.findNearest(maze, new Point(0, 0), new Point[]{new Point(11, 19)}).empty());
+
+        try {
+            finder.findNearest(maze, new Point(0, 0), new Point[0]);
+            fail("A query without goals must be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+
+    private void checkRoute(Maze maze, Route route, int cost) {
+
+        if (cost == DistanceMatrix.UNREACHABLE) {
+            assertTrue(route.empty());
+            return;
+        }
+
+        int width = maze.getyWidth();
+        assertEquals(cost + 1, route.size());
+
+        for (int k = 1; k < route.size(); k++) {
+            int a = route.getCell(k - 1);
+            int b = route.getCell(k);
+            assertFalse(maze.isBlocked(b));
+            assertEquals(1, Math.abs(a / width - b / width) + Math.abs(a % width - b % width));
+        }
+    }
+
+
+    private int smallest(int[] costs) {
+
+        int best = DistanceMatrix.UNREACHABLE;
+        for (int cost : costs) {
+            if (cost != DistanceMatrix.UNREACHABLE && (best == DistanceMatrix.UNREACHABLE || cost < best)) {
+                best = cost;
+            }
+        }
+        return best;
+    }
+
+
+    private boolean isOneOf(int cell, Point[] points, int width) {
+
+        for (Point point : points) {
+            if (point.i * width + point.j == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private Point openPoint(Maze maze, Random random) {
+
+        int width = maze.getyWidth();
+        int id;
+        do {
+            id = random.nextInt(maze.size());
+        } while (maze.isBlocked(id));
+        return new Point(id / width, id % width);
+    }
+}
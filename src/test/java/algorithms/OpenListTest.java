@@ -0,0 +1,205 @@
+package algorithms;
+
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the OpenList implementations.
+ */
+public class OpenListTest {
+
+    /**
+     * Test Scenario: The application pushes, lowers and polls random monotone keys on every open list.
+     * Expected Output: Every open list polls the nodes in the order of their final keys.
+     */
+    @Test
+    public void testPollOrder() {
+
+        int capacity = 500;
+
+        for (OpenListType type : OpenListType.values()) {
+
+            Random random = new Random(42);
+            OpenList open = type.create(capacity);
+            long[] keys = new long[capacity];
+
+            assertEquals(capacity, open.capacity());
+
+            for (int node = 0; node < capacity; node++) {
+                keys[node] = 1000 + random.nextInt(100000);
+                open.push(node, keys[node]);
+            }
+
+            // Lower some of the keys and try to raise some others:
+            for (int node = 0; node < capacity; node += 3) {
+                keys[node] -= random.nextInt(1000);
+                open.push(node, keys[node]);
+                open.push(node + 1, keys[node + 1] + 10);
+            }
+
+            assertEquals(type.name(), capacity, open.size());
+
+            long previous = Long.MIN_VALUE;
+
+            while (!open.isEmpty()) {
+
+                int node = open.pollMin();
+                assertFalse(open.contains(node));
+                assertTrue(type.name(), keys[node] >= previous);
+                previous = keys[node];
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application removes random nodes from every open list and peeks at the minimum.
+     * Expected Output: The removed nodes are gone, peeking does not remove, and the rest poll in key order.
+     */
+    @Test
+    public void testRemoveAndPeek() {
+
+        int capacity = 300;
+
+        for (OpenListType type : OpenListType.values()) {
+
+            Random random = new Random(7);
+            OpenList open = type.create(capacity);
+            long[] keys = new long[capacity];
+
+            for (int node = 0; node < capacity; node++) {
+                keys[node] = random.nextInt(50000);
+                open.push(node, keys[node]);
+            }
+
+            // Poll a few nodes so the heaps have some structure before removing:
+            for (int k = 0; k < 10; k++) {
+                keys[open.pollMin()] = -1;
+            }
+
+            for (int node = 0; node < capacity; node += 4) {
+                open.remove(node);
+                open.remove(node);
+                assertFalse(type.name(), open.contains(node));
+                keys[node] = -1;
+            }
+
+            long previous = Long.MIN_VALUE;
+
+            while (!open.isEmpty()) {
+
+                int top = open.peekMin();
+                assertEquals(type.name(), keys[top], open.peekMinKey());
+                assertTrue(open.contains(top));
+
+                int node = open.pollMin();
+                assertEquals(type.name(), top, node);
+                assertTrue(type.name(), keys[node] >= 0 && keys[node] >= previous);
+                previous = keys[node];
+                keys[node] = -1;
+            }
+
+            for (long key : keys) {
+                assertEquals(type.name(), -1, key);
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application clears an open list and reuses it.
+     * Expected Output: The cleared list is empty and holds only the nodes pushed afterwards.
+     */
+    @Test
+    public void testClear() {
+
+        for (OpenListType type : OpenListType.values()) {
+
+            OpenList open = type.create(10);
+
+            for (int node = 0; node < 10; node++) {
+                open.push(node, 10 - node);
+            }
+            open.pollMin();
+            open.clear();
+
+            assertTrue(open.isEmpty());
+            for (int node = 0; node < 10; node++) {
+                assertFalse(open.contains(node));
+            }
+
+            open.push(3, 7);
+            open.push(5, 2);
+            assertEquals(2, open.size());
+            assertEquals(5, open.pollMin());
+            assertEquals(3, open.pollMin());
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application packs keys with every tie-breaking policy.
+     * Expected Output: f-cost dominates, and equal f-costs follow the policy.
+     */
+    @Test
+    public void testTieBreaking() {
+
+        for (TieBreaking tieBreaking : TieBreaking.values()) {
+            assertTrue(tieBreaking.key(4, 0, 0) < tieBreaking.key(5, 100, 100));
+            assertEquals(5, TieBreaking.fCost(tieBreaking.key(5, 3, 7)));
+        }
+
+        assertTrue(TieBreaking.LARGER_G.key(5, 4, 0) < TieBreaking.LARGER_G.key(5, 3, 1));
+        assertTrue(TieBreaking.LIFO.key(5, 0, 8) < TieBreaking.LIFO.key(5, 0, 7));
+        assertTrue(TieBreaking.FIFO.key(5, 0, 7) < TieBreaking.FIFO.key(5, 0, 8));
+    }
+
+
+    /**
+     * Test Scenario: The application runs A* and Dijkstra with every open list and tie-breaking policy.
+     * Expected Output: The same shortest route is computed every time.
+     */
+    @Test
+    public void testPathFindersWithEveryOpenList() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        int[] cellIDs = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11,
+                12, 32, 52, 53, 54, 55, 56, 57, 58,
+                59, 79, 99, 119, 139, 159, 179, 199, 219, 239};
+
+        for (OpenListType type : OpenListType.values()) {
+            for (TieBreaking tieBreaking : TieBreaking.values()) {
+
+                PathFinder[] finders = {
+                        new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), type, tieBreaking),
+                        new DijkstraPathFinder(new ManhattanCalculator(), type, tieBreaking)};
+
+                for (PathFinder finder : finders) {
+
+                    Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+                    int[] ids = new int[route.size()];
+
+                    for (int i = 0; i < route.size(); ++i) {
+                        ids[i] = route.getItem(i);
+                    }
+
+                    assertArrayEquals(type + " " + tieBreaking, cellIDs, ids);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ParallelBFSPathFinder and BFSTree.
+ */
+public class ParallelBFSTest {
+
+    /**
+     * Test Scenario: The application floods the test maze and asks for routes.
+     * Expected Output: The route to the goal is the A* one and the distance is its length.
+     */
+    @Test
+    public void testFloodTestMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        Route expected = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                .find(maze, new Point(0, 0), new Point(11, 19));
+
+        ParallelBFSPathFinder finder = new ParallelBFSPathFinder();
+        BFSTree tree = finder.flood(maze, new Point(0, 0));
+
+        assertEquals(0, tree.getSource());
+        assertEquals(30, tree.getDistance(239));
+        assertArrayEquals(expected.toArray(), tree.route(239).toArray());
+        assertFalse(tree.isReachable(13));
+        assertTrue(tree.route(13).empty());
+        assertEquals(-1, tree.getParent(0));
+
+        assertArrayEquals(expected.toArray(), finder.find(maze, new Point(0, 0), new Point(11, 19)).toArray());
+    }
+
+
+    /**
+     * Test Scenario: The application floods random mazes with tiny tasks on a pool of 4 threads.
+     * Expected Output: The distances match a sequential breadth-first search and every parent is one step closer.
+     */
+    @Test
+    public void testParallelLevels() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            ParallelBFSPathFinder finder = new ParallelBFSPathFinder(pool, 16);
+            Random random = new Random(23);
+            int width = 200;
+
+            for (int t = 0; t < 3; t++) {
+
+                Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+                for (int id = 1; id < width * width; id++) {
+                    if (random.nextDouble() < 0.25) {
+                        maze.setBlocked(new int[]{id}, true);
+                    }
+                }
+
+                BFSTree tree = finder.flood(maze, new Point(0, 0));
+                int[] expected = this.sequentialDistances(maze, 0);
+
+                assertArrayEquals(expected, tree.getDistances());
+
+                long reached = 0;
+                int deepest = -1;
+
+                for (int cell = 0; cell < width * width; cell++) {
+                    if (tree.isReachable(cell)) {
+                        reached++;
+                        deepest = Math.max(deepest, tree.getDistance(cell));
+                        if (cell != 0) {
+                            assertEquals(tree.getDistance(cell) - 1, tree.getDistance(tree.getParent(cell)));
+                        }
+                    }
+                }
+
+                assertEquals(reached, tree.getReached());
+                assertEquals(deepest + 1, tree.getLevels());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    private int[] sequentialDistances(Maze maze, int source) {
+
+        int[] distance = new int[maze.size()];
+        Arrays.fill(distance, -1);
+        distance[source] = 0;
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                int nn = maze.neighbourId(current, n);
+                if (nn != -1 && !maze.isBlocked(nn) && distance[nn] == -1) {
+                    distance[nn] = distance[current] + 1;
+                    queue.add(nn);
+                }
+            }
+        }
+        return distance;
+    }
+}
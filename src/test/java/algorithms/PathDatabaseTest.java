@@ -0,0 +1,243 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import utilities.Direction;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PathDatabase.
+ */
+public class PathDatabaseTest {
+
+    /**
+     * Test Scenario: The application builds the database of the 3x3 test maze and asks for its route.
+     * Expected Output: The A* route and a first move to the north (towards larger i).
+     */
+    @Test
+    public void testSmallMaze() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt");
+
+        PathDatabase database = PathDatabase.build(maze, new ManhattanCalculator());
+
+        assertArrayEquals(new int[]{0, 3, 4, 5, 8}, database.find(maze, new Point(0, 0), new Point(2, 2)).toArray());
+        assertEquals(Direction.NORTH, database.firstMove(0, 8));
+        assertEquals(Direction.INVALID, database.firstMove(0, 0));
+        assertEquals(Direction.INVALID, database.firstMove(0, 1));
+        assertFalse(database.isReachable(0, 1));
+    }
+
+
+    /**
+     * Test Scenario: The application builds the database of the test maze and asks for every pair of open cells.
+     * Expected Output: Every route is a chain of open neighbours as cheap as the distance matrix says,
+     *                  and pairs without a route get an empty one.
+     */
+    @Test
+    public void testAllPairs() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        int width = maze.getyWidth();
+
+        PathDatabase database = PathDatabase.build(maze, new ManhattanCalculator());
+
+        Point[] open = this.openPoints(maze);
+        DistanceMatrix matrix = new DistanceMatrixFinder(new ManhattanCalculator()).compute(maze, open, open);
+
+        for (int s = 0; s < open.length; s++) {
+            for (int t = 0; t < open.length; t++) {
+
+                int source = open[s].i * width + open[s].j;
+                int target = open[t].i * width + open[t].j;
+                Route route = database.route(source, target);
+
+                if (!matrix.isReachable(s, t)) {
+                    assertTrue(route.empty());
+                    continue;
+                }
+
+                this.checkRoute(maze, route, matrix.get(s, t));
+                assertEquals(source, route.getCell(0));
+                assertEquals(target, route.getCell(route.size() - 1));
+            }
+        }
+
+        assertEquals(new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator())
+                                  .find(maze, new Point(0, 0), new Point(11, 19)).size(),
+                          database.find(maze, new Point(0, 0), new Point(11, 19)).size());
+    }
+
+
+    /**
+     * Test Scenario: The application builds the database of a random maze with one worker and with 4 threads.
+     * Expected Output: The same first moves, and far fewer runs than pairs of cells.
+     */
+    @Test
+    public void testParallelBuild() {
+
+        Random random = new Random(46);
+        int width = 40;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+        for (int id = 0; id < width * width; id++) {
+            if (random.nextDouble() < 0.2) {
+                maze.setBlocked(new int[]{id}, true);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            PathDatabase sequential = PathDatabase.build(maze, new ManhattanCalculator(), Runnable::run, 1);
+            PathDatabase parallel = PathDatabase.build(maze, new ManhattanCalculator(), executor, 4);
+
+            assertEquals(sequential.getRunCount(), parallel.getRunCount());
+            assertTrue(sequential.getRunCount() * 4 < (long) width * width * width * width);
+
+            for (int q = 0; q < 2000; q++) {
+                int source = random.nextInt(width * width);
+                int target = random.nextInt(width * width);
+                assertEquals(sequential.firstMove(source, target), parallel.firstMove(source, target));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application saves a database, loads it back, and loads it for a maze of another
+     *                size and from a file that is not a database.
+     * Expected Output: The loaded database gives the same routes, and the other loads get an IOException.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        PathDatabase database = PathDatabase.build(maze, new ManhattanCalculator());
+
+        File file = File.createTempFile("maze", ".cpd");
+
+        try {
+            database.save(file);
+            PathDatabase loaded = PathDatabase.load(file, maze);
+
+            assertEquals(database.getRunCount(), loaded.getRunCount());
+            for (int source = 0; source < maze.size(); source++) {
+                for (int target = 0; target < maze.size(); target += 7) {
+                    assertArrayEquals(database.route(source, target).toArray(), loaded.route(source, target).toArray());
+                }
+            }
+
+            try {
+                PathDatabase.load(file, MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt"));
+                fail("A database of another maze size must be rejected.");
+            } catch (IOException e) {
+                // Expected.
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                out.writeInt(42);
+            }
+
+            try {
+                PathDatabase.load(file, maze);
+                fail("A file that is not a database must be rejected.");
+            } catch (IOException e) {
+                // Expected.
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application builds the database of an open 3x5 maze, asks for another maze of the
+     *                same size, then blocks two cells of the maze and asks again.
+     * Expected Output: An IllegalArgumentException for the other maze and an IllegalStateException after the
+     *                  change, instead of a route through the new walls.
+     */
+    @Test
+    public void testStaleDatabase() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(3, 5), 3, 5);
+        PathDatabase database = PathDatabase.build(maze, new ManhattanCalculator());
+
+        assertEquals(5, database.find(maze, new Point(0, 0), new Point(0, 4)).size());
+
+        try {
+            database.find(new Maze(new CopyOnWriteMazeStorage(3, 5), 3, 5), new Point(0, 0), new Point(0, 4));
+            fail("A database must not answer for another maze.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        maze.setBlocked(new int[]{2, 7}, true);
+
+        try {
+            database.find(maze, new Point(0, 0), new Point(0, 4));
+            fail("A database must not answer after its maze changed.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        try {
+            database.route(0, 4);
+            fail("A database must not answer after its maze changed.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+
+    private void checkRoute(Maze maze, Route route, int cost) {
+
+        int width = maze.getyWidth();
+        assertEquals(cost + 1, route.size());
+
+        for (int k = 1; k < route.size(); k++) {
+            int a = route.getCell(k - 1);
+            int b = route.getCell(k);
+            assertFalse(maze.isBlocked(b));
+            assertEquals(1, Math.abs(a / width - b / width) + Math.abs(a % width - b % width));
+        }
+    }
+
+
+    private Point[] openPoints(Maze maze) {
+
+        int width = maze.getyWidth();
+        int count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                count++;
+            }
+        }
+
+        Point[] points = new Point[count];
+        count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                points[count++] = new Point(id / width, id % width);
+            }
+        }
+        return points;
+    }
+}
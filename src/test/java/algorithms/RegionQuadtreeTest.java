@@ -0,0 +1,186 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for RegionQuadtree.
+ */
+public class RegionQuadtreeTest {
+
+    /**
+     * Test Scenario: The application compresses the test maze and asks for every pair of open cells.
+     * Expected Output: Every pair with a route gets a chain of open neighbours from the start to the
+     *                  goal, and the other pairs an empty route.
+     */
+    @Test
+    public void testAllPairs() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+        int width = maze.getyWidth();
+
+        RegionQuadtree quadtree = RegionQuadtree.build(maze);
+        assertEquals(-1, quadtree.leafAt(0, 13));
+        assertEquals(-1, quadtree.leafAt(12, 0));
+
+        Point[] open = this.openPoints(maze);
+        DistanceMatrix matrix = new DistanceMatrixFinder(new ManhattanCalculator()).compute(maze, open, open);
+
+        for (int s = 0; s < open.length; s++) {
+            for (int t = 0; t < open.length; t++) {
+
+                if (s == t) {
+                    continue;
+                }
+
+                Route route = quadtree.find(maze, open[s], open[t]);
+
+                if (!matrix.isReachable(s, t)) {
+                    assertTrue(route.empty());
+                    continue;
+                }
+
+                this.checkRoute(maze, route, open[s].i * width + open[s].j, open[t].i * width + open[t].j);
+                assertTrue(route.size() - 1 >= matrix.get(s, t));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application compresses a large open map with a few scattered obstacles and asks
+     *                for routes between random cells.
+     * Expected Output: A few leaves per obstacle, fewer expansions than A* and far fewer than Dijkstra
+     *                  on the cells, and valid routes at most a quarter longer than the shortest ones.
+     */
+    @Test
+    public void testSparseMap() {
+
+        Random random = new Random(48);
+        int width = 500;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(width, width), width, width);
+
+        for (int k = 0; k < 60; k++) {
+            int i = random.nextInt(width - 10);
+            int j = random.nextInt(width - 10);
+            int[] cells = new int[40];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = (i + c / 4) * width + j + c % 4;
+            }
+            maze.setBlocked(cells, true);
+        }
+
+        RegionQuadtree quadtree = RegionQuadtree.build(maze);
+        assertTrue(quadtree.getLeafCount() * 20 < width * width);
+        assertTrue(quadtree.memoryBytes() < width * width);
+
+        AStarPathFinder astar = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        DijkstraPathFinder dijkstra = new DijkstraPathFinder(new ManhattanCalculator());
+        long leafExpansions = 0;
+        long cellExpansions = 0;
+        long areaExpansions = 0;
+
+        for (int q = 0; q < 20; q++) {
+
+            Point start = this.openPoint(maze, random);
+            Point goal = this.openPoint(maze, random);
+
+            if (start.equals(goal)) {
+                continue;
+            }
+
+            SearchBudget leafBudget = new SearchBudget(SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+            Route route = quadtree.find(maze, start, goal, leafBudget);
+            SearchBudget cellBudget = new SearchBudget(SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+            Route shortest = astar.find(maze, start, goal, cellBudget);
+            SearchBudget dijkstraBudget = new SearchBudget(SearchBudget.UNLIMITED, SearchBudget.UNLIMITED);
+            dijkstra.find(maze, start, goal, dijkstraBudget);
+
+            this.checkRoute(maze, route, start.i * width + start.j, goal.i * width + goal.j);
+            assertTrue(4 * (route.size() - 1) <= 5 * (shortest.size() - 1));
+
+            leafExpansions += leafBudget.getExpandedNodes();
+            cellExpansions += cellBudget.getExpandedNodes();
+            areaExpansions += dijkstraBudget.getExpandedNodes();
+        }
+
+        assertTrue(leafExpansions < cellExpansions);
+        assertTrue(leafExpansions * 100 < areaExpansions);
+    }
+
+
+    /**
+     * Test Scenario: The application compresses the test maze, changes it and asks again.
+     * Expected Output: An IllegalStateException.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testStaleTree() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        RegionQuadtree quadtree = RegionQuadtree.build(maze);
+        maze.setBlocked(new int[]{1}, true);
+        quadtree.find(maze, new Point(0, 0), new Point(11, 19));
+    }
+
+
+    private void checkRoute(Maze maze, Route route, int start, int goal) {
+
+        int width = maze.getyWidth();
+        assertEquals(start, route.getCell(0));
+        assertEquals(goal, route.getCell(route.size() - 1));
+
+        for (int k = 1; k < route.size(); k++) {
+            int a = route.getCell(k - 1);
+            int b = route.getCell(k);
+            assertFalse(maze.isBlocked(b));
+            assertEquals(1, Math.abs(a / width - b / width) + Math.abs(a % width - b % width));
+        }
+    }
+
+
+    private Point openPoint(Maze maze, Random random) {
+
+        int width = maze.getyWidth();
+        while (true) {
+            int id = random.nextInt(maze.size());
+            if (!maze.isBlocked(id)) {
+                return new Point(id / width, id % width);
+            }
+        }
+    }
+
+
+    private Point[] openPoints(Maze maze) {
+
+        int width = maze.getyWidth();
+        int count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                count++;
+            }
+        }
+
+        Point[] points = new Point[count];
+        count = 0;
+        for (int id = 0; id < maze.size(); id++) {
+            if (!maze.isBlocked(id)) {
+                points[count++] = new Point(id / width, id % width);
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,92 @@
+package algorithms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for SearchContext.
+ */
+public class SearchContextTest {
+
+    /**
+     * Test Scenario: The application writes state in one search and resets the context.
+     * Expected Output: Nothing written by the previous search is visible after the reset.
+     */
+    @Test
+    public void testResetForgetsPreviousSearch() {
+
+        SearchContext context = SearchContext.acquire(100);
+
+        try {
+            context.reach(7, 3, 6);
+            context.close(7);
+            context.openList(OpenListType.BINARY_HEAP).push(7, 3);
+
+            assertTrue(context.isReached(7));
+            assertEquals(3, context.getGCost(7));
+            assertEquals(6, context.getParent(7));
+            assertTrue(context.isClosed(7));
+
+            context.reset(100);
+
+            assertFalse(context.isReached(7));
+            assertEquals(Integer.MAX_VALUE, context.getGCost(7));
+            assertEquals(-1, context.getParent(7));
+            assertFalse(context.isClosed(7));
+            assertTrue(context.openList(OpenListType.BINARY_HEAP).isEmpty());
+        } finally {
+            context.release();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application acquires the context of a thread twice, then after releasing it.
+     * Expected Output: Nested searches get their own context and the pooled one is reused afterwards.
+     */
+    @Test
+    public void testPooling() {
+
+        SearchContext outer = SearchContext.acquire(10);
+
+        try {
+            assertTrue(outer.isPooled());
+
+            SearchContext nested = SearchContext.acquire(10);
+            assertNotSame(outer, nested);
+            assertFalse(nested.isPooled());
+            nested.release();
+        } finally {
+            outer.release();
+        }
+
+        SearchContext again = SearchContext.acquire(1000);
+
+        try {
+            assertSame(outer, again);
+            assertTrue(again.capacity() >= 1000);
+        } finally {
+            again.release();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application reconstructs paths from the recorded parents.
+     * Expected Output: Reached goals give the path from the start, others an empty path.
+     */
+    @Test
+    public void testReconstructPath() {
+
+        SearchContext context = new SearchContext(10);
+
+        context.reach(0, 0, -1);
+        context.reach(1, 1, 0);
+        context.reach(4, 2, 1);
+
+        assertArrayEquals(new int[]{0, 1, 4}, context.reconstructPath(0, 4));
+        assertArrayEquals(new int[]{0}, context.reconstructPath(0, 0));
+        assertEquals(0, context.reconstructPath(0, 5).length);
+    }
+}
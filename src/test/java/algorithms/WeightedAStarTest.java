@@ -0,0 +1,163 @@
+package algorithms;
+
+import maze.CopyOnWriteMazeStorage;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+import pathfinder.SearchBudget;
+import pathfinder.SearchBudgetExceededException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for WeightedAStarPathFinder and ARAStarPathFinder.
+ */
+public class WeightedAStarTest {
+
+    /**
+     * Test Scenario: The application uses weighted A* with several epsilons on random mazes.
+     * Expected Output: Every route is valid, reports 1 + epsilon and costs at most that much times the optimum.
+     */
+    @Test
+    public void testWeightedBound() {
+
+        Maze maze = this.randomMaze(60, 60, 0.25, 3);
+        PathFinder optimal = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Point start = new Point(0, 0);
+        Point goal = new Point(59, 59);
+
+        Route best = optimal.find(maze, start, goal);
+        assertFalse(best.empty());
+        assertEquals(1.0, best.getSuboptimalityBound(), 0.0);
+
+        for (double epsilon : new double[]{0.0, 0.5, 2.0, 10.0}) {
+
+            Route route = new WeightedAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), epsilon)
+                    .find(maze, start, goal);
+
+            this.assertValid(maze, route, 0, 60 * 60 - 1);
+            assertEquals(1.0 + epsilon, route.getSuboptimalityBound(), 0.0);
+            assertTrue(route.size() - 1 <= (1.0 + epsilon) * (best.size() - 1));
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application creates a weighted A* with a negative epsilon.
+     * Expected Output: IllegalArgumentException is thrown.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeEpsilon() {
+        new WeightedAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(), -0.1);
+    }
+
+
+    /**
+     * Test Scenario: The application runs ARA* without a deadline and records every route it reports.
+     * Expected Output: The bounds never grow, each route is within its bound and the last one is optimal.
+     */
+    @Test
+    public void testAnytimeImproves() {
+
+        Maze maze = this.randomMaze(80, 80, 0.25, 11);
+        Point start = new Point(0, 0);
+        Point goal = new Point(79, 79);
+
+        Route best = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator()).find(maze, start, goal);
+        assertFalse(best.empty());
+        int optimal = best.size() - 1;
+
+        ARAStarPathFinder finder = new ARAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(),
+                                                         4.0, 1.0, SearchBudget.UNLIMITED);
+
+        List<Route> solutions = new ArrayList<>();
+        Route route = finder.find(maze, start, goal, SearchBudget.unlimited(), solutions::add);
+
+        assertTrue(solutions.size() > 1);
+        assertSame(route, solutions.get(solutions.size() - 1));
+        assertEquals(optimal, route.size() - 1);
+        assertEquals(1.0, route.getSuboptimalityBound(), 0.0);
+
+        double previous = Double.MAX_VALUE;
+
+        for (Route solution : solutions) {
+            this.assertValid(maze, solution, 0, 80 * 80 - 1);
+            assertTrue(solution.getSuboptimalityBound() <= previous);
+            assertTrue(solution.getSuboptimalityBound() <= 5.0);
+            assertTrue(solution.size() - 1 <= solution.getSuboptimalityBound() * optimal + 1e-9);
+            previous = solution.getSuboptimalityBound();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application runs ARA* on the test maze with a budget too small for any route.
+     * Expected Output: SearchBudgetExceededException is thrown; with enough budget the optimal route comes back.
+     */
+    @Test
+    public void testAnytimeBudget() throws IOException {
+
+        File directory = new File("./");
+        Maze maze = MazeBuilder.build(directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt");
+
+        ARAStarPathFinder finder = new ARAStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator(),
+                                                         2.0, 0.5, 1000);
+
+        try {
+            finder.find(maze, new Point(0, 0), new Point(11, 19), new SearchBudget(5, SearchBudget.UNLIMITED));
+            fail("The budget cannot be enough for a route.");
+        } catch (SearchBudgetExceededException e) {
+            assertEquals(SearchBudgetExceededException.Reason.EXPANDED_NODES, e.getReason());
+        }
+
+        Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+        assertEquals(31, route.size());
+    }
+
+
+    private Maze randomMaze(int x, int y, double density, long seed) {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(x, y), x, y);
+        Random random = new Random(seed);
+        List<Integer> blocked = new ArrayList<>();
+
+        for (int id = 1; id < x * y - 1; id++) {
+            if (random.nextDouble() < density) {
+                blocked.add(id);
+            }
+        }
+
+        int[] ids = new int[blocked.size()];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = blocked.get(k);
+        }
+        maze.setBlocked(ids, true);
+        return maze;
+    }
+
+
+    private void assertValid(Maze maze, Route route, int start, int goal) {
+
+        assertEquals(start, route.getCell(0));
+        assertEquals(goal, route.getCell(route.size() - 1));
+
+        int yWidth = maze.getyWidth();
+
+        for (int k = 1; k < route.size(); k++) {
+            int a = route.getCell(k - 1);
+            int b = route.getCell(k);
+            assertFalse(maze.isBlocked(b));
+            assertEquals(1, Math.abs(a / yWidth - b / yWidth) + Math.abs(a % yWidth - b % yWidth));
+        }
+    }
+}
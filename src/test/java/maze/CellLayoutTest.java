@@ -0,0 +1,128 @@
+package maze;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CellLayout and ZOrderMazeStorage.
+ */
+public class CellLayoutTest {
+
+    /**
+     * Test Scenario: The application lays out a wide grid whose sides are not whole tiles, with several
+     *                tile sizes.
+     * Expected Output: Every cell gets its own id below size(), the ids translate back to the cell, and
+     *                  the neighbours are those of the row-major maze.
+     */
+    @Test
+    public void testRoundTrip() {
+
+        int xWidth = 37;
+        int yWidth = 301;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(xWidth, yWidth), xWidth, yWidth);
+
+        for (int shift : new int[]{0, 1, 3, CellLayout.DEFAULT_TILE_SHIFT, 9}) {
+
+            CellLayout layout = new CellLayout(xWidth, yWidth, shift);
+            boolean[] used = new boolean[layout.size()];
+            int tile = 1 << shift;
+
+            assertEquals(((xWidth + tile - 1) / tile) * ((yWidth + tile - 1) / tile) * tile * tile, layout.size());
+
+            for (int cell = 0; cell < xWidth * yWidth; cell++) {
+
+                int id = layout.idOfCell(cell);
+                assertFalse(used[id]);
+                used[id] = true;
+
+                assertEquals(cell / yWidth, layout.iOf(id));
+                assertEquals(cell % yWidth, layout.jOf(id));
+                assertEquals(cell, layout.cellOf(id));
+
+                for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                    int nn = maze.neighbourId(cell, n);
+                    assertEquals(nn == -1 ? -1 : layout.idOfCell(nn), layout.neighbourId(id, n));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application lays out a grid whose sides are whole tiles.
+     * Expected Output: Steps off the last tile of a row or column leave the grid, others carry into the
+     *                  neighbouring tile.
+     */
+    @Test
+    public void testNeighboursOnWholeTiles() {
+
+        int xWidth = 32;
+        int yWidth = 48;
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(xWidth, yWidth), xWidth, yWidth);
+        CellLayout layout = new CellLayout(xWidth, yWidth, CellLayout.DEFAULT_TILE_SHIFT);
+
+        assertEquals(xWidth * yWidth, layout.size());
+
+        for (int cell = 0; cell < xWidth * yWidth; cell++) {
+            for (int n = 0; n < Maze.NUMBER_OF_NEIGHBOURS; n++) {
+                int nn = maze.neighbourId(cell, n);
+                assertEquals(nn == -1 ? -1 : layout.idOfCell(nn), layout.neighbourId(layout.idOfCell(cell), n));
+            }
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application lays out a tile of 4 x 4 cells.
+     * Expected Output: The cells follow the Z-order curve, i taking the odd bits.
+     */
+    @Test
+    public void testZOrder() {
+
+        CellLayout layout = new CellLayout(4, 8, 2);
+
+        assertEquals(0, layout.idOf(0, 0));
+        assertEquals(1, layout.idOf(0, 1));
+        assertEquals(2, layout.idOf(1, 0));
+        assertEquals(3, layout.idOf(1, 1));
+        assertEquals(4, layout.idOf(0, 2));
+        assertEquals(8, layout.idOf(2, 0));
+        assertEquals(15, layout.idOf(3, 3));
+        assertEquals(16, layout.idOf(0, 4));
+    }
+
+
+    /**
+     * Test Scenario: The application blocks cells of a maze kept in a ZOrderMazeStorage.
+     * Expected Output: The maze reads the flags back by row-major id, and the storage by layout id.
+     */
+    @Test
+    public void testStorage() {
+
+        ZOrderMazeStorage storage = new ZOrderMazeStorage(20, 30);
+        Maze maze = new Maze(storage, 20, 30);
+
+        maze.setBlocked(new int[]{0, 31, 599}, true);
+
+        assertEquals(600, storage.cellCount());
+        assertTrue(maze.isBlocked(31));
+        assertTrue(storage.isBlockedAt(storage.getLayout().idOf(1, 1)));
+        assertTrue(storage.isBlockedAt(storage.getLayout().idOf(19, 29)));
+        assertFalse(maze.isBlocked(30));
+
+        maze.setBlocked(new int[]{31}, false);
+        assertFalse(maze.isBlocked(31));
+        assertTrue(maze.isBlocked(0));
+    }
+
+
+    /**
+     * Test Scenario: The application asks for a tile shift out of range.
+     * Expected Output: IllegalArgumentException is thrown.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTileShift() {
+        new CellLayout(10, 10, 16);
+    }
+}
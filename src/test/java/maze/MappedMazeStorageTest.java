@@ -0,0 +1,135 @@
+package maze;
+
+import algorithms.AStarPathFinder;
+import algorithms.ManhattanCalculator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for MappedMazeStorage.
+ */
+public class MappedMazeStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test Scenario: The application builds an off-heap maze from a maze file and reopens it.
+     * Expected Output: The flags match the in-heap maze and A* computes the same route.
+     */
+    @Test
+    public void testBuildAndOpenMapped() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+        File mappedFile = this.folder.newFile("maze_12_20.bin");
+
+        Maze heapMaze = MazeBuilder.build(filePath);
+        Maze mappedMaze = MazeBuilder.buildMapped(filePath, mappedFile);
+
+        assertTrue(mappedMaze.getStorage() instanceof MappedMazeStorage);
+        assertEquals(heapMaze.size(), mappedMaze.size());
+        assertEquals(heapMaze.getxWidth(), mappedMaze.getxWidth());
+        assertEquals(heapMaze.getyWidth(), mappedMaze.getyWidth());
+
+        for (int c = 0; c < heapMaze.size(); ++c) {
+            assertEquals(heapMaze.isBlocked(c), mappedMaze.isBlocked(c));
+            assertEquals(heapMaze.getCell(c).getCoordinates(), mappedMaze.getCell(c).getCoordinates());
+        }
+
+        ((MappedMazeStorage) mappedMaze.getStorage()).close();
+
+        Maze reopened = MazeBuilder.openMapped(mappedFile, true);
+
+        try {
+            PathFinder finder = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+            Route expected = finder.find(heapMaze, new Point(0, 0), new Point(11, 19));
+            Route route = finder.find(reopened, new Point(0, 0), new Point(11, 19));
+
+            assertArrayEquals(expected.toArray(), route.toArray());
+        } finally {
+            ((MappedMazeStorage) reopened.getStorage()).close();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application creates a mapped maze with more than 2^31 cells.
+     * Expected Output: Cells past 2^31 can be blocked and read back through their long address.
+     */
+    @Test
+    public void testLongAddressing() throws IOException {
+
+        File mappedFile = this.folder.newFile("huge.bin");
+        int width = 46341;
+
+        try (MappedMazeStorage storage = MappedMazeStorage.create(mappedFile, width, width)) {
+
+            Maze maze = new Maze(storage, width, width);
+            assertTrue(maze.cellCount() > Integer.MAX_VALUE);
+
+            long last = maze.cellAddress(width - 1, width - 1);
+            assertEquals(maze.cellCount() - 1, last);
+            assertFalse(maze.isBlocked(last));
+
+            storage.setBlocked(last, true);
+            assertTrue(maze.isBlocked(last));
+            assertFalse(maze.isBlocked(last - 1));
+            assertEquals(last - width, maze.neighbourAddress(last, 0));
+            assertEquals(-1, maze.neighbourAddress(last, 2));
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application builds a mapped maze from a file that names cells past 2^31.
+     * Expected Output: The cell ids are read as longs and those cells are blocked.
+     */
+    @Test
+    public void testBuildMappedLongCellIds() throws IOException {
+
+        File mazeFile = this.folder.newFile("huge.txt");
+        File mappedFile = this.folder.newFile("huge_built.bin");
+        int width = 46341;
+        long last = (long) width * width - 1;
+
+        try (PrintWriter writer = new PrintWriter(mazeFile)) {
+            writer.println("n_rows = " + width);
+            writer.println("n_cols = " + width);
+            writer.println("0, O");
+            writer.println(last + ", X");
+        }
+
+        Maze maze = MazeBuilder.buildMapped(mazeFile.getPath(), mappedFile);
+
+        try {
+            assertTrue(last > Integer.MAX_VALUE);
+            assertTrue(maze.isBlocked(last));
+            assertFalse(maze.isBlocked(last - 1));
+            assertFalse(maze.isBlocked(0));
+        } finally {
+            ((MappedMazeStorage) maze.getStorage()).close();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application opens a file that is not a mapped maze.
+     * Expected Output: IOException is thrown.
+     */
+    @Test(expected = IOException.class)
+    public void testOpenInvalidFile() throws IOException {
+
+        MappedMazeStorage.open(this.folder.newFile("empty.bin"), true);
+    }
+}
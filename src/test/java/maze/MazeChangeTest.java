@@ -0,0 +1,99 @@
+package maze;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Maze mutation API.
+ */
+public class MazeChangeTest {
+
+    /**
+     * Test Scenario: The application changes a batch of cells with a listener registered.
+     * Expected Output: The listener is told once, with only the cells that changed and their bounding box.
+     */
+    @Test
+    public void testBatchNotifiesOnce() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_3_3.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        // Loading the maze is not a change:
+        assertEquals(0, maze.getVersion());
+        assertTrue(maze.getDirtyRegions().isEmpty());
+
+        final List<MazeChangeEvent> events = new ArrayList<>();
+        maze.addChangeListener(events::add);
+
+        // Cell 1 is blocked already, so only 0 and 5 change:
+        int changed = maze.setBlocked(new int[]{0, 1, 5}, new boolean[]{true, true, true});
+
+        assertEquals(2, changed);
+        assertEquals(1, maze.getVersion());
+        assertEquals(1, events.size());
+
+        MazeChangeEvent event = events.get(0);
+        assertEquals(1, event.getVersion());
+        assertEquals(2, event.size());
+        assertEquals(0, event.getCell(0));
+        assertEquals(5, event.getCell(1));
+        assertTrue(event.isBlocked(1));
+        assertEquals(new Region(0, 0, 1, 2), event.getRegion());
+
+        assertTrue(maze.isBlocked(0));
+        assertTrue(maze.getCell(5).isBlocked());
+
+        // Nothing changes, nobody is told:
+        assertEquals(0, maze.setBlocked(new int[]{0, 5}, true));
+        assertEquals(1, events.size());
+        assertEquals(1, maze.getVersion());
+    }
+
+
+    /**
+     * Test Scenario: The application changes cells in separate places of the maze.
+     * Expected Output: Separate dirty regions are kept apart and touching ones are merged.
+     */
+    @Test
+    public void testDirtyRegions() {
+
+        Maze maze = new Maze(new CopyOnWriteMazeStorage(10, 10), 10, 10);
+
+        maze.setCellBlockedFlag(maze.cellId(0, 0), "X");
+        maze.setCellBlockedFlag(maze.cellId(9, 9), "X");
+
+        assertEquals(2, maze.getDirtyRegions().size());
+
+        maze.setBlocked(new int[]{maze.cellId(1, 1), maze.cellId(8, 8)}, true);
+
+        // Each cell of the batch joins the region it touches, not their bounding box:
+        assertEquals(2, maze.getDirtyRegions().size());
+        assertTrue(maze.getDirtyRegions().contains(new Region(0, 0, 1, 1)));
+        assertTrue(maze.getDirtyRegions().contains(new Region(8, 8, 9, 9)));
+
+        maze.setBlocked(new int[]{maze.cellId(4, 4), maze.cellId(4, 5), maze.cellId(5, 5)}, true);
+
+        // A cluster of neighbouring cells is recorded as one region, apart from the others:
+        assertEquals(3, maze.getDirtyRegions().size());
+        assertTrue(maze.getDirtyRegions().contains(new Region(4, 4, 5, 5)));
+
+        maze.setCellBlockedFlag(maze.cellId(3, 3), "X");
+        maze.setCellBlockedFlag(maze.cellId(2, 2), "X");
+
+        // Regions merge once they touch:
+        assertEquals(2, maze.getDirtyRegions().size());
+        assertTrue(maze.getDirtyRegions().contains(new Region(0, 0, 5, 5)));
+
+        maze.clearDirtyRegions();
+        assertTrue(maze.getDirtyRegions().isEmpty());
+        assertEquals(6, maze.getVersion());
+    }
+}
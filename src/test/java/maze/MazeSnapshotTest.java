@@ -0,0 +1,130 @@
+package maze;
+
+import algorithms.AStarPathFinder;
+import algorithms.ManhattanCalculator;
+import org.junit.Test;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for MazeSnapshot and CopyOnWriteMazeStorage.
+ */
+public class MazeSnapshotTest {
+
+    /**
+     * Test Scenario: The application changes a maze after publishing a snapshot.
+     * Expected Output: The old snapshot is unchanged and shares every block that did not change.
+     */
+    @Test
+    public void testCopyOnWrite() {
+
+        CopyOnWriteMazeStorage storage = new CopyOnWriteMazeStorage(100, 100);
+        storage.setBlocked(10, true);
+        storage.setBlocked(9000, true);
+
+        MazeSnapshot first = storage.publish();
+
+        storage.setBlocked(10, false);
+        storage.setBlocked(11, true);
+
+        assertTrue(first.isBlocked(10));
+        assertFalse(first.isBlocked(11));
+        assertFalse(storage.isBlocked(10));
+        assertTrue(storage.isBlocked(11));
+
+        // Nothing is published until publish() is called:
+        assertSame(first, storage.snapshot());
+
+        MazeSnapshot second = storage.publish();
+
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertFalse(second.isBlocked(10));
+        assertTrue(second.isBlocked(11));
+        assertTrue(second.isBlocked(9000));
+
+        assertNotSame(first.block(10), second.block(10));
+        assertSame(first.block(9000), second.block(9000));
+        assertNull(second.block(5000));
+    }
+
+
+    /**
+     * Test Scenario: The application tries to change a maze over a snapshot.
+     * Expected Output: UnsupportedOperationException is thrown.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+
+        Maze maze = new CopyOnWriteMazeStorage(3, 3).snapshot().asMaze();
+        maze.setCellBlockedFlag(4, "X");
+    }
+
+
+    /**
+     * Test Scenario: Several threads search snapshots while the writer blocks and opens a cell.
+     * Expected Output: Every search sees a consistent snapshot and finds a route of the expected length.
+     */
+    @Test
+    public void testConcurrentQueries() throws Exception {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+        final CopyOnWriteMazeStorage storage = CopyOnWriteMazeStorage.copyOf(maze);
+        final PathFinder finder = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        // Cell 12 is on the only shortest route, blocking it leaves a detour of 47 cells:
+        final int toggled = 12;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+
+                        int inconsistent = 0;
+
+                        for (int q = 0; q < 200; q++) {
+
+                            MazeSnapshot snapshot = storage.snapshot();
+                            Route route = finder.find(snapshot.asMaze(), new Point(0, 0), new Point(11, 19));
+
+                            int expected = snapshot.isBlocked(toggled) ? 47 : 31;
+                            if (route.size() != expected) {
+                                inconsistent++;
+                            }
+                        }
+                        return inconsistent;
+                    }
+                }));
+            }
+
+            for (int w = 0; w < 200; w++) {
+                storage.setBlocked(toggled, w % 2 == 0);
+                storage.publish();
+            }
+
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
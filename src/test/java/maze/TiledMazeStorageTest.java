@@ -0,0 +1,155 @@
+package maze;
+
+import algorithms.AStarPathFinder;
+import algorithms.ManhattanCalculator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pathfinder.PathFinder;
+import pathfinder.Route;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TiledMazeStorage.
+ */
+public class TiledMazeStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test Scenario: The application builds a tiled maze with a budget of two tiles and searches it.
+     * Expected Output: A* computes the same route as on the in-heap maze while tiles are evicted.
+     */
+    @Test
+    public void testSearchUnderMemoryBudget() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+        File tileDirectory = this.folder.newFolder("tiles");
+
+        // A 4 x 4 tile takes 8 bytes, so 16 bytes hold two tiles:
+        Maze tiledMaze = MazeBuilder.buildTiled(filePath, tileDirectory, 4, 16);
+        TiledMazeStorage storage = (TiledMazeStorage) tiledMaze.getStorage();
+
+        assertEquals(2, storage.maxTiles());
+        storage.close();
+
+        Maze heapMaze = MazeBuilder.build(filePath);
+        Maze reopened = MazeBuilder.openTiled(tileDirectory, 16);
+        storage = (TiledMazeStorage) reopened.getStorage();
+
+        assertEquals(0, storage.loadedTiles());
+
+        for (int c = 0; c < heapMaze.size(); ++c) {
+            assertEquals(heapMaze.isBlocked(c), reopened.isBlocked(c));
+        }
+
+        assertTrue(storage.loadedTiles() <= 2);
+        assertTrue(storage.evictions() > 0);
+
+        PathFinder finder = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+
+        Route expected = finder.find(heapMaze, new Point(0, 0), new Point(11, 19));
+        Route route = finder.find(reopened, new Point(0, 0), new Point(11, 19));
+
+        assertArrayEquals(expected.toArray(), route.toArray());
+    }
+
+
+    /**
+     * Test Scenario: The application changes a cell, lets its tile be evicted and reopens the maze.
+     * Expected Output: The change was written back and only touched tiles were loaded.
+     */
+    @Test
+    public void testWriteBack() throws IOException {
+
+        File tileDirectory = this.folder.newFolder("tiles");
+
+        TiledMazeStorage storage = TiledMazeStorage.create(tileDirectory, 1000, 1000, 100, 1250);
+        Maze maze = new Maze(storage, 1000, 1000);
+
+        assertEquals(1, storage.maxTiles());
+
+        maze.setCellBlockedFlag(maze.cellId(5, 5), "X");
+        assertFalse(maze.isBlocked(maze.cellId(999, 999)));
+        assertEquals(1, storage.evictions());
+
+        storage = TiledMazeStorage.open(tileDirectory, 1250);
+        maze = new Maze(storage, 1000, 1000);
+
+        assertTrue(maze.isBlocked(maze.cellId(5, 5)));
+        assertFalse(maze.isBlocked(maze.cellId(5, 6)));
+        assertEquals(1, storage.loads());
+    }
+
+
+    /**
+     * Test Scenario: The application opens cells of tiles that have no file, then blocks and opens a cell again.
+     * Expected Output: No tile is created for open flags, and the tile without walls loses its file.
+     */
+    @Test
+    public void testOpenCellsKeepTilesSparse() throws IOException {
+
+        File tileDirectory = this.folder.newFolder("tiles");
+
+        TiledMazeStorage storage = TiledMazeStorage.create(tileDirectory, 1000, 1000, 100, 1250);
+        Maze maze = new Maze(storage, 1000, 1000);
+
+        storage.setBlocked(maze.cellId(5, 5), false);
+        storage.setBlocked(maze.cellId(999, 999), false);
+        assertEquals(0, storage.loads());
+        assertEquals(0, storage.loadedTiles());
+
+        storage.setBlocked(maze.cellId(5, 5), true);
+        storage.flush();
+        assertTrue(new File(tileDirectory, "tile_0.bin").exists());
+
+        storage.setBlocked(maze.cellId(5, 5), false);
+        storage.flush();
+        assertFalse(new File(tileDirectory, "tile_0.bin").exists());
+        assertFalse(maze.isBlocked(maze.cellId(5, 5)));
+        assertEquals(1, storage.loads());
+    }
+
+
+    /**
+     * Test Scenario: The application builds a tiled maze from a file with a bad line after tiles were written.
+     * Expected Output: IllegalArgumentException is thrown and the directory holds no tiles that could be opened.
+     */
+    @Test
+    public void testBuildFailureCleansUp() throws IOException {
+
+        File mazeFile = this.folder.newFile("bad.txt");
+        File tileDirectory = this.folder.newFolder("tiles");
+
+        try (PrintWriter writer = new PrintWriter(mazeFile)) {
+            writer.println("n_rows = 20");
+            writer.println("n_cols = 20");
+            writer.println("0, X");
+            writer.println("399, X");
+            writer.println("5, Y");
+        }
+
+        try {
+            MazeBuilder.buildTiled(mazeFile.getPath(), tileDirectory, 10, 16);
+            fail("A bad line must stop the build.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        assertEquals(0, tileDirectory.list().length);
+
+        try {
+            MazeBuilder.openTiled(tileDirectory, 16);
+            fail("A failed build must not leave a maze behind.");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+}
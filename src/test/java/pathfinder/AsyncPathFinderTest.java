@@ -0,0 +1,117 @@
+package pathfinder;
+
+import algorithms.AStarPathFinder;
+import algorithms.DijkstraPathFinder;
+import algorithms.EuclideanCalculator;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for AsyncPathFinder and SearchBudget.
+ */
+public class AsyncPathFinderTest {
+
+    /**
+     * Test Scenario: The application runs an A* query asynchronously without limits.
+     * Expected Output: The future completes with the same route as the blocking call.
+     */
+    @Test
+    public void testAsyncAStar() throws IOException, InterruptedException, ExecutionException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        PathFinder finder = new AStarPathFinder(new EuclideanCalculator(), new EuclideanCalculator());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            AsyncPathFinder asyncFinder = new AsyncPathFinder(finder, executor);
+
+            Route expected = finder.find(maze, new Point(0, 0), new Point(11, 19));
+            Route route = asyncFinder.findAsync(maze, new Point(0, 0), new Point(11, 19)).get();
+
+            assertEquals(expected.size(), route.size());
+
+            for (int i = 0; i < route.size(); ++i) {
+                assertEquals(expected.getItem(i), route.getItem(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application runs a Dijkstra query with a tiny expansion budget.
+     * Expected Output: The future fails with a SearchBudgetExceededException holding a partial route.
+     */
+    @Test
+    public void testExpansionBudgetExceeded() throws IOException, InterruptedException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            AsyncPathFinder asyncFinder = new AsyncPathFinder(
+                    new DijkstraPathFinder(new EuclideanCalculator()), executor, 5, SearchBudget.UNLIMITED);
+
+            asyncFinder.findAsync(maze, new Point(0, 0), new Point(11, 19)).get();
+            fail("Expected the search budget to run out.");
+        } catch (ExecutionException e) {
+
+            assertTrue(e.getCause() instanceof SearchBudgetExceededException);
+
+            SearchBudgetExceededException cause = (SearchBudgetExceededException) e.getCause();
+            assertEquals(SearchBudgetExceededException.Reason.EXPANDED_NODES, cause.getReason());
+            assertEquals(5, cause.getExpandedNodes());
+
+            Route partial = cause.getPartialRoute();
+            assertFalse(partial.empty());
+            assertEquals(0, partial.getItem(0).intValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application runs a blocking A* query with an already cancelled budget.
+     * Expected Output: SearchBudgetExceededException is thrown with reason CANCELLED.
+     */
+    @Test
+    public void testCancelledBudget() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        PathFinder finder = new AStarPathFinder(new EuclideanCalculator(), new EuclideanCalculator());
+
+        SearchBudget budget = SearchBudget.unlimited();
+        budget.cancel();
+
+        try {
+            finder.find(maze, new Point(0, 0), new Point(11, 19), budget);
+            fail("Expected the search to be cancelled.");
+        } catch (SearchBudgetExceededException e) {
+            assertEquals(SearchBudgetExceededException.Reason.CANCELLED, e.getReason());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package pathfinder;
+
+import algorithms.AStarPathFinder;
+import algorithms.ManhattanCalculator;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Point;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.PrimitiveIterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for Route and CompactRoute.
+ */
+public class RouteTest {
+
+    /**
+     * Test Scenario: The application wraps, appends to and iterates a route.
+     * Expected Output: All accessors see the same cell ids in the same order.
+     */
+    @Test
+    public void testRouteAccess() {
+
+        Route route = new Route(new int[]{4, 5, 8});
+        route.addItem(11);
+
+        assertEquals(4, route.size());
+        assertEquals(8, route.getCell(2));
+        assertEquals(11, route.getItem(3).intValue());
+        assertArrayEquals(new int[]{4, 5, 8, 11}, route.toArray());
+
+        PrimitiveIterator.OfInt it = route.iterator();
+        int[] expected = {4, 5, 8, 11};
+
+        for (int id : expected) {
+            assertTrue(it.hasNext());
+            assertEquals(id, it.nextInt());
+        }
+        assertFalse(it.hasNext());
+
+        final int[] sum = {0};
+        route.forEach(id -> sum[0] += id);
+        assertEquals(28, sum[0]);
+    }
+
+
+    /**
+     * Test Scenario: The application encodes a computed route and reads it back from bytes.
+     * Expected Output: The decoded route holds the same cells and is much smaller.
+     */
+    @Test
+    public void testCompactRoute() throws IOException {
+
+        File directory = new File("./");
+        String filePath = directory.getCanonicalPath() + "/src/test_data/maze_12_20.txt";
+
+        Maze maze = MazeBuilder.build(filePath);
+
+        PathFinder finder = new AStarPathFinder(new ManhattanCalculator(), new ManhattanCalculator());
+        Route route = finder.find(maze, new Point(0, 0), new Point(11, 19));
+
+        CompactRoute compact = CompactRoute.encode(route, maze.getyWidth());
+        byte[] bytes = compact.toBytes();
+
+        // Four straight runs in the route:
+        assertEquals(4 + 3, bytes.length);
+        assertTrue(bytes.length * 10 < 4 * route.size());
+
+        CompactRoute decoded = CompactRoute.fromBytes(bytes);
+        assertEquals(route.size(), decoded.size());
+        assertArrayEquals(route.toArray(), decoded.toRoute().toArray());
+
+        assertTrue(CompactRoute.fromBytes(CompactRoute.encode(new Route(), 20).toBytes()).empty());
+    }
+
+
+    /**
+     * Test Scenario: The application encodes a route whose cells are not neighbours.
+     * Expected Output: IllegalArgumentException is thrown.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompactRouteWithGap() {
+
+        // 19 and 20 are consecutive ids but lie on opposite sides of a 20 wide maze:
+        CompactRoute.encode(new Route(new int[]{18, 19, 20}), 20);
+    }
+}
@@ -0,0 +1,50 @@
+package pathfinder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for SearchBudget.
+ */
+public class SearchBudgetTest {
+
+    /**
+     * Test Scenario: The application gives budgets finite wall time limits too large to count in nanoseconds.
+     * Expected Output: The limits saturate and a search can expand nodes without running out of time.
+     */
+    @Test
+    public void testLargeWallTime() {
+
+        for (long millis : new long[]{10000000000000L, Long.MAX_VALUE / 1000, Long.MAX_VALUE - 1}) {
+
+            SearchBudget budget = new SearchBudget(SearchBudget.UNLIMITED, millis);
+            budget.start();
+
+            for (int k = 0; k < 1000; k++) {
+                budget.charge();
+            }
+            assertEquals(1000, budget.getExpandedNodes());
+        }
+    }
+
+
+    /**
+     * Test Scenario: The application gives a budget a negative or zero limit.
+     * Expected Output: IllegalArgumentException is thrown.
+     */
+    @Test
+    public void testInvalidLimits() {
+
+        long[][] limits = {{SearchBudget.UNLIMITED, -1}, {SearchBudget.UNLIMITED, 0}, {-5, SearchBudget.UNLIMITED}};
+
+        for (long[] limit : limits) {
+            try {
+                new SearchBudget(limit[0], limit[1]);
+                fail("Limits " + limit[0] + ", " + limit[1] + " must be rejected.");
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+}